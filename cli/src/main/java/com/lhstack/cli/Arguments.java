@@ -0,0 +1,102 @@
+package com.lhstack.cli;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+/**
+ * 命令行参数,格式为 --name value 或者 --flag,同一个参数可以出现多次
+ */
+public class Arguments {
+
+    private final Map<String, List<String>> options = new LinkedHashMap<>();
+
+    public Arguments(String[] args, int offset) {
+        for (int i = offset; i < args.length; i++) {
+            String arg = args[i];
+            if (!arg.startsWith("--") || arg.length() == 2) {
+                throw new IllegalArgumentException("无法识别的参数: " + arg);
+            }
+            String name = arg.substring(2);
+            String value = "true";
+            int index = name.indexOf('=');
+            if (index > 0) {
+                value = name.substring(index + 1);
+                name = name.substring(0, index);
+            } else if (i + 1 < args.length && !args[i + 1].startsWith("--")) {
+                value = args[++i];
+            }
+            options.computeIfAbsent(name, k -> new ArrayList<>()).add(value);
+        }
+    }
+
+    public String get(String name) {
+        List<String> values = options.get(name);
+        return values == null ? null : values.get(values.size() - 1);
+    }
+
+    public String get(String name, String defaultValue) {
+        String value = get(name);
+        return value == null ? defaultValue : value;
+    }
+
+    public List<String> getAll(String name) {
+        return options.getOrDefault(name, Collections.emptyList());
+    }
+
+    public boolean has(String name) {
+        return options.containsKey(name);
+    }
+
+    public String require(String name) {
+        String value = get(name);
+        if (value == null) {
+            throw new IllegalArgumentException("缺少参数: --" + name);
+        }
+        return value;
+    }
+
+    public Path requirePath(String name) {
+        return Path.of(require(name));
+    }
+
+    /**
+     * 读取密码,支持 env:变量名 从环境变量读取,file:路径 从文件读取(去掉末尾换行),避免密码出现在进程列表中
+     *
+     * @param name 参数名称
+     * @return 密码,未指定时为null
+     */
+    public char[] getPassword(String name) throws Exception {
+        String value = get(name);
+        return value == null ? null : password(name, value);
+    }
+
+    /**
+     * 读取多次出现的密码参数,格式与 {@link #getPassword(String)} 相同
+     *
+     * @param name 参数名称
+     * @return 按出现顺序的密码,未指定时为空列表
+     */
+    public List<char[]> getPasswords(String name) throws Exception {
+        List<char[]> passwords = new ArrayList<>();
+        for (String value : getAll(name)) {
+            passwords.add(password(name, value));
+        }
+        return passwords;
+    }
+
+    private static char[] password(String name, String value) throws Exception {
+        if (value.startsWith("env:")) {
+            String env = System.getenv(value.substring(4));
+            if (env == null) {
+                throw new IllegalArgumentException(String.format("--%s 指定的环境变量 %s 不存在", name, value.substring(4)));
+            }
+            return env.toCharArray();
+        }
+        if (value.startsWith("file:")) {
+            return Files.readString(Path.of(value.substring(5)), StandardCharsets.UTF_8).stripTrailing().toCharArray();
+        }
+        return value.toCharArray();
+    }
+}
@@ -0,0 +1,23 @@
+package com.lhstack.cli;
+
+/**
+ * 子命令
+ */
+public interface Command {
+
+    String name();
+
+    /**
+     * @return 参数说明
+     */
+    String usage();
+
+    /**
+     * 执行命令
+     *
+     * @param arguments 参数
+     * @return 进程退出码
+     * @throws Exception 例外
+     */
+    int run(Arguments arguments) throws Exception;
+}
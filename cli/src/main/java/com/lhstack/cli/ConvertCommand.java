@@ -0,0 +1,77 @@
+package com.lhstack.cli;
+
+import com.lhstack.Item;
+import com.lhstack.utils.CertificateUtils;
+import com.lhstack.utils.KeyStoreUtils;
+import org.apache.commons.lang3.StringUtils;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.KeyStore;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * 证书格式转换
+ */
+class ConvertCommand implements Command {
+
+    @Override
+    public String name() {
+        return "convert";
+    }
+
+    @Override
+    public String usage() {
+        return "  convert  --in <文件> [--in-type jks|pkcs12|pem|der] [--in-password <密码>]\n" +
+                "           --out <文件> [--out-type pem|der|crt|jks|p12|pkcs8] [--out-password <密码>]\n" +
+                "           [--alias <名称>]... [--key-password <私钥密码>]\n" +
+                "           未指定类型时按扩展名推断,未指定alias时转换全部条目,pkcs8需要指定一个alias以及私钥密码";
+    }
+
+    @Override
+    public int run(Arguments arguments) throws Exception {
+        char[] inPassword = arguments.getPassword("in-password");
+        KeyStore keyStore = KeyStoreSource.load(arguments.requirePath("in"), arguments.get("in-type"), inPassword);
+        Path out = arguments.requirePath("out");
+        String outType = StringUtils.defaultIfBlank(arguments.get("out-type"), StringUtils.substringAfterLast(out.getFileName().toString(), "."));
+        if (StringUtils.isBlank(outType)) {
+            throw new IllegalArgumentException("无法推断输出格式,请指定 --out-type");
+        }
+        outType = outType.toLowerCase(Locale.ROOT);
+        if ("der".equals(outType)) {
+            outType = "crt";
+        }
+        List<Item> items = select(keyStore, arguments.getAll("alias"));
+        if (items.isEmpty()) {
+            throw new IllegalArgumentException("没有需要转换的条目");
+        }
+        char[] password;
+        if ("pkcs8".equals(outType)) {
+            //未指定私钥密码时与输入文件的密码相同
+            password = arguments.has("key-password") ? arguments.getPassword("key-password") : inPassword;
+        } else {
+            password = arguments.getPassword("out-password");
+        }
+        byte[] bytes = CertificateUtils.export(keyStore, items, outType, password);
+        Files.write(out, bytes);
+        System.err.printf("已转换%d个条目到 %s%n", items.size(), out);
+        return 0;
+    }
+
+    private static List<Item> select(KeyStore keyStore, List<String> aliases) throws Exception {
+        if (aliases.isEmpty()) {
+            return KeyStoreUtils.items(keyStore);
+        }
+        List<Item> items = new ArrayList<>(aliases.size());
+        for (String alias : aliases) {
+            String storedAlias = KeyStoreUtils.storedAlias(keyStore, alias);
+            if (!keyStore.containsAlias(storedAlias)) {
+                throw new IllegalArgumentException("条目不存在: " + alias);
+            }
+            items.add(KeyStoreUtils.item(keyStore, storedAlias));
+        }
+        return items;
+    }
+}
@@ -0,0 +1,31 @@
+package com.lhstack.cli;
+
+import com.lhstack.diff.KeyStoreDiff;
+
+/**
+ * 比较两个证书文件
+ */
+class DiffCommand implements Command {
+
+    @Override
+    public String name() {
+        return "diff";
+    }
+
+    @Override
+    public String usage() {
+        return "  diff     --left <文件> --right <文件> [--left-type <类型>] [--right-type <类型>] [--left-password <密码>] [--right-password <密码>]\n" +
+                "           按SHA-256指纹以及名称比较,输出新增(+),删除(-),重命名(~)以及替换(*)的条目,存在差异时退出码为1";
+    }
+
+    @Override
+    public int run(Arguments arguments) throws Exception {
+        char[] leftPassword = arguments.getPassword("left-password");
+        char[] rightPassword = arguments.getPassword("right-password");
+        KeyStoreDiff diff = KeyStoreDiff.compare(
+                () -> KeyStoreSource.load(arguments.requirePath("left"), arguments.get("left-type"), leftPassword),
+                () -> KeyStoreSource.load(arguments.requirePath("right"), arguments.get("right-type"), rightPassword));
+        System.out.print(diff.format());
+        return diff.isEmpty() ? 0 : 1;
+    }
+}
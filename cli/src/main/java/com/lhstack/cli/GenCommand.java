@@ -0,0 +1,94 @@
+package com.lhstack.cli;
+
+import com.lhstack.selfsign.KeyPairPool;
+import com.lhstack.selfsign.SelfSignCertificateEntity;
+import com.lhstack.selfsign.SelfSignCertificateHelper;
+import com.lhstack.selfsign.SelfSignConfig;
+import com.lhstack.selfsign.SelfSignConfigParser;
+import com.lhstack.utils.ParseCache;
+import com.lhstack.utils.PemUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermission;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.security.PrivateKey;
+import java.security.cert.X509Certificate;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 按yaml配置批量签发证书
+ */
+class GenCommand implements Command {
+
+    @Override
+    public String name() {
+        return "gen";
+    }
+
+    @Override
+    public String usage() {
+        return "  gen      --config <yaml配置> [--out <输出目录>] [--ca <ca.pem> --ca-key <ca-key.pem>]\n" +
+                "           未指定CA时按配置生成CA并输出ca.pem,ca-key.pem,配置中的certificates(没有时为certificate)\n" +
+                "           并行签发,每个证书输出到 <输出目录>/<CN>/certificate.pem,certificate-key.pem";
+    }
+
+    @Override
+    public int run(Arguments arguments) throws Exception {
+        //命令执行完就退出,后台预生成的密钥对用不上
+        KeyPairPool.getInstance().setCapacity(0);
+        SelfSignConfig config = SelfSignConfigParser.parse(Files.readString(arguments.requirePath("config"), StandardCharsets.UTF_8));
+        Path out = Path.of(arguments.get("out", "."));
+        Files.createDirectories(out);
+        X509Certificate caCertificate;
+        PrivateKey caPrivateKey;
+        if (arguments.has("ca") || arguments.has("ca-key")) {
+            caCertificate = (X509Certificate) PemUtils.readCertificate(Files.readString(arguments.requirePath("ca"), StandardCharsets.UTF_8));
+            caPrivateKey = PemUtils.readPrivateKey(Files.readString(arguments.requirePath("ca-key"), StandardCharsets.UTF_8));
+            if (caPrivateKey == null) {
+                throw new IllegalArgumentException("不支持的CA私钥格式");
+            }
+        } else {
+            SelfSignCertificateEntity ca = SelfSignCertificateHelper.genCaCertificate(config);
+            caCertificate = ca.getCa();
+            caPrivateKey = ca.getCaKey();
+            write(out.resolve("ca.pem"), PemUtils.toString(caCertificate));
+            writePrivateKey(out.resolve("ca-key.pem"), PemUtils.toString(caPrivateKey));
+        }
+        List<SelfSignConfig.Certificate> certificates = config.resolveCertificates();
+        if (certificates.isEmpty() && config.getCertificate() != null) {
+            certificates = Collections.singletonList(config.getCertificate());
+        }
+        List<String> names = SelfSignCertificateHelper.entryNames(certificates);
+        long start = System.nanoTime();
+        SelfSignCertificateHelper.genSelfCertificatesFromCa(config, certificates, caCertificate, caPrivateKey, (index, entity) -> {
+            Path directory = Files.createDirectories(out.resolve(names.get(index)));
+            write(directory.resolve("certificate.pem"), PemUtils.toString(entity.getCertificate()));
+            writePrivateKey(directory.resolve("certificate-key.pem"), PemUtils.toString(entity.getCertificateKey()));
+        });
+        System.err.printf("已签发%d个证书,耗时%dms,%s,%s%n", certificates.size(), (System.nanoTime() - start) / 1000000, KeyPairPool.getInstance().getStatistics(), ParseCache.getInstance().getStatistics());
+        return 0;
+    }
+
+    private static void write(Path path, String content) throws Exception {
+        Files.writeString(path, content, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * 写入私钥,支持POSIX权限的文件系统上先把文件权限设置为只有所有者可读写,再写入内容
+     */
+    private static void writePrivateKey(Path path, String content) throws Exception {
+        if (path.getFileSystem().supportedFileAttributeViews().contains("posix")) {
+            Set<PosixFilePermission> ownerOnly = PosixFilePermissions.fromString("rw-------");
+            if (Files.exists(path)) {
+                Files.setPosixFilePermissions(path, ownerOnly);
+            } else {
+                Files.createFile(path, PosixFilePermissions.asFileAttribute(ownerOnly));
+            }
+        }
+        write(path, content);
+    }
+}
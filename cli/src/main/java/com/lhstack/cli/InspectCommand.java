@@ -0,0 +1,87 @@
+package com.lhstack.cli;
+
+import com.lhstack.Item;
+import com.lhstack.index.ExpiryIndex;
+import com.lhstack.index.SearchIndex;
+import com.lhstack.store.OpenCost;
+import com.lhstack.utils.KeyStoreUtils;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.KeyStore;
+import java.security.cert.Certificate;
+import java.security.cert.X509Certificate;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * 查看证书文件中的条目
+ */
+class InspectCommand implements Command {
+
+    private static final int OPEN_COST_ROUNDS = 5;
+
+    @Override
+    public String name() {
+        return "inspect";
+    }
+
+    @Override
+    public String usage() {
+        return "  inspect  --in <文件> [--type jks|pkcs12|pem|der] [--password <密码>] [--expiring <天数>] [--search <关键字>] [--open-cost]\n" +
+                "           每个条目输出一行: 名称 类型 算法 生效时间 过期时间 SHA-256指纹 subject,以tab分隔\n" +
+                "           指定--expiring时只输出已过期以及指定天数内过期的条目,按过期时间升序\n" +
+                "           指定--search时只输出名称,subject,issuer,SAN,序列号或者指纹中有以关键字开头的词的条目\n" +
+                "           指定--open-cost时测量读取keystore以及使用存储密码解密全部私钥的耗时";
+    }
+
+    @Override
+    public int run(Arguments arguments) throws Exception {
+        KeyStore keyStore = KeyStoreSource.load(arguments.requirePath("in"), arguments.get("type"), arguments.getPassword("password"));
+        Collection<Item> items = KeyStoreUtils.items(keyStore);
+        if (arguments.has("expiring")) {
+            ExpiryIndex expiryIndex = new ExpiryIndex();
+            items.forEach(expiryIndex::add);
+            items = expiryIndex.expiringWithin(System.currentTimeMillis(), Integer.parseInt(arguments.require("expiring")));
+        }
+        if (arguments.has("search")) {
+            SearchIndex searchIndex = new SearchIndex();
+            items.forEach(searchIndex::add);
+            Set<Item> matched = searchIndex.search(arguments.require("search"));
+            if (matched != null) {
+                items = items.stream().filter(matched::contains).collect(Collectors.toList());
+            }
+        }
+        StringBuilder sb = new StringBuilder();
+        for (Item item : items) {
+            sb.append(item.getName()).append('\t')
+                    .append(keyStore.isKeyEntry(item.getName()) ? "PrivateKeyEntry" : item.getType()).append('\t')
+                    .append(item.getAlgorithm() == null ? "-" : item.getAlgorithm()).append('\t');
+            Certificate certificate = item.getCertificate();
+            if (certificate instanceof X509Certificate) {
+                X509Certificate x509Certificate = (X509Certificate) certificate;
+                sb.append(Instant.ofEpochMilli(x509Certificate.getNotBefore().getTime())).append('\t')
+                        .append(Instant.ofEpochMilli(x509Certificate.getNotAfter().getTime())).append('\t')
+                        .append(item.getFingerprintHex()).append('\t')
+                        .append(x509Certificate.getSubjectX500Principal().getName());
+            } else {
+                sb.append("-\t-\t").append(item.getFingerprintHex()).append("\t-");
+            }
+            sb.append('\n');
+        }
+        System.out.print(sb);
+        System.err.printf("共%d个条目%n", items.size());
+        if (arguments.has("open-cost")) {
+            Path path = arguments.requirePath("in");
+            String type = KeyStoreUtils.type(path.getFileName().toString(), arguments.get("type"));
+            if ("bundle".equals(type)) {
+                throw new IllegalArgumentException("--open-cost 只支持keystore");
+            }
+            char[] password = arguments.getPassword("password");
+            System.err.println(OpenCost.measure(Files.readAllBytes(path), type, password, password, OPEN_COST_ROUNDS));
+        }
+        return 0;
+    }
+}
@@ -0,0 +1,20 @@
+package com.lhstack.cli;
+
+import com.lhstack.utils.KeyStoreUtils;
+
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.KeyStore;
+
+/**
+ * 读取命令行输入的证书文件,keystore直接读取,PEM/DER证书包读取到内存中的PKCS12 keystore
+ */
+class KeyStoreSource {
+
+    static KeyStore load(Path path, String type, char[] password) throws Exception {
+        try (InputStream inputStream = Files.newInputStream(path)) {
+            return KeyStoreUtils.load(inputStream, path.getFileName().toString(), type, password);
+        }
+    }
+}
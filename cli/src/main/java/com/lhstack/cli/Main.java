@@ -0,0 +1,70 @@
+package com.lhstack.cli;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 命令行入口,不依赖IDE,用于在CI中批量签发,转换以及查看证书
+ */
+public class Main {
+
+    private static final Map<String, Command> COMMANDS = new LinkedHashMap<>();
+
+    static {
+        register(new GenCommand());
+        register(new ConvertCommand());
+        register(new InspectCommand());
+        register(new ValidateCommand());
+        register(new DiffCommand());
+        register(new MergeCommand());
+        register(new ScanCommand());
+    }
+
+    private static void register(Command command) {
+        COMMANDS.put(command.name(), command);
+    }
+
+    public static void main(String[] args) {
+        System.exit(run(args));
+    }
+
+    static int run(String[] args) {
+        if (args.length == 0 || "help".equals(args[0]) || "--help".equals(args[0])) {
+            printUsage();
+            return args.length == 0 ? 1 : 0;
+        }
+        Command command = COMMANDS.get(args[0]);
+        if (command == null) {
+            System.err.println("未知的命令: " + args[0]);
+            printUsage();
+            return 1;
+        }
+        try {
+            Arguments arguments = new Arguments(args, 1);
+            if (arguments.has("help")) {
+                System.out.println(command.usage());
+                return 0;
+            }
+            return command.run(arguments);
+        } catch (IllegalArgumentException e) {
+            System.err.println("错误: " + e.getMessage());
+            System.err.println(command.usage());
+            return 1;
+        } catch (Throwable e) {
+            System.err.println("错误: " + e.getMessage());
+            if (System.getenv("JTOOLS_CLI_DEBUG") != null) {
+                e.printStackTrace();
+            }
+            return 2;
+        }
+    }
+
+    private static void printUsage() {
+        StringBuilder sb = new StringBuilder("用法: jtools-certificate <命令> [参数]\n\n命令:\n");
+        for (Command command : COMMANDS.values()) {
+            sb.append(command.usage()).append('\n');
+        }
+        sb.append("密码参数支持 env:变量名 以及 file:文件路径 两种形式,设置环境变量 JTOOLS_CLI_DEBUG 输出异常堆栈");
+        System.out.println(sb);
+    }
+}
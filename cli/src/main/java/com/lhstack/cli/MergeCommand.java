@@ -0,0 +1,70 @@
+package com.lhstack.cli;
+
+import com.lhstack.merge.KeyStoreMerger;
+import com.lhstack.store.KeyStoreWriter;
+import com.lhstack.utils.KeyStoreUtils;
+
+import java.nio.file.Path;
+import java.security.KeyStore;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * 合并多个证书文件,按SHA-256指纹去重
+ */
+class MergeCommand implements Command {
+
+    @Override
+    public String name() {
+        return "merge";
+    }
+
+    @Override
+    public String usage() {
+        return "  merge    --in <文件>... [--in-type <类型>] [--password <密码>]... --out <文件> [--out-type jks|jceks|pkcs12|bcfks] [--out-password <密码>]\n" +
+                "           [--policy skip|overwrite|rename]\n" +
+                "           指纹相同的证书只保留第一个,名称冲突时默认重命名(追加 -2,-3 后缀),--password 指定一次时所有输入共用,否则按 --in 的顺序对应";
+    }
+
+    @Override
+    public int run(Arguments arguments) throws Exception {
+        List<String> inputs = arguments.getAll("in");
+        if (inputs.isEmpty()) {
+            throw new IllegalArgumentException("缺少参数: --in");
+        }
+        List<char[]> passwords = arguments.getPasswords("password");
+        if (passwords.size() > 1 && passwords.size() != inputs.size()) {
+            throw new IllegalArgumentException(String.format("--password 指定了%d次,与 --in 的数量%d不一致", passwords.size(), inputs.size()));
+        }
+        Path out = arguments.requirePath("out");
+        String outType = KeyStoreUtils.type(out.getFileName().toString(), arguments.get("out-type"));
+        if (outType.isEmpty() || "bundle".equals(outType)) {
+            throw new IllegalArgumentException("输出格式只支持jks,jceks,pkcs12以及bcfks,请指定 --out-type");
+        }
+        KeyStoreMerger.ConflictPolicy policy;
+        try {
+            policy = KeyStoreMerger.ConflictPolicy.valueOf(arguments.get("policy", "rename").toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("无法识别的冲突处理方式: " + arguments.get("policy"));
+        }
+        String inType = arguments.get("in-type");
+        List<KeyStoreMerger.Source> sources = new ArrayList<>(inputs.size());
+        for (int i = 0; i < inputs.size(); i++) {
+            Path path = Path.of(inputs.get(i));
+            char[] password = passwords.isEmpty() ? null : passwords.get(passwords.size() == 1 ? 0 : i);
+            sources.add(new KeyStoreMerger.Source(path.toString(), () -> KeyStoreSource.load(path, inType, password), password));
+        }
+        char[] outPassword = arguments.getPassword("out-password");
+        if (outPassword == null) {
+            outPassword = new char[0];
+        }
+        KeyStore keyStore = KeyStoreUtils.load(null, outType, null);
+        KeyStoreMerger.Report report = new KeyStoreMerger(keyStore, outPassword, policy).merge(sources);
+        char[] password = outPassword;
+        KeyStoreWriter.write(out, outputStream -> keyStore.store(outputStream, password));
+        System.out.print(report.format());
+        System.err.printf("已合并%d个条目到 %s%n", report.getWritten().size(), out);
+        return 0;
+    }
+}
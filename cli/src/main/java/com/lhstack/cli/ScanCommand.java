@@ -0,0 +1,71 @@
+package com.lhstack.cli;
+
+import com.lhstack.index.ExpiryIndex;
+import com.lhstack.inventory.CertificateInventory;
+import com.lhstack.inventory.CertificateScanner;
+
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * 扫描目录中的所有证书以及keystore
+ */
+class ScanCommand implements Command {
+
+    @Override
+    public String name() {
+        return "scan";
+    }
+
+    @Override
+    public String usage() {
+        return "  scan     --dir <目录> [--index <清单文件>] [--password <密码>]... [--expiring <天数>]\n" +
+                "           按扩展名查找证书以及keystore并按文件头判断格式,每个证书输出一行: 路径 名称 过期时间 SHA-256指纹 subject issuer,以tab分隔\n" +
+                "           指定--index时读取上一次的清单,修改时间以及大小没有变化的文件不再读取,扫描后写回清单\n" +
+                "           --password 可以指定多次,读取keystore时依次尝试,默认尝试空密码以及changeit\n" +
+                "           指定--expiring时只输出已过期以及指定天数内过期的证书,按过期时间升序";
+    }
+
+    @Override
+    public int run(Arguments arguments) throws Exception {
+        Path root = arguments.requirePath("dir");
+        Path index = arguments.has("index") ? arguments.requirePath("index") : null;
+        CertificateScanner scanner = new CertificateScanner();
+        List<char[]> passwords = arguments.getPasswords("password");
+        if (!passwords.isEmpty()) {
+            scanner.setPasswords(passwords);
+        }
+        CertificateScanner.Result result = scanner.scan(root, index == null ? null : CertificateInventory.read(index));
+        if (index != null) {
+            result.getInventory().write(index);
+        }
+        List<CertificateInventory.Entry> entries = result.getInventory().getEntries();
+        if (arguments.has("expiring")) {
+            long deadline = System.currentTimeMillis() + Integer.parseInt(arguments.require("expiring")) * ExpiryIndex.DAY_MILLIS;
+            entries = entries.stream()
+                    .filter(entry -> entry.hasValidity() && entry.getNotAfter() < deadline)
+                    .sorted(Comparator.comparingLong(CertificateInventory.Entry::getNotAfter))
+                    .collect(Collectors.toList());
+        }
+        StringBuilder sb = new StringBuilder();
+        for (CertificateInventory.Entry entry : entries) {
+            sb.append(entry.getPath()).append('\t')
+                    .append(entry.getAlias()).append('\t')
+                    .append(entry.hasValidity() ? Instant.ofEpochMilli(entry.getNotAfter()).toString() : "-").append('\t')
+                    .append(entry.getFingerprintHex()).append('\t')
+                    .append(entry.getSubject()).append('\t')
+                    .append(entry.getIssuer()).append('\n');
+        }
+        System.out.print(sb);
+        for (CertificateInventory.FileRecord record : result.getInventory().getFiles()) {
+            if (record.getError() != null) {
+                System.err.printf("读取失败: %s %s %s%n", record.getPath(), record.getFormat(), record.getError());
+            }
+        }
+        System.err.println(result);
+        return 0;
+    }
+}
@@ -0,0 +1,66 @@
+package com.lhstack.cli;
+
+import com.lhstack.Item;
+import com.lhstack.index.ChainIndex;
+import com.lhstack.utils.KeyStoreUtils;
+import com.lhstack.validation.CertificateValidator;
+import com.lhstack.validation.ValidationResult;
+
+import java.security.KeyStore;
+import java.security.cert.X509Certificate;
+import java.util.EnumMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 校验证书文件中的所有条目
+ */
+class ValidateCommand implements Command {
+
+    @Override
+    public String name() {
+        return "validate";
+    }
+
+    @Override
+    public String usage() {
+        return "  validate --in <文件> [--type jks|pkcs12|pem|der] [--password <密码>] [--all]\n" +
+                "           校验有效期,证书链,签名以及弱算法,默认只输出有问题的条目: 名称 状态 问题,以tab分隔\n" +
+                "           存在无效条目时退出码为1";
+    }
+
+    @Override
+    public int run(Arguments arguments) throws Exception {
+        KeyStore keyStore = KeyStoreSource.load(arguments.requirePath("in"), arguments.get("type"), arguments.getPassword("password"));
+        List<Item> items = KeyStoreUtils.items(keyStore);
+        ChainIndex chainIndex = new ChainIndex();
+        items.forEach(chainIndex::add);
+        Map<Item, List<X509Certificate>> chains = new IdentityHashMap<>(items.size());
+        for (Item item : items) {
+            List<X509Certificate> chain = CertificateValidator.chain(keyStore, chainIndex, item);
+            if (!chain.isEmpty()) {
+                chains.put(item, chain);
+            }
+        }
+        boolean all = arguments.has("all");
+        Map<ValidationResult.Status, Integer> counts = new EnumMap<>(ValidationResult.Status.class);
+        CertificateValidator validator = new CertificateValidator(System.currentTimeMillis());
+        StringBuilder sb = new StringBuilder();
+        validator.validateAll(items, chains::get, (item, result) -> {
+            counts.merge(result.getStatus(), 1, Integer::sum);
+            if (all || !result.isValid()) {
+                sb.append(item.getName()).append('\t')
+                        .append(result.getStatus()).append('\t')
+                        .append(String.join("; ", result.getProblems())).append('\n');
+            }
+        });
+        System.out.print(sb);
+        StringBuilder summary = new StringBuilder();
+        for (ValidationResult.Status status : ValidationResult.Status.values()) {
+            summary.append(status.getDescription()).append(": ").append(counts.getOrDefault(status, 0)).append(", ");
+        }
+        System.err.println(summary.append(validator.getStatistics()));
+        return counts.getOrDefault(ValidationResult.Status.VALID, 0) == chains.size() ? 0 : 1;
+    }
+}
@@ -0,0 +1,127 @@
+package com.lhstack;
+
+import org.bouncycastle.util.encoders.Hex;
+
+import java.security.cert.CertificateParsingException;
+import java.security.cert.X509Certificate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * 证书摘要,从X509Certificate中提取的常用字段,通过ParseCache按指纹缓存
+ */
+public class CertificateSummary {
+
+    private final byte[] fingerprint;
+
+    private final String subject;
+
+    private final String issuer;
+
+    private final String serialNumber;
+
+    private final long notBefore;
+
+    private final long notAfter;
+
+    private final String publicKeyAlgorithm;
+
+    private final String signatureAlgorithm;
+
+    private final List<String> subjectAlternativeNames;
+
+    private final X509Certificate certificate;
+
+    /**
+     * X509Certificate#toString 比较耗时,第一次查看详情时生成
+     */
+    private volatile String detail;
+
+    public CertificateSummary(X509Certificate certificate, byte[] fingerprint) {
+        this.certificate = certificate;
+        this.fingerprint = fingerprint;
+        this.subject = certificate.getSubjectX500Principal().getName();
+        this.issuer = certificate.getIssuerX500Principal().getName();
+        this.serialNumber = certificate.getSerialNumber().toString(16).toUpperCase(Locale.ROOT);
+        this.notBefore = certificate.getNotBefore().getTime();
+        this.notAfter = certificate.getNotAfter().getTime();
+        this.publicKeyAlgorithm = certificate.getPublicKey().getAlgorithm().intern();
+        this.signatureAlgorithm = certificate.getSigAlgName().intern();
+        this.subjectAlternativeNames = subjectAlternativeNames(certificate);
+    }
+
+    private static List<String> subjectAlternativeNames(X509Certificate certificate) {
+        try {
+            Collection<List<?>> names = certificate.getSubjectAlternativeNames();
+            if (names == null) {
+                return Collections.emptyList();
+            }
+            List<String> result = new ArrayList<>(names.size());
+            for (List<?> name : names) {
+                //[类型, 值],dNSName,iPAddress等为字符串,其他类型为DER编码
+                if (name.size() > 1 && name.get(1) instanceof String) {
+                    result.add((String) name.get(1));
+                }
+            }
+            return Collections.unmodifiableList(result);
+        } catch (CertificateParsingException e) {
+            return Collections.emptyList();
+        }
+    }
+
+    public X509Certificate getCertificate() {
+        return certificate;
+    }
+
+    public byte[] getFingerprint() {
+        return fingerprint;
+    }
+
+    public String getFingerprintHex() {
+        return Hex.toHexString(fingerprint).toUpperCase(Locale.ROOT);
+    }
+
+    public String getSubject() {
+        return subject;
+    }
+
+    public String getIssuer() {
+        return issuer;
+    }
+
+    public String getSerialNumber() {
+        return serialNumber;
+    }
+
+    public long getNotBefore() {
+        return notBefore;
+    }
+
+    public long getNotAfter() {
+        return notAfter;
+    }
+
+    public String getPublicKeyAlgorithm() {
+        return publicKeyAlgorithm;
+    }
+
+    public String getSignatureAlgorithm() {
+        return signatureAlgorithm;
+    }
+
+    public List<String> getSubjectAlternativeNames() {
+        return subjectAlternativeNames;
+    }
+
+    public String getDetail() {
+        String detail = this.detail;
+        if (detail == null) {
+            detail = certificate.toString();
+            this.detail = detail;
+        }
+        return detail;
+    }
+}
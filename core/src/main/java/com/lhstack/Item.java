@@ -0,0 +1,156 @@
+package com.lhstack;
+
+import com.lhstack.index.ExpiryIndex;
+import org.bouncycastle.util.encoders.Hex;
+
+import java.lang.ref.SoftReference;
+import java.security.cert.Certificate;
+import java.util.Locale;
+import java.util.function.Function;
+
+/**
+ * 证书表格中的一行
+ * 只保存名称,指纹,有效期以及类型,算法等摘要信息,完整的证书在需要时通过loader从keystore中读取,并以软引用缓存
+ */
+public class Item {
+
+    private Integer id;
+
+    private String name;
+
+    private String type;
+
+    private String algorithm;
+
+    /**
+     * 证书DER编码的SHA-256摘要
+     */
+    private byte[] fingerprint;
+
+    /**
+     * 生效时间戳,没有有效期时为Long.MIN_VALUE
+     */
+    private long notBefore = Long.MIN_VALUE;
+
+    /**
+     * 过期时间戳,没有有效期时为Long.MAX_VALUE
+     */
+    private long notAfter = Long.MAX_VALUE;
+
+    /**
+     * 按名称读取证书,同一个keystore的所有条目共用一个
+     */
+    private Function<String, Certificate> certificateLoader;
+
+    private SoftReference<Certificate> certificateReference;
+
+    /**
+     * 直接设置证书,没有loader时内存不足后无法重新读取,只适用于临时构建的条目
+     */
+    public Item setCertificate(Certificate certificate) {
+        this.certificateReference = certificate == null ? null : new SoftReference<>(certificate);
+        return this;
+    }
+
+    public Item setCertificateLoader(Function<String, Certificate> certificateLoader) {
+        this.certificateLoader = certificateLoader;
+        return this;
+    }
+
+    public Certificate getCertificate() {
+        SoftReference<Certificate> reference = this.certificateReference;
+        Certificate certificate = reference == null ? null : reference.get();
+        if (certificate == null && certificateLoader != null) {
+            certificate = certificateLoader.apply(name);
+            if (certificate != null) {
+                this.certificateReference = new SoftReference<>(certificate);
+            }
+        }
+        return certificate;
+    }
+
+    public String getAlgorithm() {
+        return algorithm;
+    }
+
+    public Item setAlgorithm(String algorithm) {
+        this.algorithm = algorithm == null ? null : algorithm.intern();
+        return this;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public Item setType(String type) {
+        this.type = type == null ? null : type.intern();
+        return this;
+    }
+
+    public byte[] getFingerprint() {
+        return fingerprint;
+    }
+
+    public Item setFingerprint(byte[] fingerprint) {
+        this.fingerprint = fingerprint;
+        return this;
+    }
+
+    /**
+     * @return 十六进制大写的SHA-256指纹,SecretKey条目没有指纹
+     */
+    public String getFingerprintHex() {
+        return fingerprint == null ? "" : Hex.toHexString(fingerprint).toUpperCase(Locale.ROOT);
+    }
+
+    public long getNotBefore() {
+        return notBefore;
+    }
+
+    public Item setNotBefore(long notBefore) {
+        this.notBefore = notBefore;
+        return this;
+    }
+
+    public long getNotAfter() {
+        return notAfter;
+    }
+
+    public Item setNotAfter(long notAfter) {
+        this.notAfter = notAfter;
+        return this;
+    }
+
+    /**
+     * @return 是否有有效期,只有X509证书有
+     */
+    public boolean hasValidity() {
+        return notAfter != Long.MAX_VALUE;
+    }
+
+    /**
+     * @param now 当前时间戳
+     * @return 剩余天数,不足一天按0天计算,已过期时为负数
+     */
+    public long getDaysLeft(long now) {
+        return Math.floorDiv(notAfter - now, ExpiryIndex.DAY_MILLIS);
+    }
+
+    public Integer getId() {
+        return id;
+    }
+
+    public Item setId(Integer id) {
+        this.id = id;
+        return this;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Item setName(String name) {
+        this.name = name;
+        return this;
+    }
+}
@@ -0,0 +1,269 @@
+package com.lhstack.diff;
+
+import com.lhstack.utils.KeyStoreUtils;
+import org.apache.commons.collections.EnumerationUtils;
+import org.bouncycastle.util.encoders.Hex;
+
+import java.nio.ByteBuffer;
+import java.security.KeyStore;
+import java.security.cert.Certificate;
+import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * 两个keystore的差异
+ * 每个keystore读取后立即转换为 名称 -> SHA-256指纹 的快照,keystore随即可以回收,比较只使用快照,结果中也不保留证书
+ * 名称相同指纹不同为替换,名称不同指纹相同为重命名,其余为新增或者删除
+ */
+public class KeyStoreDiff {
+
+    /**
+     * SecretKey条目没有证书,以空指纹表示,只按名称比较
+     */
+    private static final ByteBuffer NO_FINGERPRINT = ByteBuffer.allocate(0);
+
+    public enum Kind {
+        ADDED("新增", "+"),
+        REMOVED("删除", "-"),
+        RENAMED("重命名", "~"),
+        REPLACED("替换", "*");
+
+        private final String description;
+
+        private final String symbol;
+
+        Kind(String description, String symbol) {
+            this.description = description;
+            this.symbol = symbol;
+        }
+
+        public String getDescription() {
+            return description;
+        }
+
+        public String getSymbol() {
+            return symbol;
+        }
+    }
+
+    /**
+     * 单个差异,新增时left为null,删除时right为null
+     */
+    public static class Change {
+
+        private final Kind kind;
+
+        private final String leftAlias;
+
+        private final String rightAlias;
+
+        private final ByteBuffer leftFingerprint;
+
+        private final ByteBuffer rightFingerprint;
+
+        Change(Kind kind, String leftAlias, ByteBuffer leftFingerprint, String rightAlias, ByteBuffer rightFingerprint) {
+            this.kind = kind;
+            this.leftAlias = leftAlias;
+            this.leftFingerprint = leftFingerprint;
+            this.rightAlias = rightAlias;
+            this.rightFingerprint = rightFingerprint;
+        }
+
+        public Kind getKind() {
+            return kind;
+        }
+
+        public String getLeftAlias() {
+            return leftAlias;
+        }
+
+        public String getRightAlias() {
+            return rightAlias;
+        }
+
+        public String getLeftFingerprintHex() {
+            return hex(leftFingerprint);
+        }
+
+        public String getRightFingerprintHex() {
+            return hex(rightFingerprint);
+        }
+
+        /**
+         * @return 用于排序以及显示的名称,新增时为右侧名称,否则为左侧名称
+         */
+        public String getAlias() {
+            return leftAlias != null ? leftAlias : rightAlias;
+        }
+
+        @Override
+        public String toString() {
+            switch (kind) {
+                case ADDED:
+                    return String.format("%s %s\t%s", kind.symbol, rightAlias, getRightFingerprintHex());
+                case REMOVED:
+                    return String.format("%s %s\t%s", kind.symbol, leftAlias, getLeftFingerprintHex());
+                case RENAMED:
+                    return String.format("%s %s -> %s\t%s", kind.symbol, leftAlias, rightAlias, getLeftFingerprintHex());
+                default:
+                    return String.format("%s %s\t%s -> %s", kind.symbol, leftAlias, getLeftFingerprintHex(), getRightFingerprintHex());
+            }
+        }
+    }
+
+    private final List<Change> changes;
+
+    private final int leftSize;
+
+    private final int rightSize;
+
+    private final int unchanged;
+
+    private KeyStoreDiff(List<Change> changes, int leftSize, int rightSize, int unchanged) {
+        this.changes = changes;
+        this.leftSize = leftSize;
+        this.rightSize = rightSize;
+        this.unchanged = unchanged;
+    }
+
+    /**
+     * 并行读取两个keystore并比较
+     *
+     * @param left  原keystore
+     * @param right 新keystore
+     * @return {@link KeyStoreDiff}
+     * @throws Exception 读取失败
+     */
+    public static KeyStoreDiff compare(Callable<KeyStore> left, Callable<KeyStore> right) throws Exception {
+        ForkJoinPool pool = new ForkJoinPool(2);
+        try {
+            Future<Map<String, ByteBuffer>> leftSnapshot = pool.submit(() -> snapshot(left.call()));
+            Future<Map<String, ByteBuffer>> rightSnapshot = pool.submit(() -> snapshot(right.call()));
+            return compare(get(leftSnapshot, "原证书"), get(rightSnapshot, "新证书"));
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * @param keyStore keyStore
+     * @return 名称 -> SHA-256指纹,按名称排序
+     * @throws Exception 例外
+     */
+    public static Map<String, ByteBuffer> snapshot(KeyStore keyStore) throws Exception {
+        Map<String, ByteBuffer> snapshot = new TreeMap<>();
+        List<String> aliases = EnumerationUtils.toList(keyStore.aliases());
+        for (String alias : aliases) {
+            Certificate certificate = keyStore.getCertificate(alias);
+            snapshot.put(alias, certificate == null ? NO_FINGERPRINT : ByteBuffer.wrap(KeyStoreUtils.fingerprint(certificate)));
+        }
+        return snapshot;
+    }
+
+    /**
+     * 比较两个快照
+     *
+     * @param left  原keystore的快照
+     * @param right 新keystore的快照
+     * @return {@link KeyStoreDiff}
+     */
+    public static KeyStoreDiff compare(Map<String, ByteBuffer> left, Map<String, ByteBuffer> right) {
+        List<Change> changes = new ArrayList<>();
+        List<String> removed = new ArrayList<>();
+        int unchanged = 0;
+        for (Map.Entry<String, ByteBuffer> entry : left.entrySet()) {
+            ByteBuffer fingerprint = right.get(entry.getKey());
+            if (fingerprint == null) {
+                removed.add(entry.getKey());
+            } else if (fingerprint.equals(entry.getValue())) {
+                unchanged++;
+            } else {
+                changes.add(new Change(Kind.REPLACED, entry.getKey(), entry.getValue(), entry.getKey(), fingerprint));
+            }
+        }
+        //只在新增的条目中按指纹查找重命名
+        Map<ByteBuffer, Deque<String>> added = new LinkedHashMap<>();
+        List<String> addedWithoutFingerprint = new ArrayList<>();
+        for (Map.Entry<String, ByteBuffer> entry : right.entrySet()) {
+            if (!left.containsKey(entry.getKey())) {
+                if (!entry.getValue().hasRemaining()) {
+                    addedWithoutFingerprint.add(entry.getKey());
+                } else {
+                    added.computeIfAbsent(entry.getValue(), key -> new ArrayDeque<>(1)).add(entry.getKey());
+                }
+            }
+        }
+        for (String alias : removed) {
+            ByteBuffer fingerprint = left.get(alias);
+            Deque<String> renamed = fingerprint.hasRemaining() ? added.get(fingerprint) : null;
+            if (renamed != null && !renamed.isEmpty()) {
+                changes.add(new Change(Kind.RENAMED, alias, fingerprint, renamed.poll(), fingerprint));
+            } else {
+                changes.add(new Change(Kind.REMOVED, alias, fingerprint, null, null));
+            }
+        }
+        for (Map.Entry<ByteBuffer, Deque<String>> entry : added.entrySet()) {
+            for (String alias : entry.getValue()) {
+                changes.add(new Change(Kind.ADDED, null, null, alias, entry.getKey()));
+            }
+        }
+        for (String alias : addedWithoutFingerprint) {
+            changes.add(new Change(Kind.ADDED, null, null, alias, NO_FINGERPRINT));
+        }
+        changes.sort(Comparator.comparing(Change::getKind).thenComparing(Change::getAlias));
+        return new KeyStoreDiff(changes, left.size(), right.size(), unchanged);
+    }
+
+    public List<Change> getChanges() {
+        return Collections.unmodifiableList(changes);
+    }
+
+    public boolean isEmpty() {
+        return changes.isEmpty();
+    }
+
+    public int count(Kind kind) {
+        int count = 0;
+        for (Change change : changes) {
+            if (change.kind == kind) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * @return 汇总以及每个差异一行的文本报告
+     */
+    public String format() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("原证书: %d个条目, 新证书: %d个条目, 相同: %d", leftSize, rightSize, unchanged));
+        for (Kind kind : Kind.values()) {
+            sb.append(", ").append(kind.description).append(": ").append(count(kind));
+        }
+        sb.append('\n');
+        for (Change change : changes) {
+            sb.append(change).append('\n');
+        }
+        return sb.toString();
+    }
+
+    private static Map<String, ByteBuffer> get(Future<Map<String, ByteBuffer>> future, String name) throws Exception {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            throw new Exception(String.format("%s读取失败: %s", name, cause.getMessage()), cause);
+        }
+    }
+
+    private static String hex(ByteBuffer fingerprint) {
+        if (fingerprint == null || !fingerprint.hasRemaining()) {
+            return "-";
+        }
+        return Hex.toHexString(fingerprint.array()).toUpperCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,259 @@
+package com.lhstack.export;
+
+import com.lhstack.store.KeyStoreOptions;
+import org.bouncycastle.jce.provider.BouncyCastleProvider;
+import org.bouncycastle.openssl.jcajce.JcaPEMWriter;
+import org.bouncycastle.openssl.jcajce.JcaPKCS8Generator;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.security.KeyStore;
+import java.security.PrivateKey;
+import java.security.Provider;
+import java.security.Security;
+import java.security.cert.Certificate;
+import java.security.cert.X509Certificate;
+import java.util.*;
+import java.util.concurrent.CancellationException;
+import java.util.function.BooleanSupplier;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * 把CA以及CA签发的证书按多种格式导出到一个zip中
+ * 所有格式都由已经解析好的证书和私钥生成,每个条目直接写入zip,keystore只在内存中构建一次,按每种保存格式分别写出
+ * PEM格式的文件名与之前的导出保持一致,其他格式放在各自的目录中,keystore的密码随机生成并写入密码.txt
+ */
+public class CertificateExporter {
+
+    static {
+        Provider provider = Security.getProvider(BouncyCastleProvider.PROVIDER_NAME);
+        if (provider == null) {
+            Security.addProvider(new BouncyCastleProvider());
+        }
+    }
+
+    public enum Format {
+        /**
+         * ca.pem,ca-key.pem,certificate.pem,certificate-key.pem
+         */
+        PEM("PEM", 4),
+        /**
+         * der/ca.der,der/ca-key.der,私钥为PKCS#8编码
+         */
+        DER("DER", 4),
+        /**
+         * pkcs8/ca-key.pem,pkcs8/certificate-key.pem
+         */
+        PKCS8("PKCS#8", 2),
+        /**
+         * fullchain.pem,证书在前,CA在后
+         */
+        FULLCHAIN("完整证书链", 1);
+
+        private final String name;
+
+        /**
+         * 导出的条目数量
+         */
+        private final int entries;
+
+        Format(String name, int entries) {
+            this.name = name;
+            this.entries = entries;
+        }
+
+        @Override
+        public String toString() {
+            return name;
+        }
+    }
+
+    /**
+     * 导出进度
+     */
+    @FunctionalInterface
+    public interface Progress {
+
+        /**
+         * @param completed 已经写入的条目数量
+         * @param total     条目总数
+         * @param name      刚写入的条目名称
+         */
+        void update(int completed, int total, String name);
+    }
+
+    private Set<Format> formats = EnumSet.allOf(Format.class);
+
+    private final List<KeyStoreOptions> keyStoreOptions = new ArrayList<>();
+
+    private Progress progress = (completed, total, name) -> {
+    };
+
+    private BooleanSupplier cancelled = () -> false;
+
+    private int completed;
+
+    private int total;
+
+    /**
+     * @param formats 导出的文本以及DER格式,默认全部导出
+     */
+    public CertificateExporter setFormats(Set<Format> formats) {
+        this.formats = formats.isEmpty() ? EnumSet.noneOf(Format.class) : EnumSet.copyOf(formats);
+        return this;
+    }
+
+    /**
+     * 添加一种keystore格式,ca以及certificate各导出一个keystore,同一种类型只能添加一次
+     *
+     * @param options keystore的保存格式
+     */
+    public CertificateExporter addKeyStore(KeyStoreOptions options) {
+        options.validate();
+        for (KeyStoreOptions item : keyStoreOptions) {
+            if (item.getType() == options.getType()) {
+                throw new IllegalArgumentException("重复的keystore格式: " + options.getType());
+            }
+        }
+        this.keyStoreOptions.add(options);
+        return this;
+    }
+
+    public CertificateExporter setProgress(Progress progress) {
+        this.progress = progress;
+        return this;
+    }
+
+    /**
+     * @param cancelled 返回true时停止导出,{@link #export}抛出{@link CancellationException}
+     */
+    public CertificateExporter setCancelled(BooleanSupplier cancelled) {
+        this.cancelled = cancelled;
+        return this;
+    }
+
+    /**
+     * 导出到zip,不关闭输出流
+     *
+     * @param ca             CA证书
+     * @param caKey          CA私钥
+     * @param certificate    CA签发的证书
+     * @param certificateKey 证书私钥
+     * @param outputStream   zip的输出流
+     * @return 导出的条目名称
+     * @throws Exception 例外
+     */
+    public List<String> export(X509Certificate ca, PrivateKey caKey, X509Certificate certificate, PrivateKey certificateKey, OutputStream outputStream) throws Exception {
+        List<String> names = new ArrayList<>();
+        this.completed = 0;
+        //每种keystore格式导出ca以及certificate,另外还有一个密码.txt
+        this.total = formats.stream().mapToInt(format -> format.entries).sum() + (keyStoreOptions.isEmpty() ? 0 : keyStoreOptions.size() * 2 + 1);
+        ZipOutputStream zip = new ZipOutputStream(new FilterOutputStream(outputStream) {
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                out.write(b, off, len);
+            }
+
+            @Override
+            public void close() throws IOException {
+                //只结束zip,不关闭调用方的输出流
+                flush();
+            }
+        });
+        if (formats.contains(Format.PEM)) {
+            pem(zip, "ca.pem", names, ca);
+            pem(zip, "ca-key.pem", names, caKey);
+            pem(zip, "certificate.pem", names, certificate);
+            pem(zip, "certificate-key.pem", names, certificateKey);
+        }
+        if (formats.contains(Format.DER)) {
+            der(zip, "der/ca.der", ca.getEncoded(), names);
+            der(zip, "der/ca-key.der", caKey.getEncoded(), names);
+            der(zip, "der/certificate.der", certificate.getEncoded(), names);
+            der(zip, "der/certificate-key.der", certificateKey.getEncoded(), names);
+        }
+        if (formats.contains(Format.PKCS8)) {
+            pem(zip, "pkcs8/ca-key.pem", names, new JcaPKCS8Generator(caKey, null));
+            pem(zip, "pkcs8/certificate-key.pem", names, new JcaPKCS8Generator(certificateKey, null));
+        }
+        if (formats.contains(Format.FULLCHAIN)) {
+            pem(zip, "fullchain.pem", names, certificate, ca);
+        }
+        if (!keyStoreOptions.isEmpty()) {
+            keyStores(zip, ca, caKey, certificate, certificateKey, names);
+        }
+        zip.close();
+        return names;
+    }
+
+    /**
+     * 每个keystore只构建一次,按每种保存格式写出,证书的keystore中包含完整的证书链
+     */
+    private void keyStores(ZipOutputStream zip, X509Certificate ca, PrivateKey caKey, X509Certificate certificate, PrivateKey certificateKey, List<String> names) throws Exception {
+        KeyStore caStore = KeyStore.getInstance(KeyStore.getDefaultType());
+        caStore.load(null, null);
+        caStore.setKeyEntry("ca", caKey, new char[0], new Certificate[]{ca});
+        KeyStore certificateStore = KeyStore.getInstance(KeyStore.getDefaultType());
+        certificateStore.load(null, null);
+        certificateStore.setKeyEntry("certificate", certificateKey, new char[0], new Certificate[]{certificate, ca});
+        StringBuilder passwords = new StringBuilder();
+        for (KeyStoreOptions options : keyStoreOptions) {
+            String extension = options.getType().getExtension();
+            passwords.append(String.format("格式: %s\n", options));
+            keyStore(zip, "ca." + extension, caStore, options, passwords, names);
+            keyStore(zip, "certificate." + extension, certificateStore, options, passwords, names);
+        }
+        checkCancelled();
+        zip.putNextEntry(new ZipEntry("密码.txt"));
+        zip.write(passwords.toString().getBytes(StandardCharsets.UTF_8));
+        zip.closeEntry();
+        completed("密码.txt", names);
+    }
+
+    private void keyStore(ZipOutputStream zip, String name, KeyStore keyStore, KeyStoreOptions options, StringBuilder passwords, List<String> names) throws Exception {
+        checkCancelled();
+        String keyPassword = UUID.randomUUID().toString();
+        String storePassword = UUID.randomUUID().toString();
+        zip.putNextEntry(new ZipEntry(name));
+        options.write(keyStore, new char[0], keyPassword.toCharArray(), storePassword.toCharArray(), zip);
+        zip.closeEntry();
+        passwords.append(String.format("%s私钥密码: %s\n%s存储密码: %s\n", name, keyPassword, name, storePassword));
+        completed(name, names);
+    }
+
+    private void pem(ZipOutputStream zip, String name, List<String> names, Object... objects) throws Exception {
+        checkCancelled();
+        zip.putNextEntry(new ZipEntry(name));
+        //只刷新不关闭,关闭会结束整个zip
+        JcaPEMWriter pemWriter = new JcaPEMWriter(new OutputStreamWriter(zip, StandardCharsets.UTF_8));
+        for (Object object : objects) {
+            pemWriter.writeObject(object);
+        }
+        pemWriter.flush();
+        zip.closeEntry();
+        completed(name, names);
+    }
+
+    private void der(ZipOutputStream zip, String name, byte[] encoded, List<String> names) throws Exception {
+        checkCancelled();
+        zip.putNextEntry(new ZipEntry(name));
+        zip.write(encoded);
+        zip.closeEntry();
+        completed(name, names);
+    }
+
+    private void completed(String name, List<String> names) {
+        names.add(name);
+        progress.update(++completed, total, name);
+    }
+
+    private void checkCancelled() {
+        if (cancelled.getAsBoolean()) {
+            throw new CancellationException("导出已取消");
+        }
+    }
+}
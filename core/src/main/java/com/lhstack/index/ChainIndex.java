@@ -0,0 +1,275 @@
+package com.lhstack.index;
+
+import com.lhstack.Item;
+import org.bouncycastle.asn1.ASN1OctetString;
+import org.bouncycastle.asn1.x509.AuthorityKeyIdentifier;
+import org.bouncycastle.asn1.x509.Extension;
+import org.bouncycastle.cert.jcajce.JcaX509ExtensionUtils;
+
+import javax.security.auth.x500.X500Principal;
+import java.nio.ByteBuffer;
+import java.security.cert.Certificate;
+import java.security.cert.X509Certificate;
+import java.util.*;
+
+/**
+ * 证书链索引
+ * 证书按subject key identifier以及subject DN建立哈希索引,查找颁发者时优先按authority key identifier匹配,没有时按issuer DN匹配,都是O(1)
+ * 每个条目的颁发者,链深度以及根证书在第一次查询时计算并缓存,颁发者的结果被下级证书复用,全部条目的证书链只需要线性时间
+ * 索引变更时清空缓存
+ */
+public class ChainIndex implements ItemIndex {
+
+    private final Map<Item, Node> nodes = new IdentityHashMap<>();
+
+    private final Map<ByteBuffer, List<Item>> bySubjectKeyIdentifier = new HashMap<>();
+
+    private final Map<X500Principal, List<Item>> bySubject = new HashMap<>();
+
+    /**
+     * 条目 -> 解析结果,只在查询时填充
+     */
+    private final Map<Item, Resolved> resolved = new IdentityHashMap<>();
+
+    @Override
+    public void add(Item item) {
+        Certificate certificate = item.getFingerprint() == null ? null : item.getCertificate();
+        if (!(certificate instanceof X509Certificate) || nodes.containsKey(item)) {
+            return;
+        }
+        Node node = new Node((X509Certificate) certificate);
+        nodes.put(item, node);
+        if (node.subjectKeyIdentifier != null) {
+            bySubjectKeyIdentifier.computeIfAbsent(node.subjectKeyIdentifier, key -> new ArrayList<>(1)).add(item);
+        }
+        bySubject.computeIfAbsent(node.subject, key -> new ArrayList<>(1)).add(item);
+        resolved.clear();
+    }
+
+    @Override
+    public void remove(Item item) {
+        Node node = nodes.remove(item);
+        if (node == null) {
+            return;
+        }
+        if (node.subjectKeyIdentifier != null) {
+            removeFrom(bySubjectKeyIdentifier, node.subjectKeyIdentifier, item);
+        }
+        removeFrom(bySubject, node.subject, item);
+        resolved.clear();
+    }
+
+    @Override
+    public void clear() {
+        nodes.clear();
+        bySubjectKeyIdentifier.clear();
+        bySubject.clear();
+        resolved.clear();
+    }
+
+    /**
+     * @param item 条目
+     * @return 链深度,包含条目本身,不是证书的条目为0
+     */
+    public int depth(Item item) {
+        Resolved result = resolve(item);
+        return result == null ? 0 : result.depth;
+    }
+
+    /**
+     * @param item 条目
+     * @return 链的最后一个条目,不是证书的条目为null
+     */
+    public Item top(Item item) {
+        Resolved result = resolve(item);
+        return result == null ? null : result.top;
+    }
+
+    /**
+     * @param item 条目
+     * @return 证书链是否以自签名的根证书结束
+     */
+    public boolean isComplete(Item item) {
+        Resolved result = resolve(item);
+        return result != null && result.complete;
+    }
+
+    /**
+     * @param item 条目
+     * @return 从条目本身开始直到根证书或者找不到颁发者为止的条目
+     */
+    public List<Item> chain(Item item) {
+        List<Item> chain = new ArrayList<>();
+        for (Item current = item; current != null && nodes.containsKey(current); current = resolve(current).issuer) {
+            chain.add(current);
+        }
+        return chain;
+    }
+
+    /**
+     * 为不在索引中的证书从索引中查找颁发者构建证书链
+     *
+     * @param certificate 证书
+     * @return 以certificate开头的证书链
+     */
+    public List<X509Certificate> chain(X509Certificate certificate) {
+        List<X509Certificate> chain = new ArrayList<>();
+        chain.add(certificate);
+        Node node = new Node(certificate);
+        if (node.selfSigned) {
+            return chain;
+        }
+        for (Item issuer : chain(findIssuer(null, node))) {
+            chain.add((X509Certificate) issuer.getCertificate());
+        }
+        return chain;
+    }
+
+    /**
+     * 颁发者的结果先于下级计算,沿链向上迭代而不是递归,长链也不会栈溢出,出现环时在环上截断
+     */
+    private Resolved resolve(Item item) {
+        if (!nodes.containsKey(item)) {
+            return null;
+        }
+        Resolved result = resolved.get(item);
+        if (result != null) {
+            return result;
+        }
+        Deque<Item> pending = new ArrayDeque<>();
+        Set<Item> visiting = Collections.newSetFromMap(new IdentityHashMap<>());
+        Item current = item;
+        Resolved known = null;
+        while (current != null) {
+            known = resolved.get(current);
+            if (known != null || !visiting.add(current)) {
+                //已经计算过,或者出现环时在重复出现的条目处截断
+                break;
+            }
+            pending.push(current);
+            Node node = nodes.get(current);
+            current = node.selfSigned ? null : findIssuer(current, node);
+        }
+        Item issuer = known == null ? null : current;
+        while (!pending.isEmpty()) {
+            Item pendingItem = pending.pop();
+            known = known == null
+                    ? new Resolved(null, 1, pendingItem, nodes.get(pendingItem).selfSigned)
+                    : new Resolved(issuer, known.depth + 1, known.top, known.complete);
+            resolved.put(pendingItem, known);
+            issuer = pendingItem;
+        }
+        return known;
+    }
+
+    /**
+     * authority key identifier没有匹配的证书时再按issuer DN匹配
+     */
+    private Item findIssuer(Item self, Node node) {
+        Item issuer = null;
+        if (node.authorityKeyIdentifier != null) {
+            issuer = select(self, node, bySubjectKeyIdentifier.get(node.authorityKeyIdentifier));
+        }
+        return issuer != null ? issuer : select(self, node, bySubject.get(node.issuer));
+    }
+
+    private Item select(Item self, Node node, List<Item> candidates) {
+        if (candidates == null) {
+            return null;
+        }
+        Item issuer = null;
+        for (Item candidate : candidates) {
+            if (candidate == self || !nodes.get(candidate).subject.equals(node.issuer)) {
+                continue;
+            }
+            //同一个颁发者有多个证书时(续期),选择过期时间最晚的
+            if (issuer == null || candidate.getNotAfter() > issuer.getNotAfter()) {
+                issuer = candidate;
+            }
+        }
+        return issuer;
+    }
+
+    private static <K> void removeFrom(Map<K, List<Item>> index, K key, Item item) {
+        List<Item> items = index.get(key);
+        if (items != null) {
+            items.removeIf(value -> value == item);
+            if (items.isEmpty()) {
+                index.remove(key);
+            }
+        }
+    }
+
+    /**
+     * 建立索引所需的证书字段,不保留证书本身
+     */
+    private static class Node {
+
+        private final X500Principal subject;
+
+        private final X500Principal issuer;
+
+        private final ByteBuffer subjectKeyIdentifier;
+
+        private final ByteBuffer authorityKeyIdentifier;
+
+        private final boolean selfSigned;
+
+        Node(X509Certificate certificate) {
+            this.subject = certificate.getSubjectX500Principal();
+            this.issuer = certificate.getIssuerX500Principal();
+            this.subjectKeyIdentifier = subjectKeyIdentifier(certificate);
+            this.authorityKeyIdentifier = authorityKeyIdentifier(certificate);
+            this.selfSigned = subject.equals(issuer) && (authorityKeyIdentifier == null || authorityKeyIdentifier.equals(subjectKeyIdentifier));
+        }
+
+        private static ByteBuffer subjectKeyIdentifier(X509Certificate certificate) {
+            byte[] extensionValue = certificate.getExtensionValue(Extension.subjectKeyIdentifier.getId());
+            if (extensionValue == null) {
+                return null;
+            }
+            try {
+                return ByteBuffer.wrap(ASN1OctetString.getInstance(JcaX509ExtensionUtils.parseExtensionValue(extensionValue)).getOctets());
+            } catch (Exception e) {
+                return null;
+            }
+        }
+
+        private static ByteBuffer authorityKeyIdentifier(X509Certificate certificate) {
+            byte[] extensionValue = certificate.getExtensionValue(Extension.authorityKeyIdentifier.getId());
+            if (extensionValue == null) {
+                return null;
+            }
+            try {
+                byte[] keyIdentifier = AuthorityKeyIdentifier.getInstance(JcaX509ExtensionUtils.parseExtensionValue(extensionValue)).getKeyIdentifier();
+                return keyIdentifier == null ? null : ByteBuffer.wrap(keyIdentifier);
+            } catch (Exception e) {
+                return null;
+            }
+        }
+    }
+
+    /**
+     * @param issuer   颁发者条目,链的最后一个条目为null
+     * @param depth    链深度,包含条目本身
+     * @param top      链的最后一个条目
+     * @param complete 链的最后一个条目是否是自签名的根证书
+     */
+    private static class Resolved {
+
+        private final Item issuer;
+
+        private final int depth;
+
+        private final Item top;
+
+        private final boolean complete;
+
+        Resolved(Item issuer, int depth, Item top, boolean complete) {
+            this.issuer = issuer;
+            this.depth = depth;
+            this.top = top;
+            this.complete = complete;
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package com.lhstack.index;
+
+import com.lhstack.Item;
+
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 按过期时间排序的索引
+ * 查询已过期/N天内过期的条目只需要定位到过期时间的边界,不需要遍历全部条目,也不需要读取证书
+ * 统计数量时按过期时间升序数组中的位置二分查找,数组在索引变化后的第一次统计时重建
+ * 没有有效期的条目(SecretKey)不进入索引
+ */
+public class ExpiryIndex implements ItemIndex {
+
+    public static final long DAY_MILLIS = TimeUnit.DAYS.toMillis(1);
+
+    /**
+     * 过期时间相同时按名称排序,名称为null的查询边界排在最前
+     */
+    private static final Comparator<Item> EXPIRY_ORDER = Comparator.comparingLong(Item::getNotAfter)
+            .thenComparing(Item::getName, Comparator.nullsFirst(Comparator.naturalOrder()));
+
+    private final TreeSet<Item> items = new TreeSet<>(EXPIRY_ORDER);
+
+    /**
+     * 升序的过期时间,索引变化后为null
+     */
+    private long[] ranks;
+
+    @Override
+    public void add(Item item) {
+        if (item.hasValidity() && items.add(item)) {
+            ranks = null;
+        }
+    }
+
+    @Override
+    public void remove(Item item) {
+        if (item.hasValidity() && items.remove(item)) {
+            ranks = null;
+        }
+    }
+
+    @Override
+    public void clear() {
+        items.clear();
+        ranks = null;
+    }
+
+    public int size() {
+        return items.size();
+    }
+
+    /**
+     * @param deadline 截止时间戳
+     * @return 在截止时间之前过期的条目,按过期时间升序,为索引的视图,不能在遍历时修改索引
+     */
+    public NavigableSet<Item> expiringBefore(long deadline) {
+        return items.headSet(new Item().setNotAfter(deadline), false);
+    }
+
+    /**
+     * @param deadline 截止时间戳
+     * @return 在截止时间之前过期的条目数量
+     */
+    public int countBefore(long deadline) {
+        long[] ranks = this.ranks;
+        if (ranks == null) {
+            ranks = new long[items.size()];
+            int i = 0;
+            for (Item item : items) {
+                ranks[i++] = item.getNotAfter();
+            }
+            this.ranks = ranks;
+        }
+        //第一个不小于deadline的位置
+        int low = 0;
+        int high = ranks.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (ranks[mid] < deadline) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * @param now 当前时间戳
+     * @return 已经过期的条目
+     */
+    public NavigableSet<Item> expired(long now) {
+        return expiringBefore(now);
+    }
+
+    /**
+     * @param now  当前时间戳
+     * @param days 天数
+     * @return 已经过期以及days天内过期的条目
+     */
+    public NavigableSet<Item> expiringWithin(long now, int days) {
+        return expiringBefore(now + days * DAY_MILLIS);
+    }
+
+    /**
+     * @return 最早过期的条目,索引为空时为null
+     */
+    public Item first() {
+        return items.isEmpty() ? null : items.first();
+    }
+
+    /**
+     * 统计各个时间段内过期的条目数量
+     *
+     * @param now  当前时间戳
+     * @param days 升序的天数,0表示已过期
+     * @return 天数 -> 在该天数内过期(包含已过期)的条目数量
+     */
+    public Map<Integer, Integer> count(long now, int... days) {
+        Map<Integer, Integer> counts = new LinkedHashMap<>();
+        for (int day : days) {
+            counts.put(day, countBefore(now + day * DAY_MILLIS));
+        }
+        return counts;
+    }
+}
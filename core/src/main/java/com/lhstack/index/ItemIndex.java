@@ -0,0 +1,29 @@
+package com.lhstack.index;
+
+import com.lhstack.Item;
+
+/**
+ * 条目索引,随表格模型的增删改同步更新
+ * 实现类不保证线程安全,由调用方保证在同一个线程中访问(插件中为EDT)
+ */
+public interface ItemIndex {
+
+    void add(Item item);
+
+    void remove(Item item);
+
+    void clear();
+
+    /**
+     * 替换同名条目
+     *
+     * @param previous 原有条目,不存在时为null
+     * @param item     新条目
+     */
+    default void replace(Item previous, Item item) {
+        if (previous != null) {
+            remove(previous);
+        }
+        add(item);
+    }
+}
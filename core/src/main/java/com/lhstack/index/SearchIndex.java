@@ -0,0 +1,433 @@
+package com.lhstack.index;
+
+import com.lhstack.Item;
+
+import java.security.cert.Certificate;
+import java.security.cert.X509Certificate;
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+/**
+ * 名称,subject,issuer,SAN,序列号以及指纹的前缀索引
+ * 字段按非字母数字字符切分为小写的词,每个词对应按条目编号升序的倒排表,查询时每个查询词都需要是条目中某个词的前缀
+ * 条目的增删在EDT中进行,查询在后台线程中进行,通过读写锁保证可见性
+ * 条目的索引词可以在后台线程中通过{@link #prepare}提前计算,加入索引时不再读取证书
+ * 通过{@link #filter}设置的筛选结果随条目的增删增量更新,不需要在每次变更后重新查询
+ * 删除只标记条目编号,删除的条目超过一半时重新编号并压缩倒排表
+ */
+public class SearchIndex implements ItemIndex {
+
+    /**
+     * 冒号分隔的十六进制指纹,查询时去掉冒号
+     */
+    private static final Pattern COLON_HEX = Pattern.compile("\\s*[0-9a-fA-F]{2}(:[0-9a-fA-F]{2})+:?\\s*");
+
+    private static final int COMPACT_THRESHOLD = 1024;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * 词 -> 条目编号
+     */
+    private final TreeMap<String, IntList> postings = new TreeMap<>();
+
+    private final Map<Item, Integer> ids = new IdentityHashMap<>();
+
+    /**
+     * 条目编号 -> 条目,已删除的为null
+     */
+    private Item[] items = new Item[64];
+
+    private final BitSet live = new BitSet();
+
+    private int nextId;
+
+    private int deleted;
+
+    /**
+     * 索引每次变更时递增,用于判断上一次查询结果是否可以复用
+     */
+    private long version;
+
+    private volatile LastQuery lastQuery;
+
+    /**
+     * 后台线程提前计算的索引词,加入索引时取出,没有加入索引的条目被回收后自动移除
+     */
+    private final Map<Item, Set<String>> prepared = Collections.synchronizedMap(new WeakHashMap<>());
+
+    /**
+     * 当前的筛选,只在持有写锁时修改
+     */
+    private Filter filter;
+
+    /**
+     * 在后台线程中计算条目的索引词
+     *
+     * @param item 条目
+     */
+    public void prepare(Item item) {
+        prepared.put(item, terms(item));
+    }
+
+    @Override
+    public void add(Item item) {
+        Set<String> terms = prepared.remove(item);
+        if (terms == null) {
+            terms = terms(item);
+        }
+        lock.writeLock().lock();
+        try {
+            if (ids.containsKey(item)) {
+                return;
+            }
+            int id = nextId++;
+            if (id == items.length) {
+                items = Arrays.copyOf(items, items.length * 2);
+            }
+            items[id] = item;
+            ids.put(item, id);
+            live.set(id);
+            for (String term : terms) {
+                postings.computeIfAbsent(term, key -> new IntList()).add(id);
+            }
+            if (filter != null && matches(terms, filter.terms)) {
+                filter.matched.add(item);
+            }
+            version++;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void remove(Item item) {
+        lock.writeLock().lock();
+        try {
+            Integer id = ids.remove(item);
+            if (id == null) {
+                return;
+            }
+            items[id] = null;
+            live.clear(id);
+            if (filter != null) {
+                filter.matched.remove(item);
+            }
+            deleted++;
+            version++;
+            if (deleted > COMPACT_THRESHOLD && deleted > ids.size()) {
+                compact();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            ids.clear();
+            items = new Item[64];
+            live.clear();
+            nextId = 0;
+            deleted = 0;
+            version++;
+            lastQuery = null;
+            if (filter != null) {
+                filter.matched.clear();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return ids.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 查询条目,查询词在上一次查询的基础上追加或者延长时,只计算变化的查询词并与上一次的结果求交集
+     *
+     * @param query 查询内容
+     * @return 匹配的条目,查询内容中没有可查询的词时返回null,表示不过滤
+     */
+    public Set<Item> search(String query) {
+        List<String> queryTerms = queryTerms(query);
+        if (queryTerms.isEmpty()) {
+            return null;
+        }
+        lock.readLock().lock();
+        try {
+            return search(queryTerms);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 查询条目并设置为当前的筛选,之后新增的匹配条目加入结果,删除的条目从结果中移除
+     * 返回的集合由索引在写锁中修改,调用方只能在增删条目的线程中读取
+     *
+     * @param query 查询内容
+     * @return 匹配的条目,查询内容中没有可查询的词时清除筛选并返回null
+     */
+    public Set<Item> filter(String query) {
+        List<String> queryTerms = queryTerms(query);
+        lock.writeLock().lock();
+        try {
+            if (queryTerms.isEmpty()) {
+                filter = null;
+                return null;
+            }
+            Set<Item> matched = search(queryTerms);
+            filter = new Filter(queryTerms, matched);
+            return matched;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void clearFilter() {
+        lock.writeLock().lock();
+        try {
+            filter = null;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 在持有锁时查询
+     */
+    private Set<Item> search(List<String> queryTerms) {
+        LastQuery last = this.lastQuery;
+        BitSet result;
+        int from = 0;
+        if (last != null && last.version == version && last.extendedBy(queryTerms)) {
+            result = (BitSet) last.result.clone();
+            from = last.terms.size() - 1;
+        } else {
+            result = (BitSet) live.clone();
+        }
+        for (int i = from; i < queryTerms.size() && !result.isEmpty(); i++) {
+            result.and(match(queryTerms.get(i)));
+        }
+        this.lastQuery = new LastQuery(queryTerms, version, result);
+        Set<Item> matched = Collections.newSetFromMap(new IdentityHashMap<>(result.cardinality()));
+        for (int id = result.nextSetBit(0); id >= 0; id = result.nextSetBit(id + 1)) {
+            matched.add(items[id]);
+        }
+        return matched;
+    }
+
+    /**
+     * @return 每个查询词都是条目中某个词的前缀
+     */
+    static boolean matches(Set<String> terms, List<String> queryTerms) {
+        for (String queryTerm : queryTerms) {
+            boolean found = false;
+            for (String term : terms) {
+                if (term.startsWith(queryTerm)) {
+                    found = true;
+                    break;
+                }
+            }
+            if (!found) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @param prefix 查询词
+     * @return 以prefix开头的所有词对应的条目编号
+     */
+    private BitSet match(String prefix) {
+        BitSet bitSet = new BitSet(nextId);
+        for (IntList ids : postings.subMap(prefix, true, prefix + Character.MAX_VALUE, false).values()) {
+            ids.setAll(bitSet);
+        }
+        bitSet.and(live);
+        return bitSet;
+    }
+
+    /**
+     * 去掉已删除的条目并重新编号
+     */
+    private void compact() {
+        int[] mapping = new int[nextId];
+        int size = 0;
+        Item[] compacted = new Item[Math.max(64, ids.size() * 2)];
+        for (int id = 0; id < nextId; id++) {
+            if (items[id] != null) {
+                mapping[id] = size;
+                compacted[size] = items[id];
+                ids.put(items[id], size);
+                size++;
+            } else {
+                mapping[id] = -1;
+            }
+        }
+        postings.values().removeIf(list -> list.remap(mapping) == 0);
+        items = compacted;
+        live.clear();
+        live.set(0, size);
+        nextId = size;
+        deleted = 0;
+    }
+
+    /**
+     * 条目的索引词,证书只在建立索引时读取一次,不保存原文
+     */
+    static Set<String> terms(Item item) {
+        Set<String> terms = new HashSet<>();
+        tokenize(item.getName(), terms);
+        tokenize(item.getFingerprintHex(), terms);
+        Certificate certificate = item.getFingerprint() == null ? null : item.getCertificate();
+        if (certificate instanceof X509Certificate) {
+            X509Certificate x509Certificate = (X509Certificate) certificate;
+            tokenize(x509Certificate.getSubjectX500Principal().getName(), terms);
+            tokenize(x509Certificate.getIssuerX500Principal().getName(), terms);
+            tokenize(x509Certificate.getSerialNumber().toString(16), terms);
+            try {
+                Collection<List<?>> subjectAlternativeNames = x509Certificate.getSubjectAlternativeNames();
+                if (subjectAlternativeNames != null) {
+                    for (List<?> subjectAlternativeName : subjectAlternativeNames) {
+                        if (subjectAlternativeName.size() > 1 && subjectAlternativeName.get(1) instanceof String) {
+                            tokenize((String) subjectAlternativeName.get(1), terms);
+                        }
+                    }
+                }
+            } catch (Exception ignored) {
+                //SAN扩展解析失败时只索引其他字段
+            }
+        }
+        return terms;
+    }
+
+    static List<String> queryTerms(String query) {
+        if (query == null) {
+            return Collections.emptyList();
+        }
+        if (COLON_HEX.matcher(query).matches()) {
+            query = query.replace(":", "");
+        }
+        Set<String> terms = new LinkedHashSet<>();
+        tokenize(query, terms);
+        return new ArrayList<>(terms);
+    }
+
+    private static void tokenize(String text, Collection<String> terms) {
+        if (text == null) {
+            return;
+        }
+        int start = -1;
+        for (int i = 0; i <= text.length(); i++) {
+            boolean letterOrDigit = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+            if (letterOrDigit && start < 0) {
+                start = i;
+            } else if (!letterOrDigit && start >= 0) {
+                terms.add(text.substring(start, i).toLowerCase(Locale.ROOT));
+                start = -1;
+            }
+        }
+    }
+
+    /**
+     * 当前的筛选
+     */
+    private static class Filter {
+
+        private final List<String> terms;
+
+        private final Set<Item> matched;
+
+        Filter(List<String> terms, Set<Item> matched) {
+            this.terms = terms;
+            this.matched = matched;
+        }
+    }
+
+    /**
+     * 上一次的查询,新查询的前n-1个词与上一次相同,最后一个词是上一次最后一个词的延长时,结果是上一次结果的子集
+     */
+    private static class LastQuery {
+
+        private final List<String> terms;
+
+        private final long version;
+
+        private final BitSet result;
+
+        LastQuery(List<String> terms, long version, BitSet result) {
+            this.terms = terms;
+            this.version = version;
+            this.result = result;
+        }
+
+        boolean extendedBy(List<String> queryTerms) {
+            if (queryTerms.size() < terms.size()) {
+                return false;
+            }
+            int last = terms.size() - 1;
+            for (int i = 0; i < last; i++) {
+                if (!terms.get(i).equals(queryTerms.get(i))) {
+                    return false;
+                }
+            }
+            return queryTerms.get(last).startsWith(terms.get(last));
+        }
+    }
+
+    /**
+     * 升序的int列表
+     */
+    private static class IntList {
+
+        private int[] values = new int[2];
+
+        private int size;
+
+        void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        void setAll(BitSet bitSet) {
+            for (int i = 0; i < size; i++) {
+                bitSet.set(values[i]);
+            }
+        }
+
+        /**
+         * @param mapping 旧编号 -> 新编号,已删除的为-1
+         * @return 重新编号后的数量
+         */
+        int remap(int[] mapping) {
+            int count = 0;
+            for (int i = 0; i < size; i++) {
+                int value = mapping[values[i]];
+                if (value >= 0) {
+                    values[count++] = value;
+                }
+            }
+            size = count;
+            if (values.length > 2 * Math.max(2, size)) {
+                values = Arrays.copyOf(values, Math.max(2, size));
+            }
+            return size;
+        }
+    }
+}
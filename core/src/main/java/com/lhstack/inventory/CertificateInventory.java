@@ -0,0 +1,307 @@
+package com.lhstack.inventory;
+
+import com.lhstack.store.KeyStoreWriter;
+import org.bouncycastle.util.encoders.Hex;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+/**
+ * 项目中的证书清单,按文件保存扫描结果
+ * 每个文件记录修改时间以及大小,再次扫描时两者都没有变化的文件直接复用上一次的结果,不再读取
+ * 清单以紧凑的二进制格式保存,字符串使用modified UTF-8,指纹保存原始的32字节
+ */
+public class CertificateInventory {
+
+    private static final int MAGIC = 0x4A434956;
+
+    private static final int VERSION = 1;
+
+    /**
+     * 文件格式
+     */
+    public enum Format {
+        PEM("PEM"),
+        DER("DER"),
+        PKCS7("PKCS7"),
+        JKS("JKS"),
+        JCEKS("JCEKS"),
+        PKCS12("PKCS12"),
+        BCFKS("BCFKS"),
+        UNKNOWN("未知");
+
+        private final String description;
+
+        Format(String description) {
+            this.description = description;
+        }
+
+        public String getDescription() {
+            return description;
+        }
+
+        /**
+         * @return 是否为keystore,keystore中的条目有名称
+         */
+        public boolean isKeyStore() {
+            return this == JKS || this == JCEKS || this == PKCS12 || this == BCFKS;
+        }
+
+        @Override
+        public String toString() {
+            return description;
+        }
+    }
+
+    /**
+     * 一个文件的扫描结果
+     */
+    public static class FileRecord {
+
+        private final String path;
+
+        private final long lastModified;
+
+        private final long size;
+
+        private final Format format;
+
+        private final String error;
+
+        private final List<Entry> entries;
+
+        /**
+         * @param path         相对于扫描根目录的路径,使用/分隔
+         * @param lastModified 修改时间戳
+         * @param size         文件大小
+         * @param format       文件格式
+         * @param error        读取失败的原因,成功时为null
+         * @param entries      文件中的证书
+         */
+        public FileRecord(String path, long lastModified, long size, Format format, String error, List<Entry> entries) {
+            this.path = path;
+            this.lastModified = lastModified;
+            this.size = size;
+            this.format = format;
+            this.error = error;
+            this.entries = Collections.unmodifiableList(entries);
+        }
+
+        public String getPath() {
+            return path;
+        }
+
+        public long getLastModified() {
+            return lastModified;
+        }
+
+        public long getSize() {
+            return size;
+        }
+
+        public Format getFormat() {
+            return format;
+        }
+
+        public String getError() {
+            return error;
+        }
+
+        public List<Entry> getEntries() {
+            return entries;
+        }
+
+        /**
+         * @return 修改时间以及大小是否都相同
+         */
+        public boolean isUnchanged(long lastModified, long size) {
+            return this.lastModified == lastModified && this.size == size;
+        }
+    }
+
+    /**
+     * 文件中的一个证书
+     */
+    public static class Entry {
+
+        private final String path;
+
+        private final String alias;
+
+        private final String subject;
+
+        private final String issuer;
+
+        private final long notAfter;
+
+        private final byte[] fingerprint;
+
+        /**
+         * @param path        所在文件的路径
+         * @param alias       keystore中的名称,证书文件中为序号
+         * @param subject     subject,非X.509证书时为证书类型
+         * @param issuer      issuer,非X.509证书时为空字符串
+         * @param notAfter    过期时间戳,没有有效期时为Long.MAX_VALUE
+         * @param fingerprint SHA-256指纹
+         */
+        public Entry(String path, String alias, String subject, String issuer, long notAfter, byte[] fingerprint) {
+            this.path = path;
+            this.alias = alias;
+            this.subject = subject;
+            this.issuer = issuer;
+            this.notAfter = notAfter;
+            this.fingerprint = fingerprint;
+        }
+
+        public String getPath() {
+            return path;
+        }
+
+        public String getAlias() {
+            return alias;
+        }
+
+        public String getSubject() {
+            return subject;
+        }
+
+        public String getIssuer() {
+            return issuer;
+        }
+
+        public long getNotAfter() {
+            return notAfter;
+        }
+
+        public byte[] getFingerprint() {
+            return fingerprint;
+        }
+
+        public String getFingerprintHex() {
+            return Hex.toHexString(fingerprint);
+        }
+
+        public boolean hasValidity() {
+            return notAfter != Long.MAX_VALUE;
+        }
+    }
+
+    /**
+     * 路径 -> 扫描结果,按路径排序
+     */
+    private final Map<String, FileRecord> files = new TreeMap<>();
+
+    public CertificateInventory() {
+    }
+
+    public CertificateInventory(Collection<FileRecord> records) {
+        records.forEach(this::put);
+    }
+
+    public void put(FileRecord record) {
+        files.put(record.getPath(), record);
+    }
+
+    /**
+     * @param path 相对路径
+     * @return 上一次的扫描结果,不存在时为null
+     */
+    public FileRecord get(String path) {
+        return files.get(path);
+    }
+
+    public Collection<FileRecord> getFiles() {
+        return Collections.unmodifiableCollection(files.values());
+    }
+
+    /**
+     * @return 所有文件中的证书,按路径以及文件中的顺序排列
+     */
+    public List<Entry> getEntries() {
+        List<Entry> entries = new ArrayList<>();
+        for (FileRecord record : files.values()) {
+            entries.addAll(record.getEntries());
+        }
+        return entries;
+    }
+
+    /**
+     * 读取保存的清单
+     *
+     * @param index 清单文件
+     * @return 清单,文件不存在,版本不同或者内容损坏时为空清单,所有文件会被重新扫描
+     */
+    public static CertificateInventory read(Path index) {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(index)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                return new CertificateInventory();
+            }
+            int fileCount = in.readInt();
+            List<FileRecord> records = new ArrayList<>(fileCount);
+            for (int i = 0; i < fileCount; i++) {
+                String path = in.readUTF();
+                long lastModified = in.readLong();
+                long size = in.readLong();
+                Format format = Format.values()[in.readUnsignedByte()];
+                String error = in.readBoolean() ? in.readUTF() : null;
+                int entryCount = in.readInt();
+                List<Entry> entries = new ArrayList<>(entryCount);
+                for (int j = 0; j < entryCount; j++) {
+                    String alias = in.readUTF();
+                    String subject = in.readUTF();
+                    String issuer = in.readUTF();
+                    long notAfter = in.readLong();
+                    byte[] fingerprint = new byte[in.readUnsignedByte()];
+                    in.readFully(fingerprint);
+                    entries.add(new Entry(path, alias, subject, issuer, notAfter, fingerprint));
+                }
+                records.add(new FileRecord(path, lastModified, size, format, error, entries));
+            }
+            return new CertificateInventory(records);
+        } catch (IOException | RuntimeException e) {
+            //清单不存在或者损坏时不影响扫描,全部重新读取
+            return new CertificateInventory();
+        }
+    }
+
+    /**
+     * 原子地保存清单
+     *
+     * @param index 清单文件,所在目录不存在时会被创建
+     * @throws Exception 写入失败
+     */
+    public void write(Path index) throws Exception {
+        Path parent = index.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        KeyStoreWriter.write(index, outputStream -> {
+            DataOutputStream out = new DataOutputStream(outputStream);
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(files.size());
+            for (FileRecord record : files.values()) {
+                out.writeUTF(record.path);
+                out.writeLong(record.lastModified);
+                out.writeLong(record.size);
+                out.writeByte(record.format.ordinal());
+                out.writeBoolean(record.error != null);
+                if (record.error != null) {
+                    out.writeUTF(record.error);
+                }
+                out.writeInt(record.entries.size());
+                for (Entry entry : record.entries) {
+                    out.writeUTF(entry.alias);
+                    out.writeUTF(entry.subject);
+                    out.writeUTF(entry.issuer);
+                    out.writeLong(entry.notAfter);
+                    out.writeByte(entry.fingerprint.length);
+                    out.write(entry.fingerprint);
+                }
+            }
+            out.flush();
+        });
+    }
+}
@@ -0,0 +1,372 @@
+package com.lhstack.inventory;
+
+import com.lhstack.utils.CertificateBundleUtils;
+import com.lhstack.utils.KeyStoreUtils;
+import org.apache.commons.collections.EnumerationUtils;
+import org.apache.commons.lang3.StringUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.KeyStore;
+import java.security.cert.Certificate;
+import java.security.cert.X509Certificate;
+import java.util.*;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+/**
+ * 扫描目录中的证书以及keystore
+ * 每个目录作为一个任务提交到线程池,子目录拆分为新的任务,目录遍历和文件解析一起并行执行
+ * 按扩展名筛选候选文件,再按文件头判断实际格式,修改时间以及大小与上一次清单相同的文件不再读取
+ */
+public class CertificateScanner {
+
+    /**
+     * 候选文件的扩展名
+     */
+    private static final Set<String> EXTENSIONS = Set.of("pem", "crt", "cer", "der", "p7b", "p7c", "jks", "jceks", "p12", "pfx", "bcfks", "keystore", "truststore", "ks");
+
+    /**
+     * 版本控制,IDE以及构建输出目录,构建输出中的证书是源文件的副本
+     */
+    private static final Set<String> SKIPPED_DIRECTORIES = Set.of(".git", ".svn", ".hg", ".idea", ".gradle", "node_modules", "build", "target", "out");
+
+    /**
+     * 超过该大小的文件不读取,证书以及keystore一般只有几KB到几MB
+     */
+    private static final long MAX_FILE_SIZE = 16 * 1024 * 1024;
+
+    private static final int MAX_ERROR_LENGTH = 500;
+
+    private static final byte[] JKS_MAGIC = {(byte) 0xFE, (byte) 0xED, (byte) 0xFE, (byte) 0xED};
+
+    private static final byte[] JCEKS_MAGIC = {(byte) 0xCE, (byte) 0xCE, (byte) 0xCE, (byte) 0xCE};
+
+    private static final byte[] PEM_BEGIN = "-----BEGIN ".getBytes(StandardCharsets.US_ASCII);
+
+    /**
+     * 扫描结果
+     */
+    public static class Result {
+
+        private final CertificateInventory inventory;
+
+        private final int reused;
+
+        private final int parsed;
+
+        private final int failed;
+
+        private final long elapsedMillis;
+
+        Result(CertificateInventory inventory, int reused, int parsed, int failed, long elapsedMillis) {
+            this.inventory = inventory;
+            this.reused = reused;
+            this.parsed = parsed;
+            this.failed = failed;
+            this.elapsedMillis = elapsedMillis;
+        }
+
+        public CertificateInventory getInventory() {
+            return inventory;
+        }
+
+        /**
+         * @return 没有变化,直接使用上一次结果的文件数
+         */
+        public int getReused() {
+            return reused;
+        }
+
+        /**
+         * @return 新增或者变化后重新读取的文件数
+         */
+        public int getParsed() {
+            return parsed;
+        }
+
+        public int getFailed() {
+            return failed;
+        }
+
+        public long getElapsedMillis() {
+            return elapsedMillis;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("文件: %d个, 证书: %d个, 未变化: %d, 重新读取: %d, 读取失败: %d, 耗时: %dms",
+                    inventory.getFiles().size(), inventory.getEntries().size(), reused, parsed, failed, elapsedMillis);
+        }
+    }
+
+    private List<char[]> passwords = List.of(new char[0], "changeit".toCharArray());
+
+    private BooleanSupplier cancelled = () -> false;
+
+    /**
+     * @param passwords 读取keystore时依次尝试的密码,默认为空密码以及JDK默认的changeit
+     */
+    public CertificateScanner setPasswords(List<char[]> passwords) {
+        this.passwords = passwords;
+        return this;
+    }
+
+    /**
+     * @param cancelled 返回true时停止扫描,{@link #scan(Path, CertificateInventory)}抛出{@link CancellationException}
+     */
+    public CertificateScanner setCancelled(BooleanSupplier cancelled) {
+        this.cancelled = cancelled;
+        return this;
+    }
+
+    /**
+     * 扫描目录
+     *
+     * @param root     根目录
+     * @param previous 上一次的清单,未变化的文件直接复用,可以为null
+     * @return {@link Result},清单中只包含本次扫描到的文件,已删除的文件不再保留
+     * @throws Exception 遍历目录失败
+     */
+    public Result scan(Path root, CertificateInventory previous) throws Exception {
+        long start = System.currentTimeMillis();
+        CertificateInventory last = previous == null ? new CertificateInventory() : previous;
+        Queue<CertificateInventory.FileRecord> records = new ConcurrentLinkedQueue<>();
+        AtomicInteger reused = new AtomicInteger();
+        AtomicInteger parsed = new AtomicInteger();
+        AtomicInteger failed = new AtomicInteger();
+        ForkJoinPool pool = new ForkJoinPool(Math.max(1, Runtime.getRuntime().availableProcessors()));
+        try {
+            pool.invoke(new DirectoryTask(root, root, last, records, reused, parsed, failed));
+        } finally {
+            pool.shutdownNow();
+        }
+        if (cancelled.getAsBoolean()) {
+            throw new CancellationException("扫描已取消");
+        }
+        return new Result(new CertificateInventory(records), reused.get(), parsed.get(), failed.get(), System.currentTimeMillis() - start);
+    }
+
+    private class DirectoryTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final Path root;
+
+        private final Path directory;
+
+        private final CertificateInventory previous;
+
+        private final Queue<CertificateInventory.FileRecord> records;
+
+        private final AtomicInteger reused;
+
+        private final AtomicInteger parsed;
+
+        private final AtomicInteger failed;
+
+        DirectoryTask(Path root, Path directory, CertificateInventory previous, Queue<CertificateInventory.FileRecord> records, AtomicInteger reused, AtomicInteger parsed, AtomicInteger failed) {
+            this.root = root;
+            this.directory = directory;
+            this.previous = previous;
+            this.records = records;
+            this.reused = reused;
+            this.parsed = parsed;
+            this.failed = failed;
+        }
+
+        @Override
+        protected void compute() {
+            if (cancelled.getAsBoolean()) {
+                return;
+            }
+            //子目录以及每个候选文件都是单独的任务,同一个目录中的多个文件也并行读取
+            List<ForkJoinTask<?>> subtasks = new ArrayList<>();
+            try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory)) {
+                for (Path path : stream) {
+                    BasicFileAttributes attributes;
+                    try {
+                        attributes = Files.readAttributes(path, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+                    } catch (IOException e) {
+                        continue;
+                    }
+                    String name = path.getFileName().toString();
+                    if (attributes.isDirectory()) {
+                        if (!SKIPPED_DIRECTORIES.contains(name)) {
+                            subtasks.add(new DirectoryTask(root, path, previous, records, reused, parsed, failed));
+                        }
+                    } else if (attributes.isRegularFile() && EXTENSIONS.contains(StringUtils.substringAfterLast(name, ".").toLowerCase(Locale.ROOT))) {
+                        subtasks.add(ForkJoinTask.adapt(() -> scanFile(path, attributes)));
+                    }
+                }
+            } catch (IOException e) {
+                //没有权限等无法读取的目录跳过
+            }
+            invokeAll(subtasks);
+        }
+
+        private void scanFile(Path path, BasicFileAttributes attributes) {
+            if (cancelled.getAsBoolean()) {
+                return;
+            }
+            String relativePath = root.relativize(path).toString().replace('\\', '/');
+            long lastModified = attributes.lastModifiedTime().toMillis();
+            long size = attributes.size();
+            CertificateInventory.FileRecord record = previous.get(relativePath);
+            //读取失败的文件每次都重新读取,修改密码配置后可以读取成功
+            if (record != null && record.getError() == null && record.isUnchanged(lastModified, size)) {
+                records.add(record);
+                reused.incrementAndGet();
+                return;
+            }
+            record = read(path, relativePath, lastModified, size);
+            records.add(record);
+            parsed.incrementAndGet();
+            if (record.getError() != null) {
+                failed.incrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * 读取单个文件
+     *
+     * @param path         文件
+     * @param relativePath 清单中的路径
+     * @param lastModified 修改时间戳
+     * @param size         文件大小
+     * @return {@link CertificateInventory.FileRecord},读取失败时记录失败原因
+     */
+    public CertificateInventory.FileRecord read(Path path, String relativePath, long lastModified, long size) {
+        if (size > MAX_FILE_SIZE) {
+            return new CertificateInventory.FileRecord(relativePath, lastModified, size, CertificateInventory.Format.UNKNOWN, "文件过大", List.of());
+        }
+        CertificateInventory.Format format = CertificateInventory.Format.UNKNOWN;
+        try {
+            byte[] bytes = Files.readAllBytes(path);
+            format = sniff(bytes, path.getFileName().toString());
+            List<CertificateInventory.Entry> entries = new ArrayList<>();
+            switch (format) {
+                case UNKNOWN:
+                    break;
+                case PEM:
+                case DER:
+                case PKCS7:
+                    List<Certificate> certificates = CertificateBundleUtils.read(new ByteArrayInputStream(bytes), false);
+                    for (int i = 0; i < certificates.size(); i++) {
+                        entries.add(entry(relativePath, String.valueOf(i + 1), certificates.get(i)));
+                    }
+                    break;
+                default:
+                    KeyStore keyStore = loadKeyStore(bytes, format);
+                    List<String> aliases = EnumerationUtils.toList(keyStore.aliases());
+                    Collections.sort(aliases);
+                    for (String alias : aliases) {
+                        Certificate certificate = keyStore.getCertificate(alias);
+                        //SecretKey条目没有证书
+                        if (certificate != null) {
+                            entries.add(entry(relativePath, alias, certificate));
+                        }
+                    }
+                    break;
+            }
+            return new CertificateInventory.FileRecord(relativePath, lastModified, size, format, null, entries);
+        } catch (Throwable e) {
+            String message = StringUtils.abbreviate(StringUtils.defaultIfBlank(e.getMessage(), e.getClass().getSimpleName()), MAX_ERROR_LENGTH);
+            return new CertificateInventory.FileRecord(relativePath, lastModified, size, format, message, List.of());
+        }
+    }
+
+    /**
+     * 按文件头判断格式
+     * JKS以及JCEKS有固定的魔数,PKCS12,证书以及PKCS7都是DER编码的SEQUENCE,按第一个元素的tag区分:
+     * PKCS12为版本号INTEGER,PKCS7为OID,证书为tbsCertificate SEQUENCE,BCFKS与证书的结构相同只能按扩展名区分
+     *
+     * @param bytes    文件内容
+     * @param filename 文件名称
+     * @return {@link CertificateInventory.Format}
+     */
+    public static CertificateInventory.Format sniff(byte[] bytes, String filename) {
+        if (startsWith(bytes, JKS_MAGIC)) {
+            return CertificateInventory.Format.JKS;
+        }
+        if (startsWith(bytes, JCEKS_MAGIC)) {
+            return CertificateInventory.Format.JCEKS;
+        }
+        if (bytes.length > 1 && (bytes[0] & 0xff) == 0x30) {
+            int offset = 1;
+            int first = bytes[offset++] & 0xff;
+            if (first > 0x80) {
+                offset += first & 0x7f;
+            }
+            if (offset >= bytes.length) {
+                return CertificateInventory.Format.UNKNOWN;
+            }
+            switch (bytes[offset]) {
+                case 0x02:
+                    return CertificateInventory.Format.PKCS12;
+                case 0x06:
+                    return CertificateInventory.Format.PKCS7;
+                case 0x30:
+                    return "bcfks".equals(KeyStoreUtils.type(filename, null)) ? CertificateInventory.Format.BCFKS : CertificateInventory.Format.DER;
+                default:
+                    return CertificateInventory.Format.UNKNOWN;
+            }
+        }
+        //PEM文件开头可以有注释等任意文本
+        return indexOf(bytes, PEM_BEGIN) >= 0 ? CertificateInventory.Format.PEM : CertificateInventory.Format.UNKNOWN;
+    }
+
+    /**
+     * 依次尝试配置的密码,JKS以及JCEKS不校验完整性时可以不使用密码读取证书
+     */
+    private KeyStore loadKeyStore(byte[] bytes, CertificateInventory.Format format) throws Exception {
+        if (format == CertificateInventory.Format.JKS || format == CertificateInventory.Format.JCEKS) {
+            return KeyStoreUtils.load(new ByteArrayInputStream(bytes), format.name(), null);
+        }
+        Exception error = null;
+        for (char[] password : passwords) {
+            try {
+                return KeyStoreUtils.load(new ByteArrayInputStream(bytes), format.name(), password);
+            } catch (Exception e) {
+                error = e;
+            }
+        }
+        throw new Exception("需要密码: " + (error == null ? "没有配置密码" : error.getMessage()), error);
+    }
+
+    private static CertificateInventory.Entry entry(String path, String alias, Certificate certificate) throws Exception {
+        byte[] fingerprint = KeyStoreUtils.fingerprint(certificate);
+        if (certificate instanceof X509Certificate) {
+            X509Certificate x509Certificate = (X509Certificate) certificate;
+            return new CertificateInventory.Entry(path, alias, x509Certificate.getSubjectX500Principal().getName(),
+                    x509Certificate.getIssuerX500Principal().getName(), x509Certificate.getNotAfter().getTime(), fingerprint);
+        }
+        return new CertificateInventory.Entry(path, alias, certificate.getType(), "", Long.MAX_VALUE, fingerprint);
+    }
+
+    private static boolean startsWith(byte[] bytes, byte[] prefix) {
+        return bytes.length >= prefix.length && Arrays.equals(bytes, 0, prefix.length, prefix, 0, prefix.length);
+    }
+
+    private static int indexOf(byte[] bytes, byte[] target) {
+        outer:
+        for (int i = 0; i <= bytes.length - target.length; i++) {
+            for (int j = 0; j < target.length; j++) {
+                if (bytes[i + j] != target[j]) {
+                    continue outer;
+                }
+            }
+            return i;
+        }
+        return -1;
+    }
+}
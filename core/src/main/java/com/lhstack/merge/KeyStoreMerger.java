@@ -0,0 +1,284 @@
+package com.lhstack.merge;
+
+import com.lhstack.utils.KeyStoreUtils;
+import org.apache.commons.collections.EnumerationUtils;
+
+import java.nio.ByteBuffer;
+import java.security.Key;
+import java.security.KeyStore;
+import java.security.cert.Certificate;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.BooleanSupplier;
+
+/**
+ * 合并多个keystore或者证书包
+ * 目标keystore以及已合并条目的SHA-256指纹保存在哈希表中,指纹相同的证书只保留第一个,后续的作为重复跳过
+ * 来源并行读取,全部读取成功后才按给定的顺序依次合并,某个来源读取失败或者取消时目标keystore不变
+ * 合并后立即释放来源,目标keystore只由调用方写出一次
+ */
+public class KeyStoreMerger {
+
+    /**
+     * 名称冲突并且指纹不同时的处理方式
+     */
+    public enum ConflictPolicy {
+        SKIP("跳过"),
+        OVERWRITE("覆盖"),
+        RENAME("重命名");
+
+        private final String description;
+
+        ConflictPolicy(String description) {
+            this.description = description;
+        }
+
+        public String getDescription() {
+            return description;
+        }
+
+        @Override
+        public String toString() {
+            return description;
+        }
+    }
+
+    /**
+     * 合并的来源
+     */
+    public static class Source {
+
+        private final String name;
+
+        private final Callable<KeyStore> loader;
+
+        private final char[] password;
+
+        /**
+         * @param name     显示的名称,一般为文件名称
+         * @param loader   读取keystore
+         * @param password 私钥密码,证书包或者没有私钥时可以为null
+         */
+        public Source(String name, Callable<KeyStore> loader, char[] password) {
+            this.name = name;
+            this.loader = loader;
+            this.password = password;
+        }
+
+        public String getName() {
+            return name;
+        }
+    }
+
+    /**
+     * 合并结果
+     */
+    public static class Report {
+
+        private int sources;
+
+        private int read;
+
+        private final List<String> written = new ArrayList<>();
+
+        private final List<String> duplicates = new ArrayList<>();
+
+        private final List<String> renamed = new ArrayList<>();
+
+        private final List<String> overwritten = new ArrayList<>();
+
+        private final List<String> skipped = new ArrayList<>();
+
+        private final List<String> failed = new ArrayList<>();
+
+        private long elapsedMillis;
+
+        /**
+         * @return 写入目标keystore的名称,包括覆盖以及重命名的条目
+         */
+        public List<String> getWritten() {
+            return Collections.unmodifiableList(written);
+        }
+
+        public int getRead() {
+            return read;
+        }
+
+        public int getDuplicates() {
+            return duplicates.size();
+        }
+
+        public long getElapsedMillis() {
+            return elapsedMillis;
+        }
+
+        /**
+         * @return 每秒读取的条目数
+         */
+        public double getThroughput() {
+            return read * 1000.0 / Math.max(1, elapsedMillis);
+        }
+
+        /**
+         * @return 汇总以及每个重复,冲突,失败的条目一行的文本报告
+         */
+        public String format() {
+            StringBuilder sb = new StringBuilder();
+            sb.append(String.format("来源: %d个, 读取: %d个条目, 写入: %d, 重复: %d, 重命名: %d, 覆盖: %d, 冲突跳过: %d, 失败: %d, 耗时: %dms, %.0f条/秒\n",
+                    sources, read, written.size(), duplicates.size(), renamed.size(), overwritten.size(), skipped.size(), failed.size(), elapsedMillis, getThroughput()));
+            append(sb, "重复", duplicates);
+            append(sb, "重命名", renamed);
+            append(sb, "覆盖", overwritten);
+            append(sb, "冲突跳过", skipped);
+            append(sb, "失败", failed);
+            return sb.toString();
+        }
+
+        private static void append(StringBuilder sb, String title, List<String> lines) {
+            for (String line : lines) {
+                sb.append(title).append(": ").append(line).append('\n');
+            }
+        }
+    }
+
+    private final KeyStore target;
+
+    private final char[] targetPassword;
+
+    private final ConflictPolicy policy;
+
+    /**
+     * SHA-256指纹 -> 目标keystore中的名称
+     */
+    private final Map<ByteBuffer, String> fingerprints = new HashMap<>();
+
+    private BooleanSupplier cancelled = () -> false;
+
+    /**
+     * @param target         目标keystore,已有的条目参与去重
+     * @param targetPassword 目标keystore中私钥条目使用的密码
+     * @param policy         名称冲突时的处理方式
+     * @throws Exception 读取目标keystore失败
+     */
+    public KeyStoreMerger(KeyStore target, char[] targetPassword, ConflictPolicy policy) throws Exception {
+        this.target = target;
+        this.targetPassword = targetPassword == null ? new char[0] : targetPassword;
+        this.policy = policy;
+        List<String> aliases = EnumerationUtils.toList(target.aliases());
+        for (String alias : aliases) {
+            Certificate certificate = target.getCertificate(alias);
+            if (certificate != null) {
+                fingerprints.putIfAbsent(ByteBuffer.wrap(KeyStoreUtils.fingerprint(certificate)), alias);
+            }
+        }
+    }
+
+    /**
+     * @param cancelled 读取来源期间返回true时停止合并,{@link #merge}抛出{@link CancellationException},开始写入目标keystore后不再检查
+     */
+    public KeyStoreMerger setCancelled(BooleanSupplier cancelled) {
+        this.cancelled = cancelled;
+        return this;
+    }
+
+    /**
+     * 合并所有来源到目标keystore
+     *
+     * @param sources 来源,按顺序合并,重复的证书保留先出现的
+     * @return {@link Report}
+     * @throws Exception 读取来源失败,此时目标keystore没有被修改
+     */
+    public Report merge(List<Source> sources) throws Exception {
+        long start = System.currentTimeMillis();
+        Report report = new Report();
+        report.sources = sources.size();
+        List<KeyStore> keyStores = new ArrayList<>(sources.size());
+        ForkJoinPool pool = new ForkJoinPool(Math.max(1, Math.min(Runtime.getRuntime().availableProcessors(), sources.size())));
+        try {
+            List<Future<KeyStore>> futures = new ArrayList<>(sources.size());
+            for (Source source : sources) {
+                futures.add(pool.submit(source.loader));
+            }
+            for (int i = 0; i < sources.size(); i++) {
+                keyStores.add(get(futures.get(i), sources.get(i)));
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        for (int i = 0; i < sources.size(); i++) {
+            merge(sources.get(i), keyStores.get(i), report);
+            //合并后不再持有来源keystore
+            keyStores.set(i, null);
+        }
+        report.elapsedMillis = System.currentTimeMillis() - start;
+        return report;
+    }
+
+    /**
+     * 等待来源读取完成,等待期间检查是否取消
+     */
+    private KeyStore get(Future<KeyStore> future, Source source) throws Exception {
+        while (true) {
+            if (cancelled.getAsBoolean()) {
+                throw new CancellationException("合并已取消");
+            }
+            try {
+                return future.get(100, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException ignore) {
+                //继续等待
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                throw new Exception(String.format("%s读取失败: %s", source.name, cause.getMessage()), cause);
+            }
+        }
+    }
+
+    private void merge(Source source, KeyStore keyStore, Report report) throws Exception {
+        List<String> aliases = EnumerationUtils.toList(keyStore.aliases());
+        for (String alias : aliases) {
+            report.read++;
+            String name = source.name + ":" + alias;
+            Certificate certificate = keyStore.getCertificate(alias);
+            ByteBuffer fingerprint = certificate == null ? null : ByteBuffer.wrap(KeyStoreUtils.fingerprint(certificate));
+            if (fingerprint != null && fingerprints.containsKey(fingerprint)) {
+                report.duplicates.add(name + " 与 " + fingerprints.get(fingerprint) + " 相同");
+                continue;
+            }
+            String targetAlias = KeyStoreUtils.storedAlias(target, alias);
+            if (target.containsAlias(targetAlias)) {
+                switch (policy) {
+                    case SKIP:
+                        report.skipped.add(name);
+                        continue;
+                    case RENAME:
+                        targetAlias = KeyStoreUtils.uniqueAlias(target, alias);
+                        report.renamed.add(name + " -> " + targetAlias);
+                        break;
+                    default:
+                        Certificate replaced = target.getCertificate(targetAlias);
+                        if (replaced != null) {
+                            fingerprints.remove(ByteBuffer.wrap(KeyStoreUtils.fingerprint(replaced)), targetAlias);
+                        }
+                        report.overwritten.add(name);
+                        break;
+                }
+            }
+            try {
+                if (keyStore.isKeyEntry(alias)) {
+                    char[] password = source.password == null ? new char[0] : source.password;
+                    Key key = keyStore.getKey(alias, password);
+                    target.setKeyEntry(targetAlias, key, targetPassword, keyStore.getCertificateChain(alias));
+                } else {
+                    target.setCertificateEntry(targetAlias, certificate);
+                }
+            } catch (Exception e) {
+                report.failed.add(name + " " + e.getMessage());
+                continue;
+            }
+            if (fingerprint != null) {
+                fingerprints.put(fingerprint, targetAlias);
+            }
+            report.written.add(targetAlias);
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.lhstack.selfsign;
+
+import com.lhstack.utils.CryptoContext;
+import org.bouncycastle.asn1.ASN1Encodable;
+import org.bouncycastle.asn1.DERSequence;
+import org.bouncycastle.asn1.x500.X500Name;
+import org.bouncycastle.asn1.x509.*;
+import org.bouncycastle.cert.X509CertificateHolder;
+import org.bouncycastle.cert.X509v3CertificateBuilder;
+import org.bouncycastle.operator.ContentSigner;
+import org.bouncycastle.operator.jcajce.JcaContentSignerBuilder;
+import org.bouncycastle.util.IPAddress;
+
+import java.math.BigInteger;
+import java.security.*;
+import java.security.cert.X509Certificate;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 证书签发器
+ * 同一个CA的holder,授权密钥标识以及签名器只构建一次,批量签发时在多个线程之间复用
+ */
+public class CertificateIssuer {
+
+    private static final String BC_PROVIDER = "BC";
+
+    private final X509Certificate caCertificate;
+
+    private final PrivateKey caPrivateKey;
+
+    private final X500Name issuerName;
+
+    private final AuthorityKeyIdentifier authorityKeyIdentifier;
+
+    /**
+     * ContentSigner内部持有签名状态,不是线程安全的,每个线程各自持有一份
+     */
+    private final ThreadLocal<Map<String, ContentSigner>> contentSigners = ThreadLocal.withInitial(HashMap::new);
+
+    CertificateIssuer(X509Certificate caCertificate, PrivateKey caPrivateKey) throws Exception {
+        this.caCertificate = caCertificate;
+        this.caPrivateKey = caPrivateKey;
+        this.issuerName = new X509CertificateHolder(caCertificate.getEncoded()).getSubject();
+        this.authorityKeyIdentifier = CryptoContext.extensionUtils().createAuthorityKeyIdentifier(caCertificate);
+    }
+
+    /**
+     * 签发证书
+     *
+     * @param algorithm         密钥算法 RSA,EC,DSA
+     * @param certificateConfig 证书配置
+     * @return {@link SelfSignCertificateEntity}
+     * @throws Exception 例外
+     */
+    public SelfSignCertificateEntity issue(String algorithm, SelfSignConfig.Certificate certificateConfig) throws Exception {
+        Calendar calendar = Calendar.getInstance();
+        calendar.add(Calendar.DATE, -1);
+        Date startDate = calendar.getTime();
+        calendar.add(Calendar.YEAR, certificateConfig.getValidityYear());
+        Date endDate = calendar.getTime();
+        //证书相关
+        X500Name issuedCertSubject = new X500Name(certificateConfig.getDn());
+        BigInteger issuedCertSerialNum = new BigInteger(Long.toString(CryptoContext.secureRandom().nextLong()));
+        KeyPair issuedCertKeyPair = KeyPairPool.getInstance().take(algorithm, certificateConfig.getInitializeSize());
+        SubjectPublicKeyInfo subjectPublicKeyInfo = SubjectPublicKeyInfo.getInstance(issuedCertKeyPair.getPublic().getEncoded());
+        X509v3CertificateBuilder issuedCertBuilder = new X509v3CertificateBuilder(issuerName, issuedCertSerialNum, startDate, endDate, issuedCertSubject, subjectPublicKeyInfo);
+        issuedCertBuilder.addExtension(Extension.basicConstraints, true, new BasicConstraints(false));
+        issuedCertBuilder.addExtension(Extension.authorityKeyIdentifier, false, authorityKeyIdentifier);
+        issuedCertBuilder.addExtension(Extension.subjectKeyIdentifier, false, CryptoContext.extensionUtils().createSubjectKeyIdentifier(subjectPublicKeyInfo));
+        issuedCertBuilder.addExtension(Extension.keyUsage, false, new KeyUsage(KeyUsage.keyEncipherment | KeyUsage.digitalSignature));
+        issuedCertBuilder.addExtension(Extension.extendedKeyUsage, false, new ExtendedKeyUsage(new KeyPurposeId[]{KeyPurposeId.id_kp_clientAuth, KeyPurposeId.id_kp_serverAuth}));
+        ASN1Encodable[] asn1Encodables = certificateConfig.getHosts().stream().map(item -> {
+            if (IPAddress.isValid(item)) {
+                return new GeneralName(GeneralName.iPAddress, item);
+            }
+            return new GeneralName(GeneralName.dNSName, item);
+        }).toArray(ASN1Encodable[]::new);
+        //设置信任域名或者ip
+        if (asn1Encodables.length > 0) {
+            issuedCertBuilder.addExtension(Extension.subjectAlternativeName, false, new DERSequence(asn1Encodables));
+        }
+        X509CertificateHolder issuedCertHolder = issuedCertBuilder.build(contentSigner(certificateConfig.getSignatureAlgorithm()));
+        X509Certificate issuedCert = CryptoContext.toCertificate(issuedCertHolder);
+        issuedCert.verify(caCertificate.getPublicKey(), BC_PROVIDER);
+        return new SelfSignCertificateEntity(caCertificate, caPrivateKey, issuedCert, issuedCertKeyPair.getPrivate());
+    }
+
+    private ContentSigner contentSigner(String signatureAlgorithm) throws Exception {
+        Map<String, ContentSigner> signers = contentSigners.get();
+        ContentSigner contentSigner = signers.get(signatureAlgorithm);
+        if (contentSigner == null) {
+            contentSigner = new JcaContentSignerBuilder(signatureAlgorithm).setProvider(BC_PROVIDER).build(caPrivateKey);
+            signers.put(signatureAlgorithm, contentSigner);
+        }
+        return contentSigner;
+    }
+}
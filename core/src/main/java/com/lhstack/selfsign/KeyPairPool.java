@@ -0,0 +1,189 @@
+package com.lhstack.selfsign;
+
+import com.lhstack.utils.CryptoContext;
+import org.bouncycastle.jce.provider.BouncyCastleProvider;
+
+import java.security.KeyPair;
+import java.security.Provider;
+import java.security.Security;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 密钥对预生成池
+ * 按(algorithm, initializeSize)分组,签发证书时优先从池中获取,池中没有时同步生成
+ * 某个分组第一次获取后才在后台线程中补充少量密钥对,容量为0时不预生成,后台线程在第一次补充时创建
+ */
+public class KeyPairPool {
+
+    private static final String BC_PROVIDER = "BC";
+
+    private static final int DEFAULT_CAPACITY = 2;
+
+    private static final KeyPairPool INSTANCE = new KeyPairPool(DEFAULT_CAPACITY);
+
+    static {
+        Provider provider = Security.getProvider(BouncyCastleProvider.PROVIDER_NAME);
+        if (provider == null) {
+            Security.addProvider(new BouncyCastleProvider());
+        }
+    }
+
+    private final Map<String, Queue<KeyPair>> pools = new ConcurrentHashMap<>();
+
+    /**
+     * 正在后台填充的分组
+     */
+    private final Set<String> filling = ConcurrentHashMap.newKeySet();
+
+    /**
+     * 第一次补充时创建,{@link #shutdown()}后为null,只在持有this锁时访问
+     */
+    private ExecutorService executor;
+
+    private final LongAdder hits = new LongAdder();
+
+    private final LongAdder misses = new LongAdder();
+
+    /**
+     * 每个分组最多预生成的密钥对数量
+     */
+    private volatile int capacity;
+
+    public KeyPairPool(int capacity) {
+        this.capacity = capacity;
+    }
+
+    public static KeyPairPool getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * 获取密钥对,池中有则直接返回,没有则同步生成,并触发后台填充
+     *
+     * @param algorithm      算法 RSA,EC,DSA
+     * @param initializeSize 算法初始化长度
+     * @return {@link KeyPair}
+     * @throws Exception 例外
+     */
+    public KeyPair take(String algorithm, int initializeSize) throws Exception {
+        String key = key(algorithm, initializeSize);
+        Queue<KeyPair> queue = pools.computeIfAbsent(key, k -> new ConcurrentLinkedQueue<>());
+        KeyPair keyPair = queue.poll();
+        if (keyPair != null) {
+            hits.increment();
+        } else {
+            misses.increment();
+            keyPair = generate(algorithm, initializeSize);
+        }
+        fill(key, algorithm, initializeSize, queue);
+        return keyPair;
+    }
+
+    /**
+     * 预热指定分组
+     *
+     * @param algorithm      算法
+     * @param initializeSize 算法初始化长度
+     */
+    public void prepare(String algorithm, int initializeSize) {
+        String key = key(algorithm, initializeSize);
+        fill(key, algorithm, initializeSize, pools.computeIfAbsent(key, k -> new ConcurrentLinkedQueue<>()));
+    }
+
+    private void fill(String key, String algorithm, int initializeSize, Queue<KeyPair> queue) {
+        if (queue.size() >= capacity || !filling.add(key)) {
+            return;
+        }
+        executor().execute(() -> {
+            try {
+                while (queue.size() < capacity && pools.get(key) == queue) {
+                    queue.offer(generate(algorithm, initializeSize));
+                }
+            } catch (Throwable ignore) {
+                //算法或长度不支持,take同步生成时会抛出具体异常
+            } finally {
+                filling.remove(key);
+            }
+        });
+    }
+
+    private synchronized ExecutorService executor() {
+        if (executor == null) {
+            AtomicInteger threadIndex = new AtomicInteger();
+            executor = Executors.newFixedThreadPool(Math.max(1, Runtime.getRuntime().availableProcessors() / 2), runnable -> {
+                Thread thread = new Thread(runnable, "KeyPairPool-" + threadIndex.incrementAndGet());
+                thread.setDaemon(true);
+                thread.setPriority(Thread.MIN_PRIORITY);
+                return thread;
+            });
+        }
+        return executor;
+    }
+
+    private static KeyPair generate(String algorithm, int initializeSize) throws Exception {
+        return CryptoContext.keyPairGenerator(algorithm, BC_PROVIDER, initializeSize).generateKeyPair();
+    }
+
+    private static String key(String algorithm, int initializeSize) {
+        return algorithm.toUpperCase() + ":" + initializeSize;
+    }
+
+    /**
+     * 清空池中已生成的密钥对,统计数据保留
+     */
+    public void clear() {
+        pools.clear();
+    }
+
+    /**
+     * 清空池并停止后台线程,插件卸载时调用,之后再补充时重新创建线程
+     */
+    public synchronized void shutdown() {
+        pools.clear();
+        if (executor != null) {
+            executor.shutdownNow();
+            executor = null;
+        }
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public KeyPairPool setCapacity(int capacity) {
+        this.capacity = capacity;
+        return this;
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    /**
+     * @return 池中已生成可用的密钥对数量
+     */
+    public int getAvailable() {
+        return pools.values().stream().mapToInt(Queue::size).sum();
+    }
+
+    /**
+     * @return 命中,未命中,命中率以及可用数量
+     */
+    public String getStatistics() {
+        long hits = getHits();
+        long total = hits + getMisses();
+        return String.format("密钥池命中: %d, 未命中: %d, 命中率: %.1f%%, 可用: %d", hits, total - hits, total == 0 ? 0D : hits * 100D / total, getAvailable());
+    }
+}
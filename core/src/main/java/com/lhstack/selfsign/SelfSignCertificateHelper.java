@@ -0,0 +1,208 @@
+package com.lhstack.selfsign;
+
+import com.lhstack.utils.CryptoContext;
+import com.lhstack.utils.PemUtils;
+import org.bouncycastle.asn1.x500.RDN;
+import org.bouncycastle.asn1.x500.X500Name;
+import org.bouncycastle.asn1.x500.style.BCStyle;
+import org.bouncycastle.asn1.x500.style.IETFUtils;
+import org.bouncycastle.asn1.x509.*;
+import org.bouncycastle.cert.X509CertificateHolder;
+import org.bouncycastle.cert.X509v3CertificateBuilder;
+import org.bouncycastle.cert.jcajce.JcaX509ExtensionUtils;
+import org.bouncycastle.cert.jcajce.JcaX509v3CertificateBuilder;
+import org.bouncycastle.jce.provider.BouncyCastleProvider;
+import org.bouncycastle.operator.ContentSigner;
+import org.bouncycastle.operator.jcajce.JcaContentSignerBuilder;
+
+import java.math.BigInteger;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.*;
+import java.security.cert.X509Certificate;
+import java.util.*;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ForkJoinPool;
+
+public class SelfSignCertificateHelper {
+
+    private static final String BC_PROVIDER = "BC";
+
+    static {
+        Provider provider = Security.getProvider(BouncyCastleProvider.PROVIDER_NAME);
+        if (provider == null) {
+            Security.addProvider(new BouncyCastleProvider());
+        }
+    }
+
+    /**
+     * CA PEM  Gen Self 证书
+     *
+     * @param caCertificatePemPath ca证书文件
+     * @param caPrivateKeyPemPath  ca私钥pem文件
+     * @param selfSignConfig       自签名配置
+     * @return {@link SelfSignCertificateEntity}
+     * @throws Exception 例外
+     */
+    public static SelfSignCertificateEntity genSelfCertificateFromCaPemFile(
+            String caCertificatePemPath,
+            String caPrivateKeyPemPath,
+            SelfSignConfig selfSignConfig) throws Exception {
+        return genSelfCertificateFromCaPem(Files.readString(Path.of(caCertificatePemPath)), Files.readString(Path.of(caPrivateKeyPemPath)), selfSignConfig);
+    }
+
+
+    /**
+     * CA PEM  Gen Self 证书
+     * CA证书和私钥的解析结果按内容缓存,使用同一个CA多次签发时不再重复解析
+     *
+     * @param caCertificatePemContent ca证书内容
+     * @param caPrivateKeyPemContent  ca私钥pem内容
+     * @param selfSignConfig          自签名配置
+     * @return {@link SelfSignCertificateEntity}
+     * @throws Exception 例外
+     */
+    public static SelfSignCertificateEntity genSelfCertificateFromCaPem(String caCertificatePemContent,
+                                                                        String caPrivateKeyPemContent,
+                                                                        SelfSignConfig selfSignConfig) throws Exception {
+        X509Certificate caCertificate = (X509Certificate) PemUtils.readCertificate(caCertificatePemContent);
+        PrivateKey privateKey = PemUtils.readPrivateKey(caPrivateKeyPemContent);
+        return genSelfCertificateFromCa(selfSignConfig, caCertificate, privateKey);
+    }
+
+
+    /**
+     * CA  Gen Self 证书
+     *
+     * @param config        配置
+     * @param caCertificate CA证书
+     * @param caPrivateKey  CA 私钥年
+     * @return {@link SelfSignCertificateEntity}
+     * @throws Exception 例外
+     */
+    public static SelfSignCertificateEntity genSelfCertificateFromCa(
+            SelfSignConfig config,
+            X509Certificate caCertificate,
+            PrivateKey caPrivateKey) throws Exception {
+        return new CertificateIssuer(caCertificate, caPrivateKey).issue(config.getAlgorithm(), config.getCertificate());
+    }
+
+    /**
+     * CA 批量签发证书,签发在并行线程池中执行,结果按完成顺序在调用线程中回调
+     * CA相关的holder,扩展工具以及签名器在整个批次中只构建一次
+     *
+     * @param config        配置,密钥算法取自此配置
+     * @param certificates  需要签发的证书配置
+     * @param caCertificate CA证书
+     * @param caPrivateKey  CA 私钥
+     * @param callback      签发结果回调
+     * @throws Exception 例外
+     */
+    public static void genSelfCertificatesFromCa(
+            SelfSignConfig config,
+            List<SelfSignConfig.Certificate> certificates,
+            X509Certificate caCertificate,
+            PrivateKey caPrivateKey,
+            IssuedCallback callback) throws Exception {
+        CertificateIssuer issuer = new CertificateIssuer(caCertificate, caPrivateKey);
+        ForkJoinPool pool = new ForkJoinPool(Math.max(1, Math.min(Runtime.getRuntime().availableProcessors(), certificates.size())));
+        try {
+            CompletionService<Map.Entry<Integer, SelfSignCertificateEntity>> completionService = new ExecutorCompletionService<>(pool);
+            for (int i = 0; i < certificates.size(); i++) {
+                int index = i;
+                SelfSignConfig.Certificate certificate = certificates.get(i);
+                completionService.submit(() -> Map.entry(index, issuer.issue(config.getAlgorithm(), certificate)));
+            }
+            for (int i = 0; i < certificates.size(); i++) {
+                Map.Entry<Integer, SelfSignCertificateEntity> entry;
+                try {
+                    entry = completionService.take().get();
+                } catch (ExecutionException e) {
+                    if (e.getCause() instanceof Exception) {
+                        throw (Exception) e.getCause();
+                    }
+                    throw e;
+                }
+                callback.accept(entry.getKey(), entry.getValue());
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    public static SelfSignCertificateEntity genCaCertificate(SelfSignConfig config) throws Exception {
+        SelfSignConfig.CA ca = config.getCa();
+        Calendar calendar = Calendar.getInstance();
+        calendar.add(Calendar.DATE, -1);
+        Date startDate = calendar.getTime();
+        calendar.add(Calendar.YEAR, ca.getValidityYear());
+        Date endDate = calendar.getTime();
+        KeyPair rootKeyPair = KeyPairPool.getInstance().take(config.getAlgorithm(), ca.getInitializeSize());
+        BigInteger rootSerialNum = new BigInteger(Long.toString(CryptoContext.secureRandom().nextLong()));
+        X500Name rootCertIssuer = new X500Name(ca.getDn());
+        ContentSigner rootCertContentSigner = new JcaContentSignerBuilder(ca.getSignatureAlgorithm()).setProvider(BC_PROVIDER).build(rootKeyPair.getPrivate());
+        X509v3CertificateBuilder rootCertBuilder = new JcaX509v3CertificateBuilder(rootCertIssuer, rootSerialNum, startDate, endDate, rootCertIssuer, rootKeyPair.getPublic());
+        JcaX509ExtensionUtils rootCertExtUtils = CryptoContext.extensionUtils();
+        rootCertBuilder.addExtension(Extension.basicConstraints, true, new BasicConstraints(true));
+        rootCertBuilder.addExtension(Extension.subjectKeyIdentifier, false, rootCertExtUtils.createSubjectKeyIdentifier(rootKeyPair.getPublic()));
+        X509CertificateHolder rootCertHolder = rootCertBuilder.build(rootCertContentSigner);
+        X509Certificate rootCert = CryptoContext.toCertificate(rootCertHolder);
+        return new SelfSignCertificateEntity(rootCert, rootKeyPair.getPrivate(), rootCert, rootKeyPair.getPrivate());
+    }
+
+    /**
+     * 生成自签名证书
+     *
+     * @param selfSignConfig 自签名配置
+     * @return {@link SelfSignCertificateEntity}
+     * @throws Exception 例外
+     */
+    public static SelfSignCertificateEntity genSelfCertificate(SelfSignConfig selfSignConfig) throws Exception {
+        SelfSignCertificateEntity ca = genCaCertificate(selfSignConfig);
+        return genSelfCertificateFromCa(selfSignConfig, ca.getCa(), ca.getCaKey());
+    }
+
+    /**
+     * 批量签发结果回调
+     */
+    @FunctionalInterface
+    public interface IssuedCallback {
+
+        /**
+         * @param index  证书在批量配置中的下标
+         * @param entity 签发结果
+         * @throws Exception 例外
+         */
+        void accept(int index, SelfSignCertificateEntity entity) throws Exception;
+    }
+
+    /**
+     * 批量证书的输出名称,取dn中的CN并替换文件名中不允许的字符,没有CN时为 certificate-序号,重复时追加序号
+     *
+     * @param certificates 证书配置
+     * @return 与certificates一一对应的名称
+     */
+    public static List<String> entryNames(List<SelfSignConfig.Certificate> certificates) {
+        Set<String> used = new HashSet<>();
+        List<String> names = new ArrayList<>(certificates.size());
+        for (int i = 0; i < certificates.size(); i++) {
+            String name = "certificate-" + (i + 1);
+            try {
+                RDN[] rdns = new X500Name(certificates.get(i).getDn()).getRDNs(BCStyle.CN);
+                if (rdns.length > 0) {
+                    name = IETFUtils.valueToString(rdns[0].getFirst().getValue()).replaceAll("[\\\\/:*?\"<>|\\s]", "_");
+                }
+            } catch (Throwable ignore) {
+
+            }
+            String uniqueName = name;
+            for (int j = 2; !used.add(uniqueName); j++) {
+                uniqueName = name + "-" + j;
+            }
+            names.add(uniqueName);
+        }
+        return names;
+    }
+}
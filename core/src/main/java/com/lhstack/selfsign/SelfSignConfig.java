@@ -1,6 +1,9 @@
 package com.lhstack.selfsign;
 
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Set;
 
 public class SelfSignConfig {
@@ -14,6 +17,11 @@ public class SelfSignConfig {
 
     private Certificate certificate;
 
+    /**
+     * 批量签发的证书列表
+     */
+    private List<Certificate> certificates;
+
     public String getAlgorithm() {
         return algorithm;
     }
@@ -32,6 +40,31 @@ public class SelfSignConfig {
         return this;
     }
 
+    public List<Certificate> getCertificates() {
+        return certificates;
+    }
+
+    public SelfSignConfig setCertificates(List<Certificate> certificates) {
+        this.certificates = certificates;
+        return this;
+    }
+
+    /**
+     * 批量签发的证书列表,未配置的字段继承certificate中的配置,hosts除外
+     *
+     * @return {@link List}
+     */
+    public List<Certificate> resolveCertificates() {
+        if (certificates == null || certificates.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<Certificate> result = new ArrayList<>(certificates.size());
+        for (Certificate item : certificates) {
+            result.add(certificate == null ? item : item.inherit(certificate));
+        }
+        return result;
+    }
+
     public CA getCa() {
         return ca;
     }
@@ -41,6 +74,24 @@ public class SelfSignConfig {
         return this;
     }
 
+    /**
+     * @return 深拷贝,修改副本不影响原配置
+     */
+    public SelfSignConfig copy() {
+        List<Certificate> copies = null;
+        if (certificates != null) {
+            copies = new ArrayList<>(certificates.size());
+            for (Certificate item : certificates) {
+                copies.add(item == null ? null : item.copy());
+            }
+        }
+        return new SelfSignConfig()
+                .setAlgorithm(algorithm)
+                .setCa(ca == null ? null : ca.copy())
+                .setCertificate(certificate == null ? null : certificate.copy())
+                .setCertificates(copies);
+    }
+
     public static class Certificate{
 
         /**
@@ -113,6 +164,30 @@ public class SelfSignConfig {
             this.validityYear = validityYear;
             return this;
         }
+
+        /**
+         * 继承默认配置
+         *
+         * @param defaults 默认配置
+         * @return {@link Certificate}
+         */
+        public Certificate inherit(Certificate defaults) {
+            return new Certificate()
+                    .setDn(dn != null ? dn : defaults.getDn())
+                    .setHosts(hosts != null ? hosts : Collections.emptySet())
+                    .setValidityYear(validityYear != null ? validityYear : defaults.getValidityYear())
+                    .setInitializeSize(initializeSize != null ? initializeSize : defaults.getInitializeSize())
+                    .setSignatureAlgorithm(signatureAlgorithm != null ? signatureAlgorithm : defaults.getSignatureAlgorithm());
+        }
+
+        public Certificate copy() {
+            return new Certificate()
+                    .setDn(dn)
+                    .setHosts(hosts == null ? null : new LinkedHashSet<>(hosts))
+                    .setValidityYear(validityYear)
+                    .setInitializeSize(initializeSize)
+                    .setSignatureAlgorithm(signatureAlgorithm);
+        }
     }
 
     public static class CA{
@@ -173,5 +248,13 @@ public class SelfSignConfig {
             this.validityYear = validityYear;
             return this;
         }
+
+        public CA copy() {
+            return new CA()
+                    .setDn(dn)
+                    .setValidityYear(validityYear)
+                    .setInitializeSize(initializeSize)
+                    .setSignatureAlgorithm(signatureAlgorithm);
+        }
     }
 }
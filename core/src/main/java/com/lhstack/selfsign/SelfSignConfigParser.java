@@ -0,0 +1,137 @@
+package com.lhstack.selfsign;
+
+import com.lhstack.utils.ParseCache;
+import org.yaml.snakeyaml.LoaderOptions;
+import org.yaml.snakeyaml.constructor.Constructor;
+import org.yaml.snakeyaml.introspector.BeanAccess;
+import org.yaml.snakeyaml.nodes.Node;
+import org.yaml.snakeyaml.nodes.Tag;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * 自签名yaml配置解析
+ * yaml只解析为节点一次,先按{@link SelfSignConfigValidator}校验,再从同一个节点直接绑定到{@link SelfSignConfig}的字段
+ * 解析结果以配置内容的SHA-256缓存,每次返回缓存结果的副本
+ */
+public class SelfSignConfigParser {
+
+    private static final String CACHE_KIND = "selfSignConfig";
+
+    /**
+     * 解析yaml配置
+     *
+     * @param text yaml配置内容
+     * @return {@link SelfSignConfig},调用方可以修改
+     * @throws IllegalArgumentException 配置有错误,每行一个错误
+     */
+    public static SelfSignConfig parse(String text) {
+        try {
+            SelfSignConfig config = ParseCache.getInstance().get(CACHE_KIND, text.getBytes(StandardCharsets.UTF_8), () -> bind(text));
+            return config == null ? null : config.copy();
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IllegalArgumentException(e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 校验配置,没有问题时解析并缓存配置,用于编辑时的校验,之后{@link #parse}不再解析
+     *
+     * @param text yaml配置内容
+     * @return {@link Result}
+     */
+    public static Result check(String text) {
+        List<SelfSignConfigValidator.Problem> problems = new ArrayList<>();
+        Node root = SelfSignConfigValidator.compose(text, problems);
+        if (root == null) {
+            return new Result(problems, null);
+        }
+        SelfSignConfigValidator.validate(root, problems);
+        if (!problems.isEmpty()) {
+            return new Result(problems, null);
+        }
+        try {
+            SelfSignConfig config = ParseCache.getInstance().get(CACHE_KIND, text.getBytes(StandardCharsets.UTF_8), () -> construct(root));
+            return new Result(problems, config == null ? null : config.copy());
+        } catch (Exception e) {
+            problems.add(new SelfSignConfigValidator.Problem(0, 0, "配置解析失败: " + e.getMessage()));
+            return new Result(problems, null);
+        }
+    }
+
+    /**
+     * 校验并绑定配置,不使用缓存
+     *
+     * @param text yaml配置内容
+     * @return {@link SelfSignConfig}
+     */
+    public static SelfSignConfig bind(String text) {
+        if (text == null || text.isBlank()) {
+            throw new IllegalArgumentException("配置为空");
+        }
+        List<SelfSignConfigValidator.Problem> problems = new ArrayList<>();
+        Node root = SelfSignConfigValidator.compose(text, problems);
+        if (root != null) {
+            SelfSignConfigValidator.validate(root, problems);
+        }
+        if (!problems.isEmpty()) {
+            throw new IllegalArgumentException(problems.stream().map(SelfSignConfigValidator.Problem::toString).collect(Collectors.joining("\n")));
+        }
+        return root == null ? null : construct(root);
+    }
+
+    private static SelfSignConfig construct(Node root) {
+        //Constructor不是线程安全的,每次解析单独创建
+        return new NodeConstructor().construct(root);
+    }
+
+    /**
+     * 从已经解析的节点绑定配置,不再重新解析yaml
+     */
+    private static class NodeConstructor extends Constructor {
+
+        NodeConstructor() {
+            super(SelfSignConfig.class, new LoaderOptions());
+            getPropertyUtils().setBeanAccess(BeanAccess.FIELD);
+        }
+
+        SelfSignConfig construct(Node root) {
+            root.setTag(new Tag(SelfSignConfig.class));
+            return (SelfSignConfig) constructDocument(root);
+        }
+    }
+
+    /**
+     * 校验结果
+     */
+    public static class Result {
+
+        private final List<SelfSignConfigValidator.Problem> problems;
+
+        private final SelfSignConfig config;
+
+        public Result(List<SelfSignConfigValidator.Problem> problems, SelfSignConfig config) {
+            this.problems = problems;
+            this.config = config;
+        }
+
+        /**
+         * @return 问题列表,按出现顺序,没有问题时为空
+         */
+        public List<SelfSignConfigValidator.Problem> getProblems() {
+            return problems;
+        }
+
+        /**
+         * @return 配置,内容为空或者有问题时为null
+         */
+        public SelfSignConfig getConfig() {
+            return config;
+        }
+    }
+}
@@ -0,0 +1,276 @@
+package com.lhstack.selfsign;
+
+import org.bouncycastle.asn1.x500.X500Name;
+import org.yaml.snakeyaml.Yaml;
+import org.yaml.snakeyaml.error.Mark;
+import org.yaml.snakeyaml.error.MarkedYAMLException;
+import org.yaml.snakeyaml.nodes.*;
+
+import java.io.StringReader;
+import java.util.*;
+
+/**
+ * 自签名yaml配置校验,不生成配置对象,每个问题带有所在的行和列,用于在编辑器中标记错误
+ * 除yaml格式外还校验配置项名称,算法与签名算法以及密钥长度的组合
+ */
+public class SelfSignConfigValidator {
+
+    private static final Set<String> ALGORITHMS = Set.of("RSA", "EC", "DSA");
+
+    /**
+     * 算法 -> 支持的签名算法,大写
+     */
+    private static final Map<String, Set<String>> SIGNATURE_ALGORITHMS = Map.of(
+            "RSA", Set.of("SHA1WITHRSA", "SHA224WITHRSA", "SHA256WITHRSA", "SHA384WITHRSA", "SHA512WITHRSA", "SHA256WITHRSAENCRYPTION", "SHA256WITHRSAANDMGF1", "SHA384WITHRSAANDMGF1", "SHA512WITHRSAANDMGF1"),
+            "EC", Set.of("SHA1WITHECDSA", "SHA224WITHECDSA", "SHA256WITHECDSA", "SHA384WITHECDSA", "SHA512WITHECDSA"),
+            "DSA", Set.of("SHA1WITHDSA", "SHA224WITHDSA", "SHA256WITHDSA", "SHA384WITHDSA", "SHA512WITHDSA"));
+
+    /**
+     * 算法 -> 支持的initializeSize
+     */
+    private static final Map<String, List<Integer>> KEY_SIZES = Map.of(
+            "RSA", List.of(1024, 2048, 3072, 4096, 8192),
+            "EC", List.of(192, 224, 239, 256, 384, 521),
+            "DSA", List.of(1024, 2048, 3072));
+
+    private static final Set<String> ROOT_KEYS = Set.of("algorithm", "ca", "certificate", "certificates");
+
+    private static final Set<String> CA_KEYS = Set.of("dn", "validityYear", "initializeSize", "signatureAlgorithm");
+
+    private static final Set<String> CERTIFICATE_KEYS = Set.of("dn", "hosts", "validityYear", "initializeSize", "signatureAlgorithm");
+
+    /**
+     * 校验配置
+     *
+     * @param text yaml配置内容
+     * @return 问题列表,按出现顺序,没有问题时为空
+     */
+    public static List<Problem> validate(String text) {
+        List<Problem> problems = new ArrayList<>();
+        Node root = compose(text, problems);
+        if (root != null) {
+            validate(root, problems);
+        }
+        return problems;
+    }
+
+    /**
+     * 把yaml配置解析为节点,不校验配置项
+     *
+     * @param text     yaml配置内容
+     * @param problems yaml格式错误时记录问题
+     * @return 根节点,内容为空或者格式错误时为null
+     */
+    static Node compose(String text, List<Problem> problems) {
+        if (text == null || text.isBlank()) {
+            return null;
+        }
+        try {
+            return new Yaml().compose(new StringReader(text));
+        } catch (MarkedYAMLException e) {
+            Mark mark = e.getProblemMark() != null ? e.getProblemMark() : e.getContextMark();
+            String message = e.getProblem() != null ? e.getProblem() : e.getMessage();
+            problems.add(mark == null ? new Problem(0, 0, "yaml格式错误: " + message) : new Problem(mark.getLine(), mark.getColumn(), "yaml格式错误: " + message));
+        } catch (RuntimeException e) {
+            problems.add(new Problem(0, 0, "yaml格式错误: " + e.getMessage()));
+        }
+        return null;
+    }
+
+    /**
+     * 校验已经解析的配置节点
+     *
+     * @param root     根节点
+     * @param problems 问题列表,按出现顺序排列
+     */
+    static void validate(Node root, List<Problem> problems) {
+        Map<String, NodeTuple> fields = mapping(root, "配置", ROOT_KEYS, problems);
+        if (fields == null) {
+            return;
+        }
+        String algorithm = null;
+        NodeTuple algorithmTuple = fields.get("algorithm");
+        if (algorithmTuple == null) {
+            problems.add(problem(root, "缺少algorithm,可选值: RSA,EC,DSA"));
+        } else {
+            algorithm = scalar(algorithmTuple, problems);
+            if (algorithm != null && !ALGORITHMS.contains(algorithm)) {
+                problems.add(problem(algorithmTuple.getValueNode(), "不支持的algorithm: " + algorithm + ",可选值: RSA,EC,DSA"));
+                algorithm = null;
+            }
+        }
+        NodeTuple ca = fields.get("ca");
+        if (ca == null) {
+            problems.add(problem(root, "缺少ca配置"));
+        } else {
+            validateItem("ca", ca.getValueNode(), algorithm, true, false, problems);
+        }
+        NodeTuple certificate = fields.get("certificate");
+        if (certificate != null) {
+            validateItem("certificate", certificate.getValueNode(), algorithm, true, true, problems);
+        }
+        NodeTuple certificates = fields.get("certificates");
+        if (certificates != null && !isNull(certificates.getValueNode())) {
+            if (certificates.getValueNode() instanceof SequenceNode) {
+                List<Node> items = ((SequenceNode) certificates.getValueNode()).getValue();
+                for (int i = 0; i < items.size(); i++) {
+                    //未配置的字段继承certificate中的配置
+                    validateItem("certificates[" + i + "]", items.get(i), algorithm, certificate == null, true, problems);
+                }
+            } else {
+                problems.add(problem(certificates.getValueNode(), "certificates必须是列表"));
+            }
+        }
+        problems.sort(Comparator.comparingInt(Problem::getLine).thenComparingInt(Problem::getColumn));
+    }
+
+    /**
+     * 校验ca或者certificate配置
+     *
+     * @param name      配置名称,用于错误提示
+     * @param node      配置节点
+     * @param algorithm 算法,未配置或者不支持时为null
+     * @param required  dn,validityYear,initializeSize,signatureAlgorithm是否必填
+     * @param hosts     是否可以配置hosts
+     */
+    private static void validateItem(String name, Node node, String algorithm, boolean required, boolean hosts, List<Problem> problems) {
+        Map<String, NodeTuple> fields = mapping(node, name, hosts ? CERTIFICATE_KEYS : CA_KEYS, problems);
+        if (fields == null) {
+            return;
+        }
+        NodeTuple dn = fields.get("dn");
+        if (dn != null) {
+            String value = scalar(dn, problems);
+            if (value != null) {
+                try {
+                    new X500Name(value);
+                } catch (RuntimeException e) {
+                    problems.add(problem(dn.getValueNode(), name + ".dn格式错误: " + e.getMessage()));
+                }
+            }
+        } else if (required) {
+            problems.add(problem(node, name + "缺少dn"));
+        }
+        for (String key : new String[]{"validityYear", "initializeSize"}) {
+            NodeTuple tuple = fields.get(key);
+            if (tuple == null) {
+                if (required) {
+                    problems.add(problem(node, name + "缺少" + key));
+                }
+                continue;
+            }
+            String value = scalar(tuple, problems);
+            if (value != null) {
+                try {
+                    int number = Integer.parseInt(value);
+                    if (number <= 0) {
+                        problems.add(problem(tuple.getValueNode(), name + "." + key + "必须大于0"));
+                    } else if ("initializeSize".equals(key) && algorithm != null && !KEY_SIZES.get(algorithm).contains(number)) {
+                        problems.add(problem(tuple.getValueNode(), String.format("%s.initializeSize %d 不是%s支持的长度,可选值: %s", name, number, algorithm, KEY_SIZES.get(algorithm))));
+                    }
+                } catch (NumberFormatException e) {
+                    problems.add(problem(tuple.getValueNode(), name + "." + key + "必须是整数: " + value));
+                }
+            }
+        }
+        NodeTuple signatureAlgorithm = fields.get("signatureAlgorithm");
+        if (signatureAlgorithm != null) {
+            String value = scalar(signatureAlgorithm, problems);
+            if (value != null && algorithm != null && !SIGNATURE_ALGORITHMS.get(algorithm).contains(value.toUpperCase(Locale.ROOT))) {
+                problems.add(problem(signatureAlgorithm.getValueNode(), String.format("%s.signatureAlgorithm %s 不是algorithm %s 支持的签名算法", name, value, algorithm)));
+            }
+        } else if (required) {
+            problems.add(problem(node, name + "缺少signatureAlgorithm"));
+        }
+        NodeTuple hostsTuple = fields.get("hosts");
+        if (hostsTuple != null && !isNull(hostsTuple.getValueNode())) {
+            if (hostsTuple.getValueNode() instanceof SequenceNode) {
+                for (Node host : ((SequenceNode) hostsTuple.getValueNode()).getValue()) {
+                    if (!(host instanceof ScalarNode) || isNull(host)) {
+                        problems.add(problem(host, name + ".hosts中只能是域名或者ip"));
+                    }
+                }
+            } else {
+                problems.add(problem(hostsTuple.getValueNode(), name + ".hosts必须是列表"));
+            }
+        }
+    }
+
+    /**
+     * @param keys 支持的配置项名称
+     * @return 键 -> 键值对,节点不是映射时记录问题并返回null
+     */
+    private static Map<String, NodeTuple> mapping(Node node, String name, Set<String> keys, List<Problem> problems) {
+        if (!(node instanceof MappingNode)) {
+            problems.add(problem(node, name + "必须是键值对"));
+            return null;
+        }
+        Map<String, NodeTuple> fields = new LinkedHashMap<>();
+        for (NodeTuple tuple : ((MappingNode) node).getValue()) {
+            String key = tuple.getKeyNode() instanceof ScalarNode ? ((ScalarNode) tuple.getKeyNode()).getValue() : null;
+            if (key == null || !keys.contains(key)) {
+                problems.add(problem(tuple.getKeyNode(), String.format("%s中不支持的配置项: %s,可选值: %s", name, key, new TreeSet<>(keys))));
+            } else if (fields.put(key, tuple) != null) {
+                problems.add(problem(tuple.getKeyNode(), String.format("%s中重复的配置项: %s", name, key)));
+            }
+        }
+        return fields;
+    }
+
+    /**
+     * @return 值的文本,值不是标量时记录问题并返回null
+     */
+    private static String scalar(NodeTuple tuple, List<Problem> problems) {
+        Node node = tuple.getValueNode();
+        String key = ((ScalarNode) tuple.getKeyNode()).getValue();
+        if (!(node instanceof ScalarNode) || isNull(node)) {
+            problems.add(problem(node, key + "不能为空或者列表"));
+            return null;
+        }
+        return ((ScalarNode) node).getValue();
+    }
+
+    private static boolean isNull(Node node) {
+        return Tag.NULL.equals(node.getTag());
+    }
+
+    private static Problem problem(Node node, String message) {
+        Mark mark = node.getStartMark();
+        return mark == null ? new Problem(0, 0, message) : new Problem(mark.getLine(), mark.getColumn(), message);
+    }
+
+    /**
+     * 配置问题,行和列从0开始
+     */
+    public static class Problem {
+
+        private final int line;
+
+        private final int column;
+
+        private final String message;
+
+        public Problem(int line, int column, String message) {
+            this.line = line;
+            this.column = column;
+            this.message = message;
+        }
+
+        public int getLine() {
+            return line;
+        }
+
+        public int getColumn() {
+            return column;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("第%d行: %s", line + 1, message);
+        }
+    }
+}
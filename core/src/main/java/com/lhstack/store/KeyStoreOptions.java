@@ -0,0 +1,365 @@
+package com.lhstack.store;
+
+import org.apache.commons.collections.EnumerationUtils;
+import org.bouncycastle.asn1.ASN1Encoding;
+import org.bouncycastle.asn1.ASN1ObjectIdentifier;
+import org.bouncycastle.asn1.DERBMPString;
+import org.bouncycastle.asn1.DERNull;
+import org.bouncycastle.asn1.nist.NISTObjectIdentifiers;
+import org.bouncycastle.asn1.oiw.OIWObjectIdentifiers;
+import org.bouncycastle.asn1.pkcs.PKCSObjectIdentifiers;
+import org.bouncycastle.asn1.x509.AlgorithmIdentifier;
+import org.bouncycastle.asn1.x509.KeyPurposeId;
+import org.bouncycastle.asn1.x509.SubjectKeyIdentifier;
+import org.bouncycastle.cert.jcajce.JcaX509ExtensionUtils;
+import org.bouncycastle.crypto.util.PBKDF2Config;
+import org.bouncycastle.jcajce.BCFKSLoadStoreParameter;
+import org.bouncycastle.jce.provider.BouncyCastleProvider;
+import org.bouncycastle.operator.OutputEncryptor;
+import org.bouncycastle.pkcs.PKCS12PfxPduBuilder;
+import org.bouncycastle.pkcs.PKCS12SafeBag;
+import org.bouncycastle.pkcs.PKCS12SafeBagBuilder;
+import org.bouncycastle.pkcs.jcajce.JcaPKCS12SafeBagBuilder;
+import org.bouncycastle.pkcs.jcajce.JcePKCS12MacCalculatorBuilder;
+import org.bouncycastle.pkcs.jcajce.JcePKCSPBEOutputEncryptorBuilder;
+
+import java.io.OutputStream;
+import java.security.*;
+import java.security.cert.Certificate;
+import java.security.cert.X509Certificate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * keystore的保存格式以及口令派生参数
+ * PKCS12使用BC的PFX构建器逐条目写出,私钥,证书加密算法,MAC算法以及迭代次数都可以单独指定,不依赖JDK的全局安全属性,可以并发保存
+ * BCFKS的迭代次数用于派生存储的MAC以及加密密钥,私钥的保护参数由BC决定,JKS的私钥保护算法固定,只改变格式
+ */
+public class KeyStoreOptions {
+
+    static {
+        Provider provider = Security.getProvider(BouncyCastleProvider.PROVIDER_NAME);
+        if (provider == null) {
+            Security.addProvider(new BouncyCastleProvider());
+        }
+    }
+
+    /**
+     * JDK识别PKCS12中受信任证书条目的属性,值为证书可用于的扩展密钥用途
+     */
+    private static final ASN1ObjectIdentifier ORACLE_TRUSTED_KEY_USAGE = new ASN1ObjectIdentifier("2.16.840.1.113894.746875.1.1");
+
+    public enum Type {
+        JKS("JKS", "jks"),
+        PKCS12("PKCS12", "p12"),
+        BCFKS("BCFKS", "bcfks");
+
+        private final String name;
+
+        private final String extension;
+
+        Type(String name, String extension) {
+            this.name = name;
+            this.extension = extension;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+
+        @Override
+        public String toString() {
+            return name;
+        }
+    }
+
+    /**
+     * PKCS12私钥以及证书的加密算法,证书与私钥使用相同的迭代次数
+     */
+    public enum Protection {
+        AES_256("PBES2 AES-256-CBC / PBKDF2-HmacSHA256"),
+        DES_EDE("PBE-SHA1-3DES(兼容旧版本JDK)"),
+        NONE("不加密");
+
+        private final String description;
+
+        Protection(String description) {
+            this.description = description;
+        }
+
+        @Override
+        public String toString() {
+            return description;
+        }
+    }
+
+    /**
+     * PKCS12的完整性校验算法,BCFKS只支持HmacSHA512
+     */
+    public enum Mac {
+        HMAC_SHA256("HmacPBESHA256", NISTObjectIdentifiers.id_sha256),
+        HMAC_SHA512("HmacPBESHA512", NISTObjectIdentifiers.id_sha512),
+        HMAC_SHA1("HmacPBESHA1", OIWObjectIdentifiers.idSHA1),
+        NONE("不校验", null);
+
+        private final String description;
+
+        private final ASN1ObjectIdentifier digest;
+
+        Mac(String description, ASN1ObjectIdentifier digest) {
+            this.description = description;
+            this.digest = digest;
+        }
+
+        @Override
+        public String toString() {
+            return description;
+        }
+    }
+
+    /**
+     * 与JDK 17的PKCS12默认值相同
+     */
+    public static final int DEFAULT_ITERATIONS = 10000;
+
+    private Type type = Type.PKCS12;
+
+    private Protection keyProtection = Protection.AES_256;
+
+    private int keyIterations = DEFAULT_ITERATIONS;
+
+    private Protection certificateProtection = Protection.AES_256;
+
+    private Mac mac = Mac.HMAC_SHA256;
+
+    private int macIterations = DEFAULT_ITERATIONS;
+
+    public Type getType() {
+        return type;
+    }
+
+    public KeyStoreOptions setType(Type type) {
+        this.type = type;
+        return this;
+    }
+
+    public Protection getKeyProtection() {
+        return keyProtection;
+    }
+
+    public KeyStoreOptions setKeyProtection(Protection keyProtection) {
+        this.keyProtection = keyProtection;
+        return this;
+    }
+
+    public int getKeyIterations() {
+        return keyIterations;
+    }
+
+    public KeyStoreOptions setKeyIterations(int keyIterations) {
+        this.keyIterations = keyIterations;
+        return this;
+    }
+
+    public Protection getCertificateProtection() {
+        return certificateProtection;
+    }
+
+    public KeyStoreOptions setCertificateProtection(Protection certificateProtection) {
+        this.certificateProtection = certificateProtection;
+        return this;
+    }
+
+    public Mac getMac() {
+        return mac;
+    }
+
+    public KeyStoreOptions setMac(Mac mac) {
+        this.mac = mac;
+        return this;
+    }
+
+    public int getMacIterations() {
+        return macIterations;
+    }
+
+    public KeyStoreOptions setMacIterations(int macIterations) {
+        this.macIterations = macIterations;
+        return this;
+    }
+
+    /**
+     * 检查参数组合
+     *
+     * @throws IllegalArgumentException 不支持的组合
+     */
+    public void validate() {
+        if (keyIterations < 1 || macIterations < 1) {
+            throw new IllegalArgumentException("迭代次数必须大于0");
+        }
+        if (type == Type.PKCS12 && keyProtection == Protection.NONE) {
+            throw new IllegalArgumentException("PKCS12的私钥必须加密");
+        }
+        if (type == Type.BCFKS && mac != Mac.HMAC_SHA512) {
+            throw new IllegalArgumentException("BCFKS只支持HmacSHA512");
+        }
+    }
+
+    /**
+     * 按当前参数写出keystore,所有条目的私钥使用同一个密码
+     *
+     * @param source            源keystore
+     * @param sourceKeyPassword 源keystore中私钥的密码
+     * @param keyPassword       写出的私钥密码,BCFKS以及PKCS12与存储密码相同时兼容性最好
+     * @param storePassword     存储密码
+     * @param outputStream      输出流
+     * @throws Exception 例外
+     */
+    public void write(KeyStore source, char[] sourceKeyPassword, char[] keyPassword, char[] storePassword, OutputStream outputStream) throws Exception {
+        write(source, alias -> sourceKeyPassword, keyPassword, storePassword, outputStream);
+    }
+
+    /**
+     * 按当前参数写出keystore,源keystore中每个私钥可以使用不同的密码,写出的私钥使用同一个密码
+     *
+     * @param source             源keystore
+     * @param sourceKeyPasswords 条目名称 -> 源keystore中私钥的密码
+     * @param keyPassword        写出的私钥密码,BCFKS以及PKCS12与存储密码相同时兼容性最好
+     * @param storePassword      存储密码
+     * @param outputStream       输出流
+     * @throws Exception 例外
+     */
+    public void write(KeyStore source, Function<String, char[]> sourceKeyPasswords, char[] keyPassword, char[] storePassword, OutputStream outputStream) throws Exception {
+        validate();
+        Function<String, char[]> sourcePassword = alias -> {
+            char[] password = sourceKeyPasswords.apply(alias);
+            return password == null ? new char[0] : password;
+        };
+        char[] targetKeyPassword = keyPassword == null ? new char[0] : keyPassword;
+        char[] targetStorePassword = storePassword == null ? new char[0] : storePassword;
+        if (type == Type.PKCS12) {
+            outputStream.write(pkcs12(source, sourcePassword, targetKeyPassword, targetStorePassword));
+            return;
+        }
+        KeyStore target = type == Type.BCFKS ? KeyStore.getInstance(type.name, BouncyCastleProvider.PROVIDER_NAME) : KeyStore.getInstance(type.name);
+        target.load(null, null);
+        List<String> aliases = EnumerationUtils.toList(source.aliases());
+        for (String alias : aliases) {
+            if (source.isKeyEntry(alias)) {
+                target.setKeyEntry(alias, source.getKey(alias, sourcePassword.apply(alias)), targetKeyPassword, source.getCertificateChain(alias));
+            } else {
+                target.setCertificateEntry(alias, source.getCertificate(alias));
+            }
+        }
+        if (type == Type.BCFKS) {
+            target.store(new BCFKSLoadStoreParameter.Builder(outputStream, targetStorePassword)
+                    .withStorePBKDFConfig(new PBKDF2Config.Builder()
+                            .withIterationCount(macIterations)
+                            .withPRF(PBKDF2Config.PRF_SHA512)
+                            .build())
+                    .withStoreMacAlgorithm(BCFKSLoadStoreParameter.MacAlgorithm.HmacSHA512)
+                    .build());
+        } else {
+            target.store(outputStream, targetStorePassword);
+        }
+    }
+
+    private byte[] pkcs12(KeyStore source, Function<String, char[]> sourcePassword, char[] keyPassword, char[] storePassword) throws Exception {
+        OutputEncryptor keyEncryptor = encryptor(keyProtection, keyPassword);
+        List<PKCS12SafeBag> keyBags = new ArrayList<>();
+        List<PKCS12SafeBag> certificateBags = new ArrayList<>();
+        JcaX509ExtensionUtils extensionUtils = new JcaX509ExtensionUtils();
+        List<String> aliases = EnumerationUtils.toList(source.aliases());
+        for (String alias : aliases) {
+            DERBMPString friendlyName = new DERBMPString(alias);
+            if (!source.isKeyEntry(alias)) {
+                PKCS12SafeBagBuilder bagBuilder = new JcaPKCS12SafeBagBuilder((X509Certificate) source.getCertificate(alias));
+                bagBuilder.addBagAttribute(PKCSObjectIdentifiers.pkcs_9_at_friendlyName, friendlyName);
+                bagBuilder.addBagAttribute(ORACLE_TRUSTED_KEY_USAGE, KeyPurposeId.anyExtendedKeyUsage);
+                certificateBags.add(bagBuilder.build());
+                continue;
+            }
+            Key key = source.getKey(alias, sourcePassword.apply(alias));
+            if (!(key instanceof PrivateKey)) {
+                throw new IllegalArgumentException(String.format("PKCS12不支持 %s 的%s密钥", alias, key.getAlgorithm()));
+            }
+            Certificate[] chain = source.getCertificateChain(alias);
+            //localKeyId关联私钥与证书,取证书公钥的subject key identifier
+            SubjectKeyIdentifier localKeyId = extensionUtils.createSubjectKeyIdentifier(chain[0].getPublicKey());
+            PKCS12SafeBagBuilder keyBagBuilder = new JcaPKCS12SafeBagBuilder((PrivateKey) key, keyEncryptor);
+            keyBagBuilder.addBagAttribute(PKCSObjectIdentifiers.pkcs_9_at_friendlyName, friendlyName);
+            keyBagBuilder.addBagAttribute(PKCSObjectIdentifiers.pkcs_9_at_localKeyId, localKeyId);
+            keyBags.add(keyBagBuilder.build());
+            for (int i = 0; i < chain.length; i++) {
+                PKCS12SafeBagBuilder bagBuilder = new JcaPKCS12SafeBagBuilder((X509Certificate) chain[i]);
+                if (i == 0) {
+                    bagBuilder.addBagAttribute(PKCSObjectIdentifiers.pkcs_9_at_friendlyName, friendlyName);
+                    bagBuilder.addBagAttribute(PKCSObjectIdentifiers.pkcs_9_at_localKeyId, localKeyId);
+                }
+                certificateBags.add(bagBuilder.build());
+            }
+        }
+        PKCS12PfxPduBuilder builder = new PKCS12PfxPduBuilder();
+        if (!certificateBags.isEmpty()) {
+            PKCS12SafeBag[] bags = certificateBags.toArray(new PKCS12SafeBag[0]);
+            if (certificateProtection == Protection.NONE) {
+                for (PKCS12SafeBag bag : bags) {
+                    builder.addData(bag);
+                }
+            } else {
+                builder.addEncryptedData(encryptor(certificateProtection, storePassword), bags);
+            }
+        }
+        for (PKCS12SafeBag keyBag : keyBags) {
+            builder.addData(keyBag);
+        }
+        JcePKCS12MacCalculatorBuilder macBuilder = mac == Mac.NONE ? null : new JcePKCS12MacCalculatorBuilder(mac.digest).setIterationCount(macIterations);
+        return builder.build(macBuilder, storePassword).getEncoded(ASN1Encoding.DER);
+    }
+
+    private OutputEncryptor encryptor(Protection protection, char[] password) throws Exception {
+        JcePKCSPBEOutputEncryptorBuilder builder;
+        if (protection == Protection.AES_256) {
+            builder = new JcePKCSPBEOutputEncryptorBuilder(NISTObjectIdentifiers.id_aes256_CBC)
+                    .setPRF(new AlgorithmIdentifier(PKCSObjectIdentifiers.id_hmacWithSHA256, DERNull.INSTANCE));
+        } else {
+            builder = new JcePKCSPBEOutputEncryptorBuilder(PKCSObjectIdentifiers.pbeWithSHAAnd3_KeyTripleDES_CBC);
+        }
+        return builder.setIterationCount(keyIterations).setProvider(BouncyCastleProvider.PROVIDER_NAME).build(password);
+    }
+
+    /**
+     * 直接调用keystore的store与按当前参数写出的结果是否相同,相同时不需要读取私钥,每个私钥保留原有的密码
+     * JKS没有可选参数,JDK的PKCS12在默认的安全属性下与默认参数相同
+     *
+     * @param keyStore keyStore
+     * @return 是否可以直接store
+     */
+    public boolean isNative(KeyStore keyStore) {
+        if (!type.name.equalsIgnoreCase(keyStore.getType()) || BouncyCastleProvider.PROVIDER_NAME.equals(keyStore.getProvider().getName())) {
+            return false;
+        }
+        if (type == Type.JKS) {
+            return true;
+        }
+        return type == Type.PKCS12 && keyProtection == Protection.AES_256 && keyIterations == DEFAULT_ITERATIONS
+                && certificateProtection == Protection.AES_256 && mac == Mac.HMAC_SHA256 && macIterations == DEFAULT_ITERATIONS;
+    }
+
+    @Override
+    public String toString() {
+        switch (type) {
+            case PKCS12:
+                return String.format("PKCS12, 私钥: %s %d次, 证书: %s, MAC: %s", keyProtection, keyIterations, certificateProtection, mac == Mac.NONE ? mac : mac + " " + macIterations + "次");
+            case BCFKS:
+                return String.format("BCFKS, PBKDF2-HmacSHA512 %d次", macIterations);
+            default:
+                return type.name;
+        }
+    }
+}
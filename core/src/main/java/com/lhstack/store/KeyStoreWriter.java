@@ -0,0 +1,312 @@
+package com.lhstack.store;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.nio.file.attribute.AclFileAttributeView;
+import java.nio.file.attribute.PosixFileAttributeView;
+import java.nio.file.attribute.PosixFileAttributes;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+
+/**
+ * keystore后台写入
+ * 所有保存在同一个后台线程中依次执行,同一个文件的保存还没有开始时,后续的保存与其合并,只写入最新的一次
+ * 写入时先写到同目录下的临时文件并同步到磁盘,再原子地替换目标文件,写入中断不会留下不完整的文件
+ * 目标文件是符号链接时替换链接指向的文件,临时文件沿用目标文件的权限
+ */
+public class KeyStoreWriter implements AutoCloseable {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * 保存结果
+     */
+    public static class Result {
+
+        private final Path path;
+
+        private final long modCount;
+
+        private final long size;
+
+        private final long elapsedMillis;
+
+        private final boolean superseded;
+
+        Result(Path path, long modCount, long size, long elapsedMillis, boolean superseded) {
+            this.path = path;
+            this.modCount = modCount;
+            this.size = size;
+            this.elapsedMillis = elapsedMillis;
+            this.superseded = superseded;
+        }
+
+        public Path getPath() {
+            return path;
+        }
+
+        /**
+         * @return 写入的内容对应的修改次数
+         */
+        public long getModCount() {
+            return modCount;
+        }
+
+        public long getSize() {
+            return size;
+        }
+
+        public long getElapsedMillis() {
+            return elapsedMillis;
+        }
+
+        /**
+         * @return 是否与之后的保存合并,合并时由最后一次保存的结果表示实际的写入
+         */
+        public boolean isSuperseded() {
+            return superseded;
+        }
+    }
+
+    private static class Request {
+
+        private final TrackedKeyStore keyStore;
+
+        private final char[] password;
+
+        private final KeyStoreOptions options;
+
+        private final Function<String, char[]> keyPasswords;
+
+        private final CompletableFuture<Result> future = new CompletableFuture<>();
+
+        Request(TrackedKeyStore keyStore, char[] password, KeyStoreOptions options, Function<String, char[]> keyPasswords) {
+            this.keyStore = keyStore;
+            this.password = password;
+            this.options = options;
+            this.keyPasswords = keyPasswords;
+        }
+    }
+
+    private static class Written {
+
+        private final TrackedKeyStore keyStore;
+
+        private final char[] password;
+
+        private final KeyStoreOptions options;
+
+        private final Result result;
+
+        Written(Request request, Result result) {
+            this.keyStore = request.keyStore;
+            this.password = request.password;
+            this.options = request.options;
+            this.result = result;
+        }
+    }
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "KeyStoreWriter");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * 文件 -> 还没有开始写入的保存
+     */
+    private final Map<Path, Request> pending = new ConcurrentHashMap<>();
+
+    /**
+     * 文件 -> 最近一次写入,只在后台线程中访问
+     */
+    private final Map<Path, Written> written = new HashMap<>();
+
+    /**
+     * 在后台线程中保存keystore
+     *
+     * @param keyStore keyStore
+     * @param path     目标文件
+     * @param password 密码
+     * @return 保存结果
+     */
+    public CompletableFuture<Result> save(TrackedKeyStore keyStore, Path path, char[] password) {
+        return save(keyStore, path, password, null, null);
+    }
+
+    /**
+     * 在后台线程中按指定的格式保存keystore
+     *
+     * @param keyStore     keyStore
+     * @param path         目标文件
+     * @param password     存储密码,同时作为写出的私钥密码
+     * @param options      保存格式,为null时按原格式保存
+     * @param keyPasswords 条目名称 -> 当前私钥的密码,按原格式保存时不需要
+     * @return 保存结果
+     */
+    public CompletableFuture<Result> save(TrackedKeyStore keyStore, Path path, char[] password, KeyStoreOptions options, Function<String, char[]> keyPasswords) {
+        Path target = resolve(path);
+        Request request = new Request(keyStore, password, options, keyPasswords);
+        Request previous = pending.put(target, request);
+        if (previous == null) {
+            executor.execute(() -> drain(target));
+        } else {
+            request.future.whenComplete((result, error) -> {
+                if (error != null) {
+                    previous.future.completeExceptionally(error);
+                } else {
+                    previous.future.complete(new Result(result.path, result.modCount, result.size, result.elapsedMillis, true));
+                }
+            });
+        }
+        return request.future;
+    }
+
+    private void drain(Path path) {
+        Request request = pending.remove(path);
+        if (request == null) {
+            return;
+        }
+        //上一次写入之后没有修改时不再重复写入
+        Written last = written.get(path);
+        if (last != null && last.keyStore == request.keyStore && last.options == request.options && last.result.modCount == request.keyStore.getModCount()
+                && Arrays.equals(last.password, request.password) && Files.exists(path)) {
+            request.future.complete(last.result);
+            return;
+        }
+        long start = System.currentTimeMillis();
+        try {
+            long[] modCount = new long[1];
+            long size = write(path, outputStream -> modCount[0] = request.keyStore.storeSnapshot(outputStream, request.password, request.options, request.keyPasswords));
+            Result result = new Result(path, modCount[0], size, System.currentTimeMillis() - start, false);
+            written.put(path, new Written(request, result));
+            request.future.complete(result);
+        } catch (Throwable e) {
+            written.remove(path);
+            request.future.completeExceptionally(e);
+        }
+    }
+
+    /**
+     * 原子地写入文件,先写入同目录下的临时文件并同步到磁盘,再替换目标文件,最后同步目录
+     * 目标文件已经存在时临时文件沿用它的POSIX权限以及ACL,是符号链接时替换链接指向的文件
+     *
+     * @param path 目标文件
+     * @param body 写入内容
+     * @return 写入的字节数
+     * @throws Exception 例外,失败时目标文件不变
+     */
+    public static long write(Path path, Body body) throws Exception {
+        Path target = resolve(path);
+        Path temp = Files.createTempFile(target.getParent(), "." + target.getFileName(), ".tmp");
+        try {
+            if (Files.exists(target)) {
+                copyPermissions(target, temp);
+            }
+            long size;
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                OutputStream outputStream = new BufferedOutputStream(Channels.newOutputStream(channel), BUFFER_SIZE);
+                body.writeTo(outputStream);
+                outputStream.flush();
+                channel.force(true);
+                size = channel.size();
+            }
+            try {
+                Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+            syncDirectory(target.getParent());
+            return size;
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * @param path 文件
+     * @return 绝对路径,文件存在时解析符号链接
+     */
+    private static Path resolve(Path path) {
+        Path target = path.toAbsolutePath().normalize();
+        if (Files.exists(target)) {
+            try {
+                return target.toRealPath();
+            } catch (IOException ignored) {
+                //解析失败时按原路径写入
+            }
+        }
+        return target;
+    }
+
+    private static void copyPermissions(Path source, Path target) throws IOException {
+        PosixFileAttributeView posix = Files.getFileAttributeView(target, PosixFileAttributeView.class);
+        if (posix != null) {
+            PosixFileAttributes attributes = Files.readAttributes(source, PosixFileAttributes.class);
+            posix.setPermissions(attributes.permissions());
+            try {
+                posix.setGroup(attributes.group());
+            } catch (IOException ignored) {
+                //没有权限修改所属组时保留默认的组
+            }
+        }
+        AclFileAttributeView acl = Files.getFileAttributeView(target, AclFileAttributeView.class);
+        if (acl != null) {
+            acl.setAcl(Files.getFileAttributeView(source, AclFileAttributeView.class).getAcl());
+        }
+    }
+
+    /**
+     * 同步目录,确保替换后的目录项也写入磁盘,Windows不支持打开目录,忽略
+     */
+    private static void syncDirectory(Path directory) {
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException ignored) {
+        }
+    }
+
+    /**
+     * 已经提交的保存会继续执行完成
+     */
+    @Override
+    public void close() {
+        executor.shutdown();
+    }
+
+    /**
+     * 写入内容
+     */
+    @FunctionalInterface
+    public interface Body {
+
+        /**
+         * @param outputStream 临时文件的输出流,不需要关闭
+         * @throws Exception 例外
+         */
+        void writeTo(OutputStream outputStream) throws Exception;
+    }
+
+    /**
+     * @param error 保存失败时的异常
+     * @return 错误信息
+     */
+    public static String message(Throwable error) {
+        Throwable cause = error;
+        while (cause instanceof CompletionException && cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        return cause.getMessage() == null ? cause.getClass().getSimpleName() : cause.getMessage();
+    }
+}
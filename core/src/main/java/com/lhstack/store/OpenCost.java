@@ -0,0 +1,109 @@
+package com.lhstack.store;
+
+import com.lhstack.utils.KeyStoreUtils;
+import org.apache.commons.collections.EnumerationUtils;
+
+import java.io.ByteArrayInputStream;
+import java.security.KeyStore;
+import java.util.List;
+
+/**
+ * keystore的打开耗时
+ * 服务启动时读取keystore并解密其中的私钥,耗时主要来自口令派生的迭代次数,分别测量读取(校验MAC,解密证书)以及解密全部私钥的耗时
+ * 每项测量多次取最小值,排除JIT预热以及GC的影响
+ */
+public class OpenCost {
+
+    private final int entries;
+
+    private final int keyEntries;
+
+    private final long loadNanos;
+
+    private final long keyNanos;
+
+    private OpenCost(int entries, int keyEntries, long loadNanos, long keyNanos) {
+        this.entries = entries;
+        this.keyEntries = keyEntries;
+        this.loadNanos = loadNanos;
+        this.keyNanos = keyNanos;
+    }
+
+    /**
+     * @param bytes         keystore的内容
+     * @param type          类型,为空时使用默认类型
+     * @param storePassword 存储密码
+     * @param keyPassword   私钥密码
+     * @param rounds        测量次数
+     * @return {@link OpenCost}
+     * @throws Exception 读取失败
+     */
+    public static OpenCost measure(byte[] bytes, String type, char[] storePassword, char[] keyPassword, int rounds) throws Exception {
+        char[] password = keyPassword == null ? new char[0] : keyPassword;
+        long loadNanos = Long.MAX_VALUE;
+        long keyNanos = Long.MAX_VALUE;
+        int entries = 0;
+        int keyEntries = 0;
+        for (int round = 0; round < Math.max(1, rounds); round++) {
+            long start = System.nanoTime();
+            KeyStore keyStore = KeyStoreUtils.load(new ByteArrayInputStream(bytes), type, storePassword == null ? new char[0] : storePassword);
+            long loaded = System.nanoTime();
+            List<String> aliases = EnumerationUtils.toList(keyStore.aliases());
+            keyEntries = 0;
+            for (String alias : aliases) {
+                if (keyStore.isKeyEntry(alias)) {
+                    keyStore.getKey(alias, password);
+                    keyEntries++;
+                }
+            }
+            long end = System.nanoTime();
+            entries = aliases.size();
+            loadNanos = Math.min(loadNanos, loaded - start);
+            keyNanos = Math.min(keyNanos, end - loaded);
+        }
+        return new OpenCost(entries, keyEntries, loadNanos, keyNanos);
+    }
+
+    public int getEntries() {
+        return entries;
+    }
+
+    public int getKeyEntries() {
+        return keyEntries;
+    }
+
+    public double getLoadMillis() {
+        return loadNanos / 1e6;
+    }
+
+    public double getKeyMillis() {
+        return keyNanos / 1e6;
+    }
+
+    public double getTotalMillis() {
+        return (loadNanos + keyNanos) / 1e6;
+    }
+
+    /**
+     * @return 解密每个私钥的耗时,没有私钥时为0
+     */
+    public double getMillisPerKey() {
+        return keyEntries == 0 ? 0 : getKeyMillis() / keyEntries;
+    }
+
+    /**
+     * 按测量结果线性估算
+     *
+     * @param keyEntries 私钥条目数量
+     * @return 打开包含指定数量私钥的keystore的耗时
+     */
+    public double estimateMillis(int keyEntries) {
+        return getLoadMillis() + getMillisPerKey() * keyEntries;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("打开耗时: %.1fms (读取%d个条目 %.1fms + 解密%d个私钥 %.1fms, 每个私钥 %.2fms)",
+                getTotalMillis(), entries, getLoadMillis(), keyEntries, getKeyMillis(), getMillisPerKey());
+    }
+}
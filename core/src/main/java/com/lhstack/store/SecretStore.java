@@ -0,0 +1,386 @@
+package com.lhstack.store;
+
+import com.lhstack.utils.CryptoContext;
+import org.bouncycastle.util.encoders.Hex;
+import org.bouncycastle.util.io.pem.PemHeader;
+import org.bouncycastle.util.io.pem.PemObject;
+import org.bouncycastle.util.io.pem.PemReader;
+import org.bouncycastle.util.io.pem.PemWriter;
+
+import javax.crypto.AEADBadTagException;
+import javax.crypto.Cipher;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.Supplier;
+
+/**
+ * 按配置名称保存证书,私钥以及配置文本的加密存储
+ * 每个条目单独保存为一个文件,只在第一次读取时解密,PEM文本转换为DER二进制保存,读取时再转换回PEM
+ * 文件使用AES-256-GCM加密,条目的相对路径作为附加数据,文件被替换到其他位置时无法解密
+ * 写入在后台线程中执行,同一个条目连续的写入只保留最后一次,写入失败通过{@link WriteListener}通知
+ */
+public class SecretStore implements AutoCloseable {
+
+    /**
+     * 后台写入失败的通知
+     */
+    @FunctionalInterface
+    public interface WriteListener {
+
+        /**
+         * 在写入线程中调用
+         *
+         * @param profile 配置名称
+         * @param name    条目名称
+         * @param error   例外
+         */
+        void failed(String profile, String name, Throwable error);
+    }
+
+    private static final int MAGIC = 0x4A435353;
+
+    private static final int IV_LENGTH = 12;
+
+    private static final int TAG_BITS = 128;
+
+    private static final String EXTENSION = ".bin";
+
+    /**
+     * 内容为PEM对象序列
+     */
+    private static final int KIND_PEM = 0;
+
+    /**
+     * 内容为UTF-8文本
+     */
+    private static final int KIND_TEXT = 1;
+
+    private final Path directory;
+
+    private final Supplier<byte[]> keySupplier;
+
+    private volatile SecretKeySpec key;
+
+    /**
+     * 配置名称/条目名称 -> 文本,不存在的条目缓存为空字符串
+     */
+    private final Map<String, String> cache = new ConcurrentHashMap<>();
+
+    /**
+     * 配置名称/条目名称 -> 还没有写入的文本,为空字符串时删除文件
+     */
+    private final Map<String, String> pending = new ConcurrentHashMap<>();
+
+    private WriteListener writeListener = (profile, name, error) -> {
+    };
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "SecretStore");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * @param directory   存储目录
+     * @param keySupplier 256位的AES密钥,在第一次读取或者写入时获取
+     */
+    public SecretStore(Path directory, Supplier<byte[]> keySupplier) {
+        this.directory = directory;
+        this.keySupplier = keySupplier;
+    }
+
+    public SecretStore setWriteListener(WriteListener writeListener) {
+        this.writeListener = writeListener;
+        return this;
+    }
+
+    /**
+     * @return 已有的配置名称,按名称排序
+     */
+    public List<String> profiles() {
+        Set<String> profiles = new TreeSet<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, Files::isDirectory)) {
+            for (Path path : stream) {
+                try {
+                    profiles.add(new String(Hex.decode(path.getFileName().toString()), StandardCharsets.UTF_8));
+                } catch (RuntimeException ignore) {
+                    //不是配置目录
+                }
+            }
+        } catch (IOException ignore) {
+            //目录还不存在
+        }
+        for (String key : pending.keySet()) {
+            profiles.add(key.substring(0, key.lastIndexOf('/')));
+        }
+        return new ArrayList<>(profiles);
+    }
+
+    /**
+     * 读取条目,第一次读取后缓存在内存中
+     *
+     * @param profile 配置名称
+     * @param name    条目名称
+     * @return 文本,不存在时为null
+     * @throws Exception 解密失败
+     */
+    public String get(String profile, String name) throws Exception {
+        String key = key(profile, name);
+        String text = cache.get(key);
+        if (text == null) {
+            Path path = path(profile, name);
+            text = Files.exists(path) ? decode(decrypt(Files.readAllBytes(path), aad(profile, name))) : "";
+            String previous = cache.putIfAbsent(key, text);
+            if (previous != null) {
+                text = previous;
+            }
+        }
+        return text.isEmpty() ? null : text;
+    }
+
+    /**
+     * 直接从文件读取条目,不使用也不更新缓存,用于确认内容已经写入
+     *
+     * @param profile 配置名称
+     * @param name    条目名称
+     * @return 文本,文件不存在时为null
+     * @throws Exception 读取或者解密失败
+     */
+    public String read(String profile, String name) throws Exception {
+        Path path = path(profile, name);
+        return Files.exists(path) ? decode(decrypt(Files.readAllBytes(path), aad(profile, name))) : null;
+    }
+
+    /**
+     * 保存条目,立即更新缓存,在后台线程中写入文件
+     *
+     * @param profile 配置名称
+     * @param name    条目名称
+     * @param text    文本,为null或者空字符串时删除条目
+     */
+    public void put(String profile, String name, String text) {
+        String key = key(profile, name);
+        String value = text == null ? "" : text;
+        cache.put(key, value);
+        if (pending.put(key, value) == null) {
+            executor.execute(() -> drain(profile, name));
+        }
+    }
+
+    /**
+     * 删除配置以及其中所有的条目
+     *
+     * @param profile 配置名称
+     * @throws Exception 删除失败
+     */
+    public void deleteProfile(String profile) throws Exception {
+        String prefix = profile + "/";
+        cache.keySet().removeIf(key -> key.startsWith(prefix));
+        pending.keySet().removeIf(key -> key.startsWith(prefix));
+        executor.submit(() -> {
+            Path profileDirectory = directory.resolve(Hex.toHexString(profile.getBytes(StandardCharsets.UTF_8)));
+            if (Files.isDirectory(profileDirectory)) {
+                try (DirectoryStream<Path> stream = Files.newDirectoryStream(profileDirectory)) {
+                    for (Path path : stream) {
+                        Files.deleteIfExists(path);
+                    }
+                }
+                Files.deleteIfExists(profileDirectory);
+            }
+            return null;
+        }).get();
+    }
+
+    /**
+     * @return 条目文件是否存在或者有还没有写入的内容,不读取文件
+     */
+    public boolean contains(String profile, String name) {
+        String value = cache.get(key(profile, name));
+        return value != null ? !value.isEmpty() : Files.exists(path(profile, name));
+    }
+
+    /**
+     * 等待所有已经提交的写入完成
+     *
+     * @throws Exception 等待被中断
+     */
+    public void flush() throws Exception {
+        executor.submit(() -> {
+        }).get();
+    }
+
+    private void drain(String profile, String name) {
+        String value = pending.remove(key(profile, name));
+        if (value == null) {
+            return;
+        }
+        try {
+            Path path = path(profile, name);
+            if (value.isEmpty()) {
+                Files.deleteIfExists(path);
+                return;
+            }
+            byte[] encrypted = encrypt(encode(value), aad(profile, name));
+            Files.createDirectories(path.getParent());
+            KeyStoreWriter.write(path, outputStream -> outputStream.write(encrypted));
+        } catch (Throwable e) {
+            //写入失败时缓存中仍然是最新的内容,下一次保存该条目时重试
+            writeListener.failed(profile, name, e);
+        }
+    }
+
+    /**
+     * 已经提交的写入会继续执行完成
+     */
+    @Override
+    public void close() {
+        executor.shutdown();
+        try {
+            executor.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private byte[] encrypt(byte[] plain, byte[] aad) throws Exception {
+        byte[] iv = new byte[IV_LENGTH];
+        CryptoContext.secureRandom().nextBytes(iv);
+        Cipher cipher = Cipher.getInstance("AES/GCM/NoPadding");
+        cipher.init(Cipher.ENCRYPT_MODE, key(), new GCMParameterSpec(TAG_BITS, iv));
+        cipher.updateAAD(aad);
+        byte[] encrypted = cipher.doFinal(plain);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(4 + IV_LENGTH + encrypted.length);
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(MAGIC);
+        out.write(iv);
+        out.write(encrypted);
+        return bytes.toByteArray();
+    }
+
+    private byte[] decrypt(byte[] data, byte[] aad) throws Exception {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(data));
+        if (data.length < 4 + IV_LENGTH || in.readInt() != MAGIC) {
+            throw new IOException("不是有效的加密文件");
+        }
+        byte[] iv = new byte[IV_LENGTH];
+        in.readFully(iv);
+        Cipher cipher = Cipher.getInstance("AES/GCM/NoPadding");
+        cipher.init(Cipher.DECRYPT_MODE, key(), new GCMParameterSpec(TAG_BITS, iv));
+        cipher.updateAAD(aad);
+        try {
+            return cipher.doFinal(data, 4 + IV_LENGTH, data.length - 4 - IV_LENGTH);
+        } catch (AEADBadTagException e) {
+            throw new IOException("解密失败,密钥已变更或者文件被修改", e);
+        }
+    }
+
+    private SecretKeySpec key() {
+        SecretKeySpec spec = this.key;
+        if (spec == null) {
+            synchronized (this) {
+                spec = this.key;
+                if (spec == null) {
+                    spec = new SecretKeySpec(keySupplier.get(), "AES");
+                    this.key = spec;
+                }
+            }
+        }
+        return spec;
+    }
+
+    /**
+     * 文本转换为紧凑的二进制,只由PEM对象组成的文本保存DER内容,其他文本按UTF-8保存
+     *
+     * @param text 文本
+     * @return 二进制内容
+     * @throws IOException 例外
+     */
+    public static byte[] encode(String text) throws IOException {
+        List<PemObject> objects = new ArrayList<>();
+        try (PemReader reader = new PemReader(new StringReader(text))) {
+            PemObject object;
+            while ((object = reader.readPemObject()) != null) {
+                objects.add(object);
+            }
+        } catch (IOException ignore) {
+            objects.clear();
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(text.length());
+        DataOutputStream out = new DataOutputStream(bytes);
+        //只有重新编码后与原文本完全一致时才保存DER,换行符不同或者PEM块之外有其他内容时按文本保存,保证读取后与原文本一致
+        if (!objects.isEmpty() && pem(objects).equals(text)) {
+            out.writeByte(KIND_PEM);
+            out.writeInt(objects.size());
+            for (PemObject object : objects) {
+                out.writeUTF(object.getType());
+                List<?> headers = object.getHeaders();
+                out.writeInt(headers.size());
+                for (Object header : headers) {
+                    out.writeUTF(((PemHeader) header).getName());
+                    out.writeUTF(((PemHeader) header).getValue());
+                }
+                out.writeInt(object.getContent().length);
+                out.write(object.getContent());
+            }
+        } else {
+            out.writeByte(KIND_TEXT);
+            out.write(text.getBytes(StandardCharsets.UTF_8));
+        }
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+    /**
+     * @param data {@link #encode(String)}的结果
+     * @return 文本
+     * @throws IOException 例外
+     */
+    public static String decode(byte[] data) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(data));
+        int kind = in.readUnsignedByte();
+        if (kind == KIND_TEXT) {
+            return new String(data, 1, data.length - 1, StandardCharsets.UTF_8);
+        }
+        int count = in.readInt();
+        List<PemObject> objects = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String type = in.readUTF();
+            int headerCount = in.readInt();
+            List<PemHeader> headers = new ArrayList<>(headerCount);
+            for (int j = 0; j < headerCount; j++) {
+                headers.add(new PemHeader(in.readUTF(), in.readUTF()));
+            }
+            byte[] content = new byte[in.readInt()];
+            in.readFully(content);
+            objects.add(new PemObject(type, headers, content));
+        }
+        return pem(objects);
+    }
+
+    private static String pem(List<PemObject> objects) throws IOException {
+        StringWriter writer = new StringWriter();
+        try (PemWriter pemWriter = new PemWriter(writer)) {
+            for (PemObject object : objects) {
+                pemWriter.writeObject(object);
+            }
+        }
+        return writer.toString();
+    }
+
+    private Path path(String profile, String name) {
+        return directory.resolve(Hex.toHexString(profile.getBytes(StandardCharsets.UTF_8))).resolve(name + EXTENSION);
+    }
+
+    private static String key(String profile, String name) {
+        return profile + "/" + name;
+    }
+
+    private static byte[] aad(String profile, String name) {
+        return key(profile, name).getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,262 @@
+package com.lhstack.store;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.security.*;
+import java.security.cert.Certificate;
+import java.security.cert.CertificateException;
+import java.util.Collections;
+import java.util.Date;
+import java.util.Enumeration;
+import java.util.function.Function;
+
+/**
+ * 记录修改次数的keystore
+ * 包装已经加载的keystore,所有写操作递增修改次数,与最近一次保存时的修改次数不同即为有未保存的修改
+ * 所有操作在同一个锁上串行执行,后台线程保存时写出的是一致的快照,修改次数与写出的内容对应
+ */
+public class TrackedKeyStore extends KeyStore {
+
+    private final Spi spi;
+
+    private volatile long savedModCount;
+
+    private TrackedKeyStore(Spi spi, KeyStore delegate) {
+        super(spi, delegate.getProvider(), delegate.getType());
+        this.spi = spi;
+    }
+
+    /**
+     * @param keyStore 已经加载的keystore,包装后不应再直接访问
+     * @return {@link TrackedKeyStore},初始状态为没有修改
+     * @throws Exception 例外
+     */
+    public static TrackedKeyStore wrap(KeyStore keyStore) throws Exception {
+        if (keyStore instanceof TrackedKeyStore) {
+            return (TrackedKeyStore) keyStore;
+        }
+        TrackedKeyStore trackedKeyStore = new TrackedKeyStore(new Spi(keyStore), keyStore);
+        //只是设置KeyStore的初始化状态,不会修改被包装的keystore
+        trackedKeyStore.load(null, null);
+        return trackedKeyStore;
+    }
+
+    public long getModCount() {
+        return spi.modCount;
+    }
+
+    /**
+     * @return 是否有未保存的修改
+     */
+    public boolean isDirty() {
+        return spi.modCount != savedModCount;
+    }
+
+    /**
+     * @param modCount 已经保存的内容对应的修改次数
+     */
+    public void markSaved(long modCount) {
+        this.savedModCount = modCount;
+    }
+
+    /**
+     * 写出keystore,写出期间其他线程的修改会等待
+     *
+     * @param outputStream 输出流
+     * @param password     密码
+     * @return 写出的内容对应的修改次数
+     * @throws Exception 例外
+     */
+    public long storeSnapshot(OutputStream outputStream, char[] password) throws Exception {
+        return storeSnapshot(outputStream, password, null, null);
+    }
+
+    /**
+     * 按指定的格式写出keystore,写出期间其他线程的修改会等待
+     *
+     * @param outputStream 输出流
+     * @param password     存储密码,同时作为写出的私钥密码
+     * @param options      保存格式,为null时按原格式写出
+     * @param keyPasswords 条目名称 -> 当前私钥的密码,按原格式写出时不需要
+     * @return 写出的内容对应的修改次数
+     * @throws Exception 例外
+     */
+    public long storeSnapshot(OutputStream outputStream, char[] password, KeyStoreOptions options, Function<String, char[]> keyPasswords) throws Exception {
+        synchronized (spi) {
+            long modCount = spi.modCount;
+            if (options == null) {
+                store(outputStream, password);
+            } else {
+                options.write(this, keyPasswords, password, password, outputStream);
+            }
+            return modCount;
+        }
+    }
+
+    private static class Spi extends KeyStoreSpi {
+
+        private final KeyStore delegate;
+
+        private volatile long modCount;
+
+        Spi(KeyStore delegate) {
+            this.delegate = delegate;
+        }
+
+        private void modified() {
+            modCount++;
+        }
+
+        @Override
+        public synchronized Key engineGetKey(String alias, char[] password) throws NoSuchAlgorithmException, UnrecoverableKeyException {
+            try {
+                return delegate.getKey(alias, password);
+            } catch (KeyStoreException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        @Override
+        public synchronized Certificate[] engineGetCertificateChain(String alias) {
+            return call(() -> delegate.getCertificateChain(alias));
+        }
+
+        @Override
+        public synchronized Certificate engineGetCertificate(String alias) {
+            return call(() -> delegate.getCertificate(alias));
+        }
+
+        @Override
+        public synchronized Date engineGetCreationDate(String alias) {
+            return call(() -> delegate.getCreationDate(alias));
+        }
+
+        @Override
+        public synchronized void engineSetKeyEntry(String alias, Key key, char[] password, Certificate[] chain) throws KeyStoreException {
+            delegate.setKeyEntry(alias, key, password, chain);
+            modified();
+        }
+
+        @Override
+        public synchronized void engineSetKeyEntry(String alias, byte[] key, Certificate[] chain) throws KeyStoreException {
+            delegate.setKeyEntry(alias, key, chain);
+            modified();
+        }
+
+        @Override
+        public synchronized void engineSetCertificateEntry(String alias, Certificate cert) throws KeyStoreException {
+            delegate.setCertificateEntry(alias, cert);
+            modified();
+        }
+
+        @Override
+        public synchronized void engineDeleteEntry(String alias) throws KeyStoreException {
+            if (delegate.containsAlias(alias)) {
+                delegate.deleteEntry(alias);
+                modified();
+            }
+        }
+
+        @Override
+        public synchronized Enumeration<String> engineAliases() {
+            //返回副本,遍历期间其他线程可以修改
+            return Collections.enumeration(Collections.list(call(delegate::aliases)));
+        }
+
+        @Override
+        public synchronized boolean engineContainsAlias(String alias) {
+            return call(() -> delegate.containsAlias(alias));
+        }
+
+        @Override
+        public synchronized int engineSize() {
+            return call(delegate::size);
+        }
+
+        @Override
+        public synchronized boolean engineIsKeyEntry(String alias) {
+            return call(() -> delegate.isKeyEntry(alias));
+        }
+
+        @Override
+        public synchronized boolean engineIsCertificateEntry(String alias) {
+            return call(() -> delegate.isCertificateEntry(alias));
+        }
+
+        @Override
+        public synchronized String engineGetCertificateAlias(Certificate cert) {
+            return call(() -> delegate.getCertificateAlias(cert));
+        }
+
+        @Override
+        public synchronized Entry engineGetEntry(String alias, ProtectionParameter protParam) throws KeyStoreException, NoSuchAlgorithmException, UnrecoverableEntryException {
+            return delegate.getEntry(alias, protParam);
+        }
+
+        @Override
+        public synchronized void engineSetEntry(String alias, Entry entry, ProtectionParameter protParam) throws KeyStoreException {
+            delegate.setEntry(alias, entry, protParam);
+            modified();
+        }
+
+        @Override
+        public synchronized boolean engineEntryInstanceOf(String alias, Class<? extends Entry> entryClass) {
+            return call(() -> delegate.entryInstanceOf(alias, entryClass));
+        }
+
+        @Override
+        public synchronized void engineStore(OutputStream stream, char[] password) throws IOException, NoSuchAlgorithmException, CertificateException {
+            try {
+                delegate.store(stream, password);
+            } catch (KeyStoreException e) {
+                throw new IOException(e.getMessage(), e);
+            }
+        }
+
+        @Override
+        public synchronized void engineStore(LoadStoreParameter param) throws IOException, NoSuchAlgorithmException, CertificateException {
+            try {
+                delegate.store(param);
+            } catch (KeyStoreException e) {
+                throw new IOException(e.getMessage(), e);
+            }
+        }
+
+        @Override
+        public synchronized void engineLoad(InputStream stream, char[] password) throws IOException, NoSuchAlgorithmException, CertificateException {
+            //包装时的初始化调用,不重新加载
+            if (stream == null) {
+                return;
+            }
+            delegate.load(stream, password);
+            modified();
+        }
+
+        @Override
+        public synchronized void engineLoad(LoadStoreParameter param) throws IOException, NoSuchAlgorithmException, CertificateException {
+            if (param == null) {
+                return;
+            }
+            delegate.load(param);
+            modified();
+        }
+
+        /**
+         * 被包装的keystore已经初始化,查询操作不会抛出KeyStoreException
+         */
+        private static <T> T call(KeyStoreCall<T> call) {
+            try {
+                return call.call();
+            } catch (KeyStoreException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+
+    @FunctionalInterface
+    private interface KeyStoreCall<T> {
+
+        T call() throws KeyStoreException;
+    }
+}
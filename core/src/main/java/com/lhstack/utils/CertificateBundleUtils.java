@@ -0,0 +1,243 @@
+package com.lhstack.utils;
+
+import org.bouncycastle.asn1.x500.RDN;
+import org.bouncycastle.asn1.x500.X500Name;
+import org.bouncycastle.asn1.x500.style.BCStyle;
+import org.bouncycastle.asn1.x500.style.IETFUtils;
+import org.bouncycastle.jce.provider.BouncyCastleProvider;
+import org.bouncycastle.util.encoders.Hex;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.KeyStore;
+import java.security.Provider;
+import java.security.Security;
+import java.security.cert.Certificate;
+import java.security.cert.CertificateException;
+import java.security.cert.CertificateFactory;
+import java.security.cert.X509Certificate;
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * 证书包(ca-bundle.crt,Mozilla根证书等)批量读取
+ * 按顺序流式读取PEM块或者连续的DER结构,每个块提交到线程池并行解码,结果保持文件中的顺序
+ */
+public class CertificateBundleUtils {
+
+    static {
+        Provider provider = Security.getProvider(BouncyCastleProvider.PROVIDER_NAME);
+        if (provider == null) {
+            Security.addProvider(new BouncyCastleProvider());
+        }
+    }
+
+    /**
+     * 单个DER结构的最大长度,防止读取到非证书文件时按错误的长度分配内存
+     */
+    private static final int MAX_DER_LENGTH = 16 * 1024 * 1024;
+
+    private static final String TRUSTED_CERTIFICATE = "TRUSTED CERTIFICATE";
+
+    private static final Set<String> PEM_LABELS = Set.of("CERTIFICATE", "X509 CERTIFICATE", TRUSTED_CERTIFICATE, "PKCS7");
+
+    /**
+     * 名称中没有CN时使用的指纹前缀长度
+     */
+    private static final int FINGERPRINT_ALIAS_LENGTH = 16;
+
+    /**
+     * 读取证书包中的所有证书,支持多个PEM块(CERTIFICATE,X509 CERTIFICATE,TRUSTED CERTIFICATE,PKCS7)以及连续的DER证书或PKCS7结构
+     *
+     * @param inputStream 输入流,不会被关闭
+     * @return 按文件顺序排列的证书
+     * @throws Exception 例外
+     */
+    public static List<Certificate> read(InputStream inputStream) throws Exception {
+        return read(inputStream, true);
+    }
+
+    /**
+     * 读取证书包中的所有证书
+     *
+     * @param inputStream 输入流,不会被关闭
+     * @param parallel    是否并行解码,已经在线程池中并行读取多个文件时不再为每个文件创建线程池
+     * @return 按文件顺序排列的证书
+     * @throws Exception 例外
+     */
+    public static List<Certificate> read(InputStream inputStream, boolean parallel) throws Exception {
+        BufferedInputStream in = new BufferedInputStream(inputStream);
+        if (!parallel) {
+            List<byte[]> blocks = new ArrayList<>();
+            if (isPem(in)) {
+                readPemBlocks(in, blocks::add);
+            } else {
+                readDerBlocks(in, blocks::add);
+            }
+            CertificateFactory certificateFactory = CryptoContext.certificateFactory();
+            List<Certificate> certificates = new ArrayList<>(blocks.size());
+            for (int i = 0; i < blocks.size(); i++) {
+                try {
+                    certificates.addAll(certificateFactory.generateCertificates(new ByteArrayInputStream(blocks.get(i))));
+                } catch (CertificateException e) {
+                    throw new CertificateException(String.format("第%d个证书解析失败: %s", i + 1, e.getMessage()), e);
+                }
+            }
+            return certificates;
+        }
+        ForkJoinPool pool = new ForkJoinPool(Math.max(1, Runtime.getRuntime().availableProcessors()));
+        try {
+            List<Future<Collection<? extends Certificate>>> futures = new ArrayList<>();
+            BlockConsumer consumer = block -> futures.add(pool.submit(() -> CryptoContext.certificateFactory().generateCertificates(new ByteArrayInputStream(block))));
+            if (isPem(in)) {
+                readPemBlocks(in, consumer);
+            } else {
+                readDerBlocks(in, consumer);
+            }
+            List<Certificate> certificates = new ArrayList<>(futures.size());
+            for (int i = 0; i < futures.size(); i++) {
+                try {
+                    certificates.addAll(futures.get(i).get());
+                } catch (ExecutionException e) {
+                    Throwable cause = e.getCause();
+                    throw new CertificateException(String.format("第%d个证书解析失败: %s", i + 1, cause.getMessage()), cause);
+                }
+            }
+            return certificates;
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * 将证书批量写入keystore,指纹已经存在的证书跳过,名称冲突时追加 -2,-3 等后缀
+     *
+     * @param keyStore     keyStore
+     * @param certificates 证书
+     * @param fingerprints 已存在证书的指纹,写入的证书的指纹也会加入该集合
+     * @return 写入的条目在keystore中实际保存的名称
+     * @throws Exception 例外
+     */
+    public static List<String> importAll(KeyStore keyStore, List<Certificate> certificates, Set<ByteBuffer> fingerprints) throws Exception {
+        List<String> aliases = new ArrayList<>(certificates.size());
+        for (Certificate certificate : certificates) {
+            byte[] fingerprint = KeyStoreUtils.fingerprint(certificate);
+            if (!fingerprints.add(ByteBuffer.wrap(fingerprint))) {
+                continue;
+            }
+            String alias = KeyStoreUtils.uniqueAlias(keyStore, alias(certificate, fingerprint));
+            keyStore.setCertificateEntry(alias, certificate);
+            aliases.add(alias);
+        }
+        return aliases;
+    }
+
+    /**
+     * 证书的默认名称,取subject中的CN,没有CN时取SHA-256指纹的前缀
+     *
+     * @param certificate 证书
+     * @param fingerprint {@link KeyStoreUtils#fingerprint(Certificate)}
+     * @return {@link String}
+     */
+    public static String alias(Certificate certificate, byte[] fingerprint) {
+        if (certificate instanceof X509Certificate) {
+            X500Name subject = X500Name.getInstance(((X509Certificate) certificate).getSubjectX500Principal().getEncoded());
+            for (RDN rdn : subject.getRDNs(BCStyle.CN)) {
+                String cn = IETFUtils.valueToString(rdn.getFirst().getValue()).trim();
+                if (!cn.isEmpty()) {
+                    return cn;
+                }
+            }
+        }
+        return Hex.toHexString(fingerprint, 0, FINGERPRINT_ALIAS_LENGTH / 2);
+    }
+
+    /**
+     * DER证书和PKCS7都以SEQUENCE(0x30)开头,其他情况视为PEM,PEM文件开头可以有注释等任意文本
+     */
+    private static boolean isPem(BufferedInputStream in) throws IOException {
+        in.mark(1);
+        try {
+            return in.read() != 0x30;
+        } finally {
+            in.reset();
+        }
+    }
+
+    private static void readPemBlocks(InputStream in, BlockConsumer consumer) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.US_ASCII));
+        StringBuilder body = null;
+        String label = null;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            line = line.trim();
+            if (body == null) {
+                if (line.startsWith("-----BEGIN ") && line.endsWith("-----")) {
+                    label = line.substring(11, line.length() - 5);
+                    if (PEM_LABELS.contains(label)) {
+                        body = new StringBuilder();
+                    }
+                }
+            } else if (line.equals("-----END " + label + "-----")) {
+                byte[] block = Base64.getMimeDecoder().decode(body.toString());
+                if (TRUSTED_CERTIFICATE.equals(label)) {
+                    //OpenSSL的TRUSTED CERTIFICATE在证书后面附加了信任设置,只取第一个DER结构
+                    List<byte[]> blocks = new ArrayList<>(2);
+                    readDerBlocks(new ByteArrayInputStream(block), blocks::add);
+                    block = blocks.get(0);
+                }
+                consumer.accept(block);
+                body = null;
+            } else if (!line.contains(":")) {
+                //跳过 Proc-Type 等头部
+                body.append(line);
+            }
+        }
+    }
+
+    /**
+     * 按ASN.1的tag和长度切分连续的DER结构
+     */
+    private static void readDerBlocks(InputStream in, BlockConsumer consumer) throws IOException {
+        DataInputStream data = new DataInputStream(in);
+        int tag;
+        while ((tag = data.read()) != -1) {
+            if (tag != 0x30) {
+                throw new IOException(String.format("不是有效的DER证书,位置错误的tag: 0x%02x", tag));
+            }
+            ByteArrayOutputStream header = new ByteArrayOutputStream(6);
+            header.write(tag);
+            int first = data.readUnsignedByte();
+            header.write(first);
+            int length;
+            if (first < 0x80) {
+                length = first;
+            } else {
+                int count = first & 0x7f;
+                if (count == 0 || count > 4) {
+                    throw new IOException("不支持的DER长度编码");
+                }
+                length = 0;
+                for (int i = 0; i < count; i++) {
+                    int b = data.readUnsignedByte();
+                    header.write(b);
+                    length = (length << 8) | b;
+                }
+            }
+            if (length < 0 || length > MAX_DER_LENGTH) {
+                throw new IOException("DER结构长度超出限制: " + length);
+            }
+            byte[] block = Arrays.copyOf(header.toByteArray(), header.size() + length);
+            data.readFully(block, header.size(), length);
+            consumer.accept(block);
+        }
+    }
+
+    @FunctionalInterface
+    private interface BlockConsumer {
+        void accept(byte[] block);
+    }
+}
@@ -1,28 +1,23 @@
 package com.lhstack.utils;
 
-import com.intellij.openapi.vfs.VirtualFile;
 import com.lhstack.Item;
-import org.apache.commons.collections.EnumerationUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.bouncycastle.jce.X509Principal;
 import org.bouncycastle.jce.provider.BouncyCastleProvider;
 import org.bouncycastle.openssl.jcajce.JcaPEMWriter;
 import org.bouncycastle.x509.X509V3CertificateGenerator;
 
-import javax.swing.*;
 import java.io.ByteArrayOutputStream;
 import java.io.InputStream;
 import java.io.OutputStreamWriter;
 import java.math.BigInteger;
 import java.security.*;
 import java.security.cert.Certificate;
-import java.security.cert.CertificateFactory;
 import java.security.spec.PKCS8EncodedKeySpec;
 import java.time.Duration;
 import java.util.Date;
 import java.util.List;
 import java.util.Locale;
-import java.util.function.Supplier;
 
 public class CertificateUtils {
 
@@ -44,8 +39,7 @@ public class CertificateUtils {
      * @return {@link Certificate}
      */
     public static Certificate gen(String algorithm, String dn, Duration period) throws Exception{
-        KeyPairGenerator keyPairGenerator = KeyPairGenerator.getInstance(algorithm);
-        KeyPair keyPair = keyPairGenerator.generateKeyPair();
+        KeyPair keyPair = CryptoContext.keyPairGenerator(algorithm, null, 0).generateKeyPair();
         X509V3CertificateGenerator v3CertGen =  new X509V3CertificateGenerator();
         v3CertGen.setSerialNumber(BigInteger.valueOf(System.currentTimeMillis()));
         v3CertGen.setIssuerDN(new X509Principal(dn));
@@ -53,20 +47,46 @@ public class CertificateUtils {
         v3CertGen.setNotAfter(new Date(System.currentTimeMillis() + period.toMillis()));
         v3CertGen.setSubjectDN(new X509Principal(dn));
         v3CertGen.setPublicKey(keyPair.getPublic());
-        v3CertGen.setSignatureAlgorithm("SHA256withECDSA");
+        v3CertGen.setSignatureAlgorithm(defaultSignatureAlgorithm(keyPair.getPublic().getAlgorithm()));
         //[ext] 多域名证书格式
         //subjectAltName = DNS:www.1111.com,DNS:www.2222.com,DNS:www.3333.com,IP:192.168.1.1
 //        v3CertGen.addExtension("subjectAltName",true, new DERUTF8String(dn));
         return v3CertGen.generateX509Certificate(keyPair.getPrivate());
     }
 
-    public static byte[] export(Supplier<KeyStore> keyStoreSupplier, Supplier<char[]> passwordSupplier, List<Item> items, String type) throws Exception {
+    /**
+     * 算法对应的默认签名算法
+     *
+     * @param algorithm 算法 RSA,EC,DSA
+     * @return {@link String}
+     */
+    public static String defaultSignatureAlgorithm(String algorithm) {
+        switch (algorithm.toUpperCase(Locale.ROOT)) {
+            case "RSA":
+                return "SHA256withRSA";
+            case "DSA":
+                return "SHA256withDSA";
+            case "EC":
+            case "ECDSA":
+            default:
+                return "SHA256withECDSA";
+        }
+    }
+
+    /**
+     * 导出证书
+     *
+     * @param keyStore keyStore,导出pkcs8时从中读取私钥
+     * @param items    需要导出的条目
+     * @param type     导出格式 pem,crt,cer,pkcs8,jks,p12
+     * @param password pkcs8为私钥密码,jks和p12为导出文件的密码,为空时使用空密码
+     * @return 导出的内容
+     * @throws Exception 例外
+     */
+    public static byte[] export(KeyStore keyStore, List<Item> items, String type, char[] password) throws Exception {
         type = type.toLowerCase(Locale.ROOT);
         switch (type) {
             case "pem": {
-                if (items.size() > 1) {
-                    throw new RuntimeException("pem只支持单个证书导出");
-                }
                 return pemExport(items);
             }
             case "cer":
@@ -80,19 +100,23 @@ public class CertificateUtils {
                 if (items.size() > 1) {
                     throw new RuntimeException("pkcs8只支持单个证书导出");
                 }
-                return pkcs8Export(keyStoreSupplier, passwordSupplier, items);
+                return pkcs8Export(keyStore, password, items);
+            }
+            case "p12":
+            case "pfx":
+            case "pkcs12": {
+                return keyStoreExport("PKCS12", password, items);
             }
             case "jks":
             default: {
-                return jksExport(items);
+                return keyStoreExport("JKS", password, items);
             }
         }
     }
 
-    private static byte[] pkcs8Export(Supplier<KeyStore> keyStoreSupplier, Supplier<char[]> passwordSupplier, List<Item> items) throws Exception {
+    private static byte[] pkcs8Export(KeyStore keyStore, char[] password, List<Item> items) throws Exception {
         Item item = items.get(0);
-        String password = JOptionPane.showInputDialog("请输入私钥密码");
-        Key key = keyStoreSupplier.get().getKey(item.getName(), password.toCharArray());
+        Key key = keyStore.getKey(item.getName(), password == null ? new char[0] : password);
         if (key instanceof PrivateKey) {
             ByteArrayOutputStream baos = new ByteArrayOutputStream();
             byte[] encoded = new PKCS8EncodedKeySpec(key.getEncoded()).getEncoded();
@@ -107,19 +131,14 @@ public class CertificateUtils {
         return item.getCertificate().getEncoded();
     }
 
-    private static byte[] jksExport(List<Item> items) throws Exception {
-        KeyStore keyStore = KeyStore.getInstance("JKS");
+    private static byte[] keyStoreExport(String keyStoreType, char[] password, List<Item> items) throws Exception {
+        KeyStore keyStore = KeyStore.getInstance(keyStoreType);
         keyStore.load(null, null);
         for (Item item : items) {
             keyStore.setCertificateEntry(item.getName(), item.getCertificate());
         }
-        String result = JOptionPane.showInputDialog("请输入需要导出的jks文件的密码,如果没有,则点击取消或者不输入直接确认", "changeit");
         ByteArrayOutputStream bo = new ByteArrayOutputStream();
-        if (StringUtils.isNotBlank(result)) {
-            keyStore.store(bo, result.toCharArray());
-        } else {
-            keyStore.store(bo, new char[0]);
-        }
+        keyStore.store(bo, password == null ? new char[0] : password);
         return bo.toByteArray();
     }
 
@@ -133,13 +152,18 @@ public class CertificateUtils {
         return baos.toByteArray();
     }
 
-    public static Certificate load(VirtualFile virtualFile) throws Exception {
-        String extension = virtualFile.getExtension().toLowerCase(Locale.ROOT);
+    /**
+     * 读取单个证书,只支持crt,pem,cer格式
+     *
+     * @param inputStream 输入流
+     * @param filename    文件名称,按扩展名判断格式
+     * @return {@link Certificate}
+     * @throws Exception 例外
+     */
+    public static Certificate load(InputStream inputStream, String filename) throws Exception {
+        String extension = StringUtils.substringAfterLast(filename, ".").toLowerCase(Locale.ROOT);
         if (StringUtils.equalsAny(extension, "crt", "pem", "cer")) {
-            CertificateFactory cf = CertificateFactory.getInstance("X.509");
-            try (InputStream inputStream = virtualFile.getInputStream()) {
-                return cf.generateCertificate(inputStream);
-            }
+            return CryptoContext.certificateFactory().generateCertificate(inputStream);
         }
         throw new RuntimeException("导入证书仅支持crt,pem,cer格式证书");
     }
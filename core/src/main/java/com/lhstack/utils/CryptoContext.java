@@ -0,0 +1,219 @@
+package com.lhstack.utils;
+
+import org.bouncycastle.asn1.ASN1ObjectIdentifier;
+import org.bouncycastle.asn1.pkcs.PKCSObjectIdentifiers;
+import org.bouncycastle.asn1.pkcs.PrivateKeyInfo;
+import org.bouncycastle.asn1.x9.X9ObjectIdentifiers;
+import org.bouncycastle.cert.X509CertificateHolder;
+import org.bouncycastle.cert.jcajce.JcaX509ExtensionUtils;
+import org.bouncycastle.jce.provider.BouncyCastleProvider;
+import org.bouncycastle.openssl.jcajce.JcaPEMKeyConverter;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.security.*;
+import java.security.cert.CertificateException;
+import java.security.cert.CertificateFactory;
+import java.security.cert.X509Certificate;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.util.Collections;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 可复用的JCA实例
+ * getInstance按provider名称查找服务时需要同步,热点路径中通过该类获取实例,provider按名称解析一次后缓存
+ * CertificateFactory,KeyFactory,MessageDigest,KeyPairGenerator以及JcaX509ExtensionUtils不是线程安全的,按(算法, provider)每个线程各自持有一份
+ * 每个线程的实例同时登记在{@link #THREAD_INSTANCES}中,插件卸载时{@link #clear()}清空所有线程的实例,IDE线程池的线程不会继续引用插件的类
+ * SecureRandom是线程安全的,全局共享
+ */
+public class CryptoContext {
+
+    public static final String BC_PROVIDER = "BC";
+
+    static {
+        Provider provider = Security.getProvider(BouncyCastleProvider.PROVIDER_NAME);
+        if (provider == null) {
+            Security.addProvider(new BouncyCastleProvider());
+        }
+    }
+
+    /**
+     * 线程 -> 该线程的实例,线程结束后自动移除,只在持有自身锁时访问
+     */
+    private static final Map<Thread, Map<String, Object>> THREAD_INSTANCES = Collections.synchronizedMap(new WeakHashMap<>());
+
+    /**
+     * 当前线程的实例,key为 类型:算法:provider,其他线程在{@link #clear()}时会清空,所以使用ConcurrentHashMap
+     */
+    private static final ThreadLocal<Map<String, Object>> INSTANCES = ThreadLocal.withInitial(() -> {
+        Map<String, Object> instances = new ConcurrentHashMap<>();
+        THREAD_INSTANCES.put(Thread.currentThread(), instances);
+        return instances;
+    });
+
+    /**
+     * provider名称 -> provider
+     */
+    private static final Map<String, Provider> PROVIDERS = new ConcurrentHashMap<>();
+
+    /**
+     * 私钥算法OID对应的KeyFactory算法,其他算法交给JcaPEMKeyConverter处理
+     */
+    private static final Map<ASN1ObjectIdentifier, String> PRIVATE_KEY_ALGORITHMS = Map.of(
+            PKCSObjectIdentifiers.rsaEncryption, "RSA",
+            X9ObjectIdentifiers.id_ecPublicKey, "EC",
+            X9ObjectIdentifiers.id_dsa, "DSA"
+    );
+
+    private static final JcaPEMKeyConverter PEM_KEY_CONVERTER = new JcaPEMKeyConverter();
+
+    private static final SecureRandom SECURE_RANDOM = new SecureRandom();
+
+    /**
+     * @return 默认provider的X.509 CertificateFactory
+     */
+    public static CertificateFactory certificateFactory() throws CertificateException {
+        return certificateFactory(null);
+    }
+
+    /**
+     * @param provider provider名称,为null时使用默认provider
+     * @return X.509 CertificateFactory
+     */
+    public static CertificateFactory certificateFactory(String provider) throws CertificateException {
+        String key = "CertificateFactory:" + provider;
+        Map<String, Object> instances = INSTANCES.get();
+        CertificateFactory certificateFactory = (CertificateFactory) instances.get(key);
+        if (certificateFactory == null) {
+            try {
+                certificateFactory = provider == null ? CertificateFactory.getInstance("X.509") : CertificateFactory.getInstance("X.509", provider(provider));
+            } catch (NoSuchProviderException e) {
+                throw new CertificateException(e);
+            }
+            instances.put(key, certificateFactory);
+        }
+        return certificateFactory;
+    }
+
+    /**
+     * @param algorithm 算法 RSA,EC,DSA
+     * @param provider  provider名称,为null时使用默认provider
+     * @return {@link KeyFactory}
+     */
+    public static KeyFactory keyFactory(String algorithm, String provider) throws GeneralSecurityException {
+        String key = "KeyFactory:" + algorithm + ":" + provider;
+        Map<String, Object> instances = INSTANCES.get();
+        KeyFactory keyFactory = (KeyFactory) instances.get(key);
+        if (keyFactory == null) {
+            keyFactory = provider == null ? KeyFactory.getInstance(algorithm) : KeyFactory.getInstance(algorithm, provider(provider));
+            instances.put(key, keyFactory);
+        }
+        return keyFactory;
+    }
+
+    /**
+     * @param algorithm      算法 RSA,EC,DSA
+     * @param provider       provider名称,为null时使用默认provider
+     * @param initializeSize 初始化长度,小于等于0时使用provider的默认长度
+     * @return 已初始化的 {@link KeyPairGenerator}
+     */
+    public static KeyPairGenerator keyPairGenerator(String algorithm, String provider, int initializeSize) throws GeneralSecurityException {
+        String key = "KeyPairGenerator:" + algorithm + ":" + provider + ":" + initializeSize;
+        Map<String, Object> instances = INSTANCES.get();
+        KeyPairGenerator keyPairGenerator = (KeyPairGenerator) instances.get(key);
+        if (keyPairGenerator == null) {
+            keyPairGenerator = provider == null ? KeyPairGenerator.getInstance(algorithm) : KeyPairGenerator.getInstance(algorithm, provider(provider));
+            if (initializeSize > 0) {
+                keyPairGenerator.initialize(initializeSize, SECURE_RANDOM);
+            }
+            instances.put(key, keyPairGenerator);
+        }
+        return keyPairGenerator;
+    }
+
+    /**
+     * @param algorithm 摘要算法
+     * @return 已重置的 {@link MessageDigest}
+     */
+    public static MessageDigest messageDigest(String algorithm) throws NoSuchAlgorithmException {
+        String key = "MessageDigest:" + algorithm;
+        Map<String, Object> instances = INSTANCES.get();
+        MessageDigest messageDigest = (MessageDigest) instances.get(key);
+        if (messageDigest == null) {
+            messageDigest = MessageDigest.getInstance(algorithm);
+            instances.put(key, messageDigest);
+        } else {
+            messageDigest.reset();
+        }
+        return messageDigest;
+    }
+
+    public static byte[] sha256(byte[] input) throws NoSuchAlgorithmException {
+        return messageDigest("SHA-256").digest(input);
+    }
+
+    public static JcaX509ExtensionUtils extensionUtils() {
+        Map<String, Object> instances = INSTANCES.get();
+        JcaX509ExtensionUtils extensionUtils = (JcaX509ExtensionUtils) instances.get("JcaX509ExtensionUtils");
+        if (extensionUtils == null) {
+            try {
+                extensionUtils = new JcaX509ExtensionUtils();
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException(e);
+            }
+            instances.put("JcaX509ExtensionUtils", extensionUtils);
+        }
+        return extensionUtils;
+    }
+
+    /**
+     * 将BC的证书holder转换为BC provider的X509Certificate
+     * 与JcaX509CertificateConverter相同,但是复用当前线程的CertificateFactory,不会每次查找provider
+     *
+     * @param holder 证书holder
+     * @return {@link X509Certificate}
+     */
+    public static X509Certificate toCertificate(X509CertificateHolder holder) throws CertificateException, IOException {
+        return (X509Certificate) certificateFactory(BC_PROVIDER).generateCertificate(new ByteArrayInputStream(holder.getEncoded()));
+    }
+
+    /**
+     * 将PKCS8私钥信息转换为默认provider的PrivateKey
+     *
+     * @param privateKeyInfo 私钥信息
+     * @return {@link PrivateKey}
+     */
+    public static PrivateKey toPrivateKey(PrivateKeyInfo privateKeyInfo) throws GeneralSecurityException, IOException {
+        String algorithm = PRIVATE_KEY_ALGORITHMS.get(privateKeyInfo.getPrivateKeyAlgorithm().getAlgorithm());
+        if (algorithm == null) {
+            return PEM_KEY_CONVERTER.getPrivateKey(privateKeyInfo);
+        }
+        return keyFactory(algorithm, null).generatePrivate(new PKCS8EncodedKeySpec(privateKeyInfo.getEncoded()));
+    }
+
+    public static SecureRandom secureRandom() {
+        return SECURE_RANDOM;
+    }
+
+    /**
+     * 清空所有线程的实例以及缓存的provider,插件卸载时调用
+     * 正在使用实例的线程不受影响,之后再获取时重新创建
+     */
+    public static void clear() {
+        synchronized (THREAD_INSTANCES) {
+            THREAD_INSTANCES.values().forEach(Map::clear);
+        }
+        INSTANCES.remove();
+        PROVIDERS.clear();
+    }
+
+    private static Provider provider(String name) throws NoSuchProviderException {
+        Provider provider = PROVIDERS.computeIfAbsent(name, Security::getProvider);
+        if (provider == null) {
+            throw new NoSuchProviderException("no such provider: " + name);
+        }
+        return provider;
+    }
+}
@@ -0,0 +1,219 @@
+package com.lhstack.utils;
+
+import com.lhstack.Item;
+import org.apache.commons.collections.EnumerationUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.bouncycastle.jce.provider.BouncyCastleProvider;
+
+import java.io.InputStream;
+import java.security.KeyStore;
+import java.security.KeyStoreException;
+import java.security.Provider;
+import java.security.Security;
+import java.security.cert.Certificate;
+import java.security.cert.X509Certificate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Function;
+
+public class KeyStoreUtils {
+
+    static {
+        Provider provider = Security.getProvider(BouncyCastleProvider.PROVIDER_NAME);
+        if (provider == null) {
+            Security.addProvider(new BouncyCastleProvider());
+        }
+    }
+
+    /**
+     * 读取keystore
+     *
+     * @param inputStream 输入流,为null时创建空的keystore
+     * @param type        keystore类型,为空时使用默认类型,默认的PKCS12兼容读取JKS,BCFKS使用BC读取
+     * @param password    密码
+     * @return {@link KeyStore}
+     * @throws Exception 例外
+     */
+    public static KeyStore load(InputStream inputStream, String type, char[] password) throws Exception {
+        KeyStore keyStore;
+        if (StringUtils.isBlank(type)) {
+            keyStore = KeyStore.getInstance(KeyStore.getDefaultType());
+        } else if ("BCFKS".equalsIgnoreCase(type)) {
+            keyStore = KeyStore.getInstance("BCFKS", BouncyCastleProvider.PROVIDER_NAME);
+        } else {
+            keyStore = KeyStore.getInstance(type);
+        }
+        keyStore.load(inputStream, password);
+        return keyStore;
+    }
+
+    /**
+     * 读取证书文件,keystore直接读取,PEM/DER证书包读取到内存中的PKCS12 keystore,证书名称取CN
+     *
+     * @param inputStream 输入流
+     * @param filename    文件名称,未指定类型时按扩展名推断
+     * @param type        指定的类型,可以为空
+     * @param password    密码,证书包不需要
+     * @return {@link KeyStore}
+     * @throws Exception 例外
+     */
+    public static KeyStore load(InputStream inputStream, String filename, String type, char[] password) throws Exception {
+        String resolvedType = type(filename, type);
+        if ("bundle".equals(resolvedType)) {
+            KeyStore keyStore = load(null, "PKCS12", null);
+            CertificateBundleUtils.importAll(keyStore, CertificateBundleUtils.read(inputStream), new HashSet<>());
+            return keyStore;
+        }
+        return load(inputStream, resolvedType, password);
+    }
+
+    /**
+     * 推断文件类型
+     *
+     * @param filename 文件名称
+     * @param type     指定的类型,为空时按扩展名推断
+     * @return jks,jceks,pkcs12,bcfks或者bundle,无法推断时为空字符串,读取时使用默认类型
+     */
+    public static String type(String filename, String type) {
+        String value = StringUtils.isNotBlank(type) ? type : StringUtils.substringAfterLast(filename, ".");
+        switch (value.toLowerCase(Locale.ROOT)) {
+            case "pem":
+            case "crt":
+            case "cer":
+            case "der":
+            case "p7b":
+            case "bundle":
+                return "bundle";
+            case "p12":
+            case "pfx":
+            case "pkcs12":
+                return "pkcs12";
+            case "jks":
+                return "jks";
+            case "jceks":
+                return "jceks";
+            case "bcfks":
+                return "bcfks";
+            default:
+                return "";
+        }
+    }
+
+    /**
+     * 读取keystore中的所有条目,按名称排序
+     *
+     * @param keyStore keyStore
+     * @return {@link List}
+     * @throws Exception 例外
+     */
+    public static List<Item> items(KeyStore keyStore) throws Exception {
+        List<String> list = EnumerationUtils.toList(keyStore.aliases());
+        list.sort(Comparator.comparing(Function.identity()));
+        List<Item> items = new ArrayList<>(list.size());
+        Function<String, Certificate> certificateLoader = certificateLoader(keyStore);
+        for (String alias : list) {
+            items.add(item(keyStore, alias, certificateLoader));
+        }
+        return items;
+    }
+
+    /**
+     * 读取keystore中的单个条目
+     *
+     * @param keyStore keyStore
+     * @param alias    条目名称
+     * @return {@link Item}
+     * @throws Exception 例外
+     */
+    public static Item item(KeyStore keyStore, String alias) throws Exception {
+        return item(keyStore, alias, certificateLoader(keyStore));
+    }
+
+    /**
+     * 读取keystore中的单个条目,只保留摘要信息,证书在需要时通过certificateLoader重新读取
+     *
+     * @param keyStore          keyStore
+     * @param alias             条目名称
+     * @param certificateLoader {@link #certificateLoader(KeyStore)}
+     * @return {@link Item}
+     * @throws Exception 例外
+     */
+    public static Item item(KeyStore keyStore, String alias, Function<String, Certificate> certificateLoader) throws Exception {
+        Certificate certificate = keyStore.getCertificate(alias);
+        Item item = new Item().setName(alias);
+        if (certificate == null) {
+            //SecretKey条目没有证书
+            return item.setType("SecretKey");
+        }
+        if (certificate instanceof X509Certificate) {
+            X509Certificate x509Certificate = (X509Certificate) certificate;
+            item.setNotBefore(x509Certificate.getNotBefore().getTime())
+                    .setNotAfter(x509Certificate.getNotAfter().getTime());
+        }
+        return item.setType(certificate.getType())
+                .setAlgorithm(certificate.getPublicKey().getAlgorithm())
+                .setFingerprint(fingerprint(certificate))
+                .setCertificateLoader(certificateLoader);
+    }
+
+    /**
+     * 按名称从keystore中读取证书,同一个keystore的条目共用一个loader
+     *
+     * @param keyStore keyStore
+     * @return {@link Function}
+     */
+    public static Function<String, Certificate> certificateLoader(KeyStore keyStore) {
+        return alias -> {
+            try {
+                return keyStore.getCertificate(alias);
+            } catch (KeyStoreException e) {
+                throw new IllegalStateException(e.getMessage(), e);
+            }
+        };
+    }
+
+    /**
+     * 证书指纹
+     *
+     * @param certificate 证书
+     * @return 证书DER编码的SHA-256摘要
+     * @throws Exception 例外
+     */
+    public static byte[] fingerprint(Certificate certificate) throws Exception {
+        return CryptoContext.sha256(certificate.getEncoded());
+    }
+
+    /**
+     * keystore中不存在的名称,冲突时追加 -2,-3 等后缀
+     *
+     * @param keyStore keyStore
+     * @param base     期望的名称
+     * @return 实际保存的名称
+     * @throws KeyStoreException 例外
+     */
+    public static String uniqueAlias(KeyStore keyStore, String base) throws KeyStoreException {
+        String alias = storedAlias(keyStore, base);
+        for (int i = 2; keyStore.containsAlias(alias); i++) {
+            alias = storedAlias(keyStore, base + "-" + i);
+        }
+        return alias;
+    }
+
+    /**
+     * 条目在keystore中实际保存的名称,JDK自带的JKS,JCEKS,PKCS12不区分大小写,统一以小写保存
+     *
+     * @param keyStore keyStore
+     * @param alias    条目名称
+     * @return {@link String}
+     */
+    public static String storedAlias(KeyStore keyStore, String alias) {
+        String provider = keyStore.getProvider().getName();
+        if ("SUN".equals(provider) || "SunJCE".equals(provider)) {
+            return alias.toLowerCase(Locale.ENGLISH);
+        }
+        return alias;
+    }
+}
@@ -0,0 +1,143 @@
+package com.lhstack.utils;
+
+import com.lhstack.CertificateSummary;
+import org.bouncycastle.util.encoders.Hex;
+
+import java.security.cert.X509Certificate;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 解析结果缓存
+ * 以输入内容的SHA-256为key缓存解码后的证书,私钥以及证书摘要,超过容量时淘汰最久未使用的条目
+ * 缓存的证书和私钥在多个视图和操作之间共享,调用方不能修改
+ */
+public class ParseCache {
+
+    private static final int DEFAULT_MAX_ENTRIES = 1024;
+
+    private static final ParseCache INSTANCE = new ParseCache(DEFAULT_MAX_ENTRIES);
+
+    /**
+     * 按访问顺序排列,只在持有this锁时访问
+     */
+    private final LinkedHashMap<String, Object> entries = new LinkedHashMap<>(16, 0.75F, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Object> eldest) {
+            if (size() > maxEntries) {
+                evictions.increment();
+                return true;
+            }
+            return false;
+        }
+    };
+
+    private final LongAdder hits = new LongAdder();
+
+    private final LongAdder misses = new LongAdder();
+
+    private final LongAdder evictions = new LongAdder();
+
+    private volatile int maxEntries;
+
+    public ParseCache(int maxEntries) {
+        this.maxEntries = maxEntries;
+    }
+
+    public static ParseCache getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * 获取缓存的解析结果,没有时解析并缓存,解析结果为null时不缓存
+     *
+     * @param kind   解析结果的类型,同样的内容按不同类型解析时分开缓存
+     * @param input  解析的原始内容
+     * @param parser 解析
+     * @return 解析结果
+     * @throws Exception 例外
+     */
+    public <T> T get(String kind, byte[] input, Parser<T> parser) throws Exception {
+        return get(kind + ":" + Hex.toHexString(CryptoContext.sha256(input)), parser);
+    }
+
+    /**
+     * 证书摘要,以证书DER编码的SHA-256(即证书指纹)为key
+     *
+     * @param certificate 证书
+     * @return {@link CertificateSummary}
+     * @throws Exception 例外
+     */
+    public CertificateSummary summary(X509Certificate certificate) throws Exception {
+        byte[] fingerprint = CryptoContext.sha256(certificate.getEncoded());
+        return get("summary:" + Hex.toHexString(fingerprint), () -> new CertificateSummary(certificate, fingerprint));
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T get(String key, Parser<T> parser) throws Exception {
+        Object value;
+        synchronized (this) {
+            value = entries.get(key);
+        }
+        if (value != null) {
+            hits.increment();
+            return (T) value;
+        }
+        misses.increment();
+        //解析在锁外进行,并发解析同一内容时以后放入的结果为准
+        T parsed = parser.parse();
+        if (parsed != null) {
+            synchronized (this) {
+                entries.put(key, parsed);
+            }
+        }
+        return parsed;
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+    }
+
+    public int getMaxEntries() {
+        return maxEntries;
+    }
+
+    /**
+     * 修改容量,缩小时在下一次放入时淘汰多余的条目
+     */
+    public ParseCache setMaxEntries(int maxEntries) {
+        this.maxEntries = maxEntries;
+        return this;
+    }
+
+    public synchronized int getSize() {
+        return entries.size();
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    /**
+     * @return 命中,未命中,命中率,条目数以及淘汰数量
+     */
+    public String getStatistics() {
+        long hits = getHits();
+        long total = hits + getMisses();
+        return String.format("解析缓存命中: %d, 未命中: %d, 命中率: %.1f%%, 条目: %d/%d, 淘汰: %d", hits, total - hits, total == 0 ? 0D : hits * 100D / total, getSize(), getMaxEntries(), getEvictions());
+    }
+
+    @FunctionalInterface
+    public interface Parser<T> {
+        T parse() throws Exception;
+    }
+}
@@ -0,0 +1,107 @@
+package com.lhstack.utils;
+
+import org.bouncycastle.jce.provider.BouncyCastleProvider;
+import org.bouncycastle.openssl.PEMKeyPair;
+import org.bouncycastle.openssl.PEMParser;
+import org.bouncycastle.openssl.jcajce.JcaPEMWriter;
+import org.bouncycastle.util.io.pem.PemObject;
+import org.bouncycastle.util.io.pem.PemReader;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.security.PrivateKey;
+import java.security.Provider;
+import java.security.Security;
+import java.security.cert.Certificate;
+
+public class PemUtils {
+
+    static {
+        Provider provider = Security.getProvider(BouncyCastleProvider.PROVIDER_NAME);
+        if (provider == null) {
+            Security.addProvider(new BouncyCastleProvider());
+        }
+    }
+
+    /**
+     * 读取PEM私钥,结果按解码后的内容缓存,空白,换行以及PEM前后的文本不影响缓存
+     *
+     * @param keyPem 私钥PEM内容
+     * @return 不是私钥时返回null
+     * @throws Exception 例外
+     */
+    public static PrivateKey readPrivateKey(String keyPem) throws Exception {
+        PemObject pemObject = readPemObject(keyPem);
+        if (pemObject == null) {
+            return null;
+        }
+        //同样的内容按不同的PEM类型解析结果不同
+        return ParseCache.getInstance().get("privateKey:" + pemObject.getType(), pemObject.getContent(), () -> {
+            PEMParser parser = new PEMParser(new StringReader(keyPem));
+            Object o = parser.readObject();
+            if (o instanceof PEMKeyPair) {
+                return CryptoContext.toPrivateKey(((PEMKeyPair) o).getPrivateKeyInfo());
+            }
+            return null;
+        });
+    }
+
+    public static Certificate readCertificate(String pem) throws Exception {
+        return readCertificate(pem.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * 读取证书,结果按DER编码缓存,同一个证书的PEM和DER编码共用一个缓存条目
+     *
+     * @param encoded PEM或者DER编码的证书
+     * @return {@link Certificate}
+     * @throws Exception 例外
+     */
+    public static Certificate readCertificate(byte[] encoded) throws Exception {
+        byte[] der = encoded;
+        //DER编码以SEQUENCE开始,其他内容按PEM解码
+        if (encoded.length > 0 && encoded[0] != 0x30) {
+            PemObject pemObject = readPemObject(new String(encoded, StandardCharsets.UTF_8));
+            if (pemObject != null) {
+                der = pemObject.getContent();
+            }
+        }
+        byte[] input = der;
+        return ParseCache.getInstance().get("certificate", input, () -> CryptoContext.certificateFactory().generateCertificate(new ByteArrayInputStream(input)));
+    }
+
+    /**
+     * @return 第一个PEM对象,没有时为null
+     */
+    private static PemObject readPemObject(String pem) {
+        try (PemReader reader = new PemReader(new StringReader(pem))) {
+            return reader.readPemObject();
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    /**
+     * 到字符串
+     *
+     * @param object 对象 Certificate | PrivateKey
+     * @return {@link String}
+     * @throws Exception 例外
+     */
+    public static String toString(Object object) throws Exception {
+        ByteArrayOutputStream bo = new ByteArrayOutputStream();
+        JcaPEMWriter pemWriter = new JcaPEMWriter(new OutputStreamWriter(bo));
+        pemWriter.writeObject(object);
+        pemWriter.close();
+        bo.close();
+        return bo.toString(StandardCharsets.UTF_8);
+    }
+
+    public static void pemWriter(Object object, String path) throws Exception {
+        FileOutputStream fileOutputStream = new FileOutputStream(path);
+        JcaPEMWriter pemWriter = new JcaPEMWriter(new OutputStreamWriter(fileOutputStream));
+        pemWriter.writeObject(object);
+        pemWriter.close();
+        fileOutputStream.close();
+    }
+}
@@ -0,0 +1,306 @@
+package com.lhstack.validation;
+
+import com.lhstack.Item;
+import com.lhstack.index.ChainIndex;
+
+import java.security.KeyStore;
+import java.security.KeyStoreException;
+import java.security.PublicKey;
+import java.security.cert.Certificate;
+import java.security.cert.CertificateExpiredException;
+import java.security.cert.CertificateNotYetValidException;
+import java.security.cert.X509Certificate;
+import java.security.interfaces.DSAKey;
+import java.security.interfaces.ECKey;
+import java.security.interfaces.RSAKey;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * 证书链校验,检查有效期,颁发者签名,颁发者的CA约束,链是否以自签名根证书结束以及弱算法
+ * 按PKIX的规则逐项检查而不是对每条路径调用CertPathValidator,这样颁发者->证书的签名验证结果可以在所有链之间共享,共用的中间证书只验证一次
+ * 校验器是线程安全的,同一个实例在一次批量校验中复用
+ */
+public class CertificateValidator {
+
+    private static final String SIGNATURE_OK = "";
+
+    private static final int MIN_RSA_DSA_KEY_SIZE = 2048;
+
+    private static final int MIN_EC_KEY_SIZE = 224;
+
+    private final long now;
+
+    /**
+     * (证书, 颁发者) -> 签名验证结果,验证通过时为空字符串,否则为错误信息
+     */
+    private final Map<SignaturePair, String> signatures = new ConcurrentHashMap<>();
+
+    private final LongAdder signatureHits = new LongAdder();
+
+    private final LongAdder signatureMisses = new LongAdder();
+
+    /**
+     * @param now 校验有效期使用的时间戳
+     */
+    public CertificateValidator(long now) {
+        this.now = now;
+    }
+
+    /**
+     * 校验一条证书链
+     *
+     * @param chain 从条目本身开始,依次为颁发者的证书链,不能为空
+     * @return {@link ValidationResult}
+     */
+    public ValidationResult validate(List<X509Certificate> chain) {
+        ValidationResult result = new ValidationResult(chain.size());
+        Date date = new Date(now);
+        for (int i = 0; i < chain.size(); i++) {
+            X509Certificate certificate = chain.get(i);
+            String name = i == 0 ? "证书" : "颁发者 " + certificate.getSubjectX500Principal().getName();
+            try {
+                certificate.checkValidity(date);
+            } catch (CertificateExpiredException e) {
+                result.addProblem(ValidationResult.Status.EXPIRED, name + " 已于 " + certificate.getNotAfter().toInstant() + " 过期");
+            } catch (CertificateNotYetValidException e) {
+                result.addProblem(ValidationResult.Status.NOT_YET_VALID, name + " 在 " + certificate.getNotBefore().toInstant() + " 之前无效");
+            }
+            boolean selfSigned = i == chain.size() - 1 && isSelfIssued(certificate);
+            //根证书的自签名算法不影响信任,只检查公钥
+            if (!selfSigned && isWeakSignatureAlgorithm(certificate.getSigAlgName())) {
+                result.addProblem(ValidationResult.Status.WEAK_ALGORITHM, name + " 使用弱签名算法 " + certificate.getSigAlgName());
+            }
+            int keySize = keySize(certificate.getPublicKey());
+            if (isWeakKey(certificate.getPublicKey().getAlgorithm(), keySize)) {
+                result.addProblem(ValidationResult.Status.WEAK_ALGORITHM, String.format("%s 的%s公钥长度只有%d位", name, certificate.getPublicKey().getAlgorithm(), keySize));
+            }
+            if (i > 0) {
+                checkIssuer(chain.get(i - 1), certificate, i - 1, selfSigned, result);
+            }
+        }
+        X509Certificate top = chain.get(chain.size() - 1);
+        if (isSelfIssued(top)) {
+            String error = verify(top, top);
+            if (!error.isEmpty()) {
+                result.addProblem(ValidationResult.Status.BAD_SIGNATURE, "根证书自签名验证失败: " + error);
+            }
+        } else {
+            result.addProblem(ValidationResult.Status.BROKEN_CHAIN, "缺少颁发者证书: " + top.getIssuerX500Principal().getName());
+        }
+        return result;
+    }
+
+    /**
+     * @param certificate   证书
+     * @param issuer        颁发者
+     * @param intermediates 颁发者之下的中间证书数量,用于检查pathLenConstraint
+     * @param trustAnchor   颁发者是否为根证书,与PKIX一致,根证书作为信任锚不检查CA约束(兼容v1根证书)
+     */
+    private void checkIssuer(X509Certificate certificate, X509Certificate issuer, int intermediates, boolean trustAnchor, ValidationResult result) {
+        String error = verify(certificate, issuer);
+        if (!error.isEmpty()) {
+            result.addProblem(ValidationResult.Status.BAD_SIGNATURE, String.format("%s 的签名验证失败: %s", certificate.getSubjectX500Principal().getName(), error));
+        }
+        if (trustAnchor) {
+            return;
+        }
+        int pathLength = issuer.getBasicConstraints();
+        if (pathLength < 0) {
+            result.addProblem(ValidationResult.Status.BROKEN_CHAIN, "颁发者 " + issuer.getSubjectX500Principal().getName() + " 不是CA证书");
+        } else if (intermediates > pathLength) {
+            result.addProblem(ValidationResult.Status.BROKEN_CHAIN, String.format("颁发者 %s 的路径长度限制为%d,实际为%d", issuer.getSubjectX500Principal().getName(), pathLength, intermediates));
+        }
+        boolean[] keyUsage = issuer.getKeyUsage();
+        if (keyUsage != null && keyUsage.length > 5 && !keyUsage[5]) {
+            result.addProblem(ValidationResult.Status.BROKEN_CHAIN, "颁发者 " + issuer.getSubjectX500Principal().getName() + " 的密钥用途不包含keyCertSign");
+        }
+    }
+
+    /**
+     * 验证颁发者签名,结果在所有链之间共享
+     *
+     * @return 验证通过时为空字符串,否则为错误信息
+     */
+    private String verify(X509Certificate certificate, X509Certificate issuer) {
+        SignaturePair pair = new SignaturePair(certificate, issuer);
+        String error = signatures.get(pair);
+        if (error != null) {
+            signatureHits.increment();
+            return error;
+        }
+        //同一对证书同时被多个线程验证时,只有一个线程执行验证,其他线程等待结果
+        return signatures.computeIfAbsent(pair, key -> {
+            signatureMisses.increment();
+            try {
+                certificate.verify(issuer.getPublicKey());
+                return SIGNATURE_OK;
+            } catch (Exception e) {
+                return e.getMessage() == null ? e.getClass().getSimpleName() : e.getMessage();
+            }
+        });
+    }
+
+    /**
+     * 并行校验所有条目,结果按完成顺序回调,回调在调用线程中执行
+     *
+     * @param items    条目
+     * @param chains   条目 -> 证书链,不是X509证书的条目返回null或空列表时跳过
+     * @param callback 校验结果回调
+     * @throws Exception 回调抛出的异常
+     */
+    public void validateAll(List<Item> items, Function<Item, List<X509Certificate>> chains, ValidatedCallback callback) throws Exception {
+        ForkJoinPool pool = new ForkJoinPool(Math.max(1, Math.min(Runtime.getRuntime().availableProcessors(), items.size())));
+        try {
+            CompletionService<Map.Entry<Item, ValidationResult>> completionService = new ExecutorCompletionService<>(pool);
+            int submitted = 0;
+            for (Item item : items) {
+                List<X509Certificate> chain = chains.apply(item);
+                if (chain == null || chain.isEmpty()) {
+                    continue;
+                }
+                completionService.submit(() -> Map.entry(item, validate(chain)));
+                submitted++;
+            }
+            for (int i = 0; i < submitted; i++) {
+                Map.Entry<Item, ValidationResult> entry;
+                try {
+                    entry = completionService.take().get();
+                } catch (ExecutionException e) {
+                    if (e.getCause() instanceof Exception) {
+                        throw (Exception) e.getCause();
+                    }
+                    throw e;
+                }
+                callback.accept(entry.getKey(), entry.getValue());
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * 私钥条目优先使用keystore中保存的证书链,不完整时再从其他条目中补全,其他条目直接从证书链索引中构建
+     *
+     * @param keyStore   keyStore
+     * @param chainIndex 包含keystore所有条目的证书链索引
+     * @param item       条目
+     * @return 证书链,不是X509证书的条目返回空列表
+     * @throws KeyStoreException 例外
+     */
+    public static List<X509Certificate> chain(KeyStore keyStore, ChainIndex chainIndex, Item item) throws KeyStoreException {
+        List<X509Certificate> chain = new ArrayList<>();
+        Certificate[] storedChain = keyStore.isKeyEntry(item.getName()) ? keyStore.getCertificateChain(item.getName()) : null;
+        if (storedChain != null && storedChain.length > 1) {
+            for (Certificate certificate : storedChain) {
+                if (certificate instanceof X509Certificate) {
+                    chain.add((X509Certificate) certificate);
+                }
+            }
+            if (!chain.isEmpty()) {
+                List<X509Certificate> issuers = chainIndex.chain(chain.get(chain.size() - 1));
+                chain.addAll(issuers.subList(1, issuers.size()));
+            }
+            return chain;
+        }
+        for (Item chainItem : chainIndex.chain(item)) {
+            Certificate certificate = chainItem.getCertificate();
+            if (certificate instanceof X509Certificate) {
+                chain.add((X509Certificate) certificate);
+            }
+        }
+        return chain;
+    }
+
+    /**
+     * @return 签名验证次数以及共享结果的命中次数
+     */
+    public String getStatistics() {
+        return String.format("签名验证: %d次, 复用已验证结果: %d次", signatureMisses.sum(), signatureHits.sum());
+    }
+
+    private static boolean isSelfIssued(X509Certificate certificate) {
+        return certificate.getSubjectX500Principal().equals(certificate.getIssuerX500Principal());
+    }
+
+    private static boolean isWeakSignatureAlgorithm(String algorithm) {
+        String name = algorithm.toUpperCase(Locale.ROOT);
+        return name.startsWith("MD2") || name.startsWith("MD5") || name.startsWith("SHA1") || name.startsWith("SHA-1");
+    }
+
+    private static boolean isWeakKey(String algorithm, int keySize) {
+        if (keySize <= 0) {
+            return false;
+        }
+        switch (algorithm) {
+            case "RSA":
+            case "DSA":
+                return keySize < MIN_RSA_DSA_KEY_SIZE;
+            case "EC":
+                return keySize < MIN_EC_KEY_SIZE;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * @return 公钥长度,未知的算法为0
+     */
+    static int keySize(PublicKey publicKey) {
+        if (publicKey instanceof RSAKey) {
+            return ((RSAKey) publicKey).getModulus().bitLength();
+        }
+        if (publicKey instanceof DSAKey && ((DSAKey) publicKey).getParams() != null) {
+            return ((DSAKey) publicKey).getParams().getP().bitLength();
+        }
+        if (publicKey instanceof ECKey && ((ECKey) publicKey).getParams() != null) {
+            return ((ECKey) publicKey).getParams().getOrder().bitLength();
+        }
+        return 0;
+    }
+
+    /**
+     * 校验结果回调
+     */
+    @FunctionalInterface
+    public interface ValidatedCallback {
+
+        /**
+         * @param item   条目
+         * @param result 校验结果
+         * @throws Exception 例外
+         */
+        void accept(Item item, ValidationResult result) throws Exception;
+    }
+
+    private static class SignaturePair {
+
+        private final X509Certificate certificate;
+
+        private final X509Certificate issuer;
+
+        SignaturePair(X509Certificate certificate, X509Certificate issuer) {
+            this.certificate = certificate;
+            this.issuer = issuer;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof SignaturePair)) {
+                return false;
+            }
+            SignaturePair that = (SignaturePair) o;
+            return certificate.equals(that.certificate) && issuer.equals(that.issuer);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * certificate.hashCode() + issuer.hashCode();
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.lhstack.validation;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 单个条目的校验结果
+ */
+public class ValidationResult {
+
+    /**
+     * 校验状态,按严重程度升序,存在多个问题时取最严重的
+     */
+    public enum Status {
+        VALID("有效"),
+        WEAK_ALGORITHM("弱算法"),
+        NOT_YET_VALID("尚未生效"),
+        EXPIRED("已过期"),
+        BROKEN_CHAIN("证书链不完整"),
+        BAD_SIGNATURE("签名错误");
+
+        private final String description;
+
+        Status(String description) {
+            this.description = description;
+        }
+
+        public String getDescription() {
+            return description;
+        }
+    }
+
+    private Status status = Status.VALID;
+
+    private final List<String> problems = new ArrayList<>(0);
+
+    /**
+     * 链长度,包含条目本身
+     */
+    private final int chainLength;
+
+    public ValidationResult(int chainLength) {
+        this.chainLength = chainLength;
+    }
+
+    ValidationResult addProblem(Status status, String problem) {
+        if (status.compareTo(this.status) > 0) {
+            this.status = status;
+        }
+        this.problems.add(problem);
+        return this;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public boolean isValid() {
+        return status == Status.VALID;
+    }
+
+    public List<String> getProblems() {
+        return Collections.unmodifiableList(problems);
+    }
+
+    public int getChainLength() {
+        return chainLength;
+    }
+
+    @Override
+    public String toString() {
+        return problems.isEmpty() ? status.getDescription() : status.getDescription() + ": " + String.join("; ", problems);
+    }
+}
@@ -0,0 +1,73 @@
+package com.lhstack;
+
+import com.lhstack.selfsign.KeyPairPool;
+import com.lhstack.selfsign.SelfSignCertificateEntity;
+import com.lhstack.selfsign.SelfSignCertificateHelper;
+import com.lhstack.selfsign.SelfSignConfig;
+
+import java.security.KeyStore;
+import java.security.cert.Certificate;
+import java.util.Set;
+
+/**
+ * 测试用的证书,使用EC 256生成,不预生成密钥对
+ */
+public class TestCertificates {
+
+    static {
+        KeyPairPool.getInstance().setCapacity(0);
+    }
+
+    /**
+     * @param dn CA的dn
+     * @return 自签名的CA,certificate与ca相同
+     */
+    public static SelfSignCertificateEntity ca(String dn) throws Exception {
+        return SelfSignCertificateHelper.genCaCertificate(config(dn, "CN=unused"));
+    }
+
+    /**
+     * @param ca 颁发者
+     * @param dn 证书的dn
+     * @return ca签发的证书
+     */
+    public static SelfSignCertificateEntity issue(SelfSignCertificateEntity ca, String dn) throws Exception {
+        return SelfSignCertificateHelper.genSelfCertificateFromCa(config("CN=unused", dn), ca.getCertificate(), ca.getCertificateKey());
+    }
+
+    /**
+     * @return 空的PKCS12 keystore
+     */
+    public static KeyStore keyStore() throws Exception {
+        KeyStore keyStore = KeyStore.getInstance("PKCS12");
+        keyStore.load(null, null);
+        return keyStore;
+    }
+
+    /**
+     * @return 以名称添加了证书条目的PKCS12 keystore
+     */
+    public static KeyStore keyStore(Object... aliasAndCertificates) throws Exception {
+        KeyStore keyStore = keyStore();
+        for (int i = 0; i < aliasAndCertificates.length; i += 2) {
+            keyStore.setCertificateEntry((String) aliasAndCertificates[i], (Certificate) aliasAndCertificates[i + 1]);
+        }
+        return keyStore;
+    }
+
+    private static SelfSignConfig config(String caDn, String dn) {
+        return new SelfSignConfig()
+                .setAlgorithm("EC")
+                .setCa(new SelfSignConfig.CA()
+                        .setDn(caDn)
+                        .setValidityYear(1)
+                        .setInitializeSize(256)
+                        .setSignatureAlgorithm("SHA256withECDSA"))
+                .setCertificate(new SelfSignConfig.Certificate()
+                        .setDn(dn)
+                        .setHosts(Set.of("localhost"))
+                        .setValidityYear(1)
+                        .setInitializeSize(256)
+                        .setSignatureAlgorithm("SHA256withECDSA"));
+    }
+}
@@ -0,0 +1,68 @@
+package com.lhstack.diff;
+
+import com.lhstack.TestCertificates;
+import org.junit.jupiter.api.Test;
+
+import java.security.KeyStore;
+import java.security.cert.X509Certificate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class KeyStoreDiffTest {
+
+    @Test
+    void sameEntriesHaveNoChanges() throws Exception {
+        X509Certificate a = TestCertificates.ca("CN=A").getCa();
+        KeyStore left = TestCertificates.keyStore("a", a);
+        KeyStore right = TestCertificates.keyStore("a", a);
+
+        KeyStoreDiff diff = KeyStoreDiff.compare(() -> left, () -> right);
+
+        assertTrue(diff.isEmpty());
+    }
+
+    @Test
+    void detectsAddedRemovedRenamedAndReplaced() throws Exception {
+        X509Certificate a = TestCertificates.ca("CN=A").getCa();
+        X509Certificate b = TestCertificates.ca("CN=B").getCa();
+        X509Certificate c = TestCertificates.ca("CN=C").getCa();
+        X509Certificate d = TestCertificates.ca("CN=D").getCa();
+        X509Certificate e = TestCertificates.ca("CN=E").getCa();
+        KeyStore left = TestCertificates.keyStore("same", a, "old-name", b, "replaced", c, "removed", d);
+        KeyStore right = TestCertificates.keyStore("same", a, "new-name", b, "replaced", e, "added", c);
+
+        KeyStoreDiff diff = KeyStoreDiff.compare(KeyStoreDiff.snapshot(left), KeyStoreDiff.snapshot(right));
+
+        assertEquals(1, diff.count(KeyStoreDiff.Kind.ADDED));
+        assertEquals(1, diff.count(KeyStoreDiff.Kind.REMOVED));
+        assertEquals(1, diff.count(KeyStoreDiff.Kind.RENAMED));
+        assertEquals(1, diff.count(KeyStoreDiff.Kind.REPLACED));
+        List<KeyStoreDiff.Change> changes = diff.getChanges();
+        KeyStoreDiff.Change renamed = find(changes, KeyStoreDiff.Kind.RENAMED);
+        assertEquals("old-name", renamed.getLeftAlias());
+        assertEquals("new-name", renamed.getRightAlias());
+        assertEquals("added", find(changes, KeyStoreDiff.Kind.ADDED).getAlias());
+        assertNull(find(changes, KeyStoreDiff.Kind.ADDED).getLeftAlias());
+        assertEquals("removed", find(changes, KeyStoreDiff.Kind.REMOVED).getAlias());
+        assertNull(find(changes, KeyStoreDiff.Kind.REMOVED).getRightAlias());
+        assertEquals("replaced", find(changes, KeyStoreDiff.Kind.REPLACED).getAlias());
+    }
+
+    @Test
+    void renameIsMatchedOnlyOnce() throws Exception {
+        X509Certificate a = TestCertificates.ca("CN=A").getCa();
+        KeyStore left = TestCertificates.keyStore("a", a);
+        KeyStore right = TestCertificates.keyStore("b", a, "c", a);
+
+        KeyStoreDiff diff = KeyStoreDiff.compare(KeyStoreDiff.snapshot(left), KeyStoreDiff.snapshot(right));
+
+        assertEquals(1, diff.count(KeyStoreDiff.Kind.RENAMED));
+        assertEquals(1, diff.count(KeyStoreDiff.Kind.ADDED));
+        assertEquals(0, diff.count(KeyStoreDiff.Kind.REMOVED));
+    }
+
+    private static KeyStoreDiff.Change find(List<KeyStoreDiff.Change> changes, KeyStoreDiff.Kind kind) {
+        return changes.stream().filter(change -> change.getKind() == kind).findFirst().orElseThrow();
+    }
+}
@@ -0,0 +1,89 @@
+package com.lhstack.export;
+
+import com.lhstack.TestCertificates;
+import com.lhstack.selfsign.SelfSignCertificateEntity;
+import com.lhstack.store.KeyStoreOptions;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CertificateExporterTest {
+
+    @Test
+    void exportsEveryEntryInOrder() throws Exception {
+        SelfSignCertificateEntity ca = TestCertificates.ca("CN=CA");
+        SelfSignCertificateEntity certificate = TestCertificates.issue(ca, "CN=localhost");
+        List<String> progress = new ArrayList<>();
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+        List<String> names = new CertificateExporter()
+                .addKeyStore(new KeyStoreOptions().setType(KeyStoreOptions.Type.PKCS12))
+                .addKeyStore(new KeyStoreOptions().setType(KeyStoreOptions.Type.JKS))
+                .setProgress((completed, total, name) -> progress.add(completed + "/" + total + " " + name))
+                .export(ca.getCa(), ca.getCaKey(), certificate.getCertificate(), certificate.getCertificateKey(), outputStream);
+
+        List<String> expected = List.of("ca.pem", "ca-key.pem", "certificate.pem", "certificate-key.pem",
+                "der/ca.der", "der/ca-key.der", "der/certificate.der", "der/certificate-key.der",
+                "pkcs8/ca-key.pem", "pkcs8/certificate-key.pem", "fullchain.pem",
+                "ca.p12", "certificate.p12", "ca.jks", "certificate.jks", "密码.txt");
+        assertEquals(expected, names);
+        assertEquals(expected, entries(outputStream.toByteArray()));
+        assertEquals(16, progress.size());
+        assertEquals("16/16 密码.txt", progress.get(15));
+    }
+
+    @Test
+    void exportsOnlySelectedFormats() throws Exception {
+        SelfSignCertificateEntity ca = TestCertificates.ca("CN=CA");
+        SelfSignCertificateEntity certificate = TestCertificates.issue(ca, "CN=localhost");
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+        List<String> names = new CertificateExporter()
+                .setFormats(EnumSet.of(CertificateExporter.Format.FULLCHAIN))
+                .export(ca.getCa(), ca.getCaKey(), certificate.getCertificate(), certificate.getCertificateKey(), outputStream);
+
+        assertEquals(List.of("fullchain.pem"), names);
+        assertEquals(names, entries(outputStream.toByteArray()));
+    }
+
+    @Test
+    void duplicateKeyStoreTypeIsRejected() {
+        CertificateExporter exporter = new CertificateExporter().addKeyStore(new KeyStoreOptions().setType(KeyStoreOptions.Type.JKS));
+
+        assertThrows(IllegalArgumentException.class, () -> exporter.addKeyStore(new KeyStoreOptions().setType(KeyStoreOptions.Type.JKS)));
+    }
+
+    @Test
+    void cancelsBetweenEntries() throws Exception {
+        SelfSignCertificateEntity ca = TestCertificates.ca("CN=CA");
+        SelfSignCertificateEntity certificate = TestCertificates.issue(ca, "CN=localhost");
+        List<String> written = new ArrayList<>();
+
+        CertificateExporter exporter = new CertificateExporter()
+                .setProgress((completed, total, name) -> written.add(name))
+                .setCancelled(() -> written.size() >= 2);
+
+        assertThrows(CancellationException.class, () -> exporter.export(ca.getCa(), ca.getCaKey(), certificate.getCertificate(), certificate.getCertificateKey(), new ByteArrayOutputStream()));
+        assertEquals(List.of("ca.pem", "ca-key.pem"), written);
+    }
+
+    private static List<String> entries(byte[] zip) throws Exception {
+        List<String> names = new ArrayList<>();
+        try (ZipInputStream inputStream = new ZipInputStream(new ByteArrayInputStream(zip))) {
+            ZipEntry entry;
+            while ((entry = inputStream.getNextEntry()) != null) {
+                names.add(entry.getName());
+            }
+        }
+        return names;
+    }
+}
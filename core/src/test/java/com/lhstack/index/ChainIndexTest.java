@@ -0,0 +1,83 @@
+package com.lhstack.index;
+
+import com.lhstack.Item;
+import com.lhstack.TestCertificates;
+import com.lhstack.selfsign.SelfSignCertificateEntity;
+import com.lhstack.utils.KeyStoreUtils;
+import org.junit.jupiter.api.Test;
+
+import java.security.KeyStore;
+import java.security.cert.X509Certificate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ChainIndexTest {
+
+    @Test
+    void resolvesChainToSelfSignedRoot() throws Exception {
+        SelfSignCertificateEntity ca = TestCertificates.ca("CN=Test Root");
+        SelfSignCertificateEntity leaf = TestCertificates.issue(ca, "CN=leaf.example.com");
+        KeyStore keyStore = TestCertificates.keyStore("root", ca.getCa(), "leaf", leaf.getCertificate());
+        Item root = KeyStoreUtils.item(keyStore, "root");
+        Item item = KeyStoreUtils.item(keyStore, "leaf");
+        ChainIndex index = new ChainIndex();
+        index.add(item);
+        index.add(root);
+
+        assertEquals(2, index.depth(item));
+        assertEquals(1, index.depth(root));
+        assertSame(root, index.top(item));
+        assertTrue(index.isComplete(item));
+        assertEquals(List.of(item, root), index.chain(item));
+    }
+
+    @Test
+    void chainIsIncompleteWhenIssuerIsMissing() throws Exception {
+        SelfSignCertificateEntity ca = TestCertificates.ca("CN=Test Root");
+        SelfSignCertificateEntity leaf = TestCertificates.issue(ca, "CN=leaf.example.com");
+        KeyStore keyStore = TestCertificates.keyStore("root", ca.getCa(), "leaf", leaf.getCertificate());
+        Item root = KeyStoreUtils.item(keyStore, "root");
+        Item item = KeyStoreUtils.item(keyStore, "leaf");
+        ChainIndex index = new ChainIndex();
+        index.add(item);
+
+        assertEquals(1, index.depth(item));
+        assertSame(item, index.top(item));
+        assertFalse(index.isComplete(item));
+
+        index.add(root);
+        assertTrue(index.isComplete(item));
+
+        index.remove(root);
+        assertFalse(index.isComplete(item));
+        assertEquals(List.of(item), index.chain(item));
+    }
+
+    @Test
+    void itemsOutsideIndexHaveNoChain() throws Exception {
+        SelfSignCertificateEntity ca = TestCertificates.ca("CN=Test Root");
+        Item root = KeyStoreUtils.item(TestCertificates.keyStore("root", ca.getCa()), "root");
+        ChainIndex index = new ChainIndex();
+        index.add(root);
+        index.clear();
+
+        assertEquals(0, index.depth(root));
+        assertNull(index.top(root));
+        assertFalse(index.isComplete(root));
+        assertTrue(index.chain(root).isEmpty());
+    }
+
+    @Test
+    void buildsChainForCertificateNotInIndex() throws Exception {
+        SelfSignCertificateEntity ca = TestCertificates.ca("CN=Test Root");
+        SelfSignCertificateEntity leaf = TestCertificates.issue(ca, "CN=leaf.example.com");
+        ChainIndex index = new ChainIndex();
+        index.add(KeyStoreUtils.item(TestCertificates.keyStore("root", ca.getCa()), "root"));
+
+        List<X509Certificate> chain = index.chain(leaf.getCertificate());
+
+        assertEquals(List.of(leaf.getCertificate(), ca.getCa()), chain);
+        assertEquals(List.of(ca.getCa()), index.chain(ca.getCa()));
+    }
+}
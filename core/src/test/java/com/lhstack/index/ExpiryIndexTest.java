@@ -0,0 +1,53 @@
+package com.lhstack.index;
+
+import com.lhstack.Item;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ExpiryIndexTest {
+
+    private static final long NOW = 1_700_000_000_000L;
+
+    private static Item item(String name, long notAfter) {
+        return new Item().setName(name).setNotAfter(notAfter);
+    }
+
+    @Test
+    void countsFollowAddAndRemove() {
+        ExpiryIndex index = new ExpiryIndex();
+        Item expired = item("expired", NOW - 1);
+        Item soon = item("soon", NOW + 3 * ExpiryIndex.DAY_MILLIS);
+        Item later = item("later", NOW + 60 * ExpiryIndex.DAY_MILLIS);
+        index.add(expired);
+        index.add(soon);
+        index.add(later);
+        index.add(new Item().setName("secret"));
+
+        assertEquals(3, index.size());
+        assertEquals(Map.of(0, 1, 7, 2, 30, 2, 90, 3), index.count(NOW, 0, 7, 30, 90));
+
+        index.remove(soon);
+        assertEquals(1, index.countBefore(NOW + 7 * ExpiryIndex.DAY_MILLIS));
+        index.add(item("same", NOW - 1));
+        assertEquals(2, index.countBefore(NOW));
+        assertSame(expired, index.first());
+    }
+
+    @Test
+    void countMatchesHeadSet() {
+        ExpiryIndex index = new ExpiryIndex();
+        for (int i = 0; i < 100; i++) {
+            index.add(item("item" + i, NOW + (i % 10) * ExpiryIndex.DAY_MILLIS));
+        }
+        for (int day = 0; day <= 10; day++) {
+            long deadline = NOW + day * ExpiryIndex.DAY_MILLIS;
+            assertEquals(index.expiringBefore(deadline).size(), index.countBefore(deadline));
+        }
+        index.clear();
+        assertEquals(0, index.countBefore(Long.MAX_VALUE));
+        assertNull(index.first());
+    }
+}
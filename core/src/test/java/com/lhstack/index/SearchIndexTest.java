@@ -0,0 +1,76 @@
+package com.lhstack.index;
+
+import com.lhstack.Item;
+import com.lhstack.TestCertificates;
+import com.lhstack.selfsign.SelfSignCertificateEntity;
+import com.lhstack.utils.KeyStoreUtils;
+import org.junit.jupiter.api.Test;
+
+import java.security.KeyStore;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SearchIndexTest {
+
+    @Test
+    void searchesNameSubjectAndFingerprintByPrefix() throws Exception {
+        SelfSignCertificateEntity ca = TestCertificates.ca("CN=Search Root");
+        SelfSignCertificateEntity leaf = TestCertificates.issue(ca, "CN=web.example.com");
+        KeyStore keyStore = TestCertificates.keyStore("root-ca", ca.getCa(), "web", leaf.getCertificate());
+        Item root = KeyStoreUtils.item(keyStore, "root-ca");
+        Item web = KeyStoreUtils.item(keyStore, "web");
+        SearchIndex index = new SearchIndex();
+        index.add(root);
+        index.add(web);
+
+        assertEquals(Set.of(web), index.search("exam"));
+        assertEquals(Set.of(root, web), index.search("search ro"));
+        assertEquals(Set.of(root), index.search(root.getFingerprintHex().substring(0, 8)));
+        assertTrue(index.search("nothing").isEmpty());
+        assertNull(index.search(" - "));
+
+        index.remove(web);
+        assertEquals(Set.of(root), index.search("search"));
+    }
+
+    @Test
+    void filterFollowsAddedAndRemovedItems() {
+        SearchIndex index = new SearchIndex();
+        Item alpha = new Item().setName("alpha-one");
+        index.add(alpha);
+        index.add(new Item().setName("beta"));
+
+        Set<Item> matched = index.filter("alpha");
+        assertEquals(Set.of(alpha), matched);
+
+        Item added = new Item().setName("alpha-two");
+        index.add(added);
+        index.add(new Item().setName("gamma"));
+        assertEquals(Set.of(alpha, added), matched);
+
+        index.remove(alpha);
+        assertEquals(Set.of(added), matched);
+
+        index.clearFilter();
+        index.add(new Item().setName("alpha-three"));
+        assertEquals(Set.of(added), matched);
+        assertNull(index.filter(""));
+    }
+
+    @Test
+    void preparedTermsAreUsedWhenAdding() throws Exception {
+        SelfSignCertificateEntity ca = TestCertificates.ca("CN=Prepared Root");
+        Item item = KeyStoreUtils.item(TestCertificates.keyStore("prepared", ca.getCa()), "prepared");
+        SearchIndex index = new SearchIndex();
+        index.prepare(item);
+        //加入索引时不再读取证书
+        item.setCertificate(null).setCertificateLoader(name -> {
+            throw new AssertionError("certificate read while adding");
+        });
+
+        index.add(item);
+
+        assertEquals(Set.of(item), index.search("prepared root"));
+    }
+}
@@ -0,0 +1,55 @@
+package com.lhstack.inventory;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CertificateInventoryTest {
+
+    @Test
+    void writtenInventoryIsReadBack() throws Exception {
+        Path index = Files.createTempDirectory("inventory").resolve("cache").resolve("inventory.bin");
+        byte[] fingerprint = new byte[32];
+        fingerprint[0] = 1;
+        CertificateInventory inventory = new CertificateInventory(List.of(
+                new CertificateInventory.FileRecord("b/store.p12", 2, 20, CertificateInventory.Format.PKCS12, null, List.of(
+                        new CertificateInventory.Entry("b/store.p12", "ca", "CN=测试", "CN=测试", 1000, fingerprint),
+                        new CertificateInventory.Entry("b/store.p12", "other", "X.509", "", Long.MAX_VALUE, fingerprint))),
+                new CertificateInventory.FileRecord("a.pem", 1, 10, CertificateInventory.Format.UNKNOWN, "需要密码", List.of())));
+
+        inventory.write(index);
+        CertificateInventory read = CertificateInventory.read(index);
+
+        assertEquals(List.of("a.pem", "b/store.p12"), read.getFiles().stream().map(CertificateInventory.FileRecord::getPath).toList());
+        CertificateInventory.FileRecord failed = read.get("a.pem");
+        assertEquals("需要密码", failed.getError());
+        assertTrue(failed.isUnchanged(1, 10));
+        CertificateInventory.FileRecord store = read.get("b/store.p12");
+        assertNull(store.getError());
+        assertEquals(CertificateInventory.Format.PKCS12, store.getFormat());
+        List<CertificateInventory.Entry> entries = read.getEntries();
+        assertEquals(2, entries.size());
+        assertEquals("CN=测试", entries.get(0).getSubject());
+        assertEquals(1000, entries.get(0).getNotAfter());
+        assertEquals(inventory.getEntries().get(0).getFingerprintHex(), entries.get(0).getFingerprintHex());
+        assertFalse(entries.get(1).hasValidity());
+    }
+
+    @Test
+    void missingOrCorruptInventoryIsEmpty() throws Exception {
+        Path directory = Files.createTempDirectory("inventory");
+        Path index = directory.resolve("inventory.bin");
+        assertTrue(CertificateInventory.read(index).getFiles().isEmpty());
+
+        new CertificateInventory(List.of(new CertificateInventory.FileRecord("a.pem", 1, 10, CertificateInventory.Format.PEM, null, List.of()))).write(index);
+        byte[] bytes = Files.readAllBytes(index);
+        Files.write(index, Arrays.copyOf(bytes, bytes.length - 4));
+
+        assertTrue(CertificateInventory.read(index).getFiles().isEmpty());
+    }
+}
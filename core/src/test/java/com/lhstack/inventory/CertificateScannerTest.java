@@ -0,0 +1,69 @@
+package com.lhstack.inventory;
+
+import com.lhstack.TestCertificates;
+import com.lhstack.selfsign.SelfSignCertificateEntity;
+import com.lhstack.utils.PemUtils;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.KeyStore;
+import java.security.cert.CertificateFactory;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CertificateScannerTest {
+
+    @Test
+    void sniffsFormatsFromContent() throws Exception {
+        SelfSignCertificateEntity ca = TestCertificates.ca("CN=A");
+        byte[] der = ca.getCa().getEncoded();
+        byte[] pkcs7 = CertificateFactory.getInstance("X.509").generateCertPath(List.of(ca.getCa())).getEncoded("PKCS7");
+
+        assertEquals(CertificateInventory.Format.JKS, CertificateScanner.sniff(store("JKS"), "a.keystore"));
+        assertEquals(CertificateInventory.Format.JCEKS, CertificateScanner.sniff(store("JCEKS"), "a.keystore"));
+        assertEquals(CertificateInventory.Format.PKCS12, CertificateScanner.sniff(store("PKCS12"), "a.keystore"));
+        assertEquals(CertificateInventory.Format.PKCS7, CertificateScanner.sniff(pkcs7, "a.p7b"));
+        assertEquals(CertificateInventory.Format.DER, CertificateScanner.sniff(der, "a.cer"));
+        assertEquals(CertificateInventory.Format.BCFKS, CertificateScanner.sniff(der, "a.bcfks"));
+        assertEquals(CertificateInventory.Format.PEM, CertificateScanner.sniff(("注释\n" + PemUtils.toString(ca.getCa())).getBytes(StandardCharsets.UTF_8), "a.crt"));
+        assertEquals(CertificateInventory.Format.UNKNOWN, CertificateScanner.sniff("text".getBytes(StandardCharsets.UTF_8), "a.pem"));
+        assertEquals(CertificateInventory.Format.UNKNOWN, CertificateScanner.sniff(new byte[]{0x30, (byte) 0x84, 0, 0}, "a.der"));
+        assertEquals(CertificateInventory.Format.UNKNOWN, CertificateScanner.sniff(new byte[0], "a.der"));
+    }
+
+    @Test
+    void rescanReusesUnchangedFiles() throws Exception {
+        SelfSignCertificateEntity ca = TestCertificates.ca("CN=A");
+        Path root = Files.createTempDirectory("scanner");
+        Files.writeString(root.resolve("ca.pem"), PemUtils.toString(ca.getCa()));
+        Files.createDirectories(root.resolve("build"));
+        Files.writeString(root.resolve("build").resolve("skipped.pem"), PemUtils.toString(ca.getCa()));
+        Files.write(root.resolve("broken.p12"), new byte[]{0x30, 0x03, 0x02, 0x01, 0x03});
+
+        CertificateScanner.Result first = new CertificateScanner().scan(root, null);
+        CertificateScanner.Result second = new CertificateScanner().scan(root, first.getInventory());
+
+        assertEquals(2, first.getParsed());
+        assertEquals(1, first.getFailed());
+        List<CertificateInventory.Entry> entries = first.getInventory().getEntries();
+        assertEquals(1, entries.size());
+        assertEquals("ca.pem", entries.get(0).getPath());
+        assertEquals(ca.getCa().getNotAfter().getTime(), entries.get(0).getNotAfter());
+        //读取失败的文件每次都重新读取
+        assertEquals(1, second.getReused());
+        assertEquals(1, second.getParsed());
+    }
+
+    private static byte[] store(String type) throws Exception {
+        KeyStore keyStore = KeyStore.getInstance(type);
+        keyStore.load(null, null);
+        keyStore.setCertificateEntry("a", TestCertificates.ca("CN=A").getCa());
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        keyStore.store(outputStream, "store".toCharArray());
+        return outputStream.toByteArray();
+    }
+}
@@ -0,0 +1,121 @@
+package com.lhstack.merge;
+
+import com.lhstack.TestCertificates;
+import com.lhstack.selfsign.SelfSignCertificateEntity;
+import org.junit.jupiter.api.Test;
+
+import java.security.KeyStore;
+import java.security.cert.Certificate;
+import java.security.cert.X509Certificate;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class KeyStoreMergerTest {
+
+    @Test
+    void skipsDuplicateCertificatesByFingerprint() throws Exception {
+        X509Certificate a = TestCertificates.ca("CN=A").getCa();
+        X509Certificate b = TestCertificates.ca("CN=B").getCa();
+        KeyStore target = TestCertificates.keyStore("a", a);
+        KeyStore source = TestCertificates.keyStore("copy-of-a", a, "b", b);
+
+        KeyStoreMerger.Report report = new KeyStoreMerger(target, null, KeyStoreMerger.ConflictPolicy.SKIP)
+                .merge(List.of(new KeyStoreMerger.Source("source", () -> source, null)));
+
+        assertEquals(2, report.getRead());
+        assertEquals(1, report.getDuplicates());
+        assertEquals(List.of("b"), report.getWritten());
+        assertEquals(2, target.size());
+        assertFalse(target.containsAlias("copy-of-a"));
+    }
+
+    @Test
+    void appliesConflictPolicy() throws Exception {
+        X509Certificate a = TestCertificates.ca("CN=A").getCa();
+        X509Certificate b = TestCertificates.ca("CN=B").getCa();
+
+        KeyStore skip = TestCertificates.keyStore("name", a);
+        new KeyStoreMerger(skip, null, KeyStoreMerger.ConflictPolicy.SKIP).merge(sources(b));
+        assertEquals(a, skip.getCertificate("name"));
+        assertEquals(1, skip.size());
+
+        KeyStore overwrite = TestCertificates.keyStore("name", a);
+        new KeyStoreMerger(overwrite, null, KeyStoreMerger.ConflictPolicy.OVERWRITE).merge(sources(b));
+        assertEquals(b, overwrite.getCertificate("name"));
+        assertEquals(1, overwrite.size());
+
+        KeyStore rename = TestCertificates.keyStore("name", a);
+        KeyStoreMerger.Report report = new KeyStoreMerger(rename, null, KeyStoreMerger.ConflictPolicy.RENAME).merge(sources(b));
+        assertEquals(a, rename.getCertificate("name"));
+        assertEquals(2, rename.size());
+        String renamed = report.getWritten().get(0);
+        assertNotEquals("name", renamed);
+        assertEquals(b, rename.getCertificate(renamed));
+    }
+
+    @Test
+    void reEncryptsPrivateKeysWithTargetPassword() throws Exception {
+        SelfSignCertificateEntity ca = TestCertificates.ca("CN=A");
+        KeyStore source = TestCertificates.keyStore();
+        source.setKeyEntry("key", ca.getCaKey(), "source".toCharArray(), new Certificate[]{ca.getCa()});
+        KeyStore target = TestCertificates.keyStore();
+
+        new KeyStoreMerger(target, "target".toCharArray(), KeyStoreMerger.ConflictPolicy.SKIP)
+                .merge(List.of(new KeyStoreMerger.Source("source", () -> source, "source".toCharArray())));
+
+        assertTrue(target.isKeyEntry("key"));
+        assertEquals(ca.getCaKey(), target.getKey("key", "target".toCharArray()));
+    }
+
+    @Test
+    void reportsSourceThatFailsToLoad() {
+        Exception e = assertThrows(Exception.class, () -> new KeyStoreMerger(TestCertificates.keyStore(), null, KeyStoreMerger.ConflictPolicy.SKIP)
+                .merge(List.of(new KeyStoreMerger.Source("broken.p12", () -> {
+                    throw new IllegalStateException("bad");
+                }, null))));
+        assertTrue(e.getMessage().startsWith("broken.p12"));
+    }
+
+    @Test
+    void leavesTargetUnchangedWhenALaterSourceFails() throws Exception {
+        X509Certificate a = TestCertificates.ca("CN=A").getCa();
+        KeyStore target = TestCertificates.keyStore();
+        KeyStore first = TestCertificates.keyStore("a", a);
+
+        Exception e = assertThrows(Exception.class, () -> new KeyStoreMerger(target, null, KeyStoreMerger.ConflictPolicy.SKIP)
+                .merge(List.of(new KeyStoreMerger.Source("first.p12", () -> first, null), new KeyStoreMerger.Source("second.p12", () -> {
+                    throw new IllegalStateException("bad");
+                }, null))));
+
+        assertTrue(e.getMessage().startsWith("second.p12"));
+        assertEquals(0, target.size());
+    }
+
+    @Test
+    void cancelsWhileLoadingWithoutWriting() throws Exception {
+        X509Certificate a = TestCertificates.ca("CN=A").getCa();
+        KeyStore target = TestCertificates.keyStore();
+        KeyStore first = TestCertificates.keyStore("a", a);
+        CountDownLatch latch = new CountDownLatch(1);
+        AtomicBoolean cancelled = new AtomicBoolean();
+
+        KeyStoreMerger merger = new KeyStoreMerger(target, null, KeyStoreMerger.ConflictPolicy.SKIP).setCancelled(cancelled::get);
+        cancelled.set(true);
+        assertThrows(CancellationException.class, () -> merger.merge(List.of(new KeyStoreMerger.Source("first.p12", () -> first, null), new KeyStoreMerger.Source("slow.p12", () -> {
+            latch.await();
+            return first;
+        }, null))));
+        latch.countDown();
+
+        assertEquals(0, target.size());
+    }
+
+    private static List<KeyStoreMerger.Source> sources(X509Certificate certificate) throws Exception {
+        KeyStore source = TestCertificates.keyStore("name", certificate);
+        return List.of(new KeyStoreMerger.Source("source", () -> source, null));
+    }
+}
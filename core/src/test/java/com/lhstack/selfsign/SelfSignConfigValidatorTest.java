@@ -0,0 +1,99 @@
+package com.lhstack.selfsign;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SelfSignConfigValidatorTest {
+
+    private static final String VALID = "algorithm: RSA\n" +
+            "ca:\n" +
+            "  dn: CN=Test CA\n" +
+            "  validityYear: 10\n" +
+            "  initializeSize: 2048\n" +
+            "  signatureAlgorithm: SHA256withRSA\n" +
+            "certificate:\n" +
+            "  dn: CN=localhost\n" +
+            "  hosts:\n" +
+            "    - localhost\n" +
+            "    - 127.0.0.1\n" +
+            "  validityYear: 1\n" +
+            "  initializeSize: 2048\n" +
+            "  signatureAlgorithm: SHA256withRSA\n";
+
+    @Test
+    void validConfigHasNoProblems() {
+        assertTrue(SelfSignConfigValidator.validate(VALID).isEmpty());
+    }
+
+    @Test
+    void reportsSyntaxErrorWithPosition() {
+        List<SelfSignConfigValidator.Problem> problems = SelfSignConfigValidator.validate("algorithm: RSA\nca: [\n");
+        assertEquals(1, problems.size());
+        assertTrue(problems.get(0).getMessage().startsWith("yaml格式错误"));
+    }
+
+    @Test
+    void reportsUnknownKeyOnItsLine() {
+        List<SelfSignConfigValidator.Problem> problems = SelfSignConfigValidator.validate(VALID.replace("  validityYear: 10", "  validity: 10"));
+        assertEquals(2, problems.size());
+        assertTrue(problems.stream().anyMatch(problem -> problem.getLine() == 3 && problem.getMessage().contains("validity")));
+        assertTrue(problems.stream().anyMatch(problem -> problem.getMessage().contains("缺少validityYear")));
+    }
+
+    @Test
+    void reportsKeySizeAndSignatureAlgorithmNotMatchingAlgorithm() {
+        String text = VALID.replace("  initializeSize: 2048\n  signatureAlgorithm: SHA256withRSA\ncertificate", "  initializeSize: 256\n  signatureAlgorithm: SHA256withECDSA\ncertificate");
+        List<SelfSignConfigValidator.Problem> problems = SelfSignConfigValidator.validate(text);
+        assertEquals(2, problems.size());
+        assertEquals(4, problems.get(0).getLine());
+        assertTrue(problems.get(0).getMessage().contains("initializeSize"));
+        assertEquals(5, problems.get(1).getLine());
+        assertTrue(problems.get(1).getMessage().contains("signatureAlgorithm"));
+    }
+
+    @Test
+    void reportsInvalidDnAndMissingCa() {
+        List<SelfSignConfigValidator.Problem> problems = SelfSignConfigValidator.validate("algorithm: EC\ncertificate:\n  dn: not a dn\n");
+        assertTrue(problems.stream().anyMatch(problem -> problem.getMessage().equals("缺少ca配置")));
+        assertTrue(problems.stream().anyMatch(problem -> problem.getLine() == 2 && problem.getMessage().startsWith("certificate.dn格式错误")));
+    }
+
+    @Test
+    void parserRejectsInvalidConfig() {
+        assertThrows(IllegalArgumentException.class, () -> SelfSignConfigParser.bind(VALID.replace("RSA\n", "AES\n")));
+        SelfSignConfig config = SelfSignConfigParser.bind(VALID);
+        assertEquals("RSA", config.getAlgorithm());
+        assertEquals(2, config.getCertificate().getHosts().size());
+    }
+
+    @Test
+    void parseReturnsIndependentCopies() {
+        SelfSignConfig first = SelfSignConfigParser.parse(VALID);
+        first.getCa().setDn("CN=Changed");
+        first.getCertificate().getHosts().clear();
+
+        SelfSignConfig second = SelfSignConfigParser.parse(VALID);
+        assertNotSame(first, second);
+        assertEquals("CN=Test CA", second.getCa().getDn());
+        assertEquals(2, second.getCertificate().getHosts().size());
+    }
+
+    @Test
+    void checkReturnsProblemsOrConfig() {
+        SelfSignConfigParser.Result invalid = SelfSignConfigParser.check(VALID.replace("RSA\n", "AES\n"));
+        assertFalse(invalid.getProblems().isEmpty());
+        assertNull(invalid.getConfig());
+
+        SelfSignConfigParser.Result valid = SelfSignConfigParser.check(VALID);
+        assertTrue(valid.getProblems().isEmpty());
+        assertEquals("SHA256withRSA", valid.getConfig().getCa().getSignatureAlgorithm());
+        assertEquals(1, (int) valid.getConfig().getCertificate().getValidityYear());
+
+        SelfSignConfigParser.Result blank = SelfSignConfigParser.check(" ");
+        assertTrue(blank.getProblems().isEmpty());
+        assertNull(blank.getConfig());
+    }
+}
@@ -0,0 +1,61 @@
+package com.lhstack.store;
+
+import com.lhstack.TestCertificates;
+import com.lhstack.selfsign.SelfSignCertificateEntity;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.security.KeyStore;
+import java.security.UnrecoverableKeyException;
+import java.security.cert.Certificate;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class KeyStoreOptionsTest {
+
+    @Test
+    void writesKeysWithDifferentSourcePasswords() throws Exception {
+        SelfSignCertificateEntity a = TestCertificates.ca("CN=A");
+        SelfSignCertificateEntity b = TestCertificates.ca("CN=B");
+        KeyStore source = TestCertificates.keyStore();
+        source.setKeyEntry("a", a.getCaKey(), "store".toCharArray(), new Certificate[]{a.getCa()});
+        source.setKeyEntry("b", b.getCaKey(), "other".toCharArray(), new Certificate[]{b.getCa()});
+        Map<String, char[]> passwords = Map.of("b", "other".toCharArray());
+
+        for (KeyStoreOptions.Type type : KeyStoreOptions.Type.values()) {
+            KeyStoreOptions options = new KeyStoreOptions().setType(type).setMac(type == KeyStoreOptions.Type.BCFKS ? KeyStoreOptions.Mac.HMAC_SHA512 : KeyStoreOptions.Mac.HMAC_SHA256);
+            ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+            options.write(source, alias -> passwords.getOrDefault(alias, "store".toCharArray()), "new".toCharArray(), "new".toCharArray(), outputStream);
+
+            KeyStore target = type == KeyStoreOptions.Type.BCFKS ? KeyStore.getInstance(type.getName(), "BC") : KeyStore.getInstance(type.getName());
+            target.load(new ByteArrayInputStream(outputStream.toByteArray()), "new".toCharArray());
+            assertEquals(a.getCaKey(), target.getKey("a", "new".toCharArray()));
+            assertEquals(b.getCaKey(), target.getKey("b", "new".toCharArray()));
+        }
+    }
+
+    @Test
+    void singleSourcePasswordFailsForOtherKeys() throws Exception {
+        SelfSignCertificateEntity a = TestCertificates.ca("CN=A");
+        KeyStore source = TestCertificates.keyStore();
+        source.setKeyEntry("a", a.getCaKey(), "other".toCharArray(), new Certificate[]{a.getCa()});
+
+        assertThrows(UnrecoverableKeyException.class, () -> new KeyStoreOptions().setType(KeyStoreOptions.Type.JKS)
+                .write(source, "store".toCharArray(), null, null, new ByteArrayOutputStream()));
+    }
+
+    @Test
+    void nativeOnlyForSameTypeWithDefaultParameters() throws Exception {
+        KeyStore pkcs12 = TestCertificates.keyStore();
+        KeyStore jks = KeyStore.getInstance("JKS");
+        jks.load(null, null);
+
+        assertTrue(new KeyStoreOptions().isNative(pkcs12));
+        assertFalse(new KeyStoreOptions().setKeyIterations(1000).isNative(pkcs12));
+        assertFalse(new KeyStoreOptions().setType(KeyStoreOptions.Type.JKS).isNative(pkcs12));
+        assertTrue(new KeyStoreOptions().setType(KeyStoreOptions.Type.JKS).isNative(jks));
+        assertTrue(new KeyStoreOptions().isNative(TrackedKeyStore.wrap(pkcs12)));
+    }
+}
@@ -0,0 +1,126 @@
+package com.lhstack.store;
+
+import com.lhstack.TestCertificates;
+import com.lhstack.selfsign.SelfSignCertificateEntity;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.security.KeyStore;
+import java.security.cert.Certificate;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class KeyStoreWriterTest {
+
+    @Test
+    void coalescesSavesWaitingForTheWriter() throws Exception {
+        Path directory = Files.createTempDirectory("keystore-writer");
+        SelfSignCertificateEntity ca = TestCertificates.ca("CN=CA");
+        KeyStore blocking = TestCertificates.keyStore();
+        blocking.setKeyEntry("ca", ca.getCaKey(), "store".toCharArray(), new Certificate[]{ca.getCa()});
+        TrackedKeyStore keyStore = TrackedKeyStore.wrap(TestCertificates.keyStore("a", ca.getCa()));
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        try (KeyStoreWriter writer = new KeyStoreWriter()) {
+            //第一个保存在读取私钥密码时阻塞后台线程,之后的保存都在等待
+            CompletableFuture<KeyStoreWriter.Result> first = writer.save(TrackedKeyStore.wrap(blocking), directory.resolve("blocking.p12"), "store".toCharArray(),
+                    new KeyStoreOptions().setType(KeyStoreOptions.Type.JKS), alias -> {
+                        started.countDown();
+                        try {
+                            release.await();
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        }
+                        return "store".toCharArray();
+                    });
+            assertTrue(started.await(10, TimeUnit.SECONDS));
+            Path path = directory.resolve("store.p12");
+            CompletableFuture<KeyStoreWriter.Result> second = writer.save(keyStore, path, "store".toCharArray());
+            keyStore.setCertificateEntry("b", ca.getCa());
+            CompletableFuture<KeyStoreWriter.Result> third = writer.save(keyStore, path, "store".toCharArray());
+            release.countDown();
+
+            assertFalse(first.get(10, TimeUnit.SECONDS).isSuperseded());
+            KeyStoreWriter.Result result = third.get(10, TimeUnit.SECONDS);
+            assertFalse(result.isSuperseded());
+            assertTrue(second.get(10, TimeUnit.SECONDS).isSuperseded());
+            assertEquals(keyStore.getModCount(), result.getModCount());
+            assertTrue(load(path).containsAlias("b"));
+        }
+    }
+
+    @Test
+    void replacesTheFileAndKeepsItsPermissions() throws Exception {
+        Path directory = Files.createTempDirectory("keystore-writer");
+        Path path = directory.resolve("store.bin");
+        Files.write(path, new byte[]{1, 2, 3});
+        boolean posix = FileSystems.getDefault().supportedFileAttributeViews().contains("posix");
+        if (posix) {
+            Files.setPosixFilePermissions(path, PosixFilePermissions.fromString("rw-r--r--"));
+        }
+
+        long size = KeyStoreWriter.write(path, outputStream -> outputStream.write(new byte[]{4, 5}));
+
+        assertEquals(2, size);
+        assertArrayEquals(new byte[]{4, 5}, Files.readAllBytes(path));
+        if (posix) {
+            assertEquals(PosixFilePermissions.fromString("rw-r--r--"), Files.getPosixFilePermissions(path));
+        }
+        try (var files = Files.list(directory)) {
+            assertEquals(1, files.count());
+        }
+    }
+
+    @Test
+    void failedWriteLeavesTheFileUnchanged() throws Exception {
+        Path directory = Files.createTempDirectory("keystore-writer");
+        Path path = directory.resolve("store.bin");
+        Files.write(path, new byte[]{1, 2, 3});
+
+        assertThrows(IllegalStateException.class, () -> KeyStoreWriter.write(path, outputStream -> {
+            outputStream.write(new byte[]{4});
+            throw new IllegalStateException("failed");
+        }));
+
+        assertArrayEquals(new byte[]{1, 2, 3}, Files.readAllBytes(path));
+        try (var files = Files.list(directory)) {
+            assertEquals(1, files.count());
+        }
+    }
+
+    @Test
+    void writesThroughSymbolicLinks() throws Exception {
+        Path directory = Files.createTempDirectory("keystore-writer");
+        Path real = Files.createDirectory(directory.resolve("real")).resolve("store.bin");
+        Files.write(real, new byte[]{1});
+        Path link = directory.resolve("link.bin");
+        try {
+            Files.createSymbolicLink(link, real);
+        } catch (UnsupportedOperationException | IOException e) {
+            //不支持符号链接的系统不检查
+            return;
+        }
+
+        KeyStoreWriter.write(link, outputStream -> outputStream.write(new byte[]{2}));
+
+        assertTrue(Files.isSymbolicLink(link));
+        assertArrayEquals(new byte[]{2}, Files.readAllBytes(real));
+    }
+
+    private static KeyStore load(Path path) throws Exception {
+        KeyStore keyStore = KeyStore.getInstance("PKCS12");
+        try (InputStream inputStream = Files.newInputStream(path)) {
+            keyStore.load(inputStream, "store".toCharArray());
+        }
+        return keyStore;
+    }
+}
@@ -0,0 +1,80 @@
+package com.lhstack.store;
+
+import com.lhstack.TestCertificates;
+import com.lhstack.selfsign.SelfSignCertificateEntity;
+import com.lhstack.utils.PemUtils;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SecretStoreTest {
+
+    @Test
+    void pemIsStoredAsDer() throws Exception {
+        SelfSignCertificateEntity ca = TestCertificates.ca("CN=A");
+        String pem = PemUtils.toString(ca.getCa()) + PemUtils.toString(ca.getCaKey());
+
+        byte[] encoded = SecretStore.encode(pem);
+
+        assertTrue(encoded.length < pem.getBytes(StandardCharsets.UTF_8).length);
+        assertEquals(pem, SecretStore.decode(encoded));
+    }
+
+    @Test
+    void textIsStoredAsIs() throws Exception {
+        for (String text : new String[]{"", "algorithm: RSA\nca:\n  dn: CN=测试\n", "-----BEGIN CERTIFICATE-----\nbroken"}) {
+            assertEquals(text, SecretStore.decode(SecretStore.encode(text)));
+        }
+    }
+
+    @Test
+    void pemWithDifferentLineEndingsIsReadBackUnchanged() throws Exception {
+        String pem = PemUtils.toString(TestCertificates.ca("CN=A").getCa());
+        String crlf = pem.replace("\r\n", "\n").replace("\n", "\r\n");
+        String noTrailingNewline = pem.stripTrailing();
+
+        for (String text : new String[]{crlf, noTrailingNewline, pem + "\n"}) {
+            assertEquals(text, SecretStore.decode(SecretStore.encode(text)));
+        }
+    }
+
+    @Test
+    void pemWithSurroundingTextIsStoredAsText() throws Exception {
+        String pem = "注释\n" + PemUtils.toString(TestCertificates.ca("CN=A").getCa());
+
+        assertEquals(pem, SecretStore.decode(SecretStore.encode(pem)));
+    }
+
+    @Test
+    void writtenEntryIsReadFromFile() throws Exception {
+        Path directory = Files.createTempDirectory("secret-store");
+        try (SecretStore store = new SecretStore(directory, () -> new byte[32])) {
+            store.put("default", "config", "algorithm: RSA");
+            store.flush();
+
+            assertEquals("algorithm: RSA", store.read("default", "config"));
+            assertNull(store.read("default", "ca"));
+        }
+    }
+
+    @Test
+    void writeFailureIsReported() throws Exception {
+        Path directory = Files.createTempDirectory("secret-store");
+        List<String> failed = new ArrayList<>();
+        try (SecretStore store = new SecretStore(directory, () -> {
+            throw new IllegalStateException("没有密钥");
+        }).setWriteListener((profile, name, error) -> failed.add(profile + "/" + name + ": " + error.getMessage()))) {
+            store.put("default", "config", "algorithm: RSA");
+            store.flush();
+
+            assertEquals(List.of("default/config: 没有密钥"), failed);
+            assertEquals("algorithm: RSA", store.get("default", "config"));
+        }
+    }
+}
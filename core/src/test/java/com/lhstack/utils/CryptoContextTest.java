@@ -0,0 +1,45 @@
+package com.lhstack.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.security.KeyFactory;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CryptoContextTest {
+
+    @Test
+    void instancesAreReusedPerThread() throws Exception {
+        KeyFactory keyFactory = CryptoContext.keyFactory("EC", CryptoContext.BC_PROVIDER);
+        assertSame(keyFactory, CryptoContext.keyFactory("EC", CryptoContext.BC_PROVIDER));
+        assertSame(CryptoContext.certificateFactory(), CryptoContext.certificateFactory());
+
+        AtomicReference<Object> other = new AtomicReference<>();
+        Thread thread = new Thread(() -> {
+            try {
+                other.set(CryptoContext.keyFactory("EC", CryptoContext.BC_PROVIDER));
+            } catch (Exception e) {
+                other.set(e);
+            }
+        });
+        thread.start();
+        thread.join();
+        assertTrue(other.get() instanceof KeyFactory);
+        assertNotSame(keyFactory, other.get());
+    }
+
+    @Test
+    void clearDropsInstancesOfAllThreads() throws Exception {
+        KeyFactory keyFactory = CryptoContext.keyFactory("RSA", CryptoContext.BC_PROVIDER);
+
+        CryptoContext.clear();
+
+        assertNotSame(keyFactory, CryptoContext.keyFactory("RSA", CryptoContext.BC_PROVIDER));
+    }
+
+    @Test
+    void unknownProviderIsRejected() {
+        assertThrows(Exception.class, () -> CryptoContext.keyFactory("EC", "NO-SUCH-PROVIDER"));
+    }
+}
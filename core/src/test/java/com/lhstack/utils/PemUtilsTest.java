@@ -0,0 +1,36 @@
+package com.lhstack.utils;
+
+import com.lhstack.TestCertificates;
+import com.lhstack.selfsign.SelfSignCertificateEntity;
+import org.junit.jupiter.api.Test;
+
+import java.security.cert.X509Certificate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PemUtilsTest {
+
+    @Test
+    void certificateIsCachedByDerContent() throws Exception {
+        X509Certificate ca = TestCertificates.ca("CN=Pem Cache").getCa();
+        String pem = PemUtils.toString(ca);
+
+        Object parsed = PemUtils.readCertificate(pem);
+
+        assertSame(parsed, PemUtils.readCertificate(pem.replace("\n", "\r\n")));
+        assertSame(parsed, PemUtils.readCertificate("注释\n" + pem.trim()));
+        assertSame(parsed, PemUtils.readCertificate(ca.getEncoded()));
+    }
+
+    @Test
+    void privateKeyIsCachedByDerContent() throws Exception {
+        SelfSignCertificateEntity ca = TestCertificates.ca("CN=Pem Cache Key");
+        String pem = PemUtils.toString(ca.getCaKey());
+
+        Object parsed = PemUtils.readPrivateKey(pem);
+
+        assertNotNull(parsed);
+        assertSame(parsed, PemUtils.readPrivateKey(pem.replace("\n", "\r\n").trim()));
+        assertNull(PemUtils.readPrivateKey("not a key"));
+    }
+}
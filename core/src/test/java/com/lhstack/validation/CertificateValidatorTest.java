@@ -0,0 +1,44 @@
+package com.lhstack.validation;
+
+import com.lhstack.TestCertificates;
+import com.lhstack.selfsign.SelfSignCertificateEntity;
+import org.junit.jupiter.api.Test;
+
+import java.security.cert.X509Certificate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CertificateValidatorTest {
+
+    @Test
+    void validChainToSelfSignedRoot() throws Exception {
+        SelfSignCertificateEntity ca = TestCertificates.ca("CN=Test Root");
+        X509Certificate leaf = TestCertificates.issue(ca, "CN=leaf.example.com").getCertificate();
+
+        ValidationResult result = new CertificateValidator(System.currentTimeMillis()).validate(List.of(leaf, ca.getCa()));
+
+        assertTrue(result.isValid());
+        assertEquals(2, result.getChainLength());
+    }
+
+    @Test
+    void distinguishesNotYetValidFromExpired() throws Exception {
+        X509Certificate ca = TestCertificates.ca("CN=Test Root").getCa();
+
+        ValidationResult notYetValid = new CertificateValidator(ca.getNotBefore().getTime() - 1000).validate(List.of(ca));
+        ValidationResult expired = new CertificateValidator(ca.getNotAfter().getTime() + 1000).validate(List.of(ca));
+
+        assertEquals(ValidationResult.Status.NOT_YET_VALID, notYetValid.getStatus());
+        assertEquals(ValidationResult.Status.EXPIRED, expired.getStatus());
+    }
+
+    @Test
+    void missingIssuerBreaksChain() throws Exception {
+        X509Certificate leaf = TestCertificates.issue(TestCertificates.ca("CN=Test Root"), "CN=leaf.example.com").getCertificate();
+
+        ValidationResult result = new CertificateValidator(System.currentTimeMillis()).validate(List.of(leaf));
+
+        assertEquals(ValidationResult.Status.BROKEN_CHAIN, result.getStatus());
+    }
+}
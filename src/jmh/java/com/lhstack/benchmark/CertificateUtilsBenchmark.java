@@ -0,0 +1,25 @@
+package com.lhstack.benchmark;
+
+import com.lhstack.utils.CertificateUtils;
+import org.openjdk.jmh.annotations.*;
+
+import java.security.cert.Certificate;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * CertificateUtils.gen基准测试,密钥长度使用Provider默认值
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class CertificateUtilsBenchmark {
+
+    @Param({"RSA", "EC", "DSA"})
+    public String algorithm;
+
+    @Benchmark
+    public Certificate gen() throws Exception {
+        return CertificateUtils.gen(algorithm, "CN=benchmark.example.com, O=lhstack, C=CN", Duration.ofDays(365));
+    }
+}
@@ -0,0 +1,144 @@
+package com.lhstack.benchmark;
+
+import com.lhstack.selfsign.KeyPairPool;
+import com.lhstack.selfsign.SelfSignCertificateEntity;
+import com.lhstack.selfsign.SelfSignCertificateHelper;
+import com.lhstack.selfsign.SelfSignConfig;
+import com.lhstack.utils.CryptoContext;
+import org.bouncycastle.cert.X509CertificateHolder;
+import org.bouncycastle.cert.jcajce.JcaX509CertificateConverter;
+import org.bouncycastle.cert.jcajce.JcaX509ExtensionUtils;
+import org.bouncycastle.asn1.x509.SubjectKeyIdentifier;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayInputStream;
+import java.security.KeyFactory;
+import java.security.MessageDigest;
+import java.security.PrivateKey;
+import java.security.SecureRandom;
+import java.security.cert.Certificate;
+import java.security.cert.CertificateFactory;
+import java.security.cert.X509Certificate;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 4个线程并发时,每次getInstance/new与复用CryptoContext中当前线程实例的对比,xxxGetInstance为改造前的写法
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Threads(4)
+public class CryptoContextBenchmark {
+
+    private static final String BC_PROVIDER = "BC";
+
+    private SelfSignConfig config;
+
+    private SelfSignCertificateEntity ca;
+
+    private byte[] certificateEncoded;
+
+    private byte[] privateKeyEncoded;
+
+    private X509CertificateHolder certificateHolder;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        KeyPairPool.getInstance().clear();
+        KeyPairPool.getInstance().setCapacity(64);
+        this.config = new SelfSignConfig()
+                .setAlgorithm("EC")
+                .setCa(new SelfSignConfig.CA()
+                        .setDn("CN=Benchmark CA")
+                        .setValidityYear(10)
+                        .setInitializeSize(256)
+                        .setSignatureAlgorithm("SHA256withECDSA"))
+                .setCertificate(new SelfSignConfig.Certificate()
+                        .setDn("CN=benchmark.example.com")
+                        .setHosts(Collections.singleton("benchmark.example.com"))
+                        .setValidityYear(1)
+                        .setInitializeSize(256)
+                        .setSignatureAlgorithm("SHA256withECDSA"));
+        this.ca = SelfSignCertificateHelper.genCaCertificate(config);
+        this.certificateEncoded = ca.getCa().getEncoded();
+        this.privateKeyEncoded = ca.getCaKey().getEncoded();
+        this.certificateHolder = new X509CertificateHolder(certificateEncoded);
+        KeyPairPool.getInstance().prepare("EC", 256);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        KeyPairPool.getInstance().clear();
+        CryptoContext.clear();
+    }
+
+    @Benchmark
+    public Certificate parseCertificateGetInstance() throws Exception {
+        return CertificateFactory.getInstance("X.509").generateCertificate(new ByteArrayInputStream(certificateEncoded));
+    }
+
+    @Benchmark
+    public Certificate parseCertificateContext() throws Exception {
+        return CryptoContext.certificateFactory().generateCertificate(new ByteArrayInputStream(certificateEncoded));
+    }
+
+    @Benchmark
+    public PrivateKey parsePrivateKeyGetInstance() throws Exception {
+        return KeyFactory.getInstance("EC", BC_PROVIDER).generatePrivate(new PKCS8EncodedKeySpec(privateKeyEncoded));
+    }
+
+    @Benchmark
+    public PrivateKey parsePrivateKeyContext() throws Exception {
+        return CryptoContext.keyFactory("EC", BC_PROVIDER).generatePrivate(new PKCS8EncodedKeySpec(privateKeyEncoded));
+    }
+
+    @Benchmark
+    public X509Certificate convertCertificateGetInstance() throws Exception {
+        return new JcaX509CertificateConverter().setProvider(BC_PROVIDER).getCertificate(certificateHolder);
+    }
+
+    @Benchmark
+    public X509Certificate convertCertificateContext() throws Exception {
+        return CryptoContext.toCertificate(certificateHolder);
+    }
+
+    @Benchmark
+    public SubjectKeyIdentifier subjectKeyIdentifierGetInstance() throws Exception {
+        return new JcaX509ExtensionUtils().createSubjectKeyIdentifier(ca.getCa().getPublicKey());
+    }
+
+    @Benchmark
+    public SubjectKeyIdentifier subjectKeyIdentifierContext() {
+        return CryptoContext.extensionUtils().createSubjectKeyIdentifier(ca.getCa().getPublicKey());
+    }
+
+    @Benchmark
+    public byte[] sha256GetInstance() throws Exception {
+        return MessageDigest.getInstance("SHA-256").digest(certificateEncoded);
+    }
+
+    @Benchmark
+    public byte[] sha256Context() throws Exception {
+        return CryptoContext.sha256(certificateEncoded);
+    }
+
+    @Benchmark
+    public long secureRandomGetInstance() {
+        return new SecureRandom().nextLong();
+    }
+
+    @Benchmark
+    public long secureRandomContext() {
+        return CryptoContext.secureRandom().nextLong();
+    }
+
+    /**
+     * 完整的签发流程,密钥对来自密钥池
+     */
+    @Benchmark
+    public SelfSignCertificateEntity issue() throws Exception {
+        return SelfSignCertificateHelper.genSelfCertificateFromCa(config, ca.getCa(), ca.getCaKey());
+    }
+}
@@ -0,0 +1,131 @@
+package com.lhstack.benchmark;
+
+import com.intellij.util.ui.ListTableModel;
+import com.lhstack.Item;
+import com.lhstack.ItemColumn;
+import com.lhstack.ItemTableModel;
+import com.lhstack.utils.CertificateUtils;
+import com.lhstack.utils.KeyStoreUtils;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.security.KeyStore;
+import java.security.cert.Certificate;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * keystore加载,表格填充,单条目增删刷新以及保存的基准测试
+ * 与CertificateManagerView.loadCertificate,保存证书的处理方式保持一致
+ * addEntryAndRefresh,deleteEntryAndRefresh为整表重建,addEntryIncremental,deleteEntryIncremental为按行增量更新
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+public class KeyStoreBenchmark {
+
+    /**
+     * 生成的不同证书数量,条目按顺序循环引用这些证书
+     */
+    private static final int DISTINCT_CERTIFICATES = 256;
+
+    private static final char[] PASSWORD = "changeit".toCharArray();
+
+    @Param({"JKS", "PKCS12"})
+    public String type;
+
+    @Param({"100", "10000", "100000"})
+    public int entries;
+
+    private byte[] keyStoreBytes;
+
+    private KeyStore keyStore;
+
+    private Certificate extraCertificate;
+
+    private ItemTableModel models;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        Certificate[] certificates = new Certificate[DISTINCT_CERTIFICATES];
+        for (int i = 0; i < certificates.length; i++) {
+            certificates[i] = CertificateUtils.gen("EC", "CN=benchmark-" + i + ".example.com", Duration.ofDays(365));
+        }
+        this.extraCertificate = CertificateUtils.gen("EC", "CN=extra.example.com", Duration.ofDays(365));
+        KeyStore generated = KeyStore.getInstance(type);
+        generated.load(null, null);
+        for (int i = 0; i < entries; i++) {
+            generated.setCertificateEntry(String.format("certificate-%06d", i), certificates[i % certificates.length]);
+        }
+        ByteArrayOutputStream bo = new ByteArrayOutputStream();
+        generated.store(bo, PASSWORD);
+        this.keyStoreBytes = bo.toByteArray();
+        this.keyStore = load();
+        this.models = new ItemTableModel(
+                ItemColumn.create("证书名称", Item::getName),
+                ItemColumn.create("证书类型", Item::getType),
+                ItemColumn.create("加密算法", Item::getAlgorithm)
+        );
+        this.models.setItems(KeyStoreUtils.items(keyStore));
+    }
+
+    @Benchmark
+    public KeyStore load() throws Exception {
+        KeyStore keyStore = KeyStore.getInstance(type);
+        keyStore.load(new ByteArrayInputStream(keyStoreBytes), PASSWORD);
+        return keyStore;
+    }
+
+    @Benchmark
+    public ListTableModel<Item> populateTable() throws Exception {
+        models.setItems(KeyStoreUtils.items(keyStore));
+        return models;
+    }
+
+    @Benchmark
+    public ListTableModel<Item> addEntryAndRefresh() throws Exception {
+        keyStore.setCertificateEntry("benchmark-added", extraCertificate);
+        models.setItems(KeyStoreUtils.items(keyStore));
+        keyStore.deleteEntry("benchmark-added");
+        return models;
+    }
+
+    @Benchmark
+    public ListTableModel<Item> deleteEntryAndRefresh() throws Exception {
+        String alias = "certificate-000000";
+        Certificate certificate = keyStore.getCertificate(alias);
+        keyStore.deleteEntry(alias);
+        models.setItems(KeyStoreUtils.items(keyStore));
+        keyStore.setCertificateEntry(alias, certificate);
+        return models;
+    }
+
+    @Benchmark
+    public ListTableModel<Item> addEntryIncremental() throws Exception {
+        keyStore.setCertificateEntry("benchmark-added", extraCertificate);
+        models.upsert(KeyStoreUtils.item(keyStore, "benchmark-added"));
+        keyStore.deleteEntry("benchmark-added");
+        models.remove("benchmark-added");
+        return models;
+    }
+
+    @Benchmark
+    public ListTableModel<Item> deleteEntryIncremental() throws Exception {
+        String alias = "certificate-000000";
+        Certificate certificate = keyStore.getCertificate(alias);
+        keyStore.deleteEntry(alias);
+        models.remove(alias);
+        keyStore.setCertificateEntry(alias, certificate);
+        models.upsert(KeyStoreUtils.item(keyStore, alias));
+        return models;
+    }
+
+    @Benchmark
+    public void store() throws Exception {
+        keyStore.store(OutputStream.nullOutputStream(), PASSWORD);
+    }
+}
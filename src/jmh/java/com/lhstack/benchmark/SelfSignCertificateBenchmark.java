@@ -0,0 +1,108 @@
+package com.lhstack.benchmark;
+
+import com.lhstack.selfsign.KeyPairPool;
+import com.lhstack.selfsign.SelfSignCertificateEntity;
+import com.lhstack.selfsign.SelfSignCertificateHelper;
+import com.lhstack.selfsign.SelfSignConfig;
+import com.lhstack.utils.PemUtils;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 自签证书签发路径基准测试
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class SelfSignCertificateBenchmark {
+
+    /**
+     * 算法:初始化长度
+     */
+    @Param({"RSA:2048", "RSA:3072", "RSA:4096", "EC:256", "EC:384", "DSA:2048"})
+    public String keySpec;
+
+    /**
+     * 证书中SAN(域名/ip)的数量
+     */
+    @Param({"0", "16"})
+    public int hostCount;
+
+    /**
+     * 密钥池容量,0表示不预生成,每次签发都同步生成密钥对
+     */
+    @Param({"0", "16"})
+    public int keyPairPoolCapacity;
+
+    private SelfSignConfig config;
+
+    private SelfSignCertificateEntity ca;
+
+    private String caPem;
+
+    private String caKeyPem;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        String[] spec = keySpec.split(":");
+        String algorithm = spec[0];
+        int initializeSize = Integer.parseInt(spec[1]);
+        String signatureAlgorithm = signatureAlgorithm(algorithm, initializeSize);
+        Set<String> hosts = new LinkedHashSet<>();
+        for (int i = 0; i < hostCount; i++) {
+            hosts.add(i % 2 == 0 ? "service-" + i + ".example.com" : "10.0.0." + i);
+        }
+        KeyPairPool.getInstance().clear();
+        KeyPairPool.getInstance().setCapacity(keyPairPoolCapacity);
+        this.config = new SelfSignConfig()
+                .setAlgorithm(algorithm)
+                .setCa(new SelfSignConfig.CA()
+                        .setDn("CN=Benchmark CA")
+                        .setValidityYear(10)
+                        .setInitializeSize(initializeSize)
+                        .setSignatureAlgorithm(signatureAlgorithm))
+                .setCertificate(new SelfSignConfig.Certificate()
+                        .setDn("CN=benchmark.example.com")
+                        .setHosts(hosts)
+                        .setValidityYear(1)
+                        .setInitializeSize(initializeSize)
+                        .setSignatureAlgorithm(signatureAlgorithm));
+        this.ca = SelfSignCertificateHelper.genCaCertificate(config);
+        this.caPem = PemUtils.toString(ca.getCa());
+        this.caKeyPem = PemUtils.toString(ca.getCaKey());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        KeyPairPool.getInstance().clear();
+    }
+
+    @Benchmark
+    public SelfSignCertificateEntity genCaCertificate() throws Exception {
+        return SelfSignCertificateHelper.genCaCertificate(config);
+    }
+
+    @Benchmark
+    public SelfSignCertificateEntity genSelfCertificateFromCa() throws Exception {
+        return SelfSignCertificateHelper.genSelfCertificateFromCa(config, ca.getCa(), ca.getCaKey());
+    }
+
+    @Benchmark
+    public SelfSignCertificateEntity genSelfCertificateFromCaPem() throws Exception {
+        return SelfSignCertificateHelper.genSelfCertificateFromCaPem(caPem, caKeyPem, config);
+    }
+
+    static String signatureAlgorithm(String algorithm, int initializeSize) {
+        switch (algorithm) {
+            case "RSA":
+                return "SHA256withRSA";
+            case "DSA":
+                return "SHA256withDSA";
+            default:
+                return initializeSize > 256 ? "SHA384withECDSA" : "SHA256withECDSA";
+        }
+    }
+}
@@ -0,0 +1,269 @@
+package com.lhstack;
+
+import com.intellij.ide.projectView.ProjectView;
+import com.intellij.openapi.actionSystem.*;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.application.ModalityState;
+import com.intellij.openapi.application.PathManager;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.progress.ProgressManager;
+import com.intellij.openapi.progress.Task;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.ui.SimpleToolWindowPanel;
+import com.intellij.openapi.vfs.LocalFileSystem;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.ui.components.JBScrollPane;
+import com.intellij.ui.table.TableView;
+import com.intellij.util.ui.ColumnInfo;
+import com.intellij.util.ui.ListTableModel;
+import com.lhstack.index.ExpiryIndex;
+import com.lhstack.inventory.CertificateInventory;
+import com.lhstack.inventory.CertificateScanner;
+import com.lhstack.utils.NotifyUtils;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import javax.swing.*;
+import javax.swing.table.TableRowSorter;
+import java.awt.*;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.function.Function;
+
+/**
+ * 项目中所有证书以及keystore的清单
+ * 扫描结果保存在IDE的system目录中,打开时先显示上一次的清单,再在后台只重新读取修改过的文件
+ */
+public class CertificateInventoryView extends JPanel {
+
+    private static final int[] EXPIRY_FILTER_DAYS = {0, 7, 30, 90};
+
+    private static final DateTimeFormatter DATE_TIME_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss").withZone(ZoneId.systemDefault());
+
+    /**
+     * 失败文件提示中最多显示的数量
+     */
+    private static final int MAX_FAILED_TOOLTIP = 20;
+
+    private final Project project;
+
+    private final ListTableModel<CertificateInventory.Entry> models = new ListTableModel<>(
+            column("文件", CertificateInventory.Entry::getPath),
+            column("名称", CertificateInventory.Entry::getAlias),
+            column("subject", CertificateInventory.Entry::getSubject),
+            column("issuer", CertificateInventory.Entry::getIssuer),
+            //按字符串排序时与时间顺序一致
+            column("过期时间", entry -> entry.hasValidity() ? DATE_TIME_FORMATTER.format(Instant.ofEpochMilli(entry.getNotAfter())) : "-"),
+            column("SHA-256指纹", CertificateInventory.Entry::getFingerprintHex));
+
+    private final JLabel statistics = new JLabel();
+
+    private TableView<CertificateInventory.Entry> tableView;
+
+    private TableRowSorter<ListTableModel<CertificateInventory.Entry>> rowSorter;
+
+    /**
+     * 当前显示的清单,只在EDT中访问
+     */
+    private CertificateInventory inventory;
+
+    /**
+     * 过期筛选的截止时间,为null时不筛选
+     */
+    private Long expiryDeadline;
+
+    private boolean scanning;
+
+    public CertificateInventoryView(Project project) {
+        this.project = project;
+        this.init();
+        this.scan();
+    }
+
+    private void init() {
+        this.setLayout(new BorderLayout());
+        DefaultActionGroup group = new DefaultActionGroup();
+        group.add(new AnAction(() -> "扫描项目证书", Icons.SCAN) {
+            @Override
+            public void actionPerformed(@NotNull AnActionEvent event) {
+                scan();
+            }
+        });
+        SimpleToolWindowPanel panel = new SimpleToolWindowPanel(true);
+        ActionToolbar actionToolbar = ActionManager.getInstance().createActionToolbar("CertificateInventory", group, true);
+        actionToolbar.setTargetComponent(panel);
+        panel.setToolbar(actionToolbar.getComponent());
+        panel.setContent(createMainPanel());
+        this.add(panel, BorderLayout.CENTER);
+    }
+
+    private JComponent createMainPanel() {
+        this.tableView = new TableView<>(this.models);
+        this.rowSorter = new TableRowSorter<>(this.models);
+        this.tableView.setRowSorter(this.rowSorter);
+        //双击在项目视图中定位文件
+        this.tableView.addMouseListener(new MouseAdapter() {
+            @Override
+            public void mouseClicked(MouseEvent e) {
+                if (e.getClickCount() == 2) {
+                    int row = tableView.getSelectedRow();
+                    if (row >= 0) {
+                        select(models.getItem(tableView.convertRowIndexToModel(row)));
+                    }
+                }
+            }
+        });
+        JPanel filterPanel = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        String[] options = new String[EXPIRY_FILTER_DAYS.length + 1];
+        options[0] = "全部";
+        for (int i = 0; i < EXPIRY_FILTER_DAYS.length; i++) {
+            options[i + 1] = EXPIRY_FILTER_DAYS[i] == 0 ? "已过期" : EXPIRY_FILTER_DAYS[i] + "天内过期";
+        }
+        JComboBox<String> comboBox = new JComboBox<>(options);
+        comboBox.addActionListener(e -> {
+            int selectedIndex = comboBox.getSelectedIndex();
+            this.expiryDeadline = selectedIndex <= 0 ? null : System.currentTimeMillis() + EXPIRY_FILTER_DAYS[selectedIndex - 1] * ExpiryIndex.DAY_MILLIS;
+            updateRowFilter();
+        });
+        filterPanel.add(new JLabel("过期筛选:"));
+        filterPanel.add(comboBox);
+        filterPanel.add(statistics);
+        JPanel panel = new JPanel(new BorderLayout());
+        panel.add(filterPanel, BorderLayout.NORTH);
+        panel.add(new JBScrollPane(tableView), BorderLayout.CENTER);
+        return panel;
+    }
+
+    private void updateRowFilter() {
+        Long deadline = this.expiryDeadline;
+        this.rowSorter.setRowFilter(deadline == null ? null : new RowFilter<ListTableModel<CertificateInventory.Entry>, Integer>() {
+            @Override
+            public boolean include(Entry<? extends ListTableModel<CertificateInventory.Entry>, ? extends Integer> entry) {
+                CertificateInventory.Entry item = entry.getModel().getItem(entry.getIdentifier());
+                return item.hasValidity() && item.getNotAfter() < deadline;
+            }
+        });
+    }
+
+    /**
+     * 在后台扫描项目根目录,第一次扫描前先读取并显示保存的清单
+     */
+    private void scan() {
+        if (scanning) {
+            return;
+        }
+        String basePath = project.getBasePath();
+        if (basePath == null) {
+            NotifyUtils.notify("项目没有根目录,无法扫描证书", project);
+            return;
+        }
+        scanning = true;
+        CertificateInventory current = this.inventory;
+        ProgressManager.getInstance().run(new Task.Backgroundable(project, "扫描项目证书", true) {
+
+            private CertificateScanner.Result result;
+
+            @Override
+            public void run(@NotNull ProgressIndicator indicator) {
+                try {
+                    Path index = indexPath();
+                    CertificateInventory previous = current;
+                    if (previous == null) {
+                        CertificateInventory saved = CertificateInventory.read(index);
+                        previous = saved;
+                        ApplicationManager.getApplication().invokeLater(() -> {
+                            if (inventory == null) {
+                                setInventory(saved, "上次扫描的结果,正在检查修改过的文件");
+                            }
+                        }, ModalityState.any());
+                    }
+                    this.result = new CertificateScanner()
+                            .setCancelled(indicator::isCanceled)
+                            .scan(Path.of(basePath), previous);
+                    this.result.getInventory().write(index);
+                } catch (CancellationException e) {
+                    //取消时保留当前的清单
+                } catch (Throwable e) {
+                    throw new RuntimeException(e.getMessage(), e);
+                }
+            }
+
+            @Override
+            public void onSuccess() {
+                if (result != null) {
+                    setInventory(result.getInventory(), result.toString());
+                }
+            }
+
+            @Override
+            public void onThrowable(@NotNull Throwable error) {
+                NotifyUtils.notify("扫描证书错误: " + error.getMessage(), project);
+            }
+
+            @Override
+            public void onFinished() {
+                scanning = false;
+            }
+        });
+    }
+
+    private void setInventory(CertificateInventory inventory, String summary) {
+        this.inventory = inventory;
+        this.models.setItems(new ArrayList<>(inventory.getEntries()));
+        List<String> failed = new ArrayList<>();
+        for (CertificateInventory.FileRecord record : inventory.getFiles()) {
+            if (record.getError() != null) {
+                failed.add(record.getPath() + ": " + record.getError());
+            }
+        }
+        statistics.setText(summary);
+        if (failed.isEmpty()) {
+            statistics.setToolTipText(null);
+        } else {
+            StringBuilder sb = new StringBuilder("<html>读取失败的文件:");
+            for (String line : failed.subList(0, Math.min(failed.size(), MAX_FAILED_TOOLTIP))) {
+                sb.append("<br/>").append(line.replace("&", "&amp;").replace("<", "&lt;"));
+            }
+            if (failed.size() > MAX_FAILED_TOOLTIP) {
+                sb.append("<br/>...");
+            }
+            statistics.setToolTipText(sb.append("</html>").toString());
+        }
+    }
+
+    private void select(CertificateInventory.Entry entry) {
+        String basePath = project.getBasePath();
+        if (basePath == null) {
+            return;
+        }
+        VirtualFile virtualFile = LocalFileSystem.getInstance().refreshAndFindFileByNioFile(Path.of(basePath).resolve(entry.getPath()));
+        if (virtualFile == null) {
+            NotifyUtils.notify(entry.getPath() + " 已不存在,请重新扫描", project);
+            return;
+        }
+        ProjectView.getInstance(project).select(null, virtualFile, true);
+    }
+
+    /**
+     * @return 清单文件,每个项目一个
+     */
+    private Path indexPath() {
+        return Path.of(PathManager.getSystemPath(), "jtools-certificate", "inventory-" + project.getLocationHash() + ".bin");
+    }
+
+    private static ColumnInfo<CertificateInventory.Entry, String> column(String name, Function<CertificateInventory.Entry, String> mapper) {
+        return new ColumnInfo<>(name) {
+            @Override
+            public @Nullable String valueOf(CertificateInventory.Entry entry) {
+                return mapper.apply(entry);
+            }
+        };
+    }
+}
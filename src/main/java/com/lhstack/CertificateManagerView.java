@@ -1,21 +1,53 @@
 package com.lhstack;
 
+import com.intellij.openapi.Disposable;
 import com.intellij.openapi.actionSystem.*;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.application.ModalityState;
+import com.intellij.openapi.progress.ProcessCanceledException;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.progress.ProgressManager;
+import com.intellij.openapi.progress.Task;
 import com.intellij.openapi.project.Project;
 import com.intellij.openapi.ui.Messages;
 import com.intellij.openapi.ui.SimpleToolWindowPanel;
+import com.intellij.openapi.vfs.LocalFileSystem;
 import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.openapi.vfs.VirtualFileManager;
+import com.intellij.openapi.vfs.newvfs.BulkFileListener;
+import com.intellij.openapi.vfs.newvfs.events.VFileContentChangeEvent;
+import com.intellij.openapi.vfs.newvfs.events.VFileEvent;
+import com.intellij.ui.DocumentAdapter;
+import com.intellij.ui.SearchTextField;
 import com.intellij.ui.components.JBScrollPane;
 import com.intellij.ui.table.TableView;
+import com.intellij.util.Alarm;
 import com.intellij.util.ui.ColumnInfo;
+import com.intellij.util.messages.MessageBusConnection;
 import com.intellij.util.ui.ListTableModel;
+import com.lhstack.actions.table.CompleteChainAction;
 import com.lhstack.actions.table.DeleteCertificateAction;
 import com.lhstack.actions.table.ExportCertificateAction;
 import com.lhstack.actions.table.ExportPrivateKeyAction;
 import com.lhstack.actions.table.ShowDetailAction;
+import com.lhstack.components.KeyStoreOptionsPanel;
+import com.lhstack.components.TextFieldDialog;
+import com.lhstack.diff.KeyStoreDiff;
+import com.lhstack.index.ChainIndex;
+import com.lhstack.index.ExpiryIndex;
+import com.lhstack.index.ItemIndex;
+import com.lhstack.index.SearchIndex;
+import com.lhstack.merge.KeyStoreMerger;
+import com.lhstack.store.KeyStoreOptions;
+import com.lhstack.store.KeyStoreWriter;
+import com.lhstack.store.TrackedKeyStore;
+import com.lhstack.utils.CertificateBundleUtils;
 import com.lhstack.utils.CertificateUtils;
+import com.lhstack.utils.KeyStoreUtils;
 import com.lhstack.utils.NotifyUtils;
 import com.lhstack.utils.PemUtils;
+import com.lhstack.validation.CertificateValidator;
+import com.lhstack.validation.ValidationResult;
 import org.apache.commons.collections.EnumerationUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.bouncycastle.asn1.pkcs.PrivateKeyInfo;
@@ -25,32 +57,187 @@ import org.bouncycastle.openssl.jcajce.JcaPEMKeyConverter;
 import org.jetbrains.annotations.NotNull;
 
 import javax.swing.*;
+import javax.swing.event.DocumentEvent;
 import javax.swing.table.JTableHeader;
 import javax.swing.table.TableCellRenderer;
+import javax.swing.table.TableRowSorter;
 import java.awt.*;
-import java.io.ByteArrayInputStream;
-import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.security.KeyStore;
+import java.security.KeyStoreException;
+import java.security.NoSuchAlgorithmException;
 import java.security.PrivateKey;
+import java.security.UnrecoverableKeyException;
 import java.security.cert.Certificate;
-import java.security.cert.CertificateFactory;
+import java.security.cert.X509Certificate;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.CancellationException;
 import java.util.function.Function;
 
-public class CertificateManagerView extends JPanel {
+public class CertificateManagerView extends JPanel implements Disposable {
 
+    /**
+     * 加载证书时每批追加到表格的条目数量
+     */
+    private static final int LOAD_CHUNK_SIZE = 500;
+
+    private static final DateTimeFormatter DATE_TIME_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss").withZone(ZoneId.systemDefault());
+
+    /**
+     * 过期筛选的天数,0表示已过期
+     */
+    private static final int[] EXPIRY_FILTER_DAYS = {0, 7, 30, 90};
+
+    /**
+     * 搜索输入的防抖时间
+     */
+    private static final int SEARCH_DELAY_MILLIS = 150;
+
+    /**
+     * 表格内容变化后更新过期统计的延迟,连续的变化只统计一次
+     */
+    private static final int STATISTICS_DELAY_MILLIS = 300;
+
+    /**
+     * 校验结果每批推送到表格的数量
+     */
+    private static final int VALIDATION_CHUNK_SIZE = 200;
+
+    /**
+     * 证书文件被外部修改后重新加载的防抖时间,连续写入时只在最后一次修改后加载
+     */
+    private static final int RELOAD_DELAY_MILLIS = 500;
 
     private final Project project;
 
-    private KeyStore keyStore;
+    private TrackedKeyStore keyStore;
 
-    private ListTableModel<Item> models;
+    /**
+     * 保存证书的后台线程
+     */
+    private final KeyStoreWriter keyStoreWriter = new KeyStoreWriter();
+
+    private ItemTableModel models;
 
     private TableView<Item> tableView;
+
+    /**
+     * 按过期时间排序的索引,随表格内容同步更新,加载证书时随分批追加的条目一起建立
+     */
+    private final ExpiryIndex expiryIndex = new ExpiryIndex();
+
+    /**
+     * 名称,subject,issuer,SAN,序列号以及指纹的前缀索引,与过期索引一样随表格内容同步更新
+     */
+    private final SearchIndex searchIndex = new SearchIndex();
+
+    /**
+     * 按subject key identifier以及subject DN建立的证书链索引
+     */
+    private final ChainIndex chainIndex = new ChainIndex();
+
+    /**
+     * 在后台线程中执行搜索,连续输入时只执行最后一次
+     */
+    private final Alarm searchAlarm = new Alarm(Alarm.ThreadToUse.POOLED_THREAD);
+
+    /**
+     * 合并连续的表格变化后在EDT中更新过期统计
+     */
+    private final Alarm statisticsAlarm = new Alarm(Alarm.ThreadToUse.SWING_THREAD);
+
+    /**
+     * 证书文件变更后延迟重新加载,在EDT中执行
+     */
+    private final Alarm reloadAlarm = new Alarm(Alarm.ThreadToUse.SWING_THREAD);
+
+    /**
+     * 证书文件不在项目中时也需要文件监听才能收到变更事件
+     */
+    private LocalFileSystem.WatchRequest watchRequest;
+
+    /**
+     * 最近一次由本视图保存或者加载后证书文件的修改时间以及大小,用于忽略自己保存产生的变更事件,只在EDT中访问
+     */
+    private String fileStamp;
+
+    private TableRowSorter<ItemTableModel> rowSorter;
+
+    /**
+     * 过期筛选的截止时间,为null时不筛选
+     */
+    private Long expiryDeadline;
+
+    /**
+     * 在截止时间之前过期的条目,筛选时从过期索引中取出,之后随表格内容增量更新,为null时不筛选
+     */
+    private Set<Item> expiryResult;
+
+    /**
+     * 随表格内容同步更新过期筛选的条目,注册在过期索引之后
+     */
+    private final ItemIndex expiryFilter = new ItemIndex() {
+        @Override
+        public void add(Item item) {
+            if (expiryResult != null && item.getNotAfter() < expiryDeadline) {
+                expiryResult.add(item);
+            }
+        }
+
+        @Override
+        public void remove(Item item) {
+            if (expiryResult != null) {
+                expiryResult.remove(item);
+            }
+        }
+
+        @Override
+        public void clear() {
+            if (expiryResult != null) {
+                expiryResult.clear();
+            }
+        }
+    };
+
+    /**
+     * 搜索匹配的条目,由搜索索引随表格内容增量更新,为null时不筛选
+     */
+    private Set<Item> searchResult;
+
+    /**
+     * 搜索代数,过期的搜索结果会被忽略,只在EDT中访问
+     */
+    private int searchGeneration = 0;
+
+    /**
+     * 条目 -> 最近一次的校验结果,条目被替换或删除后随之回收,只在EDT中访问
+     */
+    private final Map<Item, ValidationResult> validationResults = new WeakHashMap<>();
+
+    /**
+     * 校验代数,开始新的校验以及重新加载证书时递增,过期的校验结果会被忽略,只在EDT中访问
+     */
+    private int validationGeneration = 0;
     /**
      * 证书虚拟文件,isNew = false时存在
      */
@@ -60,12 +247,54 @@ public class CertificateManagerView extends JPanel {
      * 是否新建
      */
     private boolean isNew = false;
+
+    /**
+     * 保存选项,为null时按加载时的格式保存
+     */
+    private KeyStoreOptions saveOptions;
     //证书密码
     private char[] passwordArray;
 
+    /**
+     * 条目名称 -> 内存中私钥的密码,只记录与证书密码不同的条目,按保存选项重新编码时用于读取私钥,只在EDT中访问
+     */
+    private final Map<String, char[]> keyPasswords = new HashMap<>();
+
+    /**
+     * 加载代数,开始新的加载以及加载失败/取消时递增,过期的加载任务推送的条目会被忽略,只在EDT中访问
+     */
+    private int loadGeneration = 0;
+
+    /**
+     * 正在加载证书,表格中已经是新文件的条目,keyStore仍然是之前的,加载完成前禁用读写keyStore的操作
+     */
+    private volatile boolean loading;
+
+    /**
+     * 视图没有注册到Disposer,由PluginImpl直接调用dispose,连接在dispose中断开
+     */
+    private final MessageBusConnection connection;
+
     public CertificateManagerView(Project project) {
         this.project = project;
         this.init();
+        this.connection = ApplicationManager.getApplication().getMessageBus().connect();
+        this.connection.subscribe(VirtualFileManager.VFS_CHANGES, new BulkFileListener() {
+            @Override
+            public void after(@NotNull List<? extends VFileEvent> events) {
+                VirtualFile file = certificateVirtualFile;
+                if (file == null || isNew) {
+                    return;
+                }
+                for (VFileEvent event : events) {
+                    if (event instanceof VFileContentChangeEvent && file.equals(event.getFile())) {
+                        reloadAlarm.cancelAllRequests();
+                        reloadAlarm.addRequest(CertificateManagerView.this::reloadCertificate, RELOAD_DELAY_MILLIS);
+                        return;
+                    }
+                }
+            }
+        });
     }
 
     private void init() {
@@ -73,10 +302,14 @@ public class CertificateManagerView extends JPanel {
         DefaultActionGroup group = new DefaultActionGroup();
         group.add(createImportCertificateAction());
         group.add(createEmptyCertificateAction());
-        group.add(createAddCertificateAction());
-        group.add(createAddCertificateChainAction());
-        group.add(createSaveCertificateAction());
-        group.add(createReSaveCertificateAction());
+        group.add(disableWhileLoading(createAddCertificateAction()));
+        group.add(disableWhileLoading(createBatchImportCertificateAction()));
+        group.add(disableWhileLoading(createAddCertificateChainAction()));
+        group.add(disableWhileLoading(createSaveCertificateAction()));
+        group.add(disableWhileLoading(createReSaveCertificateAction()));
+        group.add(disableWhileLoading(createValidateAllAction()));
+        group.add(disableWhileLoading(createDiffAction()));
+        group.add(disableWhileLoading(createMergeAction()));
         SimpleToolWindowPanel panel = new SimpleToolWindowPanel(true);
         ActionToolbar actionToolbar = ActionManager.getInstance().createActionToolbar("CertificateManager", group, true);
         actionToolbar.setTargetComponent(panel);
@@ -87,6 +320,33 @@ public class CertificateManagerView extends JPanel {
         this.add(panel, BorderLayout.CENTER);
     }
 
+    /**
+     * 加载证书期间禁用操作,避免按新文件的条目操作之前的keyStore
+     *
+     * @param action 读写keyStore的操作
+     * @return
+     */
+    private AnAction disableWhileLoading(AnAction action) {
+        return new AnActionWrapper(action) {
+            @Override
+            public void update(@NotNull AnActionEvent e) {
+                super.update(e);
+                if (loading) {
+                    e.getPresentation().setEnabled(false);
+                }
+            }
+
+            @Override
+            public void actionPerformed(@NotNull AnActionEvent e) {
+                if (loading) {
+                    NotifyUtils.notify("正在加载证书,请等待加载完成", project);
+                    return;
+                }
+                super.actionPerformed(e);
+            }
+        };
+    }
+
     /**
      * 添加证书链
      *
@@ -141,7 +401,7 @@ public class CertificateManagerView extends JPanel {
                             Certificate certificate;
                             try {
                                 byte[] certificateBytes = Files.readAllBytes(file.toNioPath());
-                                certificate = CertificateFactory.getInstance("X.509").generateCertificate(new ByteArrayInputStream(certificateBytes));
+                                certificate = PemUtils.readCertificate(certificateBytes);
                             } catch (Throwable err) {
                                 NotifyUtils.notify(String.format("证书导入失败,文件名称: %s,错误信息: %s", file.getName(), err.getMessage()), project);
                                 return;
@@ -152,8 +412,13 @@ public class CertificateManagerView extends JPanel {
                                 passwordArray = password.toCharArray();
                             }
                             try {
-                                keyStore.setKeyEntry(certificateName, finalPrivateKey, passwordArray, new Certificate[]{certificate});
-                                refreshTable();
+                                //从keystore已有的证书中补全颁发者
+                                Certificate[] certificateChain = certificate instanceof X509Certificate
+                                        ? chainIndex.chain((X509Certificate) certificate).toArray(new Certificate[0])
+                                        : new Certificate[]{certificate};
+                                keyStore.setKeyEntry(certificateName, finalPrivateKey, passwordArray, certificateChain);
+                                putKeyPassword(certificateName, passwordArray);
+                                refreshItem(certificateName);
                             } catch (Throwable e) {
                                 NotifyUtils.notify("证书导入失败,错误信息: " + e.getMessage(), project);
                             }
@@ -167,7 +432,7 @@ public class CertificateManagerView extends JPanel {
     }
 
     /**
-     * 另存为证书
+     * 另存为证书,在后台线程中写入,不改变当前证书的保存状态
      *
      * @return
      */
@@ -179,44 +444,26 @@ public class CertificateManagerView extends JPanel {
                     Messages.showErrorDialog("请先导入或者创建证书", "提示");
                     return;
                 }
-                //不是新建
-                if (!isNew) {
-                    FileChooser.chooseSaveFile("另存为证书", "newCertificate", project, virtualFile -> {
-                        String password = JOptionPane.showInputDialog("请输入证书密码,不输入或者点取消则默认无密码");
-                        char[] newPassword;
-                        if (StringUtils.isNotBlank(password)) {
-                            newPassword = password.toCharArray();
-                        } else {
-                            newPassword = null;
-                        }
-                        String presentableUrl = virtualFile.getPresentableUrl();
-                        FileOutputStream fos = new FileOutputStream(presentableUrl);
-                        keyStore.store(fos, newPassword);
-                        fos.close();
-                        NotifyUtils.notify("另存为证书成功", project);
-                    }, "jks");
-                } else {
-                    FileChooser.chooseSaveFile("另存为证书", "newCertificate", project, virtualFile -> {
-                        String password = JOptionPane.showInputDialog("请输入证书密码,不输入或者点取消则默认无密码");
-                        char[] newPassword;
-                        if (StringUtils.isNotBlank(password)) {
-                            newPassword = password.toCharArray();
-                        } else {
-                            newPassword = null;
-                        }
-                        String presentableUrl = virtualFile.getPresentableUrl();
-                        FileOutputStream fos = new FileOutputStream(presentableUrl);
-                        keyStore.store(fos, newPassword);
-                        fos.close();
-                        NotifyUtils.notify("另存为证书成功", project);
-                    }, "jks");
+                KeyStoreOptions options = KeyStoreOptionsPanel.show(saveOptions == null ? new KeyStoreOptions() : saveOptions, project, keyStore, passwordArray);
+                if (options == null) {
+                    return;
                 }
+                FileChooser.chooseSaveFile("另存为证书", "newCertificate", project, virtualFile -> {
+                    String password = JOptionPane.showInputDialog("请输入证书密码,不输入或者点取消则默认无密码");
+                    char[] newPassword;
+                    if (StringUtils.isNotBlank(password)) {
+                        newPassword = password.toCharArray();
+                    } else {
+                        newPassword = null;
+                    }
+                    saveCertificate(virtualFile, newPassword, options, false, "另存为证书成功");
+                }, options.getType().getExtension());
             }
         };
     }
 
     /**
-     * 保存证书
+     * 保存证书,没有修改时不写入,在后台线程中写入
      *
      * @return
      */
@@ -224,35 +471,187 @@ public class CertificateManagerView extends JPanel {
         return new AnAction(() -> "保存", Icons.SAVE) {
             @Override
             public void actionPerformed(@NotNull AnActionEvent e) {
+                if (keyStore == null) {
+                    Messages.showErrorDialog("请先导入或者创建证书", "提示");
+                    return;
+                }
                 //不是新建
                 if (!isNew) {
-                    try (FileOutputStream fos = new FileOutputStream(certificateVirtualFile.getPresentableUrl())) {
-                        keyStore.store(fos, passwordArray);
-                        NotifyUtils.notify("证书保存成功", project);
-                    } catch (Throwable err) {
-                        Messages.showErrorDialog(err.getMessage(), "保存证书错误");
+                    if (!keyStore.isDirty()) {
+                        NotifyUtils.notify("证书没有修改", project);
+                        return;
                     }
+                    saveCertificate(certificateVirtualFile, passwordArray, saveOptions, true, "证书保存成功");
                 } else {
+                    KeyStoreOptions options = KeyStoreOptionsPanel.show(new KeyStoreOptions(), project, keyStore, passwordArray);
+                    if (options == null) {
+                        return;
+                    }
                     FileChooser.chooseSaveFile("保存证书", "newCertificate", project, virtualFile -> {
                         String password = JOptionPane.showInputDialog("请输入证书密码,不输入或者点取消则默认无密码");
-                        if (StringUtils.isNotBlank(password)) {
-                            passwordArray = password.toCharArray();
-                        } else {
-                            passwordArray = null;
+                        char[] keyPassword = passwordArray;
+                        try {
+                            keepKeyPasswords(keyPassword);
+                        } catch (Throwable err) {
+                            NotifyUtils.notify("保存证书错误: " + err.getMessage(), project);
+                            return;
                         }
-                        String presentableUrl = virtualFile.getPresentableUrl();
-                        FileOutputStream fos = new FileOutputStream(presentableUrl);
-                        keyStore.store(fos, passwordArray);
-                        fos.close();
-                        certificateVirtualFile = virtualFile;
-                        isNew = false;
-                        NotifyUtils.notify("证书保存成功", project);
-                    }, "jks");
+                        char[] newPassword = StringUtils.isNotBlank(password) ? password.toCharArray() : null;
+                        TrackedKeyStore savingKeyStore = keyStore;
+                        //写入成功后才切换到新文件,失败时仍然是新建的证书
+                        saveCertificate(virtualFile, newPassword, keyPassword, options, true, "证书保存成功", () -> {
+                            if (keyStore != savingKeyStore || !isNew) {
+                                return;
+                            }
+                            passwordArray = newPassword;
+                            certificateVirtualFile = virtualFile;
+                            isNew = false;
+                            saveOptions = options;
+                            watch(virtualFile);
+                        });
+                    }, options.getType().getExtension());
                 }
             }
         };
     }
 
+    private void saveCertificate(VirtualFile virtualFile, char[] password, KeyStoreOptions options, boolean markSaved, String message) {
+        saveCertificate(virtualFile, password, passwordArray, options, markSaved, message, null);
+    }
+
+    /**
+     * 在后台线程中保存当前的keyStore,连续的保存会合并为一次写入,写入临时文件后原子地替换目标文件
+     * 保存选项与keyStore自身的格式相同时直接store,每个私钥保留原有的密码,否则读取每个私钥按保存选项重新编码
+     *
+     * @param virtualFile 目标文件
+     * @param password    密码,按保存选项重新编码时同时作为写出的私钥密码
+     * @param keyPassword 没有单独记录密码的私钥在内存中的密码,按保存选项重新编码时使用
+     * @param options     保存选项,为null时按原格式保存
+     * @param markSaved   保存成功后是否清除当前证书的修改状态
+     * @param message     保存成功的提示
+     * @param saved       写入成功后在EDT中执行,可以为null
+     */
+    private void saveCertificate(VirtualFile virtualFile, char[] password, char[] keyPassword, KeyStoreOptions options, boolean markSaved, String message, Runnable saved) {
+        TrackedKeyStore savingKeyStore = keyStore;
+        KeyStoreOptions writeOptions = options == null || options.isNative(savingKeyStore) ? null : options;
+        Function<String, char[]> passwords = null;
+        if (writeOptions != null) {
+            passwords = resolveKeyPasswords(savingKeyStore, keyPassword);
+            if (passwords == null) {
+                NotifyUtils.notify("已取消保存证书", project);
+                return;
+            }
+        }
+        keyStoreWriter.save(savingKeyStore, virtualFile.toNioPath(), password, writeOptions, passwords).whenComplete((result, error) -> ApplicationManager.getApplication().invokeLater(() -> {
+            if (error != null) {
+                NotifyUtils.notify("保存证书错误: " + KeyStoreWriter.message(error), project);
+                return;
+            }
+            if (saved != null) {
+                saved.run();
+            }
+            //已经与之后的保存合并,由最后一次保存提示
+            if (result.isSuperseded()) {
+                return;
+            }
+            if (markSaved) {
+                savingKeyStore.markSaved(result.getModCount());
+            }
+            if (virtualFile.equals(certificateVirtualFile)) {
+                fileStamp = fileStamp(result.getPath());
+            }
+            virtualFile.refresh(true, false);
+            NotifyUtils.notify(String.format("%s,大小: %d字节,耗时: %dms", message, result.getSize(), result.getElapsedMillis()), project);
+        }, ModalityState.any()));
+    }
+
+    /**
+     * 在后台检查每个私钥能否用已知的密码读取,不能读取的在EDT中逐个询问密码
+     *
+     * @param savingKeyStore 需要保存的keyStore
+     * @param keyPassword    没有单独记录密码的私钥在内存中的密码
+     * @return 条目名称 -> 私钥密码,取消或者检查失败时为null
+     */
+    private Function<String, char[]> resolveKeyPasswords(TrackedKeyStore savingKeyStore, char[] keyPassword) {
+        char[] defaultPassword = keyPassword == null ? new char[0] : keyPassword;
+        Map<String, char[]> passwords = new HashMap<>(keyPasswords);
+        List<String> unknown;
+        try {
+            unknown = ProgressManager.getInstance().runProcessWithProgressSynchronously(() -> {
+                List<String> aliases = EnumerationUtils.toList(savingKeyStore.aliases());
+                List<String> result = new ArrayList<>();
+                for (String alias : aliases) {
+                    ProgressManager.checkCanceled();
+                    if (savingKeyStore.isKeyEntry(alias) && !canRecover(savingKeyStore, alias, passwords.getOrDefault(alias, defaultPassword))) {
+                        result.add(alias);
+                    }
+                }
+                return result;
+            }, "检查私钥密码", true, project);
+        } catch (ProcessCanceledException e) {
+            return null;
+        } catch (Throwable e) {
+            NotifyUtils.notify("保存证书错误: " + e.getMessage(), project);
+            return null;
+        }
+        for (String alias : unknown) {
+            while (true) {
+                String value = JOptionPane.showInputDialog(null, String.format("%s 的私钥密码与证书密码不同,请输入该私钥的密码,点取消则不保存", alias), "私钥密码", JOptionPane.PLAIN_MESSAGE);
+                if (value == null) {
+                    return null;
+                }
+                char[] password = value.toCharArray();
+                try {
+                    if (canRecover(savingKeyStore, alias, password)) {
+                        passwords.put(alias, password);
+                        keyPasswords.put(alias, password);
+                        break;
+                    }
+                } catch (Throwable e) {
+                    NotifyUtils.notify("保存证书错误: " + e.getMessage(), project);
+                    return null;
+                }
+                Messages.showErrorDialog(alias + " 的私钥密码错误", "错误提示");
+            }
+        }
+        return alias -> passwords.getOrDefault(alias, defaultPassword);
+    }
+
+    private static boolean canRecover(KeyStore keyStore, String alias, char[] password) throws KeyStoreException, NoSuchAlgorithmException {
+        try {
+            keyStore.getKey(alias, password);
+            return true;
+        } catch (UnrecoverableKeyException e) {
+            return false;
+        }
+    }
+
+    /**
+     * 记录条目私钥在内存中的密码,与证书密码相同时不记录
+     */
+    private void putKeyPassword(String alias, char[] password) {
+        char[] value = password == null ? new char[0] : password;
+        if (Arrays.equals(value, passwordArray == null ? new char[0] : passwordArray)) {
+            keyPasswords.remove(alias);
+        } else {
+            keyPasswords.put(alias, value);
+        }
+    }
+
+    /**
+     * 修改证书密码前调用,内存中的私钥仍然使用修改前的密码
+     *
+     * @param keyPassword 修改前的证书密码
+     */
+    private void keepKeyPasswords(char[] keyPassword) throws KeyStoreException {
+        List<String> aliases = EnumerationUtils.toList(keyStore.aliases());
+        for (String alias : aliases) {
+            if (keyStore.isKeyEntry(alias)) {
+                keyPasswords.putIfAbsent(alias, keyPassword == null ? new char[0] : keyPassword);
+            }
+        }
+    }
+
     /**
      * 添加证书
      *
@@ -267,7 +666,10 @@ public class CertificateManagerView extends JPanel {
                 } else {
                     FileChooser.chooseSingleFile("请选择需要添加的证书", project).ifPresent(virtualFile -> {
                         try {
-                            Certificate certificate = CertificateUtils.load(virtualFile);
+                            Certificate certificate;
+                            try (InputStream inputStream = virtualFile.getInputStream()) {
+                                certificate = CertificateUtils.load(inputStream, virtualFile.getName());
+                            }
                             String certificateName = JOptionPane.showInputDialog("请设置添加的证书名称");
                             if (StringUtils.isEmpty(certificateName)) {
                                 throw new RuntimeException("证书名字不能为空");
@@ -277,11 +679,11 @@ public class CertificateManagerView extends JPanel {
                                 int result = JOptionPane.showConfirmDialog(null, "相同名字的证书已经存在,点击是,覆盖已有证书,点击取消,不做任何修改", "警告", JOptionPane.OK_CANCEL_OPTION);
                                 if (result == JOptionPane.OK_OPTION) {
                                     keyStore.setCertificateEntry(certificateName, certificate);
-                                    refreshTable();
+                                    refreshItem(certificateName);
                                 }
                             } else {
                                 keyStore.setCertificateEntry(certificateName, certificate);
-                                refreshTable();
+                                refreshItem(certificateName);
                                 NotifyUtils.notify("添加证书成功", project);
                             }
                         } catch (Throwable err) {
@@ -293,20 +695,376 @@ public class CertificateManagerView extends JPanel {
         };
     }
 
-    private void refreshTable() throws Throwable {
-        List<String> list = EnumerationUtils.toList(keyStore.aliases());
-        list.sort(Comparator.comparing(Function.identity()));
-        models.setItems(new ArrayList<>());
-        for (String alias : list) {
-            Certificate certificate = keyStore.getCertificate(alias);
-            Item item = new Item()
-                    .setName(alias)
-                    .setCertificate(certificate)
-                    .setType(certificate.getType())
-                    .setPublicKey(certificate.getPublicKey(), StandardCharsets.UTF_8);
-            models.addRow(item);
+    /**
+     * 批量导入证书包,在后台任务中流式读取并行解码并写入keystore,完成后只更新一次表格
+     *
+     * @return
+     */
+    private AnAction createBatchImportCertificateAction() {
+        return new AnAction(() -> "批量导入证书", Icons.IMPORT2) {
+            @Override
+            public void actionPerformed(@NotNull AnActionEvent e) {
+                if (keyStore == null) {
+                    Messages.showErrorDialog("请先导入或者创建空证书", "错误提示");
+                    return;
+                }
+                FileChooser.chooseFiles("请选择需要导入的证书包(PEM/DER)", project).ifPresent(virtualFiles -> {
+                    TrackedKeyStore targetKeyStore = keyStore;
+                    //表格中已有证书的指纹,在EDT中读取
+                    Set<ByteBuffer> fingerprints = new HashSet<>();
+                    for (Item item : models.getItems()) {
+                        if (item.getFingerprint() != null) {
+                            fingerprints.add(ByteBuffer.wrap(item.getFingerprint()));
+                        }
+                    }
+                    ProgressManager.getInstance().run(new Task.Backgroundable(project, "批量导入证书", true) {
+
+                        private final List<Certificate> certificates = new ArrayList<>();
+
+                        private final List<Item> items = new ArrayList<>();
+
+                        @Override
+                        public void run(@NotNull ProgressIndicator indicator) {
+                            indicator.setIndeterminate(false);
+                            for (int i = 0; i < virtualFiles.length; i++) {
+                                indicator.checkCanceled();
+                                indicator.setText2(virtualFiles[i].getName());
+                                try (InputStream inputStream = virtualFiles[i].getInputStream()) {
+                                    certificates.addAll(CertificateBundleUtils.read(inputStream));
+                                } catch (Throwable err) {
+                                    throw new RuntimeException(String.format("文件名称: %s,错误信息: %s", virtualFiles[i].getName(), err.getMessage()), err);
+                                }
+                                indicator.setFraction((double) (i + 1) / virtualFiles.length);
+                            }
+                            indicator.checkCanceled();
+                            indicator.setText2("正在写入keystore");
+                            try {
+                                List<String> aliases = CertificateBundleUtils.importAll(targetKeyStore, certificates, fingerprints);
+                                Function<String, Certificate> certificateLoader = KeyStoreUtils.certificateLoader(targetKeyStore);
+                                for (String alias : aliases) {
+                                    Item item = KeyStoreUtils.item(targetKeyStore, alias, certificateLoader);
+                                    searchIndex.prepare(item);
+                                    items.add(item);
+                                }
+                            } catch (Throwable err) {
+                                throw new RuntimeException(err.getMessage(), err);
+                            }
+                        }
+
+                        @Override
+                        public void onSuccess() {
+                            if (keyStore != targetKeyStore) {
+                                NotifyUtils.notify("证书已重新加载,批量导入的证书没有写入当前证书", project);
+                                return;
+                            }
+                            models.upsertAll(items);
+                            NotifyUtils.notify(String.format("批量导入证书成功,新增: %d,重复跳过: %d", items.size(), certificates.size() - items.size()), project);
+                        }
+
+                        @Override
+                        public void onThrowable(@NotNull Throwable error) {
+                            NotifyUtils.notify("批量导入证书错误: " + error.getMessage(), project);
+                        }
+                    });
+                });
+            }
+        };
+    }
+
+    /**
+     * 校验全部条目,证书链在后台任务中重新构建,签名验证在线程池中并行执行,结果分批显示在校验状态列中,完成后显示汇总报告
+     *
+     * @return
+     */
+    private AnAction createValidateAllAction() {
+        return new AnAction(() -> "校验全部证书", Icons.VALIDATE) {
+            @Override
+            public void actionPerformed(@NotNull AnActionEvent e) {
+                if (keyStore == null) {
+                    Messages.showErrorDialog("请先导入或者创建证书", "提示");
+                    return;
+                }
+                KeyStore targetKeyStore = keyStore;
+                List<Item> items = new ArrayList<>(models.getItems());
+                int generation = ++validationGeneration;
+                validationResults.clear();
+                tableView.repaint();
+                ProgressManager.getInstance().run(new Task.Backgroundable(project, "校验证书", true) {
+
+                    private final Map<ValidationResult.Status, Integer> counts = new EnumMap<>(ValidationResult.Status.class);
+
+                    private final StringBuilder problems = new StringBuilder();
+
+                    private CertificateValidator validator;
+
+                    private long cost;
+
+                    @Override
+                    public void run(@NotNull ProgressIndicator indicator) {
+                        long start = System.currentTimeMillis();
+                        indicator.setText("正在构建证书链");
+                        ChainIndex index = new ChainIndex();
+                        items.forEach(index::add);
+                        Map<Item, List<X509Certificate>> chains = new IdentityHashMap<>(items.size());
+                        try {
+                            for (Item item : items) {
+                                indicator.checkCanceled();
+                                List<X509Certificate> chain = CertificateValidator.chain(targetKeyStore, index, item);
+                                if (!chain.isEmpty()) {
+                                    chains.put(item, chain);
+                                }
+                            }
+                            indicator.setIndeterminate(false);
+                            indicator.setText("正在校验证书");
+                            this.validator = new CertificateValidator(System.currentTimeMillis());
+                            List<Map.Entry<Item, ValidationResult>> chunk = new ArrayList<>(VALIDATION_CHUNK_SIZE);
+                            int[] validated = {0};
+                            validator.validateAll(items, chains::get, (item, result) -> {
+                                indicator.checkCanceled();
+                                chunk.add(Map.entry(item, result));
+                                counts.merge(result.getStatus(), 1, Integer::sum);
+                                if (!result.isValid()) {
+                                    problems.append(item.getName()).append(": ").append(result).append('\n');
+                                }
+                                validated[0]++;
+                                if (chunk.size() == VALIDATION_CHUNK_SIZE || validated[0] == chains.size()) {
+                                    publish(new ArrayList<>(chunk));
+                                    chunk.clear();
+                                    indicator.setFraction((double) validated[0] / chains.size());
+                                    indicator.setText2(String.format("%d/%d", validated[0], chains.size()));
+                                }
+                            });
+                        } catch (ProcessCanceledException err) {
+                            throw err;
+                        } catch (Throwable err) {
+                            throw new RuntimeException(err.getMessage(), err);
+                        }
+                        this.cost = System.currentTimeMillis() - start;
+                    }
+
+                    private void publish(List<Map.Entry<Item, ValidationResult>> results) {
+                        ApplicationManager.getApplication().invokeLater(() -> {
+                            if (generation != validationGeneration) {
+                                return;
+                            }
+                            List<Item> validatedItems = new ArrayList<>(results.size());
+                            for (Map.Entry<Item, ValidationResult> entry : results) {
+                                validationResults.put(entry.getKey(), entry.getValue());
+                                validatedItems.add(entry.getKey());
+                            }
+                            models.refresh(validatedItems);
+                        }, ModalityState.any());
+                    }
+
+                    @Override
+                    public void onSuccess() {
+                        if (generation != validationGeneration) {
+                            return;
+                        }
+                        StringBuilder report = new StringBuilder();
+                        report.append(String.format("条目数量: %d, 其中证书: %d, 耗时: %dms%n", items.size(), counts.values().stream().mapToInt(Integer::intValue).sum(), cost));
+                        for (ValidationResult.Status status : ValidationResult.Status.values()) {
+                            report.append(status.getDescription()).append(": ").append(counts.getOrDefault(status, 0)).append('\n');
+                        }
+                        report.append(validator.getStatistics()).append('\n');
+                        if (problems.length() > 0) {
+                            report.append('\n').append(problems);
+                        }
+                        new TextFieldDialog("校验结果", report.toString(), project).setVisible(true);
+                    }
+
+                    @Override
+                    public void onThrowable(@NotNull Throwable error) {
+                        NotifyUtils.notify("校验证书错误: " + error.getMessage(), project);
+                    }
+                });
+            }
+        };
+    }
+
+    /**
+     * 对比两个证书文件,两个文件在后台任务中并行读取,按指纹以及名称比较
+     *
+     * @return
+     */
+    private AnAction createDiffAction() {
+        return new AnAction(() -> "对比证书", Icons.DIFF) {
+            @Override
+            public void actionPerformed(@NotNull AnActionEvent e) {
+                Optional<VirtualFile> left = FileChooser.chooseSingleFile("选择原证书", project);
+                if (left.isEmpty()) {
+                    return;
+                }
+                char[] leftPassword = inputPassword(left.get());
+                Optional<VirtualFile> right = FileChooser.chooseSingleFile("选择新证书", project);
+                if (right.isEmpty()) {
+                    return;
+                }
+                char[] rightPassword = inputPassword(right.get());
+                ProgressManager.getInstance().run(new Task.Backgroundable(project, "对比证书", false) {
+
+                    private KeyStoreDiff diff;
+
+                    @Override
+                    public void run(@NotNull ProgressIndicator indicator) {
+                        try {
+                            this.diff = KeyStoreDiff.compare(() -> load(left.get(), leftPassword), () -> load(right.get(), rightPassword));
+                        } catch (Throwable err) {
+                            throw new RuntimeException(err.getMessage(), err);
+                        }
+                    }
+
+                    @Override
+                    public void onSuccess() {
+                        new TextFieldDialog(String.format("%s -> %s", left.get().getName(), right.get().getName()), diff.format(), project).setVisible(true);
+                    }
+
+                    @Override
+                    public void onThrowable(@NotNull Throwable error) {
+                        NotifyUtils.notify("对比证书错误: " + error.getMessage(), project);
+                    }
+                });
+            }
+
+            private char[] inputPassword(VirtualFile virtualFile) {
+                String password = JOptionPane.showInputDialog(null, String.format("%s 的证书密码,如果有,请输入,如果没有,请点确认或者取消", virtualFile.getName()), "证书密码", JOptionPane.PLAIN_MESSAGE);
+                return StringUtils.isEmpty(password) ? new char[0] : password.toCharArray();
+            }
+
+            private KeyStore load(VirtualFile virtualFile, char[] password) throws Exception {
+                try (InputStream inputStream = virtualFile.getInputStream()) {
+                    return KeyStoreUtils.load(inputStream, virtualFile.getName(), null, password);
+                }
+            }
+        };
+    }
+
+    /**
+     * 合并多个keystore或者证书包到当前证书,文件在后台任务中并行读取,按指纹去重后一次写入keystore并只更新一次表格
+     *
+     * @return
+     */
+    private AnAction createMergeAction() {
+        return new AnAction(() -> "合并证书", Icons.MERGE) {
+            @Override
+            public void actionPerformed(@NotNull AnActionEvent e) {
+                if (keyStore == null) {
+                    Messages.showErrorDialog("请先导入或者创建空证书", "错误提示");
+                    return;
+                }
+                FileChooser.chooseFiles("请选择需要合并的keystore或者证书包", project).ifPresent(virtualFiles -> {
+                    KeyStoreMerger.ConflictPolicy[] policies = KeyStoreMerger.ConflictPolicy.values();
+                    int index = JOptionPane.showOptionDialog(null, "名称相同但证书不同时如何处理", "名称冲突", JOptionPane.DEFAULT_OPTION, JOptionPane.QUESTION_MESSAGE, null, policies, KeyStoreMerger.ConflictPolicy.RENAME);
+                    if (index < 0) {
+                        return;
+                    }
+                    List<KeyStoreMerger.Source> sources = new ArrayList<>(virtualFiles.length);
+                    for (VirtualFile virtualFile : virtualFiles) {
+                        char[] password = null;
+                        if (!"bundle".equals(KeyStoreUtils.type(virtualFile.getName(), null))) {
+                            String value = JOptionPane.showInputDialog(null, String.format("%s 的证书密码,如果有,请输入,如果没有,请点确认或者取消", virtualFile.getName()), "证书密码", JOptionPane.PLAIN_MESSAGE);
+                            password = StringUtils.isEmpty(value) ? new char[0] : value.toCharArray();
+                        }
+                        char[] sourcePassword = password;
+                        sources.add(new KeyStoreMerger.Source(virtualFile.getName(), () -> {
+                            try (InputStream inputStream = virtualFile.getInputStream()) {
+                                return KeyStoreUtils.load(inputStream, virtualFile.getName(), null, sourcePassword);
+                            }
+                        }, sourcePassword));
+                    }
+                    KeyStore targetKeyStore = keyStore;
+                    char[] targetPassword = passwordArray;
+                    ProgressManager.getInstance().run(new Task.Backgroundable(project, "合并证书", true) {
+
+                        private KeyStoreMerger.Report report;
+
+                        private List<Item> items;
+
+                        /**
+                         * keystore是TrackedKeyStore,写入是同步的,合并以及读取写入的条目都在后台线程中完成,EDT只刷新表格
+                         * 所有来源读取成功后才写入keystore,读取期间可以取消,读取失败或者取消时keystore不变
+                         */
+                        @Override
+                        public void run(@NotNull ProgressIndicator indicator) {
+                            try {
+                                this.report = new KeyStoreMerger(targetKeyStore, targetPassword, policies[index])
+                                        .setCancelled(indicator::isCanceled)
+                                        .merge(sources);
+                                Function<String, Certificate> certificateLoader = KeyStoreUtils.certificateLoader(targetKeyStore);
+                                List<Item> items = new ArrayList<>(report.getWritten().size());
+                                for (String alias : report.getWritten()) {
+                                    Item item = KeyStoreUtils.item(targetKeyStore, alias, certificateLoader);
+                                    searchIndex.prepare(item);
+                                    items.add(item);
+                                }
+                                this.items = items;
+                            } catch (CancellationException err) {
+                                //取消时没有写入keystore
+                            } catch (Throwable err) {
+                                throw new RuntimeException(err.getMessage(), err);
+                            }
+                        }
+
+                        @Override
+                        public void onSuccess() {
+                            applyReport();
+                        }
+
+                        @Override
+                        public void onCancel() {
+                            //开始写入后不再检查取消,已经写入的条目仍然需要显示
+                            if (items != null) {
+                                applyReport();
+                            } else {
+                                NotifyUtils.notify("已取消合并证书", project);
+                            }
+                        }
+
+                        private void applyReport() {
+                            if (keyStore != targetKeyStore) {
+                                NotifyUtils.notify("证书已重新加载,合并的证书没有写入当前证书", project);
+                                return;
+                            }
+                            for (String alias : report.getWritten()) {
+                                putKeyPassword(alias, targetPassword);
+                            }
+                            models.upsertAll(items);
+                            new TextFieldDialog("合并结果", report.format(), project).setVisible(true);
+                        }
+
+                        @Override
+                        public void onThrowable(@NotNull Throwable error) {
+                            NotifyUtils.notify("合并证书错误: " + error.getMessage(), project);
+                            //合并已经写入keystore,只是读取写入的条目失败时逐条刷新
+                            if (report != null && keyStore == targetKeyStore) {
+                                for (String alias : report.getWritten()) {
+                                    putKeyPassword(alias, targetPassword);
+                                    try {
+                                        refreshItem(alias);
+                                    } catch (Throwable e) {
+                                        NotifyUtils.notify("刷新证书失败,错误信息: " + e.getMessage(), project);
+                                    }
+                                }
+                            }
+                        }
+                    });
+                });
+            }
+        };
+    }
+
+    /**
+     * 条目变更后只刷新对应的行
+     *
+     * @param alias 条目名称
+     */
+    private void refreshItem(String alias) throws Exception {
+        String storedAlias = KeyStoreUtils.storedAlias(keyStore, alias);
+        if (keyStore.containsAlias(storedAlias)) {
+            models.upsert(KeyStoreUtils.item(keyStore, storedAlias));
+        } else {
+            models.remove(storedAlias);
         }
-        models.fireTableDataChanged();
     }
 
     /**
@@ -344,16 +1102,10 @@ public class CertificateManagerView extends JPanel {
                 if (keyStore != null) {
                     int result = JOptionPane.showConfirmDialog(null, "点击导入会覆盖已导入的证书,是否确认导入", "警告", JOptionPane.OK_CANCEL_OPTION);
                     if (result == JOptionPane.OK_OPTION) {
-                        FileChooser.chooseSingleFile("选择证书", project).ifPresent(virtualFile -> {
-                            certificateVirtualFile = virtualFile;
-                            CertificateManagerView.this.loadCertificate(virtualFile);
-                        });
+                        FileChooser.chooseSingleFile("选择证书", project).ifPresent(CertificateManagerView.this::loadCertificate);
                     }
                 } else {
-                    FileChooser.chooseSingleFile("选择证书", project).ifPresent(virtualFile -> {
-                        certificateVirtualFile = virtualFile;
-                        CertificateManagerView.this.loadCertificate(virtualFile);
-                    });
+                    FileChooser.chooseSingleFile("选择证书", project).ifPresent(CertificateManagerView.this::loadCertificate);
                 }
             }
 
@@ -361,49 +1113,272 @@ public class CertificateManagerView extends JPanel {
     }
 
     /**
-     * 加载证书
+     * 加载证书,文件在后台任务中解密和读取,读取到的条目分批追加到表格,加载成功后才替换当前的keyStore
      *
      * @param virtualFile
      */
     private void loadCertificate(VirtualFile virtualFile) {
-        try {
-            this.keyStore = KeyStore.getInstance(KeyStore.getDefaultType());
-            if (virtualFile == null) {
-                isNew = true;
-                this.keyStore.load(null, null);
+        validationGeneration++;
+        if (virtualFile == null) {
+            loadGeneration++;
+            loading = false;
+            try {
+                KeyStore emptyKeyStore = KeyStore.getInstance(KeyStore.getDefaultType());
+                emptyKeyStore.load(null, null);
+                this.keyStore = TrackedKeyStore.wrap(emptyKeyStore);
+                this.keyPasswords.clear();
+                this.isNew = true;
+                this.saveOptions = null;
+                this.certificateVirtualFile = null;
+                watch(null);
                 this.models.setItems(new ArrayList<>());
-            } else {
+                NotifyUtils.notify("加载证书成功", project);
+            } catch (Throwable e) {
+                NotifyUtils.notify("加载证书错误: " + e.getMessage(), project);
+            }
+            return;
+        }
+        String password = JOptionPane.showInputDialog(null, "证书密码,如果有,请输入,如果没有,请点确认或者取消", "证书密码", JOptionPane.PLAIN_MESSAGE);
+        char[] passwordArray = password == null || StringUtils.isEmpty(password) ? new char[0] : password.toCharArray();
+        int generation = ++loadGeneration;
+        List<Item> previousItems = new ArrayList<>(this.models.getItems());
+        this.models.setItems(new ArrayList<>());
+        this.loading = true;
+        ProgressManager.getInstance().run(new Task.Backgroundable(project, "加载证书: " + virtualFile.getName(), true) {
+
+            private TrackedKeyStore loadedKeyStore;
+
+            private String loadedFileStamp;
+
+            @Override
+            public void run(@NotNull ProgressIndicator indicator) {
+                try {
+                    indicator.setText("正在读取证书文件");
+                    this.loadedFileStamp = fileStamp(virtualFile.toNioPath());
+                    KeyStore loadingKeyStore = readKeyStore(virtualFile, passwordArray);
+                    indicator.checkCanceled();
+                    List<String> aliases = EnumerationUtils.toList(loadingKeyStore.aliases());
+                    aliases.sort(Comparator.naturalOrder());
+                    indicator.setIndeterminate(false);
+                    indicator.setText("正在读取证书条目");
+                    Function<String, Certificate> certificateLoader = KeyStoreUtils.certificateLoader(loadingKeyStore);
+                    List<Item> chunk = new ArrayList<>(LOAD_CHUNK_SIZE);
+                    for (int i = 0; i < aliases.size(); i++) {
+                        indicator.checkCanceled();
+                        Item item = KeyStoreUtils.item(loadingKeyStore, aliases.get(i), certificateLoader);
+                        //索引词在后台线程中计算,加入表格时不再读取证书
+                        searchIndex.prepare(item);
+                        chunk.add(item);
+                        if (chunk.size() == LOAD_CHUNK_SIZE || i == aliases.size() - 1) {
+                            List<Item> rows = chunk;
+                            ApplicationManager.getApplication().invokeLater(() -> {
+                                if (generation == loadGeneration) {
+                                    models.addRows(rows);
+                                }
+                            }, ModalityState.any());
+                            chunk = new ArrayList<>(LOAD_CHUNK_SIZE);
+                            indicator.setFraction((double) (i + 1) / aliases.size());
+                            indicator.setText2(String.format("%d/%d", i + 1, aliases.size()));
+                        }
+                    }
+                    this.loadedKeyStore = TrackedKeyStore.wrap(loadingKeyStore);
+                } catch (ProcessCanceledException e) {
+                    throw e;
+                } catch (Throwable e) {
+                    throw new RuntimeException(e.getMessage(), e);
+                }
+            }
+
+            @Override
+            public void onSuccess() {
+                if (generation != loadGeneration) {
+                    return;
+                }
+                loading = false;
+                keyStore = loadedKeyStore;
+                keyPasswords.clear();
+                CertificateManagerView.this.passwordArray = passwordArray;
+                certificateVirtualFile = virtualFile;
                 isNew = false;
-                String password = JOptionPane.showInputDialog(null, "证书密码,如果有,请输入,如果没有,请点确认或者取消", "证书密码", JOptionPane.PLAIN_MESSAGE);
-                char[] passwordArray = password == null || StringUtils.isEmpty(password) ? new char[0] : password.toCharArray();
-                this.passwordArray = passwordArray;
-                this.keyStore.load(virtualFile.getInputStream(), passwordArray);
-                List<String> list = EnumerationUtils.toList(this.keyStore.aliases());
-                list.sort(Comparator.comparing(Function.identity()));
-                this.models.setItems(new ArrayList<>());
-                for (String alias : list) {
-                    Certificate certificate = this.keyStore.getCertificate(alias);
-                    Item item = new Item()
-                            .setName(alias)
-                            .setType(certificate.getType())
-                            .setPublicKey(certificate.getPublicKey(), StandardCharsets.UTF_8)
-                            .setCertificate(certificate);
-                    this.models.addRow(item);
+                saveOptions = null;
+                fileStamp = loadedFileStamp;
+                watch(virtualFile);
+                NotifyUtils.notify("加载证书成功", project);
+            }
+
+            @Override
+            public void onCancel() {
+                restore();
+                NotifyUtils.notify("已取消加载证书", project);
+            }
+
+            @Override
+            public void onThrowable(@NotNull Throwable error) {
+                restore();
+                NotifyUtils.notify("加载证书错误: " + error.getMessage(), project);
+            }
+
+            /**
+             * 加载失败或者取消时,恢复为加载前的表格内容
+             */
+            private void restore() {
+                if (generation == loadGeneration) {
+                    loadGeneration++;
+                    loading = false;
+                    models.setItems(previousItems);
                 }
             }
-            NotifyUtils.notify("加载证书成功", project);
-        } catch (Throwable e) {
-            this.keyStore = null;
-            NotifyUtils.notify("加载证书错误: " + e.getMessage(), project);
+        });
+    }
+
+    /**
+     * 证书文件被外部修改后,使用加载时的密码在后台任务中重新读取,只把有差异的条目更新到表格
+     * 有未保存的修改,或者变更来自本视图的保存时不重新加载
+     */
+    private void reloadCertificate() {
+        VirtualFile file = certificateVirtualFile;
+        TrackedKeyStore currentKeyStore = keyStore;
+        if (isNew || file == null || currentKeyStore == null || !file.isValid()) {
+            return;
+        }
+        String stamp = fileStamp(file.toNioPath());
+        if (stamp == null || stamp.equals(fileStamp)) {
+            return;
+        }
+        if (currentKeyStore.isDirty()) {
+            NotifyUtils.notify(String.format("%s 已被修改,当前有未保存的修改,没有重新加载", file.getName()), project);
+            return;
+        }
+        int generation = loadGeneration;
+        long modCount = currentKeyStore.getModCount();
+        char[] password = passwordArray == null ? new char[0] : passwordArray;
+        ProgressManager.getInstance().run(new Task.Backgroundable(project, "重新加载证书: " + file.getName(), false) {
+
+            private KeyStore loadedKeyStore;
+
+            private KeyStoreDiff diff;
+
+            @Override
+            public void run(@NotNull ProgressIndicator indicator) {
+                try {
+                    this.loadedKeyStore = readKeyStore(file, password);
+                    this.diff = KeyStoreDiff.compare(KeyStoreDiff.snapshot(currentKeyStore), KeyStoreDiff.snapshot(loadedKeyStore));
+                } catch (Throwable e) {
+                    throw new RuntimeException(e.getMessage(), e);
+                }
+            }
+
+            @Override
+            public void onSuccess() {
+                //重新加载期间导入了其他证书或者修改了当前证书
+                if (generation != loadGeneration || keyStore != currentKeyStore || currentKeyStore.getModCount() != modCount) {
+                    return;
+                }
+                try {
+                    keyStore = TrackedKeyStore.wrap(loadedKeyStore);
+                    keyPasswords.clear();
+                    fileStamp = stamp;
+                    if (diff.isEmpty()) {
+                        return;
+                    }
+                    Function<String, Certificate> certificateLoader = KeyStoreUtils.certificateLoader(loadedKeyStore);
+                    List<String> removed = new ArrayList<>();
+                    List<Item> changed = new ArrayList<>();
+                    for (KeyStoreDiff.Change change : diff.getChanges()) {
+                        if (change.getLeftAlias() != null && !change.getLeftAlias().equals(change.getRightAlias())) {
+                            removed.add(change.getLeftAlias());
+                        }
+                        if (change.getRightAlias() != null) {
+                            changed.add(KeyStoreUtils.item(loadedKeyStore, change.getRightAlias(), certificateLoader));
+                        }
+                    }
+                    models.removeAll(removed);
+                    models.upsertAll(changed);
+                    StringBuilder sb = new StringBuilder(file.getName()).append(" 已重新加载");
+                    for (KeyStoreDiff.Kind kind : KeyStoreDiff.Kind.values()) {
+                        sb.append(", ").append(kind.getDescription()).append(": ").append(diff.count(kind));
+                    }
+                    NotifyUtils.notify(sb.toString(), project);
+                } catch (Throwable e) {
+                    NotifyUtils.notify("重新加载证书错误: " + e.getMessage(), project);
+                }
+            }
+
+            @Override
+            public void onThrowable(@NotNull Throwable error) {
+                NotifyUtils.notify("重新加载证书错误: " + error.getMessage(), project);
+            }
+        });
+    }
+
+    /**
+     * 默认的PKCS12兼容读取JKS,BCFKS需要使用BC读取
+     */
+    private static KeyStore readKeyStore(VirtualFile virtualFile, char[] password) throws Exception {
+        String type = KeyStoreUtils.type(virtualFile.getName(), null);
+        try (InputStream inputStream = virtualFile.getInputStream()) {
+            return KeyStoreUtils.load(inputStream, "bcfks".equals(type) ? type : null, password);
+        }
+    }
+
+    /**
+     * @return 文件的修改时间以及大小,文件不存在时为null
+     */
+    private static String fileStamp(Path path) {
+        try {
+            return Files.getLastModifiedTime(path).toMillis() + ":" + Files.size(path);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    /**
+     * 监听当前证书文件,替换之前的监听
+     */
+    private void watch(VirtualFile virtualFile) {
+        if (watchRequest != null) {
+            LocalFileSystem.getInstance().removeWatchedRoot(watchRequest);
+            watchRequest = null;
+        }
+        if (virtualFile != null && virtualFile.isInLocalFileSystem()) {
+            watchRequest = LocalFileSystem.getInstance().addRootToWatch(virtualFile.getPath(), false);
         }
     }
 
     private JComponent createMainPanel() {
-        this.models = new ListTableModel<>(
+        this.models = new ItemTableModel(
                 ItemColumn.create("证书名称", Item::getName),
                 ItemColumn.create("证书类型", Item::getType),
-                ItemColumn.create("加密算法", Item::getAlgorithm)
+                ItemColumn.create("加密算法", Item::getAlgorithm),
+                ItemColumn.create("生效时间", item -> item.hasValidity() ? DATE_TIME_FORMATTER.format(Instant.ofEpochMilli(item.getNotBefore())) : ""),
+                ItemColumn.create("过期时间", item -> item.hasValidity() ? DATE_TIME_FORMATTER.format(Instant.ofEpochMilli(item.getNotAfter())) : ""),
+                ItemColumn.create("剩余天数", item -> {
+                    if (!item.hasValidity()) {
+                        return "";
+                    }
+                    long daysLeft = item.getDaysLeft(System.currentTimeMillis());
+                    return daysLeft < 0 ? "已过期" : String.valueOf(daysLeft);
+                }),
+                ItemColumn.create("链深度", item -> {
+                    int depth = chainIndex.depth(item);
+                    return depth == 0 ? "" : String.valueOf(depth);
+                }),
+                ItemColumn.create("根证书", item -> {
+                    Item top = chainIndex.top(item);
+                    if (top == null) {
+                        return "";
+                    }
+                    return chainIndex.isComplete(item) ? top.getName() : "缺少颁发者: " + top.getName();
+                }),
+                ItemColumn.create("校验状态", item -> {
+                    ValidationResult result = validationResults.get(item);
+                    return result == null ? "" : result.getStatus().getDescription();
+                })
         );
+        this.models.addIndex(expiryIndex);
+        this.models.addIndex(expiryFilter);
+        this.models.addIndex(searchIndex);
+        this.models.addIndex(chainIndex);
         this.tableView = new TableView<>(this.models) {
             public TableCellRenderer getCellRenderer(int row, int column) {
                 if (!(this.getModel() instanceof ListTableModel)) {
@@ -430,6 +1405,13 @@ public class CertificateManagerView extends JPanel {
                 };
             }
         };
+        //筛选只检查条目是否在过期索引以及搜索索引给出的集合中,不读取证书
+        this.rowSorter = new TableRowSorter<>(this.models);
+        this.rowSorter.setSortsOnUpdates(true);
+        for (int i = 0; i < this.models.getColumnCount(); i++) {
+            this.rowSorter.setSortable(i, false);
+        }
+        this.tableView.setRowSorter(this.rowSorter);
         JTableHeader tableHeader = this.tableView.getTableHeader();
         TableCellRenderer defaultRenderer = tableHeader.getDefaultRenderer();
         tableHeader.setDefaultRenderer((table, value, isSelected, hasFocus, row, column) -> {
@@ -444,19 +1426,149 @@ public class CertificateManagerView extends JPanel {
 //        this.tableView.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
         DefaultActionGroup group = new DefaultActionGroup();
         group.add(new ShowDetailAction(tableView, models, project));
-        group.add(new DeleteCertificateAction(tableView, models, project, () -> this.keyStore, () -> {
+        group.add(disableWhileLoading(new DeleteCertificateAction(tableView, models, project, () -> this.keyStore)));
+        group.add(disableWhileLoading(new ExportCertificateAction(tableView, models, project, () -> this.keyStore, () -> passwordArray)));
+        group.add(disableWhileLoading(new ExportPrivateKeyAction(tableView, models, project, () -> this.keyStore, () -> passwordArray)));
+        group.add(disableWhileLoading(new CompleteChainAction(tableView, chainIndex, project, () -> this.keyStore, (alias, password) -> {
+            putKeyPassword(alias, password);
             try {
-                refreshTable();
+                refreshItem(alias);
             } catch (Throwable e) {
-                NotifyUtils.notify("删除证书失败,错误信息: " + e.getMessage(), project);
+                NotifyUtils.notify("刷新证书失败,错误信息: " + e.getMessage(), project);
             }
-        }));
-        group.add(new ExportCertificateAction(tableView, models, project, () -> this.keyStore, () -> passwordArray));
-        group.add(new ExportPrivateKeyAction(tableView, models, project, () -> this.keyStore, () -> passwordArray));
+        })));
         ActionPopupMenu popupMenu = ActionManager.getInstance().createActionPopupMenu("操作", group);
 //        ListPopup listPopup = JBPopupFactory.getInstance().createActionGroupPopup("操作", group, DataContext.EMPTY_CONTEXT, JBPopupFactory.ActionSelectionAid.MNEMONICS, true);
         this.tableView.setComponentPopupMenu(popupMenu.getComponent());
-        return new JBScrollPane(tableView);
+        JPanel panel = new JPanel(new BorderLayout());
+        panel.add(createFilterPanel(), BorderLayout.NORTH);
+        panel.add(new JBScrollPane(tableView), BorderLayout.CENTER);
+        return panel;
     }
 
+    /**
+     * 搜索以及过期筛选,统计数量通过过期索引查询
+     *
+     * @return
+     */
+    private JComponent createFilterPanel() {
+        JPanel panel = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        SearchTextField searchTextField = new SearchTextField(false);
+        searchTextField.getTextEditor().getEmptyText().setText("名称,subject,issuer,SAN,序列号,指纹");
+        searchTextField.addDocumentListener(new DocumentAdapter() {
+            @Override
+            protected void textChanged(@NotNull DocumentEvent e) {
+                search(searchTextField.getText());
+            }
+        });
+        String[] options = new String[EXPIRY_FILTER_DAYS.length + 1];
+        options[0] = "全部";
+        for (int i = 0; i < EXPIRY_FILTER_DAYS.length; i++) {
+            options[i + 1] = EXPIRY_FILTER_DAYS[i] == 0 ? "已过期" : EXPIRY_FILTER_DAYS[i] + "天内过期";
+        }
+        JComboBox<String> comboBox = new JComboBox<>(options);
+        comboBox.addActionListener(e -> {
+            int selectedIndex = comboBox.getSelectedIndex();
+            setExpiryFilter(selectedIndex <= 0 ? null : EXPIRY_FILTER_DAYS[selectedIndex - 1]);
+        });
+        JLabel statistics = new JLabel();
+        //搜索结果由搜索索引随表格内容增量更新,表格变化后不需要重新搜索
+        this.models.addTableModelListener(e -> {
+            statisticsAlarm.cancelAllRequests();
+            statisticsAlarm.addRequest(() -> statistics.setText(expiryStatistics()), STATISTICS_DELAY_MILLIS);
+        });
+        statistics.setText(expiryStatistics());
+        panel.add(new JLabel("搜索:"));
+        panel.add(searchTextField);
+        panel.add(new JLabel("过期筛选:"));
+        panel.add(comboBox);
+        panel.add(statistics);
+        return panel;
+    }
+
+    /**
+     * @param days 天数,0表示已过期,为null时显示全部
+     */
+    private void setExpiryFilter(Integer days) {
+        if (days == null) {
+            this.expiryDeadline = null;
+            this.expiryResult = null;
+        } else {
+            this.expiryDeadline = System.currentTimeMillis() + days * ExpiryIndex.DAY_MILLIS;
+            Set<Item> result = Collections.newSetFromMap(new IdentityHashMap<>());
+            result.addAll(expiryIndex.expiringBefore(expiryDeadline));
+            this.expiryResult = result;
+        }
+        updateRowFilter();
+    }
+
+    /**
+     * 防抖后在后台线程中查询搜索索引,查询结果在EDT中更新到行过滤器
+     *
+     * @param query 搜索内容
+     */
+    private void search(String query) {
+        int generation = ++searchGeneration;
+        searchAlarm.cancelAllRequests();
+        if (StringUtils.isBlank(query)) {
+            searchIndex.clearFilter();
+            this.searchResult = null;
+            updateRowFilter();
+            return;
+        }
+        searchAlarm.addRequest(() -> {
+            Set<Item> result = searchIndex.filter(query);
+            ApplicationManager.getApplication().invokeLater(() -> {
+                if (generation == searchGeneration) {
+                    this.searchResult = result;
+                    updateRowFilter();
+                }
+            }, ModalityState.any());
+        }, SEARCH_DELAY_MILLIS);
+    }
+
+    /**
+     * 过滤只检查过期筛选以及搜索结果集合,不读取证书
+     */
+    private void updateRowFilter() {
+        Set<Item> expiring = this.expiryResult;
+        Set<Item> result = this.searchResult;
+        if (expiring == null && result == null) {
+            this.rowSorter.setRowFilter(null);
+            return;
+        }
+        this.rowSorter.setRowFilter(new RowFilter<>() {
+            @Override
+            public boolean include(Entry<? extends ItemTableModel, ? extends Integer> entry) {
+                Item item = entry.getModel().getItem(entry.getIdentifier());
+                return (expiring == null || expiring.contains(item)) && (result == null || result.contains(item));
+            }
+        });
+    }
+
+    private String expiryStatistics() {
+        long now = System.currentTimeMillis();
+        StringBuilder sb = new StringBuilder();
+        expiryIndex.count(now, EXPIRY_FILTER_DAYS).forEach((days, count) -> {
+            if (sb.length() > 0) {
+                sb.append(", ");
+            }
+            sb.append(days == 0 ? "已过期" : days + "天内过期").append(": ").append(count);
+        });
+        Item first = expiryIndex.first();
+        if (first != null) {
+            sb.append(", 最早过期: ").append(first.getName()).append(" (").append(DATE_TIME_FORMATTER.format(Instant.ofEpochMilli(first.getNotAfter()))).append(")");
+        }
+        return sb.toString();
+    }
+
+    @Override
+    public void dispose() {
+        connection.disconnect();
+        searchAlarm.dispose();
+        statisticsAlarm.dispose();
+        reloadAlarm.dispose();
+        watch(null);
+        keyStoreWriter.close();
+    }
 }
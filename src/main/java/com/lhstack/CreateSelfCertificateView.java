@@ -1,42 +1,62 @@
 package com.lhstack;
 
-import com.google.gson.Gson;
 import com.intellij.codeInsight.daemon.DaemonCodeAnalyzer;
 import com.intellij.ide.highlighter.HighlighterFactory;
 import com.intellij.lang.Language;
 import com.intellij.openapi.Disposable;
 import com.intellij.openapi.actionSystem.*;
 import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.application.ModalityState;
+import com.intellij.openapi.application.ReadAction;
+import com.intellij.openapi.editor.Document;
 import com.intellij.openapi.editor.Editor;
 import com.intellij.openapi.editor.EditorFactory;
 import com.intellij.openapi.editor.EditorSettings;
 import com.intellij.openapi.editor.event.DocumentEvent;
 import com.intellij.openapi.editor.event.DocumentListener;
 import com.intellij.openapi.editor.ex.EditorEx;
+import com.intellij.openapi.editor.markup.EffectType;
+import com.intellij.openapi.editor.markup.HighlighterLayer;
+import com.intellij.openapi.editor.markup.HighlighterTargetArea;
+import com.intellij.openapi.editor.markup.MarkupModel;
+import com.intellij.openapi.editor.markup.RangeHighlighter;
+import com.intellij.openapi.editor.markup.TextAttributes;
 import com.intellij.openapi.fileTypes.PlainTextLanguage;
+import com.intellij.openapi.progress.ProcessCanceledException;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.progress.ProgressManager;
+import com.intellij.openapi.progress.Task;
 import com.intellij.openapi.project.Project;
 import com.intellij.openapi.ui.Messages;
 import com.intellij.openapi.ui.SimpleToolWindowPanel;
+import com.intellij.openapi.util.io.FileUtil;
 import com.intellij.psi.PsiDocumentManager;
 import com.intellij.psi.PsiFile;
+import com.intellij.ui.JBColor;
 import com.intellij.ui.JBSplitter;
 import com.intellij.ui.LanguageTextField;
 import com.intellij.ui.components.JBScrollPane;
 import com.intellij.ui.components.JBTabbedPane;
+import com.intellij.util.Alarm;
 import com.lhstack.actions.self.ExportCertificateAction;
 import com.lhstack.actions.self.ShowDetailAction;
 import com.lhstack.components.DefaultContextMenuPopupHandler;
+import com.lhstack.components.KeyStoreOptionsPanel;
+import com.lhstack.export.CertificateExporter;
+import com.lhstack.selfsign.KeyPairPool;
 import com.lhstack.selfsign.SelfSignCertificateEntity;
 import com.lhstack.selfsign.SelfSignCertificateHelper;
 import com.lhstack.selfsign.SelfSignConfig;
+import com.lhstack.selfsign.SelfSignConfigParser;
+import com.lhstack.selfsign.SelfSignConfigValidator;
 import com.lhstack.state.ProjectState;
+import com.lhstack.store.KeyStoreOptions;
 import com.lhstack.utils.NotifyUtils;
 import com.lhstack.utils.PemUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.bouncycastle.openssl.PEMKeyPair;
 import org.bouncycastle.openssl.PEMParser;
 import org.jetbrains.annotations.NotNull;
-import org.yaml.snakeyaml.Yaml;
 
 import javax.swing.*;
 import java.awt.*;
@@ -50,10 +70,15 @@ import java.security.KeyStore;
 import java.security.PrivateKey;
 import java.security.cert.Certificate;
 import java.security.cert.CertificateFactory;
+import java.security.cert.X509Certificate;
 import java.security.spec.PKCS8EncodedKeySpec;
 import java.util.*;
 import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipOutputStream;
 
@@ -69,11 +94,73 @@ public class CreateSelfCertificateView extends JPanel implements Disposable {
 
     private final List<Disposable> disposableList = new ArrayList<>();
 
+    private JBTabbedPane tabbedPane;
+
+    /**
+     * 右侧tab的名称,按显示顺序
+     */
+    private final List<String> tabNames = new ArrayList<>();
+
+    /**
+     * tab名称 -> 读取内容
+     */
+    private final Map<String, Supplier<String>> tabContents = new HashMap<>();
+
+    /**
+     * 已经读取过内容的tab,切换配置后清空
+     */
+    private final Set<String> loadedTabs = new HashSet<>();
+
+    /**
+     * 正在后台读取内容的tab
+     */
+    private final Set<String> loadingTabs = new HashSet<>();
+
+    /**
+     * 配置文件停止编辑后保存以及校验的延迟
+     */
+    private static final int CONFIG_DELAY_MILLIS = 300;
+
+    /**
+     * 在后台线程中合并连续的编辑,停止编辑后才保存以及校验配置文件
+     */
+    private final Alarm configAlarm = new Alarm(Alarm.ThreadToUse.POOLED_THREAD);
+
+    /**
+     * 最后一次保存到存储中的配置文件,内容相同时不再保存
+     */
+    private volatile String savedConfig;
+
+    /**
+     * 最后一次校验的配置文件,内容相同时不再校验
+     */
+    private volatile String validatedConfig;
+
+    /**
+     * 当前配置是否已经在后台读取完成,读取完成之前不保存配置文件也不读取tab内容
+     */
+    private volatile boolean profileLoaded;
+
+    /**
+     * 每次切换配置加1,只使用最后一次读取的结果
+     */
+    private volatile int profileGeneration;
+
+    /**
+     * 编辑器中显示的配置文件所属的配置名称
+     */
+    private volatile String loadedProfile;
+
+    private final List<RangeHighlighter> configHighlighters = new ArrayList<>();
+
+    private final JLabel configProblem = new JLabel();
+
     public CreateSelfCertificateView(Project project) {
         this.project = project;
         this.languageTextFields = new HashMap<>();
         this.state = ProjectState.getInstance(project).getState();
         this.init();
+        this.reloadProfile();
     }
 
     private void init() {
@@ -93,88 +180,71 @@ public class CreateSelfCertificateView extends JPanel implements Disposable {
             @Override
             public void mouseClicked(MouseEvent e) {
                 if (SwingUtilities.isLeftMouseButton(e)) {
-                    String ca = languageTextFields.get("ca").getText();
-                    String caKey = languageTextFields.get("ca-key").getText();
-                    String certificate = languageTextFields.get("certificate").getText();
-                    String certificateKey = languageTextFields.get("certificate-key").getText();
-                    if (StringUtils.isAnyBlank(ca, caKey, certificate, certificateKey)) {
-                        Messages.showErrorDialog("生成的证书不完整,无法导出,请检查你是否生成/导入了CA相关证书,通过CA生成了证书", "提示");
-                    } else {
-                        FileChooser.chooseSaveFile("证书导出", "certs.zip", project, virtualFile -> {
-                            ZipOutputStream zipOutputStream = new ZipOutputStream(new FileOutputStream(virtualFile.getPresentableUrl()));
-                            zipOutputStream.putNextEntry(new ZipEntry("ca.pem"));
-                            zipOutputStream.write(ca.getBytes(StandardCharsets.UTF_8));
-                            zipOutputStream.closeEntry();
-
-                            zipOutputStream.putNextEntry(new ZipEntry("ca-key.pem"));
-                            zipOutputStream.write(caKey.getBytes(StandardCharsets.UTF_8));
-                            zipOutputStream.closeEntry();
-
-                            zipOutputStream.putNextEntry(new ZipEntry("certificate.pem"));
-                            zipOutputStream.write(certificate.getBytes(StandardCharsets.UTF_8));
-                            zipOutputStream.closeEntry();
-
-                            zipOutputStream.putNextEntry(new ZipEntry("certificate-key.pem"));
-                            zipOutputStream.write(certificateKey.getBytes(StandardCharsets.UTF_8));
-                            zipOutputStream.closeEntry();
-                            zipOutputStream.close();
-                            NotifyUtils.notify("导出证书成功", project);
-                        }, "zip");
+                    JPanel formatPanel = new JPanel(new GridLayout(0, 1));
+                    Map<CertificateExporter.Format, JCheckBox> formatCheckBoxes = new EnumMap<>(CertificateExporter.Format.class);
+                    for (CertificateExporter.Format format : CertificateExporter.Format.values()) {
+                        JCheckBox checkBox = new JCheckBox(format.toString(), true);
+                        formatCheckBoxes.put(format, checkBox);
+                        formatPanel.add(checkBox);
+                    }
+                    Map<KeyStoreOptions.Type, JCheckBox> keyStoreCheckBoxes = new EnumMap<>(KeyStoreOptions.Type.class);
+                    for (KeyStoreOptions.Type type : new KeyStoreOptions.Type[]{KeyStoreOptions.Type.JKS, KeyStoreOptions.Type.PKCS12}) {
+                        JCheckBox checkBox = new JCheckBox(type.toString(), true);
+                        keyStoreCheckBoxes.put(type, checkBox);
+                        formatPanel.add(checkBox);
+                    }
+                    if (JOptionPane.showConfirmDialog(null, formatPanel, "选择导出格式", JOptionPane.OK_CANCEL_OPTION, JOptionPane.PLAIN_MESSAGE) != JOptionPane.OK_OPTION) {
+                        return;
+                    }
+                    Set<CertificateExporter.Format> formats = EnumSet.noneOf(CertificateExporter.Format.class);
+                    formatCheckBoxes.forEach((format, checkBox) -> {
+                        if (checkBox.isSelected()) {
+                            formats.add(format);
+                        }
+                    });
+                    List<KeyStoreOptions> keyStoreOptions = new ArrayList<>();
+                    keyStoreCheckBoxes.forEach((type, checkBox) -> {
+                        if (checkBox.isSelected()) {
+                            keyStoreOptions.add(new KeyStoreOptions().setType(type));
+                        }
+                    });
+                    if (formats.isEmpty() && keyStoreOptions.isEmpty()) {
+                        Messages.showErrorDialog("请至少选择一种导出格式", "提示");
+                        return;
                     }
+                    exportCertificates("证书导出", "certs.zip", formats, keyStoreOptions);
                 }
             }
         });
         jPanel.add(button);
-        JButton exportJksButton = new JButton("导出证书为jks");
+        JButton exportJksButton = new JButton("导出证书为keystore");
         exportJksButton.addMouseListener(new MouseAdapter() {
             @Override
             public void mouseClicked(MouseEvent e) {
                 if (SwingUtilities.isLeftMouseButton(e)) {
-                    if (SwingUtilities.isLeftMouseButton(e)) {
-                        String ca = languageTextFields.get("ca").getText();
-                        String caKey = languageTextFields.get("ca-key").getText();
-                        String certificate = languageTextFields.get("certificate").getText();
-                        String certificateKey = languageTextFields.get("certificate-key").getText();
-                        if (StringUtils.isAnyBlank(ca, caKey, certificate, certificateKey)) {
-                            Messages.showErrorDialog("生成的证书不完整,无法导出,请检查你是否生成/导入了CA相关证书,通过CA生成了证书", "提示");
-                        } else {
-                            FileChooser.chooseSaveFile("jks证书导出", "certs-jks.zip", project, virtualFile -> {
-                                String caKeyPassword = UUID.randomUUID().toString();
-                                String caStorePassword = UUID.randomUUID().toString();
-                                ZipOutputStream zipOutputStream = new ZipOutputStream(new FileOutputStream(virtualFile.getPresentableUrl()));
-                                zipOutputStream.putNextEntry(new ZipEntry("ca.jks"));
-                                Certificate certificateObj = PemUtils.readCertificate(ca);
-                                PrivateKey privateKey = PemUtils.readPrivateKey(caKey);
-                                KeyStore store = KeyStore.getInstance(KeyStore.getDefaultType());
-                                store.load(null, null);
-                                store.setKeyEntry("ca", privateKey, caKeyPassword.toCharArray(), new Certificate[]{certificateObj});
-                                ByteArrayOutputStream baos = new ByteArrayOutputStream();
-                                store.store(baos, caStorePassword.toCharArray());
-                                zipOutputStream.write(baos.toByteArray());
-                                zipOutputStream.closeEntry();
-
-                                String certificateKeyPassword = UUID.randomUUID().toString();
-                                String certificateStorePassword = UUID.randomUUID().toString();
-                                zipOutputStream.putNextEntry(new ZipEntry("certificate.jks"));
-                                certificateObj = PemUtils.readCertificate(certificate);
-                                privateKey = PemUtils.readPrivateKey(certificateKey);
-                                store = KeyStore.getInstance(KeyStore.getDefaultType());
-                                store.load(null, null);
-                                store.setKeyEntry("certificate", privateKey, certificateKeyPassword.toCharArray(), new Certificate[]{certificateObj});
-                                baos = new ByteArrayOutputStream();
-                                store.store(baos, certificateStorePassword.toCharArray());
-                                zipOutputStream.write(baos.toByteArray());
-                                zipOutputStream.closeEntry();
-
-                                zipOutputStream.putNextEntry(new ZipEntry("密码.txt"));
-                                String passwordText = String.format("ca.jks私钥密码: %s\nca.jks存储密码: %s\ncertificate.jks私钥密码: %s\ncertificate.jks存储密码: %s", caKeyPassword, caStorePassword, certificateKeyPassword, certificateStorePassword);
-                                zipOutputStream.write(passwordText.getBytes(StandardCharsets.UTF_8));
-                                zipOutputStream.closeEntry();
-                                zipOutputStream.close();
-                                NotifyUtils.notify("导出证书成功", project);
-                            }, "zip");
-                        }
+                    String ca = state.getCaPem();
+                    String caKey = state.getCaKeyPem();
+                    if (StringUtils.isAnyBlank(ca, caKey, state.getCertificatePem(), state.getCertificateKeyPem())) {
+                        Messages.showErrorDialog("生成的证书不完整,无法导出,请检查你是否生成/导入了CA相关证书,通过CA生成了证书", "提示");
+                        return;
+                    }
+                    KeyStore caStore;
+                    try {
+                        Certificate caCertificate = PemUtils.readCertificate(ca);
+                        PrivateKey caPrivateKey = PemUtils.readPrivateKey(caKey);
+                        caStore = KeyStore.getInstance(KeyStore.getDefaultType());
+                        caStore.load(null, null);
+                        caStore.setKeyEntry("ca", caPrivateKey, new char[0], new Certificate[]{caCertificate});
+                    } catch (Throwable err) {
+                        Messages.showErrorDialog(err.getMessage(), "读取CA证书错误");
+                        return;
                     }
+                    //用CA证书估算打开耗时
+                    KeyStoreOptions options = KeyStoreOptionsPanel.show(new KeyStoreOptions(), project, caStore, new char[0]);
+                    if (options == null) {
+                        return;
+                    }
+                    exportCertificates("keystore证书导出", "certs-" + options.getType().getExtension() + ".zip", EnumSet.noneOf(CertificateExporter.Format.class), List.of(options));
                 }
             }
         });
@@ -182,6 +252,77 @@ public class CreateSelfCertificateView extends JPanel implements Disposable {
         return jPanel;
     }
 
+    /**
+     * 在后台按选择的格式导出CA以及证书,所有格式由同一份解析结果生成,直接写入zip
+     *
+     * @param title           保存对话框标题
+     * @param filename        默认文件名
+     * @param formats         导出的文本以及DER格式
+     * @param keyStoreOptions 导出的keystore格式
+     */
+    private void exportCertificates(String title, String filename, Set<CertificateExporter.Format> formats, List<KeyStoreOptions> keyStoreOptions) {
+        String ca = state.getCaPem();
+        String caKey = state.getCaKeyPem();
+        String certificate = state.getCertificatePem();
+        String certificateKey = state.getCertificateKeyPem();
+        if (StringUtils.isAnyBlank(ca, caKey, certificate, certificateKey)) {
+            Messages.showErrorDialog("生成的证书不完整,无法导出,请检查你是否生成/导入了CA相关证书,通过CA生成了证书", "提示");
+            return;
+        }
+        FileChooser.chooseSaveFile(title, filename, project, virtualFile -> {
+            String path = virtualFile.getPresentableUrl();
+            ProgressManager.getInstance().run(new Task.Backgroundable(project, "导出证书", true) {
+
+                private List<String> names;
+
+                @Override
+                public void run(@NotNull ProgressIndicator indicator) {
+                    indicator.setIndeterminate(false);
+                    try (OutputStream outputStream = new BufferedOutputStream(new FileOutputStream(path))) {
+                        X509Certificate caCertificate = (X509Certificate) PemUtils.readCertificate(ca);
+                        PrivateKey caPrivateKey = PemUtils.readPrivateKey(caKey);
+                        X509Certificate x509Certificate = (X509Certificate) PemUtils.readCertificate(certificate);
+                        PrivateKey privateKey = PemUtils.readPrivateKey(certificateKey);
+                        if (caPrivateKey == null || privateKey == null) {
+                            throw new RuntimeException("不支持的私钥格式");
+                        }
+                        CertificateExporter exporter = new CertificateExporter()
+                                .setFormats(formats)
+                                .setCancelled(indicator::isCanceled)
+                                .setProgress((completed, total, name) -> {
+                                    indicator.setFraction((double) completed / total);
+                                    indicator.setText2(name);
+                                });
+                        keyStoreOptions.forEach(exporter::addKeyStore);
+                        this.names = exporter.export(caCertificate, caPrivateKey, x509Certificate, privateKey, outputStream);
+                    } catch (CancellationException e) {
+                        //取消时在onCancel中删除文件
+                    } catch (Throwable e) {
+                        throw new RuntimeException(e.getMessage(), e);
+                    }
+                }
+
+                @Override
+                public void onSuccess() {
+                    if (names != null) {
+                        NotifyUtils.notify(String.format("导出证书成功,共%d个文件", names.size()), project);
+                    }
+                }
+
+                @Override
+                public void onCancel() {
+                    FileUtil.delete(new File(path));
+                }
+
+                @Override
+                public void onThrowable(@NotNull Throwable error) {
+                    FileUtil.delete(new File(path));
+                    Messages.showErrorDialog(error.getMessage(), "导出证书出错");
+                }
+            });
+        }, "zip");
+    }
+
     private JPanel createMainPan() {
         JBSplitter splitter = new JBSplitter(false);
         splitter.setFirstComponent(createLeftPanel());
@@ -191,34 +332,75 @@ public class CreateSelfCertificateView extends JPanel implements Disposable {
 
     private JComponent createRightPanel() {
         JBTabbedPane tabbedPane = new JBTabbedPane();
-        tabbedPane.addTab("ca.pem", createTextFieldPanel("ca", state.getCaPem(), editorEx -> {
+        tabbedPane.addTab("ca.pem", createTextFieldPanel("ca", state::getCaPem, editorEx -> {
             editorEx.installPopupHandler(new DefaultContextMenuPopupHandler(
                     new ShowDetailAction(state::getCaPem, project),
                     new ExportCertificateAction(0, "ca", state::getCaPem, project)
             ));
         }));
-        tabbedPane.addTab("ca.key", createTextFieldPanel("ca-key", state.getCaKeyPem(), editorEx -> {
+        tabbedPane.addTab("ca.key", createTextFieldPanel("ca-key", state::getCaKeyPem, editorEx -> {
             editorEx.installPopupHandler(new DefaultContextMenuPopupHandler(
                     new ExportCertificateAction(1, "ca-key", state::getCaKeyPem, project)
             ));
         }));
-        tabbedPane.addTab("certificate.pem", createTextFieldPanel("certificate", state.getCertificatePem(), editorEx -> {
+        tabbedPane.addTab("certificate.pem", createTextFieldPanel("certificate", state::getCertificatePem, editorEx -> {
             editorEx.installPopupHandler(new DefaultContextMenuPopupHandler(
                     new ShowDetailAction(state::getCertificatePem, project),
                     new ExportCertificateAction(0, "certificate", state::getCertificatePem, project)
             ));
         }));
-        tabbedPane.addTab("certificate.key", createTextFieldPanel("certificate-key", state.getCertificateKeyPem(), editorEx -> {
+        tabbedPane.addTab("certificate.key", createTextFieldPanel("certificate-key", state::getCertificateKeyPem, editorEx -> {
             editorEx.installPopupHandler(new DefaultContextMenuPopupHandler(
                     new ExportCertificateAction(1, "certificate-key", state::getCertificateKeyPem, project)
             ));
         }));
+        tabbedPane.addChangeListener(e -> loadTab(tabNames.get(tabbedPane.getSelectedIndex())));
+        this.tabbedPane = tabbedPane;
         return tabbedPane;
     }
 
+    /**
+     * tab第一次显示时才在后台从存储中读取内容,第一次读取需要解密文件
+     *
+     * @param name tab名称
+     */
+    private void loadTab(String name) {
+        if (!profileLoaded || !loadedTabs.add(name)) {
+            return;
+        }
+        int generation = profileGeneration;
+        loadingTabs.add(name);
+        ProgressManager.getInstance().run(new Task.Backgroundable(project, "读取" + name, false) {
+
+            private String content;
+
+            @Override
+            public void run(@NotNull ProgressIndicator indicator) {
+                content = tabContents.get(name).get();
+            }
+
+            @Override
+            public void onFinished() {
+                //读取期间切换了配置或者已经生成了新的内容时丢弃
+                if (generation == profileGeneration && loadingTabs.remove(name)) {
+                    languageTextFields.get(name).setText(Optional.ofNullable(content).orElse(""));
+                }
+            }
+        });
+    }
+
+    /**
+     * 设置tab内容,之后显示时不再从存储中读取
+     */
+    private void setTab(String name, String text) {
+        loadedTabs.add(name);
+        loadingTabs.remove(name);
+        languageTextFields.get(name).setText(text);
+    }
+
 
-    private JComponent createTextFieldPanel(String name, String initText, Consumer<EditorEx> editorExConsumer) {
-        LanguageTextField languageTextField = new LanguageTextField(PlainTextLanguage.INSTANCE, project, Optional.ofNullable(initText).orElse(""), false) {
+    private JComponent createTextFieldPanel(String name, Supplier<String> content, Consumer<EditorEx> editorExConsumer) {
+        LanguageTextField languageTextField = new LanguageTextField(PlainTextLanguage.INSTANCE, project, "", false) {
             @Override
             protected @NotNull EditorEx createEditor() {
                 EditorEx editor = super.createEditor();
@@ -242,6 +424,8 @@ public class CreateSelfCertificateView extends JPanel implements Disposable {
         });
         languageTextField.setEnabled(false);
         languageTextFields.put(name, languageTextField);
+        tabNames.add(name);
+        tabContents.put(name, content);
         return new JBScrollPane(languageTextField);
     }
 
@@ -255,6 +439,8 @@ public class CreateSelfCertificateView extends JPanel implements Disposable {
         actionGroup.add(createGenCaAction());
         actionGroup.add(createImportCaAction());
         actionGroup.add(genCertificateAction());
+        actionGroup.add(genBatchCertificateAction());
+        actionGroup.add(createProfileAction());
         ActionToolbar actionToolbar = ActionManager.getInstance().createActionToolbar("SelfSignCertificate", actionGroup, false);
         actionToolbar.setTargetComponent(simpleToolWindowPanel);
         simpleToolWindowPanel.setToolbar(actionToolbar.getComponent());
@@ -266,7 +452,7 @@ public class CreateSelfCertificateView extends JPanel implements Disposable {
         if(yamlLanguage == null){
             yamlLanguage = PlainTextLanguage.INSTANCE;
         }
-        LanguageTextField languageTextField = new LanguageTextField(yamlLanguage, project, Optional.ofNullable(state.getConfigYaml()).orElse(""), false) {
+        LanguageTextField languageTextField = new LanguageTextField(yamlLanguage, project, "", false) {
             @Override
             protected @NotNull EditorEx createEditor() {
                 EditorEx editor = (EditorEx) EditorFactory.getInstance().createEditor(getDocument());
@@ -291,14 +477,109 @@ public class CreateSelfCertificateView extends JPanel implements Disposable {
         languageTextField.getDocument().addDocumentListener(new DocumentListener() {
             @Override
             public void documentChanged(@NotNull DocumentEvent event) {
-                state.setConfigYaml(languageTextField.getDocument().getText());
+                configAlarm.cancelAllRequests();
+                configAlarm.addRequest(() -> updateConfig(event.getDocument()), CONFIG_DELAY_MILLIS);
             }
         });
         languageTextFields.put("config", languageTextField);
-        simpleToolWindowPanel.setContent(new JBScrollPane(languageTextField));
+        configProblem.setForeground(JBColor.RED);
+        configProblem.setVisible(false);
+        JPanel configPanel = new JPanel(new BorderLayout());
+        configPanel.add(new JBScrollPane(languageTextField), BorderLayout.CENTER);
+        configPanel.add(configProblem, BorderLayout.SOUTH);
+        simpleToolWindowPanel.setContent(configPanel);
         return simpleToolWindowPanel;
     }
 
+    /**
+     * 在后台线程中保存以及校验配置文件,校验结果在EDT中标记到编辑器中
+     *
+     * @param document 配置文件
+     */
+    private void updateConfig(Document document) {
+        //读取完成时先设置loadedProfile再设置profileLoaded,按相反的顺序读取
+        int generation = profileGeneration;
+        if (!profileLoaded) {
+            return;
+        }
+        String profile = loadedProfile;
+        long stamp = document.getModificationStamp();
+        String text = ReadAction.compute(document::getText);
+        //读取期间切换了配置时编辑器中已经是新配置的内容,不能写入原来的配置
+        if (generation != profileGeneration) {
+            return;
+        }
+        if (!text.equals(savedConfig)) {
+            savedConfig = text;
+            state.setConfigYaml(profile, text);
+        }
+        if (text.equals(validatedConfig)) {
+            return;
+        }
+        //yaml只解析一次,没有问题时缓存解析结果,生成证书时不再解析
+        List<SelfSignConfigValidator.Problem> problems = SelfSignConfigParser.check(text).getProblems();
+        ApplicationManager.getApplication().invokeLater(() -> {
+            //校验期间又有新的编辑时,等待下一次校验的结果
+            if (document.getModificationStamp() == stamp) {
+                validatedConfig = text;
+                showConfigProblems(document, problems);
+            }
+        }, ModalityState.any());
+    }
+
+    /**
+     * 在出错的行下方显示波浪线,鼠标悬停在右侧的错误标记上显示错误信息,编辑器下方显示第一个错误
+     */
+    private void showConfigProblems(Document document, List<SelfSignConfigValidator.Problem> problems) {
+        Editor editor = languageTextFields.get("config").getEditor();
+        if (editor != null) {
+            MarkupModel markupModel = editor.getMarkupModel();
+            configHighlighters.forEach(markupModel::removeHighlighter);
+            configHighlighters.clear();
+            TextAttributes attributes = new TextAttributes();
+            attributes.setEffectType(EffectType.WAVE_UNDERSCORE);
+            attributes.setEffectColor(JBColor.RED);
+            attributes.setErrorStripeColor(JBColor.RED);
+            for (SelfSignConfigValidator.Problem problem : problems) {
+                if (document.getLineCount() == 0) {
+                    break;
+                }
+                int line = Math.min(problem.getLine(), document.getLineCount() - 1);
+                int start = Math.min(document.getLineStartOffset(line) + problem.getColumn(), document.getLineEndOffset(line));
+                int end = document.getLineEndOffset(line);
+                if (start == end && start > document.getLineStartOffset(line)) {
+                    start = document.getLineStartOffset(line);
+                }
+                RangeHighlighter highlighter = markupModel.addRangeHighlighter(start, end, HighlighterLayer.ERROR, attributes, HighlighterTargetArea.EXACT_RANGE);
+                highlighter.setErrorStripeTooltip(problem.getMessage());
+                configHighlighters.add(highlighter);
+            }
+        }
+        if (problems.isEmpty()) {
+            configProblem.setVisible(false);
+            configProblem.setToolTipText(null);
+        } else {
+            configProblem.setText(problems.size() == 1 ? problems.get(0).toString() : String.format("%s (共%d个错误)", problems.get(0), problems.size()));
+            configProblem.setToolTipText(problems.stream().map(SelfSignConfigValidator.Problem::toString).collect(Collectors.joining("<br/>", "<html>", "</html>")));
+            configProblem.setVisible(true);
+        }
+    }
+
+    /**
+     * 立即保存还没有保存的配置文件
+     */
+    private void flushConfig() {
+        configAlarm.cancelAllRequests();
+        if (!profileLoaded) {
+            return;
+        }
+        String text = languageTextFields.get("config").getText();
+        if (!text.equals(savedConfig)) {
+            savedConfig = text;
+            state.setConfigYaml(loadedProfile, text);
+        }
+    }
+
     /**
      * 生成证书
      *
@@ -308,8 +589,8 @@ public class CreateSelfCertificateView extends JPanel implements Disposable {
         return new AnAction(() -> "根据CA生成https证书", Icons.CERTIFICATE) {
             @Override
             public void actionPerformed(@NotNull AnActionEvent event) {
-                String caPem = languageTextFields.get("ca").getText();
-                String caKeyPem = languageTextFields.get("ca-key").getText();
+                String caPem = state.getCaPem();
+                String caKeyPem = state.getCaKeyPem();
                 if (StringUtils.isBlank(caPem) || StringUtils.isBlank(caKeyPem)) {
                     Messages.showErrorDialog("请先生成或导入CA,CA-key证书", "提示");
                 } else {
@@ -324,8 +605,8 @@ public class CreateSelfCertificateView extends JPanel implements Disposable {
                             String certificateKeyPem = PemUtils.toString(entity.getCertificateKey());
                             state.setCertificatePem(certificatePem);
                             state.setCertificateKeyPem(certificateKeyPem);
-                            languageTextFields.get("certificate").setText(certificatePem);
-                            languageTextFields.get("certificate-key").setText(certificateKeyPem);
+                            setTab("certificate", certificatePem);
+                            setTab("certificate-key", certificateKeyPem);
                             NotifyUtils.notify("证书生成成功,可通过点击右侧的certificate,certificate-key查看生成的证书内容", project);
                         } catch (Throwable e) {
                             Messages.showErrorDialog(e.getMessage(), "证书生成出错");
@@ -337,19 +618,108 @@ public class CreateSelfCertificateView extends JPanel implements Disposable {
         };
     }
 
+    /**
+     * 根据CA批量生成证书,证书列表取自配置中的certificates
+     *
+     * @return
+     */
+    private AnAction genBatchCertificateAction() {
+        return new AnAction(() -> "根据CA批量生成证书", Icons.CERTIFICATE_CHAIN) {
+            @Override
+            public void actionPerformed(@NotNull AnActionEvent event) {
+                String caPem = state.getCaPem();
+                String caKeyPem = state.getCaKeyPem();
+                if (StringUtils.isBlank(caPem) || StringUtils.isBlank(caKeyPem)) {
+                    Messages.showErrorDialog("请先生成或导入CA,CA-key证书", "提示");
+                    return;
+                }
+                LanguageTextField languageTextField = languageTextFields.get("config");
+                if (languageTextField.getText().isBlank()) {
+                    Messages.showErrorDialog("请添加ca配置,可点击导入模板配置按钮生成配置模板", "提示");
+                    return;
+                }
+                SelfSignConfig selfSignConfig;
+                List<SelfSignConfig.Certificate> certificates;
+                try {
+                    selfSignConfig = parseConfig(languageTextField.getText());
+                    certificates = selfSignConfig.resolveCertificates();
+                } catch (Throwable e) {
+                    Messages.showErrorDialog(e.getMessage(), "配置解析出错");
+                    return;
+                }
+                if (certificates.isEmpty()) {
+                    Messages.showErrorDialog("请在配置中添加certificates批量证书列表,可点击导入模板配置按钮查看示例", "提示");
+                    return;
+                }
+                FileChooser.chooseSaveFile("批量证书导出", "batch-certs.zip", project, virtualFile -> {
+                    String path = virtualFile.getPresentableUrl();
+                    ProgressManager.getInstance().run(new Task.Backgroundable(project, "批量生成证书", true) {
+                        @Override
+                        public void run(@NotNull ProgressIndicator indicator) {
+                            indicator.setIndeterminate(false);
+                            List<String> names = SelfSignCertificateHelper.entryNames(certificates);
+                            AtomicInteger completed = new AtomicInteger();
+                            try (ZipOutputStream zipOutputStream = new ZipOutputStream(new FileOutputStream(path))) {
+                                X509Certificate caCertificate = (X509Certificate) PemUtils.readCertificate(caPem);
+                                PrivateKey caPrivateKey = PemUtils.readPrivateKey(caKeyPem);
+                                if (caPrivateKey == null) {
+                                    throw new RuntimeException("不支持的CA私钥格式");
+                                }
+                                writeZipEntry(zipOutputStream, "ca.pem", caPem);
+                                SelfSignCertificateHelper.genSelfCertificatesFromCa(selfSignConfig, certificates, caCertificate, caPrivateKey, (index, entity) -> {
+                                    indicator.checkCanceled();
+                                    String name = names.get(index);
+                                    writeZipEntry(zipOutputStream, name + "/certificate.pem", PemUtils.toString(entity.getCertificate()));
+                                    writeZipEntry(zipOutputStream, name + "/certificate-key.pem", PemUtils.toString(entity.getCertificateKey()));
+                                    int count = completed.incrementAndGet();
+                                    indicator.setFraction((double) count / certificates.size());
+                                    indicator.setText2(String.format("%d/%d %s", count, certificates.size(), name));
+                                });
+                            } catch (ProcessCanceledException e) {
+                                throw e;
+                            } catch (Throwable e) {
+                                throw new RuntimeException(e.getMessage(), e);
+                            }
+                        }
+
+                        @Override
+                        public void onSuccess() {
+                            NotifyUtils.notify(String.format("批量生成证书成功,共%d个证书,%s", certificates.size(), KeyPairPool.getInstance().getStatistics()), project);
+                        }
+
+                        @Override
+                        public void onCancel() {
+                            FileUtil.delete(new File(path));
+                        }
+
+                        @Override
+                        public void onThrowable(@NotNull Throwable error) {
+                            FileUtil.delete(new File(path));
+                            Messages.showErrorDialog(error.getMessage(), "批量生成证书出错");
+                        }
+                    });
+                }, "zip");
+            }
+        };
+    }
+
+    private static void writeZipEntry(ZipOutputStream zipOutputStream, String name, String content) throws IOException {
+        zipOutputStream.putNextEntry(new ZipEntry(name));
+        zipOutputStream.write(content.getBytes(StandardCharsets.UTF_8));
+        zipOutputStream.closeEntry();
+    }
+
     private AnAction createImportCaAction() {
         return new AnAction(() -> "导入CA,CA-Key证书", Icons.IMPORT2) {
             @Override
             public void actionPerformed(@NotNull AnActionEvent event) {
-                LanguageTextField ca = languageTextFields.get("ca");
-                LanguageTextField caKey = languageTextFields.get("ca-key");
                 FileChooser.chooseSingleFile("请选择ca证书", project).ifPresent(virtualFile -> {
                     try {
                         CertificateFactory certificateFactory = CertificateFactory.getInstance("X.509");
                         try (InputStream in = new FileInputStream(virtualFile.getPresentableUrl())) {
                             Certificate certificate = certificateFactory.generateCertificate(in);
                             String caPem = PemUtils.toString(certificate);
-                            ca.setText(caPem);
+                            setTab("ca", caPem);
                             state.setCaPem(caPem);
                             FileChooser.chooseSingleFile("请选择ca-key证书", project).ifPresent(caKeyFile -> {
                                 String extension = caKeyFile.getExtension();
@@ -357,7 +727,7 @@ public class CreateSelfCertificateView extends JPanel implements Disposable {
                                     String caKeyPem = "";
                                     if ("pem".equalsIgnoreCase(extension)) {
                                         caKeyPem = Files.readString(caKeyFile.toNioPath());
-                                        caKey.setText(caKeyPem);
+                                        setTab("ca-key", caKeyPem);
                                     } else {
                                         byte[] privateKeyPemContent = Files.readAllBytes(caKeyFile.toNioPath());
                                         String algorithm = certificate.getPublicKey().getAlgorithm();
@@ -369,13 +739,13 @@ public class CreateSelfCertificateView extends JPanel implements Disposable {
                                             if (o instanceof PEMKeyPair) {
                                                 privateKey = keyFactory.generatePrivate(new PKCS8EncodedKeySpec(((PEMKeyPair) o).getPrivateKeyInfo().getEncoded()));
                                                 caKeyPem = PemUtils.toString(privateKey);
-                                                caKey.setText(caKeyPem);
+                                                setTab("ca-key", caKeyPem);
                                             }
                                         } catch (Throwable e) {
                                             KeyFactory keyFactory = KeyFactory.getInstance(algorithm, "BC");
                                             PrivateKey privateKey = keyFactory.generatePrivate(new PKCS8EncodedKeySpec(privateKeyPemContent));
                                             caKeyPem = PemUtils.toString(privateKey);
-                                            caKey.setText(caKeyPem);
+                                            setTab("ca-key", caKeyPem);
                                         }
                                     }
                                     state.setCaKeyPem(caKeyPem);
@@ -394,6 +764,88 @@ public class CreateSelfCertificateView extends JPanel implements Disposable {
         };
     }
 
+    /**
+     * 切换,新建或者删除CA配置,每个配置单独保存CA,证书以及配置文件
+     *
+     * @return
+     */
+    private AnAction createProfileAction() {
+        return new AnAction(() -> "切换CA配置", Icons.PROFILE) {
+            @Override
+            public void actionPerformed(@NotNull AnActionEvent event) {
+                JComboBox<String> comboBox = new JComboBox<>(state.getProfiles().toArray(new String[0]));
+                comboBox.setEditable(true);
+                comboBox.setSelectedItem(state.getProfile());
+                String[] options = {"切换", "删除", "取消"};
+                int result = JOptionPane.showOptionDialog(null, comboBox, "CA配置,输入新的名称创建配置", JOptionPane.DEFAULT_OPTION, JOptionPane.PLAIN_MESSAGE, null, options, options[0]);
+                String profile = StringUtils.trimToEmpty(String.valueOf(comboBox.getEditor().getItem()));
+                if (profile.isEmpty() || result < 0 || result > 1) {
+                    return;
+                }
+                flushConfig();
+                if (result == 0) {
+                    state.setProfile(profile);
+                    reloadProfile();
+                    NotifyUtils.notify("已切换到CA配置: " + profile, project);
+                    return;
+                }
+                if (JOptionPane.showConfirmDialog(null, String.format("确定删除CA配置 %s 以及其中的CA,证书和配置文件吗?", profile), "警告", JOptionPane.OK_CANCEL_OPTION) != JOptionPane.OK_OPTION) {
+                    return;
+                }
+                try {
+                    state.deleteProfile(profile);
+                    reloadProfile();
+                    NotifyUtils.notify(String.format("已删除CA配置: %s,当前配置: %s", profile, state.getProfile()), project);
+                } catch (Throwable e) {
+                    Messages.showErrorDialog(e.getMessage(), "删除CA配置失败");
+                }
+            }
+        };
+    }
+
+    /**
+     * 切换配置后在后台只读取配置文件,第一次读取需要获取密钥以及解密文件
+     * 读取完成后显示配置文件,tab在显示时才在后台读取
+     */
+    private void reloadProfile() {
+        int generation = ++profileGeneration;
+        profileLoaded = false;
+        String profile = state.getProfile();
+        languageTextFields.get("config").setText("");
+        loadedTabs.clear();
+        loadingTabs.clear();
+        for (String name : tabNames) {
+            languageTextFields.get(name).setText("");
+        }
+        ProgressManager.getInstance().run(new Task.Backgroundable(project, "读取CA配置", false) {
+
+            private String content;
+
+            @Override
+            public void run(@NotNull ProgressIndicator indicator) {
+                content = state.getConfigYaml();
+            }
+
+            @Override
+            public void onFinished() {
+                //读取期间又切换了配置时只使用最后一次读取的结果
+                if (generation != profileGeneration) {
+                    return;
+                }
+                String configYaml = Optional.ofNullable(content).orElse("");
+                savedConfig = configYaml;
+                loadedProfile = profile;
+                profileLoaded = true;
+                LanguageTextField languageTextField = languageTextFields.get("config");
+                languageTextField.setText(configYaml);
+                //校验已有配置
+                configAlarm.cancelAllRequests();
+                configAlarm.addRequest(() -> updateConfig(languageTextField.getDocument()), 0);
+                loadTab(tabNames.get(tabbedPane.getSelectedIndex()));
+            }
+        });
+    }
+
     private AnAction createTemplateAction() {
         this.template = "";
         try (InputStream in = CreateSelfCertificateView.class.getClassLoader().getResourceAsStream("template/SelfSignCertificateTemplate.yaml")) {
@@ -418,10 +870,7 @@ public class CreateSelfCertificateView extends JPanel implements Disposable {
     }
 
     public SelfSignConfig parseConfig(String text) {
-        Yaml yaml = new Yaml();
-        Object object = yaml.load(text);
-        Gson gson = new Gson();
-        return gson.fromJson(gson.toJson(object), SelfSignConfig.class);
+        return SelfSignConfigParser.parse(text);
     }
 
     private AnAction createGenCaAction() {
@@ -439,8 +888,8 @@ public class CreateSelfCertificateView extends JPanel implements Disposable {
                         String caPem = PemUtils.toString(entity.getCa());
                         String caKeyPem = PemUtils.toString(entity.getCaKey());
                         state.setCaPem(caPem).setCaKeyPem(caKeyPem);
-                        languageTextFields.get("ca").setText(caPem);
-                        languageTextFields.get("ca-key").setText(caKeyPem);
+                        setTab("ca", caPem);
+                        setTab("ca-key", caKeyPem);
                         NotifyUtils.notify("CA证书生成成功,可在右侧tab栏中点击ca.pem,ca-key.pem查看", project);
                     } catch (Throwable e) {
                         Messages.showErrorDialog(e.getMessage(), "CA证书生成失败");
@@ -453,6 +902,8 @@ public class CreateSelfCertificateView extends JPanel implements Disposable {
 
     @Override
     public void dispose() {
+        flushConfig();
+        configAlarm.dispose();
         disposableList.forEach(Disposable::dispose);
         disposableList.clear();
     }
@@ -34,4 +34,14 @@ public interface Icons {
     Icon SHOW = IconLoader.findIcon("icons/show.svg", Icons.class);
 
     Icon CERTIFICATE_CHAIN = IconLoader.findIcon("icons/certificate_chain.svg", Icons.class);
+
+    Icon VALIDATE = IconLoader.findIcon("icons/validate.svg", Icons.class);
+
+    Icon DIFF = IconLoader.findIcon("icons/diff.svg", Icons.class);
+
+    Icon MERGE = IconLoader.findIcon("icons/merge.svg", Icons.class);
+
+    Icon SCAN = IconLoader.findIcon("icons/scan.svg", Icons.class);
+
+    Icon PROFILE = IconLoader.findIcon("icons/profile.svg", Icons.class);
 }
@@ -0,0 +1,220 @@
+package com.lhstack;
+
+import com.intellij.util.ui.ColumnInfo;
+import com.lhstack.index.ItemIndex;
+import com.intellij.util.ui.ListTableModel;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.*;
+
+/**
+ * 证书表格模型
+ * 条目按名称排序,通过名称二分查找定位行,增删改只触发受影响行的事件,未变化的行保留原有的Item
+ * 注册的索引随行数据同步更新
+ */
+public class ItemTableModel extends ListTableModel<Item> {
+
+    private static final Comparator<Item> NAME_ORDER = Comparator.comparing(Item::getName);
+
+    /**
+     * 批量更新的条目数超过该值时,合并后整体刷新,否则逐条触发行事件
+     */
+    private static final int BULK_THRESHOLD = 64;
+
+    /**
+     * 与父类共享的行数据,始终按名称排序
+     */
+    private final List<Item> rows = new ArrayList<>();
+
+    private final List<ItemIndex> indexes = new ArrayList<>();
+
+    public ItemTableModel(ColumnInfo<?, ?>... columnInfos) {
+        super(columnInfos);
+        super.setItems(rows);
+    }
+
+    /**
+     * 注册索引,已有的行会立即加入索引
+     *
+     * @param index 索引
+     */
+    public void addIndex(ItemIndex index) {
+        rows.forEach(index::add);
+        indexes.add(index);
+    }
+
+    @Override
+    public void setItems(@NotNull List<Item> items) {
+        if (items != rows) {
+            rows.clear();
+            rows.addAll(items);
+            rows.sort(NAME_ORDER);
+        }
+        reindex();
+        super.setItems(rows);
+    }
+
+    @Override
+    public void addRow(Item item) {
+        upsert(item);
+    }
+
+    @Override
+    public void addRows(@NotNull Collection<? extends Item> items) {
+        if (items.isEmpty()) {
+            return;
+        }
+        List<Item> sorted = new ArrayList<>(items);
+        sorted.sort(NAME_ORDER);
+        //按顺序追加到末尾时直接触发插入事件,加载证书时分批追加走该分支
+        if (rows.isEmpty() || NAME_ORDER.compare(sorted.get(0), rows.get(rows.size() - 1)) > 0) {
+            int first = rows.size();
+            rows.addAll(sorted);
+            for (ItemIndex index : indexes) {
+                sorted.forEach(index::add);
+            }
+            fireTableRowsInserted(first, rows.size() - 1);
+        } else {
+            upsertAll(sorted);
+        }
+    }
+
+    /**
+     * 二分查找条目所在的行
+     *
+     * @param name 条目名称
+     * @return 存在时返回行号,不存在时返回 -(插入位置) - 1
+     */
+    public int indexOf(String name) {
+        int low = 0;
+        int high = rows.size() - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int compare = rows.get(mid).getName().compareTo(name);
+            if (compare < 0) {
+                low = mid + 1;
+            } else if (compare > 0) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -(low + 1);
+    }
+
+    public Item getItem(String name) {
+        int index = indexOf(name);
+        return index >= 0 ? rows.get(index) : null;
+    }
+
+    /**
+     * 新增或者替换条目
+     *
+     * @param item 条目
+     */
+    public void upsert(Item item) {
+        int index = indexOf(item.getName());
+        if (index >= 0) {
+            Item previous = rows.set(index, item);
+            indexes.forEach(itemIndex -> itemIndex.replace(previous, item));
+            fireTableRowsUpdated(index, index);
+        } else {
+            int insertion = -index - 1;
+            rows.add(insertion, item);
+            indexes.forEach(itemIndex -> itemIndex.add(item));
+            fireTableRowsInserted(insertion, insertion);
+        }
+    }
+
+    /**
+     * 批量新增或者替换条目,数量较多时合并后只触发一次整体刷新,索引只更新变化的条目
+     *
+     * @param items 条目
+     */
+    public void upsertAll(Collection<? extends Item> items) {
+        if (items.size() <= BULK_THRESHOLD) {
+            items.forEach(this::upsert);
+            return;
+        }
+        Map<String, Item> merged = new HashMap<>(rows.size() + items.size());
+        for (Item row : rows) {
+            merged.put(row.getName(), row);
+        }
+        for (Item item : items) {
+            Item previous = merged.put(item.getName(), item);
+            indexes.forEach(itemIndex -> itemIndex.replace(previous, item));
+        }
+        rows.clear();
+        rows.addAll(merged.values());
+        rows.sort(NAME_ORDER);
+        fireTableDataChanged();
+    }
+
+    /**
+     * 条目的显示内容变化时(例如校验结果),只刷新仍在表格中的行
+     * 一批条目只触发一次行事件,范围为第一行到最后一行
+     *
+     * @param items 条目
+     */
+    public void refresh(Collection<Item> items) {
+        int first = Integer.MAX_VALUE;
+        int last = -1;
+        for (Item item : items) {
+            int index = indexOf(item.getName());
+            if (index >= 0 && rows.get(index) == item) {
+                first = Math.min(first, index);
+                last = Math.max(last, index);
+            }
+        }
+        if (last >= 0) {
+            fireTableRowsUpdated(first, last);
+        }
+    }
+
+    /**
+     * 删除条目
+     *
+     * @param name 条目名称
+     */
+    public void remove(String name) {
+        int index = indexOf(name);
+        if (index >= 0) {
+            Item item = rows.remove(index);
+            indexes.forEach(itemIndex -> itemIndex.remove(item));
+            fireTableRowsDeleted(index, index);
+        }
+    }
+
+    /**
+     * 批量删除条目,连续的行合并为一个删除事件
+     *
+     * @param names 条目名称
+     */
+    public void removeAll(Collection<String> names) {
+        int[] indexes = names.stream().mapToInt(this::indexOf).filter(index -> index >= 0).distinct().sorted().toArray();
+        int end = indexes.length - 1;
+        while (end >= 0) {
+            int start = end;
+            while (start > 0 && indexes[start - 1] == indexes[start] - 1) {
+                start--;
+            }
+            List<Item> removed = rows.subList(indexes[start], indexes[end] + 1);
+            for (ItemIndex index : this.indexes) {
+                removed.forEach(index::remove);
+            }
+            removed.clear();
+            fireTableRowsDeleted(indexes[start], indexes[end]);
+            end = start - 1;
+        }
+    }
+
+    /**
+     * 整体重建索引
+     */
+    private void reindex() {
+        for (ItemIndex index : indexes) {
+            index.clear();
+            rows.forEach(index::add);
+        }
+    }
+}
@@ -6,7 +6,10 @@ import com.intellij.openapi.util.IconLoader;
 import com.intellij.ui.components.JBScrollPane;
 import com.intellij.ui.components.JBTabbedPane;
 import com.intellij.ui.components.JBTextArea;
+import com.lhstack.selfsign.KeyPairPool;
 import com.lhstack.tools.plugins.IPlugin;
+import com.lhstack.utils.CryptoContext;
+import com.lhstack.utils.ParseCache;
 
 import javax.swing.*;
 import java.awt.*;
@@ -35,6 +38,9 @@ public class PluginImpl implements IPlugin {
     public void unInstall() {
         disposables.values().forEach(Disposable::dispose);
         disposables.clear();
+        KeyPairPool.getInstance().shutdown();
+        ParseCache.getInstance().clear();
+        CryptoContext.clear();
     }
 
     @Override
@@ -46,10 +52,15 @@ public class PluginImpl implements IPlugin {
         try {
             JBTabbedPane tabbedPane = new JBTabbedPane();
             CreateSelfCertificateView createSelfCertificateView = new CreateSelfCertificateView(project);
-            disposables.put(project.getLocationHash(),createSelfCertificateView);
-            tabbedPane.addTab("jks证书管理", new CertificateManagerView(project));
+            CertificateManagerView certificateManagerView = new CertificateManagerView(project);
+            disposables.put(project.getLocationHash(), () -> {
+                certificateManagerView.dispose();
+                createSelfCertificateView.dispose();
+            });
+            tabbedPane.addTab("jks证书管理", certificateManagerView);
             tabbedPane.addTab("创建自签证书", createSelfCertificateView);
             tabbedPane.addTab("Acme客户端", new AcmeClientView(project));
+            tabbedPane.addTab("证书清单", new CertificateInventoryView(project));
             JPanel panel = new JPanel(new BorderLayout());
             panel.add(tabbedPane, BorderLayout.CENTER);
             return panel;
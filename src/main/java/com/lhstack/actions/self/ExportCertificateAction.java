@@ -11,13 +11,11 @@ import com.lhstack.utils.PemUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.jetbrains.annotations.NotNull;
 
-import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.security.PrivateKey;
 import java.security.cert.Certificate;
-import java.security.cert.CertificateFactory;
 import java.security.spec.PKCS8EncodedKeySpec;
 import java.util.Objects;
 import java.util.Optional;
@@ -54,7 +52,7 @@ public class ExportCertificateAction extends AnAction {
                     Files.write(virtualFile.toNioPath(), text.getBytes(StandardCharsets.UTF_8));
                     break;
                 case "crt":
-                    Certificate certificate = CertificateFactory.getInstance("X.509").generateCertificate(new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8)));
+                    Certificate certificate = PemUtils.readCertificate(text);
                     Files.write(virtualFile.toNioPath(), certificate.getEncoded());
                     break;
                 case "key":
@@ -3,15 +3,15 @@ package com.lhstack.actions.self;
 import com.intellij.openapi.actionSystem.AnAction;
 import com.intellij.openapi.actionSystem.AnActionEvent;
 import com.intellij.openapi.project.Project;
+import com.lhstack.CertificateSummary;
 import com.lhstack.Icons;
 import com.lhstack.components.TextFieldDialog;
 import com.lhstack.utils.NotifyUtils;
+import com.lhstack.utils.ParseCache;
+import com.lhstack.utils.PemUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.jetbrains.annotations.NotNull;
 
-import java.io.ByteArrayInputStream;
-import java.nio.charset.StandardCharsets;
-import java.security.cert.CertificateFactory;
 import java.security.cert.X509Certificate;
 import java.util.function.Supplier;
 
@@ -34,8 +34,9 @@ public class ShowDetailAction extends AnAction {
                 NotifyUtils.notify("证书内容是空的,请先生成或者导入证书",project);
                 return ;
             }
-            X509Certificate certificate = (X509Certificate) CertificateFactory.getInstance("X.509").generateCertificate(new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8)));
-            new TextFieldDialog(certificate.getSubjectX500Principal().getName(),certificate.toString(),project).setVisible(true);
+            X509Certificate certificate = (X509Certificate) PemUtils.readCertificate(text);
+            CertificateSummary summary = ParseCache.getInstance().summary(certificate);
+            new TextFieldDialog(summary.getSubject(), summary.getDetail(), project).setVisible(true);
         } catch (Throwable e) {
             new TextFieldDialog("查看证书详情出错", e.getMessage(),project).setVisible(true);
         }
@@ -0,0 +1,88 @@
+package com.lhstack.actions.table;
+
+import com.intellij.openapi.actionSystem.AnAction;
+import com.intellij.openapi.actionSystem.AnActionEvent;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.ui.Messages;
+import com.intellij.ui.table.TableView;
+import com.lhstack.Icons;
+import com.lhstack.Item;
+import com.lhstack.index.ChainIndex;
+import com.lhstack.utils.NotifyUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.jetbrains.annotations.NotNull;
+
+import javax.swing.*;
+import java.security.Key;
+import java.security.KeyStore;
+import java.security.cert.Certificate;
+import java.util.List;
+import java.util.function.BiConsumer;
+import java.util.function.Supplier;
+
+/**
+ * 使用keystore中已有的证书补全私钥条目的证书链
+ */
+public class CompleteChainAction extends AnAction {
+
+    private final TableView<Item> tableView;
+
+    private final ChainIndex chainIndex;
+
+    private final Project project;
+
+    private final Supplier<KeyStore> keyStoreSupplier;
+
+    /**
+     * 补全后的回调,参数为条目名称以及重新保存私钥使用的密码,用于记录私钥密码并刷新对应的行
+     */
+    private final BiConsumer<String, char[]> completed;
+
+    public CompleteChainAction(TableView<Item> tableView, ChainIndex chainIndex, Project project, Supplier<KeyStore> keyStoreSupplier, BiConsumer<String, char[]> completed) {
+        super(() -> "补全证书链", Icons.CERTIFICATE_CHAIN);
+        this.tableView = tableView;
+        this.chainIndex = chainIndex;
+        this.project = project;
+        this.keyStoreSupplier = keyStoreSupplier;
+        this.completed = completed;
+    }
+
+    @Override
+    public void actionPerformed(@NotNull AnActionEvent e) {
+        KeyStore keyStore = keyStoreSupplier.get();
+        if (keyStore == null) {
+            Messages.showErrorDialog("请先导入jks证书或者创建空证书", "提示");
+            return;
+        }
+        List<Item> items = this.tableView.getSelectedObjects();
+        if (items.size() != 1) {
+            Messages.showErrorDialog("请选择一个私钥条目", "提示");
+            return;
+        }
+        Item item = items.get(0);
+        try {
+            if (!keyStore.isKeyEntry(item.getName())) {
+                Messages.showErrorDialog("只有私钥条目可以补全证书链", "提示");
+                return;
+            }
+            List<Item> chain = chainIndex.chain(item);
+            Certificate[] existChain = keyStore.getCertificateChain(item.getName());
+            if (chain.size() <= (existChain == null ? 1 : existChain.length)) {
+                NotifyUtils.notify(chainIndex.isComplete(item) ? "证书链已经完整" : "keystore中没有找到更多的颁发者证书", project);
+                return;
+            }
+            String password = JOptionPane.showInputDialog("请输入私钥密码,没有密码点确认或者取消即可");
+            char[] passwordArray = StringUtils.isBlank(password) ? new char[0] : password.toCharArray();
+            Key key = keyStore.getKey(item.getName(), passwordArray);
+            Certificate[] certificates = new Certificate[chain.size()];
+            for (int i = 0; i < certificates.length; i++) {
+                certificates[i] = chain.get(i).getCertificate();
+            }
+            keyStore.setKeyEntry(item.getName(), key, passwordArray, certificates);
+            completed.accept(item.getName(), passwordArray);
+            NotifyUtils.notify(String.format("补全证书链成功,证书链长度: %d%s", certificates.length, chainIndex.isComplete(item) ? "" : ",缺少根证书"), project);
+        } catch (Throwable err) {
+            NotifyUtils.notify("补全证书链失败,错误信息: " + err.getMessage(), project);
+        }
+    }
+}
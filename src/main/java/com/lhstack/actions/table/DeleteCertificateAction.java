@@ -4,14 +4,15 @@ import com.intellij.openapi.actionSystem.AnAction;
 import com.intellij.openapi.actionSystem.AnActionEvent;
 import com.intellij.openapi.project.Project;
 import com.intellij.ui.table.TableView;
-import com.intellij.util.ui.ListTableModel;
 import com.lhstack.Icons;
 import com.lhstack.Item;
+import com.lhstack.ItemTableModel;
 import com.lhstack.utils.NotifyUtils;
 import org.jetbrains.annotations.NotNull;
 
 import javax.swing.*;
 import java.security.KeyStore;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.function.Supplier;
 
@@ -19,18 +20,16 @@ public class DeleteCertificateAction extends AnAction {
 
 
     private final TableView<Item> tableView;
-    private final ListTableModel<Item> models;
+    private final ItemTableModel models;
     private final Project project;
     private final Supplier<KeyStore> keyStoreSupplier;
-    private final Runnable refreshAction;
 
-    public DeleteCertificateAction(TableView<Item> tableView, ListTableModel<Item> models, Project project, Supplier<KeyStore> keyStoreSupplier, Runnable refreshAction) {
+    public DeleteCertificateAction(TableView<Item> tableView, ItemTableModel models, Project project, Supplier<KeyStore> keyStoreSupplier) {
         super(() -> "删除证书", Icons.DELETE);
         this.tableView = tableView;
         this.models = models;
         this.project = project;
         this.keyStoreSupplier = keyStoreSupplier;
-        this.refreshAction = refreshAction;
     }
 
     @Override
@@ -40,10 +39,12 @@ public class DeleteCertificateAction extends AnAction {
             try {
                 KeyStore keyStore = keyStoreSupplier.get();
                 List<Item> items = this.tableView.getSelectedObjects();
+                List<String> names = new ArrayList<>(items.size());
                 for (Item item : items) {
                     keyStore.deleteEntry(item.getName());
+                    names.add(item.getName());
                 }
-                refreshAction.run();
+                models.removeAll(names);
                 NotifyUtils.notify("删除已选证书成功", project);
             } catch (Throwable err) {
                 NotifyUtils.notify("删除证书失败: " + err.getMessage(), project);
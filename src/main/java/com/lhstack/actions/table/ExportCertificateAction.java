@@ -13,11 +13,14 @@ import com.lhstack.utils.CertificateUtils;
 import com.lhstack.utils.NotifyUtils;
 import org.apache.commons.collections.CollectionUtils;
 import org.apache.commons.io.FileUtils;
+import org.apache.commons.lang3.StringUtils;
 import org.jetbrains.annotations.NotNull;
 
+import javax.swing.*;
 import java.io.File;
 import java.security.KeyStore;
 import java.util.List;
+import java.util.Locale;
 import java.util.Optional;
 import java.util.function.Supplier;
 
@@ -56,14 +59,36 @@ public class ExportCertificateAction extends AnAction {
                 //如果没有文件,则创建
                 try {
                     String extension = Optional.ofNullable(virtualFile.getExtension()).orElse("");
-                    FileUtils.writeByteArrayToFile(new File(virtualFile.getPresentableUrl()), CertificateUtils.export(keyStoreSupplier, passwordSupplier, items, extension));
+                    FileUtils.writeByteArrayToFile(new File(virtualFile.getPresentableUrl()), CertificateUtils.export(keyStoreSupplier.get(), items, extension, exportPassword(extension)));
                     NotifyUtils.notify("导出已选证书成功", project);
                 } catch (Throwable err) {
                     FileUtil.delete(new File(virtualFile.getPresentableUrl()));
                     NotifyUtils.notify("证书导出错误: " + err.getMessage(), project);
                 }
-            }, "pem", "jks", "crt", "cer");
+            }, "pem", "jks", "p12", "crt", "cer");
 
         }
     }
+
+    /**
+     * 导出需要的密码,pkcs8为私钥密码,jks和p12为导出文件的密码
+     *
+     * @param extension 导出格式
+     * @return 密码,不需要或者未输入时为null
+     */
+    private static char[] exportPassword(String extension) {
+        String password;
+        switch (extension.toLowerCase(Locale.ROOT)) {
+            case "pem":
+            case "crt":
+            case "cer":
+                return null;
+            case "pkcs8":
+                password = JOptionPane.showInputDialog("请输入私钥密码");
+                break;
+            default:
+                password = JOptionPane.showInputDialog("请输入需要导出的文件的密码,如果没有,则点击取消或者不输入直接确认", "changeit");
+        }
+        return StringUtils.isNotBlank(password) ? password.toCharArray() : null;
+    }
 }
@@ -15,6 +15,7 @@ import com.lhstack.Item;
 import org.jetbrains.annotations.NotNull;
 
 import javax.swing.*;
+import java.security.cert.Certificate;
 import java.util.List;
 
 public class ShowDetailAction extends AnAction {
@@ -56,7 +57,10 @@ public class ShowDetailAction extends AnAction {
                 sb.append(String.format("证书名称: %s\r\n", item.getName()));
                 sb.append(String.format("证书类型: %s\r\n", item.getType()));
                 sb.append(String.format("证书算法: %s\r\n", item.getAlgorithm()));
-                sb.append(String.format("证书内容: \r\n%s\r\n\r\n", item.getCertificate().toString()));
+                sb.append(String.format("SHA-256指纹: %s\r\n", item.getFingerprintHex()));
+                //证书只在查看时从keystore中读取
+                Certificate certificate = item.getCertificate();
+                sb.append(String.format("证书内容: \r\n%s\r\n\r\n", certificate == null ? "" : certificate.toString()));
             }
             languageTextField.setText(sb.toString());
             languageTextField.setEnabled(false);
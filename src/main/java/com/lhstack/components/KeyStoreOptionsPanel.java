@@ -0,0 +1,163 @@
+package com.lhstack.components;
+
+import com.intellij.openapi.progress.ProgressManager;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.ui.Messages;
+import com.lhstack.store.KeyStoreOptions;
+import com.lhstack.store.OpenCost;
+
+import javax.swing.*;
+import java.awt.*;
+import java.io.ByteArrayOutputStream;
+import java.security.KeyStore;
+
+/**
+ * keystore保存选项,可以用当前的条目估算按所选参数保存后的打开耗时
+ */
+public class KeyStoreOptionsPanel extends JPanel {
+
+    private static final int ESTIMATE_ROUNDS = 3;
+
+    private final JComboBox<KeyStoreOptions.Type> typeComboBox = new JComboBox<>(KeyStoreOptions.Type.values());
+
+    private final JComboBox<KeyStoreOptions.Protection> keyProtectionComboBox = new JComboBox<>(new KeyStoreOptions.Protection[]{KeyStoreOptions.Protection.AES_256, KeyStoreOptions.Protection.DES_EDE});
+
+    private final JSpinner keyIterationsSpinner = new JSpinner(new SpinnerNumberModel(KeyStoreOptions.DEFAULT_ITERATIONS, 1, 10_000_000, 1000));
+
+    private final JComboBox<KeyStoreOptions.Protection> certificateProtectionComboBox = new JComboBox<>(KeyStoreOptions.Protection.values());
+
+    private final JComboBox<KeyStoreOptions.Mac> macComboBox = new JComboBox<>(KeyStoreOptions.Mac.values());
+
+    private final JSpinner macIterationsSpinner = new JSpinner(new SpinnerNumberModel(KeyStoreOptions.DEFAULT_ITERATIONS, 1, 10_000_000, 1000));
+
+    private final JLabel costLabel = new JLabel(" ");
+
+    private final Project project;
+
+    private final KeyStore sample;
+
+    private final char[] sampleKeyPassword;
+
+    /**
+     * @param options           初始选项
+     * @param project           project
+     * @param sample            用于估算打开耗时的keystore,为null时不能估算
+     * @param sampleKeyPassword sample中私钥的密码
+     */
+    public KeyStoreOptionsPanel(KeyStoreOptions options, Project project, KeyStore sample, char[] sampleKeyPassword) {
+        super(new GridBagLayout());
+        this.project = project;
+        this.sample = sample;
+        this.sampleKeyPassword = sampleKeyPassword;
+        typeComboBox.setSelectedItem(options.getType());
+        keyProtectionComboBox.setSelectedItem(options.getKeyProtection());
+        keyIterationsSpinner.setValue(options.getKeyIterations());
+        certificateProtectionComboBox.setSelectedItem(options.getCertificateProtection());
+        macComboBox.setSelectedItem(options.getMac());
+        macIterationsSpinner.setValue(options.getMacIterations());
+        addRow(0, "类型", typeComboBox);
+        addRow(1, "私钥加密", keyProtectionComboBox);
+        addRow(2, "私钥/证书迭代次数", keyIterationsSpinner);
+        addRow(3, "证书加密", certificateProtectionComboBox);
+        addRow(4, "MAC算法", macComboBox);
+        addRow(5, "MAC/存储迭代次数", macIterationsSpinner);
+        JButton estimateButton = new JButton("估算打开耗时");
+        estimateButton.setEnabled(sample != null);
+        estimateButton.addActionListener(e -> estimate());
+        addRow(6, "", estimateButton);
+        GridBagConstraints constraints = new GridBagConstraints();
+        constraints.gridy = 7;
+        constraints.gridwidth = 2;
+        constraints.anchor = GridBagConstraints.WEST;
+        add(costLabel, constraints);
+        typeComboBox.addActionListener(e -> updateEnabled());
+        updateEnabled();
+    }
+
+    /**
+     * 显示保存选项
+     *
+     * @param options           初始选项
+     * @param project           project
+     * @param sample            用于估算打开耗时的keystore,为null时不能估算
+     * @param sampleKeyPassword sample中私钥的密码
+     * @return 选择的选项,取消时为null
+     */
+    public static KeyStoreOptions show(KeyStoreOptions options, Project project, KeyStore sample, char[] sampleKeyPassword) {
+        KeyStoreOptionsPanel panel = new KeyStoreOptionsPanel(options, project, sample, sampleKeyPassword);
+        while (JOptionPane.showConfirmDialog(null, panel, "保存选项", JOptionPane.OK_CANCEL_OPTION, JOptionPane.PLAIN_MESSAGE) == JOptionPane.OK_OPTION) {
+            KeyStoreOptions selected = panel.getOptions();
+            try {
+                selected.validate();
+                return selected;
+            } catch (IllegalArgumentException e) {
+                Messages.showErrorDialog(e.getMessage(), "保存选项错误");
+            }
+        }
+        return null;
+    }
+
+    public KeyStoreOptions getOptions() {
+        return new KeyStoreOptions()
+                .setType((KeyStoreOptions.Type) typeComboBox.getSelectedItem())
+                .setKeyProtection((KeyStoreOptions.Protection) keyProtectionComboBox.getSelectedItem())
+                .setKeyIterations((Integer) keyIterationsSpinner.getValue())
+                .setCertificateProtection((KeyStoreOptions.Protection) certificateProtectionComboBox.getSelectedItem())
+                .setMac((KeyStoreOptions.Mac) macComboBox.getSelectedItem())
+                .setMacIterations((Integer) macIterationsSpinner.getValue());
+    }
+
+    private void addRow(int row, String label, JComponent component) {
+        GridBagConstraints constraints = new GridBagConstraints();
+        constraints.gridy = row;
+        constraints.anchor = GridBagConstraints.WEST;
+        constraints.insets = new Insets(2, 0, 2, 8);
+        add(new JLabel(label), constraints);
+        constraints.gridx = 1;
+        constraints.fill = GridBagConstraints.HORIZONTAL;
+        constraints.weightx = 1;
+        add(component, constraints);
+    }
+
+    /**
+     * JKS没有可选参数,BCFKS只有存储的迭代次数
+     */
+    private void updateEnabled() {
+        KeyStoreOptions.Type type = (KeyStoreOptions.Type) typeComboBox.getSelectedItem();
+        boolean pkcs12 = type == KeyStoreOptions.Type.PKCS12;
+        keyProtectionComboBox.setEnabled(pkcs12);
+        keyIterationsSpinner.setEnabled(pkcs12);
+        certificateProtectionComboBox.setEnabled(pkcs12);
+        macComboBox.setEnabled(pkcs12);
+        macIterationsSpinner.setEnabled(type != KeyStoreOptions.Type.JKS);
+        if (type == KeyStoreOptions.Type.BCFKS) {
+            macComboBox.setSelectedItem(KeyStoreOptions.Mac.HMAC_SHA512);
+        }
+    }
+
+    /**
+     * 按所选参数在内存中保存一次再多次读取,测量读取以及解密全部私钥的耗时
+     */
+    private void estimate() {
+        KeyStoreOptions options = getOptions();
+        try {
+            options.validate();
+            OpenCost cost = ProgressManager.getInstance().runProcessWithProgressSynchronously(() -> {
+                ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+                options.write(sample, sampleKeyPassword, sampleKeyPassword, sampleKeyPassword, outputStream);
+                return OpenCost.measure(outputStream.toByteArray(), options.getType().getName(), sampleKeyPassword, sampleKeyPassword, ESTIMATE_ROUNDS);
+            }, "估算打开耗时", false, project);
+            if (cost.getKeyEntries() == 0) {
+                costLabel.setText(String.format("<html>%s<br/>没有私钥条目,无法估算解密私钥的耗时</html>", cost));
+            } else {
+                costLabel.setText(String.format("<html>%s<br/>100个私钥约 %.0fms, 1000个私钥约 %.0fms</html>", cost, cost.estimateMillis(100), cost.estimateMillis(1000)));
+            }
+        } catch (Throwable e) {
+            costLabel.setText("估算失败: " + e.getMessage());
+        }
+        Window window = SwingUtilities.getWindowAncestor(this);
+        if (window != null) {
+            window.pack();
+        }
+    }
+}
@@ -2,6 +2,7 @@ package com.lhstack.constant;
 
 import com.intellij.openapi.util.Key;
 import com.intellij.ui.jcef.JBCefBrowser;
+import com.lhstack.state.ProjectState;
 
 public interface GlobalConst {
 
@@ -10,4 +11,9 @@ public interface GlobalConst {
      */
     Key<JBCefBrowser> ACME_BROWSER = Key.create("ACME_BROWSER");
 
+    /**
+     * 缓存项目状态,同一个项目共用一个加密存储
+     */
+    Key<ProjectState> PROJECT_STATE = Key.create("PROJECT_STATE");
+
 }
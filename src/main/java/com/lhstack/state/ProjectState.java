@@ -1,26 +1,49 @@
 package com.lhstack.state;
 
+import com.intellij.credentialStore.CredentialAttributes;
+import com.intellij.credentialStore.CredentialAttributesKt;
+import com.intellij.ide.passwordSafe.PasswordSafe;
 import com.intellij.ide.util.PropertiesComponent;
+import com.intellij.openapi.application.PathManager;
 import com.intellij.openapi.components.PersistentStateComponent;
 import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.Disposer;
+import com.lhstack.constant.GlobalConst;
+import com.lhstack.store.SecretStore;
+import com.lhstack.utils.CryptoContext;
+import com.lhstack.utils.NotifyUtils;
+import com.lhstack.utils.ProjectUtils;
 import org.jetbrains.annotations.NotNull;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Base64;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.stream.Stream;
+
 public final class ProjectState implements PersistentStateComponent<ProjectState.State> {
 
     private ProjectState.State state;
 
     public ProjectState(Project project) {
-        state = new State(PropertiesComponent.getInstance(project));
+        Path root = Path.of(PathManager.getConfigPath(), "jtools-certificate", "profiles");
+        SecretStore store = new SecretStore(root.resolve(project.getLocationHash()), () -> secretKey(root))
+                .setWriteListener((profile, name, error) -> NotifyUtils.notify(String.format("保存%s/%s失败: %s", profile, name, error.getMessage()), project));
+        Disposer.register(project, store::close);
+        state = new State(project, PropertiesComponent.getInstance(project), store);
     }
 
     /**
-     * 项目
+     * 项目,同一个项目共用一个存储
      *
      * @param project
      * @return
      */
     public static ProjectState getInstance(Project project) {
-        return new ProjectState(project);
+        return ProjectUtils.getOrCreate(project, GlobalConst.PROJECT_STATE, () -> new ProjectState(project));
     }
 
     @Override
@@ -33,58 +56,183 @@ public final class ProjectState implements PersistentStateComponent<ProjectState
         this.state = state;
     }
 
+    /**
+     * 加密存储使用的密钥,第一次使用时生成并保存到IDE的密码存储中,所有项目共用
+     * 密码存储中没有密钥但是已经有加密的文件时不重新生成,否则新的密钥会覆盖掉仍然可以恢复的旧密钥
+     *
+     * @param root 所有项目的存储目录
+     */
+    private static synchronized byte[] secretKey(Path root) {
+        CredentialAttributes attributes = new CredentialAttributes(CredentialAttributesKt.generateServiceName("JTools.Certificate.Manager", "secretStoreKey"));
+        PasswordSafe passwordSafe = PasswordSafe.getInstance();
+        String value = passwordSafe.getPassword(attributes);
+        if (value != null) {
+            return Base64.getDecoder().decode(value);
+        }
+        if (Files.isDirectory(root)) {
+            try (Stream<Path> files = Files.walk(root)) {
+                if (files.anyMatch(Files::isRegularFile)) {
+                    throw new IllegalStateException("IDE的密码存储中没有找到证书存储的密钥,已有的文件保留在" + root + ",请检查密码存储的设置");
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        byte[] key = new byte[32];
+        CryptoContext.secureRandom().nextBytes(key);
+        passwordSafe.setPassword(attributes, Base64.getEncoder().encodeToString(key));
+        return key;
+    }
+
+    /**
+     * CA,证书,私钥以及配置按配置名称保存在加密存储中,PropertiesComponent中只保存当前的配置名称
+     * 每个条目在第一次读取时才解密
+     */
     public static class State {
 
         private static final String KEY_PREFIX = "JTools.Certificate.Manager.";
 
+        public static final String DEFAULT_PROFILE = "default";
+
+        private final Project project;
+
         private final PropertiesComponent propertiesComponent;
 
-        public State(PropertiesComponent propertiesComponent) {
+        private final SecretStore store;
+
+        public State(Project project, PropertiesComponent propertiesComponent, SecretStore store) {
+            this.project = project;
             this.propertiesComponent = propertiesComponent;
+            this.store = store;
+        }
+
+        /**
+         * @return 当前的配置名称
+         */
+        public String getProfile() {
+            return propertiesComponent.getValue(KEY_PREFIX + "profile", DEFAULT_PROFILE);
+        }
+
+        public State setProfile(String profile) {
+            propertiesComponent.setValue(KEY_PREFIX + "profile", profile, DEFAULT_PROFILE);
+            return this;
+        }
+
+        /**
+         * @return 所有配置名称,包括默认配置以及当前配置
+         */
+        public List<String> getProfiles() {
+            TreeSet<String> profiles = new TreeSet<>(store.profiles());
+            profiles.add(DEFAULT_PROFILE);
+            profiles.add(getProfile());
+            return List.copyOf(profiles);
+        }
+
+        /**
+         * 删除配置,删除的是当前配置时切换到默认配置
+         *
+         * @param profile 配置名称
+         * @throws Exception 删除失败
+         */
+        public void deleteProfile(String profile) throws Exception {
+            store.deleteProfile(profile);
+            if (profile.equals(getProfile())) {
+                setProfile(DEFAULT_PROFILE);
+            }
         }
 
         public String getCaPem() {
-            return propertiesComponent.getValue(KEY_PREFIX + "caPem");
+            return get("ca", "caPem");
         }
 
         public State setCaPem(String caPem) {
-            propertiesComponent.setValue(KEY_PREFIX + "caPem", caPem);
+            store.put(getProfile(), "ca", caPem);
             return this;
         }
 
         public String getCaKeyPem() {
-            return propertiesComponent.getValue(KEY_PREFIX + "caKeyPem");
+            return get("ca-key", "caKeyPem");
         }
 
         public State setCaKeyPem(String caKeyPem) {
-            this.propertiesComponent.setValue(KEY_PREFIX + "caKeyPem", caKeyPem);
+            store.put(getProfile(), "ca-key", caKeyPem);
             return this;
         }
 
         public String getCertificatePem() {
-            return this.propertiesComponent.getValue(KEY_PREFIX + "certificatePem");
+            return get("certificate", "certificatePem");
         }
 
         public State setCertificatePem(String certificatePem) {
-            this.propertiesComponent.setValue(KEY_PREFIX + "certificatePem", certificatePem);
+            store.put(getProfile(), "certificate", certificatePem);
             return this;
         }
 
         public String getCertificateKeyPem() {
-            return this.propertiesComponent.getValue(KEY_PREFIX + "certificateKeyPem");
+            return get("certificate-key", "certificateKeyPem");
         }
 
         public State setCertificateKeyPem(String certificateKeyPem) {
-            this.propertiesComponent.setValue(KEY_PREFIX + "certificateKeyPem", certificateKeyPem);
+            store.put(getProfile(), "certificate-key", certificateKeyPem);
             return this;
         }
 
         public String getConfigYaml() {
-            return this.propertiesComponent.getValue(KEY_PREFIX + "configYaml");
+            return get("config", "configYaml");
         }
 
         public void setConfigYaml(String configYaml) {
-            this.propertiesComponent.setValue(KEY_PREFIX + "configYaml", configYaml);
+            setConfigYaml(getProfile(), configYaml);
+        }
+
+        /**
+         * 保存指定配置的配置文件,后台保存时切换了配置也写入原来的配置
+         *
+         * @param profile    配置名称
+         * @param configYaml 配置文件
+         */
+        public void setConfigYaml(String profile, String configYaml) {
+            store.put(profile, "config", configYaml);
+        }
+
+        /**
+         * 旧版本保存在PropertiesComponent中的内容在第一次读取时迁移到默认配置
+         * 迁移时同步写入并重新读取文件确认内容一致后才删除旧的属性,迁移失败时保留旧的属性,下一次读取时重新迁移
+         *
+         * @param name      存储中的条目名称
+         * @param legacyKey 旧版本的属性名称
+         * @return 内容,读取失败时为null
+         */
+        private String get(String name, String legacyKey) {
+            String profile = getProfile();
+            try {
+                if (DEFAULT_PROFILE.equals(profile)) {
+                    String legacy = propertiesComponent.getValue(KEY_PREFIX + legacyKey);
+                    if (legacy != null) {
+                        migrate(profile, name, legacyKey, legacy);
+                        return legacy;
+                    }
+                }
+                return store.get(profile, name);
+            } catch (Throwable e) {
+                NotifyUtils.notify(String.format("读取%s/%s失败: %s", profile, name, e.getMessage()), project);
+                return null;
+            }
+        }
+
+        private void migrate(String profile, String name, String legacyKey, String legacy) {
+            try {
+                store.put(profile, name, legacy);
+                store.flush();
+                //空的内容不写入文件
+                String written = store.read(profile, name);
+                if (!legacy.equals(written == null ? "" : written)) {
+                    throw new IllegalStateException("写入的内容与原内容不一致");
+                }
+                propertiesComponent.unsetValue(KEY_PREFIX + legacyKey);
+            } catch (Throwable e) {
+                NotifyUtils.notify(String.format("迁移%s/%s失败,保留原来的配置: %s", profile, name, e.getMessage()), project);
+            }
         }
     }
 }